@@ -38,8 +38,8 @@ import com.b3dgs.lionengine.LionEngineException;
  */
 public final class DocumentFactory
 {
-    /** Load factory. */
-    private static DocumentBuilder documentFactory;
+    /** Load factory, by thread. */
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_FACTORY = new ThreadLocal<DocumentBuilder>();
     /** Save factory. */
     private static TransformerFactory transformerFactory;
 
@@ -87,13 +87,14 @@ public final class DocumentFactory
     }
 
     /**
-     * Get the document factory.
+     * Get the document factory of the current thread, as a document builder cannot be shared between threads.
      * 
      * @return The document factory.
      * @throws LionEngineException If unable to create builder.
      */
-    private static synchronized DocumentBuilder getDocumentFactory()
+    private static DocumentBuilder getDocumentFactory()
     {
+        DocumentBuilder documentFactory = DOCUMENT_FACTORY.get();
         if (documentFactory == null)
         {
             final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
@@ -108,6 +109,7 @@ public final class DocumentFactory
             {
                 throw new LionEngineException(exception);
             }
+            DOCUMENT_FACTORY.set(documentFactory);
         }
         return documentFactory;
     }
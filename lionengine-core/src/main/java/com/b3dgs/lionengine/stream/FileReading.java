@@ -119,6 +119,14 @@ public interface FileReading extends Closeable
      */
     String readString() throws IOException;
 
+    /**
+     * Read a sequence of bytes, until the array is full.
+     * 
+     * @param data The bytes read.
+     * @throws IOException If read failed, or end of file reached before array is full.
+     */
+    void readBytes(byte[] data) throws IOException;
+
     /*
      * Closeable
      */
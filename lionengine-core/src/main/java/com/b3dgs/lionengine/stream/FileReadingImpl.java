@@ -104,6 +104,12 @@ final class FileReadingImpl implements FileReading
         return in.readUTF();
     }
 
+    @Override
+    public void readBytes(byte[] data) throws IOException
+    {
+        in.readFully(data);
+    }
+
     @Override
     public void close() throws IOException
     {
@@ -119,6 +119,14 @@ public interface FileWriting extends Closeable
      */
     void writeString(String s) throws IOException;
 
+    /**
+     * Write a sequence of bytes, as is (length is not written).
+     * 
+     * @param data The bytes to write.
+     * @throws IOException If write failed.
+     */
+    void writeBytes(byte[] data) throws IOException;
+
     /*
      * Closeable
      */
@@ -105,6 +105,12 @@ final class FileWritingImpl implements FileWriting
         out.writeUTF(s);
     }
 
+    @Override
+    public void writeBytes(byte[] data) throws IOException
+    {
+        out.write(data);
+    }
+
     @Override
     public void close() throws IOException
     {
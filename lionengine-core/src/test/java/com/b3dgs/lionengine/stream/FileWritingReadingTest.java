@@ -73,6 +73,10 @@ public class FileWritingReadingTest
             writing.writeLong(XmlNodeMock.LONG_VALUE);
             writing.writeDouble(XmlNodeMock.DOUBLE_VALUE);
             writing.writeString(XmlNodeMock.STRING_VALUE);
+            writing.writeBytes(new byte[]
+            {
+                1, 2, 3
+            });
         }
         finally
         {
@@ -101,6 +105,12 @@ public class FileWritingReadingTest
             Assert.assertEquals(XmlNodeMock.LONG_VALUE, reading.readLong());
             Assert.assertEquals(XmlNodeMock.DOUBLE_VALUE, reading.readDouble(), XmlNodeMock.DOUBLE_PRECISION);
             Assert.assertEquals(XmlNodeMock.STRING_VALUE, reading.readString());
+            final byte[] data = new byte[3];
+            reading.readBytes(data);
+            Assert.assertArrayEquals(new byte[]
+            {
+                1, 2, 3
+            }, data);
         }
         finally
         {
@@ -150,6 +150,12 @@ abstract class World<N extends NetworkedWorld> extends WorldGame implements Netw
         networkedWorld.addMessages(messages);
     }
 
+    @Override
+    public void setCoalescing(byte type, boolean enabled)
+    {
+        networkedWorld.setCoalescing(type, enabled);
+    }
+
     @Override
     public void sendMessages()
     {
@@ -168,6 +174,18 @@ abstract class World<N extends NetworkedWorld> extends WorldGame implements Netw
         return networkedWorld.getBandwidth();
     }
 
+    @Override
+    public int getTickBytes()
+    {
+        return networkedWorld.getTickBytes();
+    }
+
+    @Override
+    public int getTickPackets()
+    {
+        return networkedWorld.getTickPackets();
+    }
+
     /*
      * ClientConnectedListener
      */
@@ -123,6 +123,24 @@ class WorldClient extends World<NetworkedWorldModelClient> implements NetworkedW
         return networkedWorld.getId();
     }
 
+    @Override
+    public void setView(int x, int y, int width, int height)
+    {
+        networkedWorld.setView(x, y, width, height);
+    }
+
+    @Override
+    public void setInterpolation(int delay, int extrapolation, int rate)
+    {
+        networkedWorld.setInterpolation(delay, extrapolation, rate);
+    }
+
+    @Override
+    public void interpolate()
+    {
+        networkedWorld.interpolate();
+    }
+
     /*
      * ClientConnectedListener
      */
@@ -57,4 +57,22 @@ class WorldServer extends World<NetworkedWorldModelServer> implements NetworkedW
     {
         networkedWorld.startServer(name, port, messageOfTheDay);
     }
+
+    @Override
+    public void setSnapshotReplication(boolean enabled)
+    {
+        networkedWorld.setSnapshotReplication(enabled);
+    }
+
+    @Override
+    public void setInterestManagement(int cellSize, int margin, int maxView)
+    {
+        networkedWorld.setInterestManagement(cellSize, margin, maxView);
+    }
+
+    @Override
+    public void setClientView(byte clientId, int x, int y, int width, int height)
+    {
+        networkedWorld.setClientView(clientId, x, y, width, height);
+    }
 }
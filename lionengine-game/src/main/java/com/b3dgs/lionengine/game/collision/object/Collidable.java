@@ -50,7 +50,8 @@ public interface Collidable extends Feature, Updatable, Renderable, CollidableLi
     void addIgnore(Collidable collidable);
 
     /**
-     * Check if the collidable entered in collision with another one.
+     * Check if the collidable entered in collision with another one. Only checked if its mask shares a bit with the
+     * other group.
      * 
      * @param collidable The collidable reference.
      * @return The collision found if collide, <code>null</code> if none.
@@ -71,6 +72,14 @@ public interface Collidable extends Feature, Updatable, Renderable, CollidableLi
      */
     void setEnabled(boolean enabled);
 
+    /**
+     * Set the collision layers of the collidable (see {@link CollisionLayerConfig}).
+     * 
+     * @param group The group bits, layers of the collidable.
+     * @param mask The mask bits, layers checked on {@link #collide(Collidable)}.
+     */
+    void setLayer(int group, int mask);
+
     /**
      * Set the collision visibility.
      * 
@@ -91,4 +100,26 @@ public interface Collidable extends Feature, Updatable, Renderable, CollidableLi
      * @return The collisions bounds.
      */
     Iterable<Rectangle> getCollisionBounds();
+
+    /**
+     * Get the group bits, layers of the collidable.
+     * 
+     * @return The group bits.
+     */
+    int getGroup();
+
+    /**
+     * Get the mask bits, layers checked on {@link #collide(Collidable)}.
+     * 
+     * @return The mask bits.
+     */
+    int getMask();
+
+    /**
+     * Get the area covered by the collisions bounds while moving from their last update location to the current
+     * location. Any collision with another collidable is inside this area.
+     * 
+     * @return The covered area, <code>null</code> if no collision bounds.
+     */
+    Rectangle getSweepBounds();
 }
@@ -28,6 +28,7 @@ import com.b3dgs.lionengine.Origin;
 import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.FeatureProvider;
+import com.b3dgs.lionengine.game.feature.Recyclable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
 import com.b3dgs.lionengine.game.feature.mirrorable.Mirrorable;
@@ -38,9 +39,10 @@ import com.b3dgs.lionengine.graphic.Graphic;
 import com.b3dgs.lionengine.graphic.Viewer;
 
 /**
- * Box ray cast collidable model implementation.
+ * Box ray cast collidable model implementation. Recycling restores the configured collisions and layer, and clears
+ * the ignored collidables and the computed bounds.
  */
-public class CollidableModel extends FeatureModel implements Collidable
+public class CollidableModel extends FeatureModel implements Collidable, Recyclable
 {
     /**
      * Check if current rectangle collides other collidable rectangles.
@@ -65,16 +67,30 @@ public class CollidableModel extends FeatureModel implements Collidable
     private final Collection<CollidableListener> listeners = new ArrayList<CollidableListener>();
     /** The collisions used. */
     private final Collection<Collision> collisions = new ArrayList<Collision>();
+    /** The configured collisions. */
+    private final Collection<Collision> configured = new ArrayList<Collision>();
     /** The ignored collidables. */
     private final Collection<Collidable> ignored = new HashSet<Collidable>();
     /** Temp bounding box from polygon. */
     private final Map<Collision, Rectangle> boxs = new HashMap<Collision, Rectangle>();
+    /** Swept bounding box, moved during collision check. */
+    private final Rectangle sweep = Geom.createRectangle();
+    /** Area covered by the bounding boxes. */
+    private final Rectangle sweepBounds = Geom.createRectangle();
     /** Transformable owning this model. */
     private Transformable transformable;
     /** The viewer reference. */
     private Viewer viewer;
     /** Origin used. */
     private Origin origin = Origin.TOP_LEFT;
+    /** Configured group bits. */
+    private final int configuredGroup;
+    /** Configured mask bits. */
+    private final int configuredMask;
+    /** Group bits. */
+    private int group = CollisionLayerConfig.DEFAULT_GROUP;
+    /** Mask bits. */
+    private int mask = CollisionLayerConfig.DEFAULT_MASK;
     /** Enabled flag. */
     private boolean enabled = true;
     /** Show collision flag. */
@@ -99,7 +115,8 @@ public class CollidableModel extends FeatureModel implements Collidable
      * {@link #addListener(CollidableListener)} on it.
      * </p>
      * 
-     * @param setup The setup reference, must provide a valid {@link CollisionConfig}.
+     * @param setup The setup reference, must provide a valid {@link CollisionConfig}, and may provide a
+     *            {@link CollisionLayerConfig}.
      */
     public CollidableModel(Setup setup)
     {
@@ -107,8 +124,17 @@ public class CollidableModel extends FeatureModel implements Collidable
 
         for (final Collision collision : CollisionConfig.imports(setup).getCollisions())
         {
-            collisions.add(collision);
+            configured.add(collision);
         }
+        collisions.addAll(configured);
+        if (setup.getRoot().hasChild(CollisionLayerConfig.NODE_LAYER))
+        {
+            final CollisionLayerConfig layer = CollisionLayerConfig.imports(setup);
+            group = layer.getGroup();
+            mask = layer.getMask();
+        }
+        configuredGroup = group;
+        configuredMask = mask;
     }
 
     /**
@@ -129,13 +155,15 @@ public class CollidableModel extends FeatureModel implements Collidable
         final double sx = dh / norm;
         final double sy = dv / norm;
 
+        // Sweep a copy, so each check starts from the last update location whatever the previous checks
+        sweep.set(sh, sv, rectangle.getWidthReal(), rectangle.getHeightReal());
         for (int count = 0; count < norm; count++)
         {
-            if (checkCollide(rectangle, other))
+            if (checkCollide(sweep, other))
             {
                 return collision;
             }
-            rectangle.translate(sx, sy);
+            sweep.translate(sx, sy);
         }
         return null;
     }
@@ -242,7 +270,7 @@ public class CollidableModel extends FeatureModel implements Collidable
     @Override
     public Collision collide(Collidable other)
     {
-        if (enabled && !ignored.contains(other))
+        if (enabled && (mask & other.getGroup()) != 0 && !ignored.contains(other))
         {
             for (final Map.Entry<Collision, Rectangle> current : boxs.entrySet())
             {
@@ -286,6 +314,13 @@ public class CollidableModel extends FeatureModel implements Collidable
         this.enabled = enabled;
     }
 
+    @Override
+    public void setLayer(int group, int mask)
+    {
+        this.group = group;
+        this.mask = mask;
+    }
+
     @Override
     public void setCollisionVisibility(boolean visible)
     {
@@ -304,6 +339,47 @@ public class CollidableModel extends FeatureModel implements Collidable
         return boxs.values();
     }
 
+    @Override
+    public int getGroup()
+    {
+        return group;
+    }
+
+    @Override
+    public int getMask()
+    {
+        return mask;
+    }
+
+    @Override
+    public Rectangle getSweepBounds()
+    {
+        if (boxs.isEmpty())
+        {
+            return null;
+        }
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (final Map.Entry<Collision, Rectangle> current : boxs.entrySet())
+        {
+            final Collision collision = current.getKey();
+            final Rectangle rectangle = current.getValue();
+            final double width = rectangle.getWidthReal();
+            final double height = rectangle.getHeightReal();
+            final double x = origin.getX(transformable.getX() + collision.getOffsetX(), width);
+            final double y = origin.getY(transformable.getY() + collision.getOffsetY(), height);
+
+            minX = Math.min(minX, Math.min(rectangle.getX(), x));
+            minY = Math.min(minY, Math.min(rectangle.getY(), y));
+            maxX = Math.max(maxX, Math.max(rectangle.getX(), x) + width);
+            maxY = Math.max(maxY, Math.max(rectangle.getY(), y) + height);
+        }
+        sweepBounds.set(minX, minY, maxX - minX, maxY - minY);
+        return sweepBounds;
+    }
+
     @Override
     public void notifyCollided(Collidable collidable)
     {
@@ -312,4 +388,22 @@ public class CollidableModel extends FeatureModel implements Collidable
             listener.notifyCollided(collidable);
         }
     }
+
+    /*
+     * Recyclable
+     */
+
+    @Override
+    public void recycle()
+    {
+        collisions.clear();
+        collisions.addAll(configured);
+        ignored.clear();
+        boxs.clear();
+        origin = Origin.TOP_LEFT;
+        group = configuredGroup;
+        mask = configuredMask;
+        enabled = true;
+        showCollision = false;
+    }
 }
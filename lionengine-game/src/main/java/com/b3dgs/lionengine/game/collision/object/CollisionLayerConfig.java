@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.collision.object;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.Configurer;
+import com.b3dgs.lionengine.stream.Xml;
+import com.b3dgs.lionengine.stream.XmlNode;
+
+/**
+ * Represents the collision layer data from a configurer.
+ * <p>
+ * The group bits are the layers of the collidable, and the mask bits are the layers it checks collision with. A
+ * collidable checks another one only if its mask shares a bit with the other group:
+ * </p>
+ * 
+ * <pre>
+ * &lt;lionengine:collisionLayer group="2" mask="4"/&gt;
+ * </pre>
+ */
+public final class CollisionLayerConfig
+{
+    /** Layer node name. */
+    public static final String NODE_LAYER = Constant.XML_PREFIX + "collisionLayer";
+    /** Layer group attribute. */
+    public static final String ATT_GROUP = "group";
+    /** Layer mask attribute. */
+    public static final String ATT_MASK = "mask";
+    /** Default group, first layer. */
+    public static final int DEFAULT_GROUP = 1;
+    /** Default mask, all layers. */
+    public static final int DEFAULT_MASK = ~0;
+
+    /**
+     * Import the layer data from configurer.
+     * 
+     * @param configurer The configurer reference.
+     * @return The layer data.
+     * @throws LionEngineException If unable to read node.
+     */
+    public static CollisionLayerConfig imports(Configurer configurer)
+    {
+        return imports(configurer.getRoot());
+    }
+
+    /**
+     * Import the layer data from node.
+     * 
+     * @param root The root reference.
+     * @return The layer data.
+     * @throws LionEngineException If unable to read node.
+     */
+    public static CollisionLayerConfig imports(XmlNode root)
+    {
+        final XmlNode node = root.getChild(NODE_LAYER);
+        final int group = node.readInteger(ATT_GROUP);
+        final int mask = node.readInteger(ATT_MASK);
+
+        return new CollisionLayerConfig(group, mask);
+    }
+
+    /**
+     * Export the layer node from data.
+     * 
+     * @param config The config reference.
+     * @return The layer node.
+     * @throws LionEngineException If unable to write node.
+     */
+    public static XmlNode exports(CollisionLayerConfig config)
+    {
+        final XmlNode node = Xml.create(NODE_LAYER);
+        node.writeInteger(ATT_GROUP, config.getGroup());
+        node.writeInteger(ATT_MASK, config.getMask());
+
+        return node;
+    }
+
+    /** The group bits. */
+    private final int group;
+    /** The mask bits. */
+    private final int mask;
+
+    /**
+     * Create a layer configuration.
+     * 
+     * @param group The group bits.
+     * @param mask The mask bits.
+     */
+    public CollisionLayerConfig(int group, int mask)
+    {
+        this.group = group;
+        this.mask = mask;
+    }
+
+    /**
+     * Get the group bits.
+     * 
+     * @return The group bits.
+     */
+    public int getGroup()
+    {
+        return group;
+    }
+
+    /**
+     * Get the mask bits.
+     * 
+     * @return The mask bits.
+     */
+    public int getMask()
+    {
+        return mask;
+    }
+
+    /*
+     * Object
+     */
+
+    @Override
+    public int hashCode()
+    {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + group;
+        result = prime * result + mask;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof CollisionLayerConfig))
+        {
+            return false;
+        }
+        final CollisionLayerConfig other = (CollisionLayerConfig) obj;
+        return other.getGroup() == getGroup() && other.getMask() == getMask();
+    }
+
+    @Override
+    public String toString()
+    {
+        return new StringBuilder().append(getClass().getSimpleName())
+                                  .append(" [group=")
+                                  .append(group)
+                                  .append(", mask=")
+                                  .append(mask)
+                                  .append("]")
+                                  .toString();
+    }
+}
@@ -17,18 +17,40 @@
  */
 package com.b3dgs.lionengine.game.collision.object;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.game.handler.ComponentUpdater;
 import com.b3dgs.lionengine.game.handler.Handlables;
+import com.b3dgs.lionengine.geom.Rectangle;
 
 /**
  * Default collision component implementation. Designed to check collision between {@link Collidable}.
  * Collision events are notified to {@link CollidableListener}.
+ * <p>
+ * Collidables are stored on a uniform grid from their {@link Collidable#getSweepBounds()}, rebuilt on each update, so
+ * only the collidables sharing a cell are checked together. Checks are performed in the same order as when checking
+ * each collidable against all the others.
+ * </p>
+ * <p>
+ * There is one grid per collision layer group (see {@link CollisionLayerConfig}), and a collidable only looks into the
+ * grids of the groups matching its mask, so layers which never interact are skipped entirely.
+ * </p>
  * 
  * @see Collidable
  * @see CollidableListener
  */
 public class ComponentCollision implements ComponentUpdater
 {
+    /** Default cell size. */
+    public static final int DEFAULT_CELL_SIZE = 64;
+
     /**
      * Check the collision between two collidable.
      * 
@@ -48,11 +70,175 @@ public class ComponentCollision implements ComponentUpdater
     }
 
     /**
-     * Create component.
+     * Get the cell key.
+     * 
+     * @param cx The horizontal cell index.
+     * @param cy The vertical cell index.
+     * @return The cell key.
+     */
+    private static Long getKey(int cx, int cy)
+    {
+        return Long.valueOf((long) cx << Integer.SIZE | cy & 0xFFFFFFFFL);
+    }
+
+    /** Layers by group. */
+    private final Map<Integer, Layer> layers = new HashMap<Integer, Layer>();
+    /** Cells used by current update. */
+    private final Collection<List<Integer>> used = new ArrayList<List<Integer>>();
+    /** Collidables of current update, in handler order. */
+    private final List<Collidable> collidables = new ArrayList<Collidable>();
+    /** Collidables bounds of current update, in handler order. */
+    private final List<Rectangle> bounds = new ArrayList<Rectangle>();
+    /** Current collidable candidates indexes. */
+    private final BitSet candidates = new BitSet();
+    /** Cell size. */
+    private final double cellSize;
+
+    /**
+     * Create component, with {@link #DEFAULT_CELL_SIZE}.
      */
     public ComponentCollision()
+    {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Create component.
+     * 
+     * @param cellSize The grid cell size, about the size of the common collidables (strictly positive).
+     * @throws LionEngineException If invalid cell size.
+     */
+    public ComponentCollision(int cellSize)
     {
         super();
+
+        Check.superiorStrict(cellSize, 0);
+
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Get the cell index of the location.
+     * 
+     * @param value The location value.
+     * @return The cell index.
+     */
+    private int getCell(double value)
+    {
+        return (int) Math.floor(value / cellSize);
+    }
+
+    /**
+     * Store the collidables bounds in the cells of their layer.
+     * 
+     * @param objects The handled objects.
+     */
+    private void fill(Handlables objects)
+    {
+        for (final List<Integer> cell : used)
+        {
+            cell.clear();
+        }
+        used.clear();
+        collidables.clear();
+        bounds.clear();
+
+        for (final Collidable collidable : objects.get(Collidable.class))
+        {
+            final Rectangle area = collidable.getSweepBounds();
+            if (area != null)
+            {
+                final Integer index = Integer.valueOf(collidables.size());
+                collidables.add(collidable);
+                bounds.add(area);
+
+                final Integer group = Integer.valueOf(collidable.getGroup());
+                Layer layer = layers.get(group);
+                if (layer == null)
+                {
+                    layer = new Layer(collidable.getGroup());
+                    layers.put(group, layer);
+                }
+                for (int cx = getCell(area.getMinX()); cx <= getCell(area.getMaxX()); cx++)
+                {
+                    for (int cy = getCell(area.getMinY()); cy <= getCell(area.getMaxY()); cy++)
+                    {
+                        add(layer, getKey(cx, cy), index);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the collidable index to the layer cell.
+     * 
+     * @param layer The collidable layer.
+     * @param key The cell key.
+     * @param index The collidable index.
+     */
+    private void add(Layer layer, Long key, Integer index)
+    {
+        List<Integer> cell = layer.cells.get(key);
+        if (cell == null)
+        {
+            cell = new ArrayList<Integer>();
+            layer.cells.put(key, cell);
+        }
+        if (cell.isEmpty())
+        {
+            used.add(cell);
+        }
+        cell.add(index);
+    }
+
+    /**
+     * Check the collidable against the collidables sharing its cells in the layers matching its mask, in handler
+     * order.
+     * 
+     * @param index The collidable index.
+     */
+    private void check(int index)
+    {
+        final Collidable objectA = collidables.get(index);
+        final int mask = objectA.getMask();
+        final Rectangle area = bounds.get(index);
+        candidates.clear();
+        for (final Layer layer : layers.values())
+        {
+            if ((layer.group & mask) != 0)
+            {
+                collect(layer, area);
+            }
+        }
+        for (int other = candidates.nextSetBit(0); other >= 0; other = candidates.nextSetBit(other + 1))
+        {
+            checkCollision(objectA, collidables.get(other));
+        }
+    }
+
+    /**
+     * Collect the collidables of the layer sharing the area cells.
+     * 
+     * @param layer The layer reference.
+     * @param area The area to check.
+     */
+    private void collect(Layer layer, Rectangle area)
+    {
+        for (int cx = getCell(area.getMinX()); cx <= getCell(area.getMaxX()); cx++)
+        {
+            for (int cy = getCell(area.getMinY()); cy <= getCell(area.getMaxY()); cy++)
+            {
+                final List<Integer> cell = layer.cells.get(getKey(cx, cy));
+                if (cell != null)
+                {
+                    for (final Integer other : cell)
+                    {
+                        candidates.set(other.intValue());
+                    }
+                }
+            }
+        }
     }
 
     /*
@@ -62,13 +248,32 @@ public class ComponentCollision implements ComponentUpdater
     @Override
     public void update(double extrp, Handlables objects)
     {
-        final Iterable<Collidable> collidables = objects.get(Collidable.class);
-        for (final Collidable objectA : collidables)
+        fill(objects);
+        final int count = collidables.size();
+        for (int index = 0; index < count; index++)
         {
-            for (final Collidable objectB : collidables)
-            {
-                checkCollision(objectA, objectB);
-            }
+            check(index);
+        }
+    }
+
+    /**
+     * Collision layer, grid of the collidables sharing the same group.
+     */
+    private static final class Layer
+    {
+        /** Collidables indexes by cell. */
+        private final Map<Long, List<Integer>> cells = new HashMap<Long, List<Integer>>();
+        /** Layer group bits. */
+        private final int group;
+
+        /**
+         * Create layer.
+         * 
+         * @param group The group bits.
+         */
+        Layer(int group)
+        {
+            this.group = group;
         }
     }
 }
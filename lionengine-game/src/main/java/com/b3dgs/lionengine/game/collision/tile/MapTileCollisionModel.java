@@ -32,6 +32,8 @@ import com.b3dgs.lionengine.game.feature.FeatureProvider;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.transformable.Transformable;
 import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileChunkListener;
+import com.b3dgs.lionengine.game.map.MapTileChunked;
 import com.b3dgs.lionengine.game.map.feature.group.MapTileGroup;
 import com.b3dgs.lionengine.game.tile.Tile;
 import com.b3dgs.lionengine.game.tile.TileRef;
@@ -48,8 +50,12 @@ import com.b3dgs.lionengine.util.UtilMath;
  * <li>{@link MapTile}</li>
  * <li>{@link MapTileGroup}</li>
  * </ul>
+ * <p>
+ * With a {@link MapTileChunked}, tiles collisions are loaded for each chunk on loading, and constraints are applied
+ * again on the adjacent tiles.
+ * </p>
  */
-public class MapTileCollisionModel extends FeatureModel implements MapTileCollision
+public class MapTileCollisionModel extends FeatureModel implements MapTileCollision, MapTileChunkListener
 {
     /** Info loading formulas. */
     private static final String INFO_LOAD_FORMULAS = "Loading collision formulas from: ";
@@ -202,13 +208,18 @@ public class MapTileCollisionModel extends FeatureModel implements MapTileCollis
     }
 
     /**
-     * Load collisions for each tile. Previous collisions will be removed.
+     * Load collisions for each tile of the area. Previous collisions will be removed.
+     * 
+     * @param tx The horizontal area location in tile.
+     * @param ty The vertical area location in tile.
+     * @param width The area width in tile.
+     * @param height The area height in tile.
      */
-    private void loadTilesCollisions()
+    private void loadTilesCollisions(int tx, int ty, int width, int height)
     {
-        for (int v = 0; v < map.getInTileHeight(); v++)
+        for (int v = Math.max(0, ty); v < Math.min(map.getInTileHeight(), ty + height); v++)
         {
-            for (int h = 0; h < map.getInTileWidth(); h++)
+            for (int h = Math.max(0, tx); h < Math.min(map.getInTileWidth(), tx + width); h++)
             {
                 final Tile tile = map.getTile(h, v);
                 if (tile != null)
@@ -264,14 +275,19 @@ public class MapTileCollisionModel extends FeatureModel implements MapTileCollis
     }
 
     /**
-     * Apply tile constraints depending of their adjacent collisions.
+     * Apply tile constraints of the area depending of their adjacent collisions.
+     * 
+     * @param tx The horizontal area location in tile.
+     * @param ty The vertical area location in tile.
+     * @param width The area width in tile.
+     * @param height The area height in tile.
      */
-    private void applyConstraints()
+    private void applyConstraints(int tx, int ty, int width, int height)
     {
         final Map<Tile, Collection<CollisionFormula>> toRemove = new HashMap<Tile, Collection<CollisionFormula>>();
-        for (int v = 0; v < map.getInTileHeight(); v++)
+        for (int v = Math.max(0, ty); v < Math.min(map.getInTileHeight(), ty + height); v++)
         {
-            for (int h = 0; h < map.getInTileWidth(); h++)
+            for (int h = Math.max(0, tx); h < Math.min(map.getInTileWidth(), tx + width); h++)
             {
                 final Tile tile = map.getTile(h, v);
                 if (tile != null)
@@ -399,6 +415,10 @@ public class MapTileCollisionModel extends FeatureModel implements MapTileCollis
         this.services = services;
         map = services.get(MapTile.class);
         mapGroup = map.getFeature(MapTileGroup.class);
+        if (map instanceof MapTileChunked)
+        {
+            ((MapTileChunked) map).addListener(this);
+        }
     }
 
     @Override
@@ -412,8 +432,8 @@ public class MapTileCollisionModel extends FeatureModel implements MapTileCollis
         {
             loadCollisionGroups(collisionGroups);
         }
-        loadTilesCollisions();
-        applyConstraints();
+        loadTilesCollisions(0, 0, map.getInTileWidth(), map.getInTileHeight());
+        applyConstraints(0, 0, map.getInTileWidth(), map.getInTileHeight());
     }
 
     @Override
@@ -421,8 +441,8 @@ public class MapTileCollisionModel extends FeatureModel implements MapTileCollis
     {
         loadCollisionFormulas(formulasConfig);
         loadCollisionGroups(groupsConfig);
-        loadTilesCollisions();
-        applyConstraints();
+        loadTilesCollisions(0, 0, map.getInTileWidth(), map.getInTileHeight());
+        applyConstraints(0, 0, map.getInTileWidth(), map.getInTileHeight());
     }
 
     @Override
@@ -526,4 +546,24 @@ public class MapTileCollisionModel extends FeatureModel implements MapTileCollis
     {
         return groupsConfig;
     }
+
+    /*
+     * MapTileChunkListener
+     */
+
+    @Override
+    public void notifyChunkLoaded(int tx, int ty, int width, int height)
+    {
+        if (!groups.isEmpty())
+        {
+            loadTilesCollisions(tx - 1, ty - 1, width + 2, height + 2);
+            applyConstraints(tx - 1, ty - 1, width + 2, height + 2);
+        }
+    }
+
+    @Override
+    public void notifyChunkUnloaded(int tx, int ty, int width, int height)
+    {
+        // Nothing to do, tiles collisions are unloaded with their chunk
+    }
 }
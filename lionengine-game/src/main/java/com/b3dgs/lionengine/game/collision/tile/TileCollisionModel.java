@@ -17,8 +17,8 @@
  */
 package com.b3dgs.lionengine.game.collision.tile;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
@@ -30,8 +30,8 @@ import com.b3dgs.lionengine.util.UtilMath;
  */
 public class TileCollisionModel extends FeatureModel implements TileCollision
 {
-    /** The collision formulas used. */
-    private final Collection<CollisionFormula> formulas = new HashSet<CollisionFormula>();
+    /** The collision formulas used (a tile has only a few, and there may be one model per tile). */
+    private final Collection<CollisionFormula> formulas = new ArrayList<CollisionFormula>(1);
     /** Tile reference. */
     private final Tile tile;
 
@@ -184,7 +184,10 @@ public class TileCollisionModel extends FeatureModel implements TileCollision
     @Override
     public void addCollisionFormula(CollisionFormula formula)
     {
-        formulas.add(formula);
+        if (!formulas.contains(formula))
+        {
+            formulas.add(formula);
+        }
     }
 
     @Override
@@ -17,8 +17,20 @@
  */
 package com.b3dgs.lionengine.game.feature;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.b3dgs.lionengine.Check;
 import com.b3dgs.lionengine.Constant;
@@ -40,6 +52,14 @@ import com.b3dgs.lionengine.util.UtilReflection;
  * The factory uses the {@link ClassLoader#getSystemClassLoader()}, but it is possible to set a custom one with
  * {@link #setClassLoader(ClassLoader)}. Should be used in an OSGI environment for example.
  * </p>
+ * <p>
+ * Featurables created from a {@link Media} can be pooled with {@link #setPool(Media, int)}, in order to reuse
+ * destroyed instances instead of creating new ones.
+ * </p>
+ * <p>
+ * Setups are created on first use, or can be created ahead in parallel with {@link #preload(Collection)}. Setups
+ * access is thread-safe.
+ * </p>
  */
 public class Factory
 {
@@ -51,13 +71,19 @@ public class Factory
     private static final String ERROR_SETUP_CLASS = "Setup class not found !";
     /** Construction error. */
     private static final String ERROR_CONSTRUCTOR_MISSING = "No recognized constructor found for: ";
+    /** Preload error. */
+    private static final String ERROR_PRELOAD = "Setups preload failed !";
+    /** Preload thread name. */
+    private static final String THREAD_NAME = "Factory preload ";
 
     /** Setups list. */
-    private final Map<Media, Setup> setups = new HashMap<Media, Setup>();
+    private final ConcurrentMap<Media, Setup> setups = new ConcurrentHashMap<Media, Setup>();
+    /** Pools list. */
+    private final Map<Media, FactoryPool> pools = new HashMap<Media, FactoryPool>();
     /** Services reference. */
     private final Services services;
     /** Class loader. */
-    private ClassLoader classLoader;
+    private volatile ClassLoader classLoader;
 
     /**
      * Create a factory.
@@ -80,18 +106,38 @@ public class Factory
      * {@link Featurable#prepareFeatures(Services)} is automatically called.
      * </p>
      * 
+     * <p>
+     * If the media is pooled, a destroyed featurable is recycled and returned if available.
+     * </p>
+     * 
      * @param <O> The featurable type.
      * @param media The featurable media.
      * @return The featurable instance.
      * @throws LionEngineException If {@link Media} is <code>null</code> or {@link Setup} not found.
+     * @see #setPool(Media, int)
      */
+    @SuppressWarnings("unchecked")
     public <O extends Featurable> O create(Media media)
     {
+        final FactoryPool pool = pools.get(media);
+        if (pool != null)
+        {
+            final Featurable recycled = pool.poll();
+            if (recycled != null)
+            {
+                return (O) recycled;
+            }
+        }
         final Setup setup = getSetup(media);
         final Class<?> type = setup.getConfigClass(classLoader);
         try
         {
-            return createFeaturable(type, setup);
+            final O featurable = createFeaturable(type, setup);
+            if (pool != null)
+            {
+                pool.register(featurable);
+            }
+            return featurable;
         }
         catch (final NoSuchMethodException exception)
         {
@@ -128,6 +174,46 @@ public class Factory
         }
     }
 
+    /**
+     * Pool the featurables created from a media by {@link #create(Media)}. Once destroyed and removed from their
+     * handler, featurables are kept (up to the limit) and recycled on next creation.
+     * 
+     * @param media The featurable media.
+     * @param limit The maximum number of kept featurables (0 to disable pool).
+     * @throws LionEngineException If invalid arguments.
+     * @see Recyclable
+     */
+    public void setPool(Media media, int limit)
+    {
+        Check.notNull(media);
+        Check.superiorOrEqual(limit, 0);
+
+        final FactoryPool pool = pools.get(media);
+        if (pool != null)
+        {
+            pool.setLimit(limit);
+        }
+        if (limit == 0)
+        {
+            pools.remove(media);
+        }
+        else if (pool == null)
+        {
+            pools.put(media, new FactoryPool(limit));
+        }
+    }
+
+    /**
+     * Get the pool of a media.
+     * 
+     * @param media The featurable media.
+     * @return The media pool, <code>null</code> if not pooled.
+     */
+    public FactoryPool getPool(Media media)
+    {
+        return pools.get(media);
+    }
+
     /**
      * Set an external class loader.
      * 
@@ -148,11 +234,109 @@ public class Factory
     public Setup getSetup(Media media)
     {
         Check.notNull(media);
-        if (!setups.containsKey(media))
+        final Setup setup = setups.get(media);
+        if (setup != null)
+        {
+            return setup;
+        }
+        final Setup created = createSetup(media);
+        final Setup previous = setups.putIfAbsent(media, created);
+        if (previous != null)
+        {
+            return previous;
+        }
+        return created;
+    }
+
+    /**
+     * Preload setups in parallel, in order to avoid their creation on first {@link #create(Media)}. Includes the
+     * {@link SetupSurface} images. Already loaded setups are skipped.
+     * 
+     * @param medias The setups media.
+     * @throws LionEngineException If unable to create a setup.
+     */
+    public void preload(Collection<Media> medias)
+    {
+        preload(medias, null);
+    }
+
+    /**
+     * Preload setups in parallel, in order to avoid their creation on first {@link #create(Media)}. Includes the
+     * {@link SetupSurface} images. Already loaded setups are skipped. Returns once all setups are loaded.
+     * 
+     * @param medias The setups media.
+     * @param listener The progress listener, notified by the calling thread (can be <code>null</code>).
+     * @throws LionEngineException If unable to create a setup.
+     */
+    public void preload(Collection<Media> medias, FactoryListener listener)
+    {
+        Check.notNull(medias);
+
+        final Collection<Media> toLoad = new LinkedHashSet<Media>();
+        for (final Media media : medias)
+        {
+            Check.notNull(media);
+            if (!setups.containsKey(media))
+            {
+                toLoad.add(media);
+            }
+        }
+        final int total = toLoad.size();
+        if (total == 0)
+        {
+            return;
+        }
+
+        final int workers = Math.min(total, Runtime.getRuntime().availableProcessors());
+        final ExecutorService executor = Executors.newFixedThreadPool(workers, new ThreadFactory()
+        {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, THREAD_NAME + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try
+        {
+            final CompletionService<Media> completion = new ExecutorCompletionService<Media>(executor);
+            for (final Media media : toLoad)
+            {
+                completion.submit(new Callable<Media>()
+                {
+                    @Override
+                    public Media call()
+                    {
+                        getSetup(media);
+                        return media;
+                    }
+                });
+            }
+            for (int loaded = 1; loaded <= total; loaded++)
+            {
+                final Media media = completion.take().get();
+                if (listener != null)
+                {
+                    listener.notifySetupPreloaded(media, loaded, total);
+                }
+            }
+        }
+        catch (final InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new LionEngineException(exception, ERROR_PRELOAD);
+        }
+        catch (final ExecutionException exception)
+        {
+            throw new LionEngineException(exception.getCause(), ERROR_PRELOAD);
+        }
+        finally
         {
-            setups.put(media, createSetup(media));
+            executor.shutdownNow();
         }
-        return setups.get(media);
     }
 
     /**
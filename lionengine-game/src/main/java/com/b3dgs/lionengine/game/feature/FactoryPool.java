@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+import com.b3dgs.lionengine.game.feature.identifiable.Identifiable;
+import com.b3dgs.lionengine.game.feature.identifiable.IdentifiableRecycleListener;
+
+/**
+ * Pool of featurables created by a {@link Factory} from the same {@link com.b3dgs.lionengine.Media}. Featurables are
+ * released to the pool once effectively destroyed (on {@link Identifiable#notifyDestroyed()}), and handed back after
+ * a call to {@link Recyclable#recycle()} on each of their recyclable features.
+ * <p>
+ * At most {@link #getLimit()} featurables are kept, the others are left to the garbage collector.
+ * </p>
+ * 
+ * @see Factory#setPool(com.b3dgs.lionengine.Media, int)
+ */
+public final class FactoryPool
+{
+    /**
+     * Get the recyclables of a featurable, {@link Identifiable} first, then its other features and itself.
+     * 
+     * @param featurable The featurable reference.
+     * @return The featurable recyclables.
+     */
+    private static Recyclable[] getRecyclables(Featurable featurable)
+    {
+        final Set<Object> features = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        final List<Recyclable> recyclables = new ArrayList<Recyclable>();
+        for (final Feature feature : featurable.getFeatures())
+        {
+            if (feature instanceof Recyclable && features.add(feature))
+            {
+                if (feature instanceof Identifiable)
+                {
+                    recyclables.add(0, (Recyclable) feature);
+                }
+                else
+                {
+                    recyclables.add((Recyclable) feature);
+                }
+            }
+        }
+        if (featurable instanceof Recyclable)
+        {
+            recyclables.add((Recyclable) featurable);
+        }
+        return recyclables.toArray(new Recyclable[recyclables.size()]);
+    }
+
+    /** Available featurables. */
+    private final Queue<Pooled> available = new ArrayDeque<Pooled>();
+    /** Maximum available featurables. */
+    private int limit;
+    /** Number of creations served from pool. */
+    private int hits;
+    /** Number of creations not served from pool. */
+    private int misses;
+
+    /**
+     * Create pool.
+     * 
+     * @param limit The maximum number of available featurables.
+     */
+    FactoryPool(int limit)
+    {
+        this.limit = limit;
+    }
+
+    /**
+     * Set the maximum number of available featurables. Exceeding ones are dropped.
+     * 
+     * @param limit The maximum number of available featurables.
+     */
+    void setLimit(int limit)
+    {
+        this.limit = limit;
+        while (available.size() > limit)
+        {
+            available.poll();
+        }
+    }
+
+    /**
+     * Get a recycled featurable if available.
+     * 
+     * @return The recycled featurable, <code>null</code> if none available (a new one must be
+     *         {@link #register(Featurable)}).
+     */
+    Featurable poll()
+    {
+        final Pooled pooled = available.poll();
+        if (pooled == null)
+        {
+            misses++;
+            return null;
+        }
+        hits++;
+        for (final Recyclable recyclable : pooled.recyclables)
+        {
+            recyclable.recycle();
+        }
+        pooled.featurable.getFeature(Identifiable.class).addListener(pooled);
+        return pooled.featurable;
+    }
+
+    /**
+     * Register a new featurable, released to the pool once destroyed.
+     * 
+     * @param featurable The created featurable.
+     */
+    void register(Featurable featurable)
+    {
+        final Pooled pooled = new Pooled(featurable, getRecyclables(featurable));
+        featurable.getFeature(Identifiable.class).addListener(pooled);
+    }
+
+    /**
+     * Release a destroyed featurable, kept only if under limit.
+     * 
+     * @param pooled The destroyed featurable.
+     */
+    void release(Pooled pooled)
+    {
+        if (available.size() < limit)
+        {
+            available.add(pooled);
+        }
+    }
+
+    /**
+     * Get the maximum number of available featurables.
+     * 
+     * @return The maximum number of available featurables.
+     */
+    public int getLimit()
+    {
+        return limit;
+    }
+
+    /**
+     * Get the number of available featurables.
+     * 
+     * @return The number of available featurables.
+     */
+    public int getSize()
+    {
+        return available.size();
+    }
+
+    /**
+     * Get the number of creations served by a recycled featurable.
+     * 
+     * @return The number of pool hits.
+     */
+    public int getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * Get the number of creations which required a new featurable.
+     * 
+     * @return The number of pool misses.
+     */
+    public int getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Pooled featurable, listening to its destruction.
+     */
+    private final class Pooled implements IdentifiableRecycleListener
+    {
+        /** Featurable reference. */
+        private final Featurable featurable;
+        /** Featurable recyclables. */
+        private final Recyclable[] recyclables;
+
+        /**
+         * Create pooled featurable.
+         * 
+         * @param featurable The featurable reference.
+         * @param recyclables The featurable recyclables.
+         */
+        Pooled(Featurable featurable, Recyclable[] recyclables)
+        {
+            this.featurable = featurable;
+            this.recyclables = recyclables;
+        }
+
+        /*
+         * IdentifiableRecycleListener
+         */
+
+        @Override
+        public void notifyDestroyed(Integer id)
+        {
+            // Wait for effective destruction
+        }
+
+        @Override
+        public void notifyRecyclable(Integer id)
+        {
+            release(this);
+        }
+    }
+}
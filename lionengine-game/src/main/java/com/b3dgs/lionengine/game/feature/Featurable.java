@@ -17,6 +17,8 @@
  */
 package com.b3dgs.lionengine.game.feature;
 
+import com.b3dgs.lionengine.LionEngineException;
+
 /**
  * Represents something that can have a collection of {@link Feature}.
  * <p>
@@ -107,6 +109,24 @@ public interface Featurable extends FeatureProvider
      */
     <T extends Feature> T addFeatureAndGet(T feature);
 
+    /**
+     * Get a feature instance from its identifier, resolved once then accessed by index.
+     * 
+     * @param <C> The custom feature type.
+     * @param id The feature identifier.
+     * @return The feature instance.
+     * @throws LionEngineException If feature not found.
+     */
+    <C extends Feature> C getFeature(FeatureId<C> id);
+
+    /**
+     * Check a feature existence from its identifier.
+     * 
+     * @param id The feature identifier.
+     * @return <code>true</code> if feature exists, <code>false</code> else.
+     */
+    boolean hasFeature(FeatureId<?> id);
+
     /**
      * Check if features are prepared.
      * 
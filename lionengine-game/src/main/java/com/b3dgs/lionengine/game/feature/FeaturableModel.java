@@ -20,7 +20,8 @@ package com.b3dgs.lionengine.game.feature;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.b3dgs.lionengine.Constant;
 import com.b3dgs.lionengine.LionEngineException;
@@ -33,6 +34,55 @@ public class FeaturableModel implements Featurable
 {
     /** Inject service error. */
     private static final String ERROR_INJECT = "Error during service injection !";
+    /** Fields requiring an injected service by class. */
+    private static final ConcurrentMap<Class<?>, Field[]> SERVICE_FIELDS = new ConcurrentHashMap<Class<?>, Field[]>();
+
+    /**
+     * Get the fields of a class that require an injected service, resolved once for all instances.
+     * 
+     * @param clazz The class which requires injected services.
+     * @return The fields requiring injected services.
+     */
+    private static Field[] getServiceFields(Class<?> clazz)
+    {
+        final Field[] cached = SERVICE_FIELDS.get(clazz);
+        if (cached != null)
+        {
+            return cached;
+        }
+        final Field[] fields = createServiceFields(clazz);
+        final Field[] previous = SERVICE_FIELDS.putIfAbsent(clazz, fields);
+        if (previous != null)
+        {
+            return previous;
+        }
+        return fields;
+    }
+
+    /**
+     * Get all fields that require an injected service, made accessible.
+     * 
+     * @param clazz The class which requires injected services.
+     * @return The fields requiring injected services.
+     */
+    private static Field[] createServiceFields(Class<?> clazz)
+    {
+        final Collection<Field> toInject = new ArrayList<Field>();
+        Class<?> current = clazz;
+        while (current != null)
+        {
+            for (final Field field : current.getDeclaredFields())
+            {
+                if (field.isAnnotationPresent(Service.class))
+                {
+                    UtilReflection.setAccessible(field, true);
+                    toInject.add(field);
+                }
+            }
+            current = current.getSuperclass();
+        }
+        return toInject.toArray(new Field[toInject.size()]);
+    }
 
     /** Features to prepare. */
     private final Collection<Feature> featuresToPrepare = new ArrayList<Feature>();
@@ -57,46 +107,10 @@ public class FeaturableModel implements Featurable
      */
     private void fillServices(Object object, Services services)
     {
-        for (final Field field : getServiceFields(object))
-        {
-            final boolean accessible = field.isAccessible();
-            if (!accessible)
-            {
-                UtilReflection.setAccessible(field, true);
-            }
-
-            final Class<?> type = field.getType();
-            setField(field, object, services, type);
-
-            if (!accessible)
-            {
-                UtilReflection.setAccessible(field, false);
-            }
-        }
-    }
-
-    /**
-     * Get all with that require an injected service.
-     * 
-     * @param object The object which requires injected services.
-     * @return The field requiring injected services.
-     */
-    private Collection<Field> getServiceFields(Object object)
-    {
-        final Collection<Field> toInject = new HashSet<Field>();
-        Class<?> clazz = object.getClass();
-        while (clazz != null)
+        for (final Field field : getServiceFields(object.getClass()))
         {
-            for (final Field field : clazz.getDeclaredFields())
-            {
-                if (field.isAnnotationPresent(Service.class))
-                {
-                    toInject.add(field);
-                }
-            }
-            clazz = clazz.getSuperclass();
+            setField(field, object, services, field.getType());
         }
-        return toInject;
     }
 
     /**
@@ -183,6 +197,12 @@ public class FeaturableModel implements Featurable
         return features.get(feature);
     }
 
+    @Override
+    public final <C extends Feature> C getFeature(FeatureId<C> id)
+    {
+        return features.get(id);
+    }
+
     @Override
     public final Iterable<Feature> getFeatures()
     {
@@ -201,6 +221,12 @@ public class FeaturableModel implements Featurable
         return features.contains(feature);
     }
 
+    @Override
+    public final boolean hasFeature(FeatureId<?> id)
+    {
+        return features.contains(id);
+    }
+
     @Override
     public final boolean isPrepared()
     {
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Typed integer identifier of a {@link Feature} type. Each feature type has a unique index, allowing
+ * {@link Featurable} to resolve it by array indexing instead of a type lookup.
+ * <p>
+ * Example:
+ * </p>
+ * 
+ * <pre>
+ * private static final FeatureId&lt;Transformable&gt; TRANSFORMABLE = FeatureId.get(Transformable.class);
+ * ...
+ * final Transformable transformable = featurable.getFeature(TRANSFORMABLE);
+ * </pre>
+ * 
+ * <p>
+ * This class is Thread-Safe.
+ * </p>
+ * 
+ * @param <C> The feature type.
+ */
+public final class FeatureId<C extends Feature>
+{
+    /** Identifiers by feature type. */
+    private static final Map<Class<?>, FeatureId<?>> IDS = new HashMap<Class<?>, FeatureId<?>>();
+
+    /**
+     * Get the identifier of a feature type. Always return the same identifier for the same type.
+     * 
+     * @param <C> The feature type.
+     * @param type The feature type (must not be <code>null</code>).
+     * @return The feature identifier.
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <C extends Feature> FeatureId<C> get(Class<C> type)
+    {
+        FeatureId<C> id = (FeatureId<C>) IDS.get(type);
+        if (id == null)
+        {
+            id = new FeatureId<C>(type, IDS.size());
+            IDS.put(type, id);
+        }
+        return id;
+    }
+
+    /** Feature type. */
+    private final Class<C> type;
+    /** Feature index. */
+    private final int index;
+
+    /**
+     * Create identifier.
+     * 
+     * @param type The feature type.
+     * @param index The feature index.
+     */
+    private FeatureId(Class<C> type, int index)
+    {
+        this.type = type;
+        this.index = index;
+    }
+
+    /**
+     * Get the feature type.
+     * 
+     * @return The feature type.
+     */
+    public Class<C> getType()
+    {
+        return type;
+    }
+
+    /**
+     * Get the feature index.
+     * 
+     * @return The feature index.
+     */
+    public int getIndex()
+    {
+        return index;
+    }
+
+    /*
+     * Object
+     */
+
+    @Override
+    public String toString()
+    {
+        return new StringBuilder(type.getName()).append(" [").append(index).append(']').toString();
+    }
+}
@@ -19,19 +19,52 @@ package com.b3dgs.lionengine.game.feature;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.b3dgs.lionengine.LionEngineException;
 
 /**
  * Features handler representation. Store features by type, allowing quick access from an interface.
+ * <p>
+ * Features are resolved by all their super types on each {@link #add(Feature)}, and can also be accessed by
+ * {@link FeatureId}, resolved once then indexed. Lookups do not modify the stored types, which are replaced on add, so
+ * features can be read from other threads (such as tiles features read by path finding workers).
+ * </p>
  */
 public class Features
 {
     /** Feature not found error. */
     private static final String ERROR_FEATURE_NOT_FOUND = "Feature not found: ";
 
-    /** Features handled. */
-    private final Map<Class<? extends Feature>, Feature> features;
+    /**
+     * Resolve the type and its feature super types to the feature, if not already resolved.
+     * 
+     * @param resolved The resolved features.
+     * @param type The type to resolve (may be <code>null</code>).
+     * @param feature The feature instance.
+     */
+    private static void resolve(Map<Class<?>, Feature> resolved, Class<?> type, Feature feature)
+    {
+        if (type != null && Feature.class.isAssignableFrom(type))
+        {
+            if (!resolved.containsKey(type))
+            {
+                resolved.put(type, feature);
+            }
+            resolve(resolved, type.getSuperclass(), feature);
+            for (final Class<?> current : type.getInterfaces())
+            {
+                resolve(resolved, current, feature);
+            }
+        }
+    }
+
+    /** Resolved features by identifier index, replaced on add. */
+    private final AtomicReference<Feature[]> indexed;
+    /** Features handled, replaced on add. */
+    private volatile Map<Class<? extends Feature>, Feature> features;
+    /** Features by their type and all their super types, replaced on add. */
+    private volatile Map<Class<?>, Feature> resolved;
 
     /**
      * Create features handler.
@@ -39,6 +72,8 @@ public class Features
     public Features()
     {
         features = new HashMap<Class<? extends Feature>, Feature>();
+        resolved = new HashMap<Class<?>, Feature>();
+        indexed = new AtomicReference<Feature[]>(new Feature[0]);
     }
 
     /**
@@ -48,14 +83,23 @@ public class Features
      */
     public void add(Feature feature)
     {
-        features.put(feature.getClass(), feature);
+        final Map<Class<? extends Feature>, Feature> added = new HashMap<Class<? extends Feature>, Feature>(features);
+        added.put(feature.getClass(), feature);
         for (final Class<?> type : feature.getClass().getInterfaces())
         {
             if (Feature.class.isAssignableFrom(type))
             {
-                features.put(type.asSubclass(Feature.class), feature);
+                added.put(type.asSubclass(Feature.class), feature);
             }
         }
+        final Map<Class<?>, Feature> types = new HashMap<Class<?>, Feature>(added);
+        for (final Feature current : added.values())
+        {
+            resolve(types, current.getClass(), current);
+        }
+        features = added;
+        resolved = types;
+        indexed.set(new Feature[0]);
     }
 
     /**
@@ -68,22 +112,37 @@ public class Features
      */
     public <C extends Feature> C get(Class<C> feature)
     {
-        final C value;
-        if (features.containsKey(feature))
+        final Feature value = resolved.get(feature);
+        if (value == null)
         {
-            value = feature.cast(features.get(feature));
+            throw new LionEngineException(ERROR_FEATURE_NOT_FOUND, feature.getName());
         }
-        else
+        return feature.cast(value);
+    }
+
+    /**
+     * Get a feature from its identifier.
+     * 
+     * @param <C> The custom feature type.
+     * @param id The feature identifier.
+     * @return The feature instance.
+     * @throws LionEngineException If the feature was not found.
+     */
+    @SuppressWarnings("unchecked")
+    public <C extends Feature> C get(FeatureId<C> id)
+    {
+        final int index = id.getIndex();
+        final Feature[] current = indexed.get();
+        if (index < current.length && current[index] != null)
         {
-            for (final Feature current : features.values())
-            {
-                if (feature.isAssignableFrom(current.getClass()))
-                {
-                    return feature.cast(current);
-                }
-            }
-            throw new LionEngineException(ERROR_FEATURE_NOT_FOUND, feature.getName());
+            return (C) current[index];
         }
+        final C value = get(id.getType());
+        final Feature[] updated = new Feature[Math.max(current.length, index + 1)];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[index] = value;
+        // Not cached if features changed meanwhile
+        indexed.compareAndSet(current, updated);
         return value;
     }
 
@@ -96,23 +155,25 @@ public class Features
      */
     public <C extends Feature> boolean contains(Class<C> feature)
     {
-        final boolean contains;
-        if (features.containsKey(feature))
-        {
-            contains = true;
-        }
-        else
+        return resolved.containsKey(feature);
+    }
+
+    /**
+     * Check if contains the following feature identifier.
+     * 
+     * @param <C> The custom feature type.
+     * @param id The feature identifier to check.
+     * @return <code>true</code> if contains, <code>false</code> else.
+     */
+    public <C extends Feature> boolean contains(FeatureId<C> id)
+    {
+        final int index = id.getIndex();
+        final Feature[] current = indexed.get();
+        if (index < current.length && current[index] != null)
         {
-            for (final Feature current : features.values())
-            {
-                if (feature.isAssignableFrom(current.getClass()))
-                {
-                    return true;
-                }
-            }
-            contains = false;
+            return true;
         }
-        return contains;
+        return resolved.containsKey(id.getType());
     }
 
     /**
@@ -18,7 +18,9 @@
 package com.b3dgs.lionengine.game.feature;
 
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 
 import com.b3dgs.lionengine.Check;
 import com.b3dgs.lionengine.LionEngineException;
@@ -50,6 +52,9 @@ import com.b3dgs.lionengine.util.UtilReflection;
  * final Camera camera = services.create(Camera.class);
  * final MapTile map = services.create(MapTileGame.class);
  * </pre>
+ * <p>
+ * Services found by type are cached (including not found types) until next {@link #add(Object)}.
+ * </p>
  */
 public class Services
 {
@@ -61,7 +66,9 @@ public class Services
     private static final String ERROR_SERVICE_GET = "Service not found: ";
 
     /** Services list. */
-    private final Collection<Object> services = new HashSet<Object>();
+    private final Collection<Object> services = new LinkedHashSet<Object>();
+    /** Services found by type (<code>null</code> value if not found). */
+    private final Map<Class<?>, Object> found = new HashMap<Class<?>, Object>();
 
     /**
      * Create a services container.
@@ -167,6 +174,7 @@ public class Services
     {
         Check.notNull(service);
         services.add(service);
+        found.clear();
         return service;
     }
 
@@ -190,8 +198,46 @@ public class Services
      * @throws LionEngineException If service not found or <code>null</code>.
      */
     public <S> S get(Class<S> service)
+    {
+        final S found = getOptional(service);
+        if (found == null)
+        {
+            throw new LionEngineException(ERROR_SERVICE_GET, service.getName());
+        }
+        return found;
+    }
+
+    /**
+     * Get a service from its class, if available. Same as {@link #get(Class)}, but allows to check for an optional
+     * service without failure.
+     * 
+     * @param <S> The service type.
+     * @param service The service type.
+     * @return The service implementation found, <code>null</code> if none.
+     * @throws LionEngineException If service is <code>null</code>.
+     */
+    public <S> S getOptional(Class<S> service)
     {
         Check.notNull(service);
+        final Object cached = found.get(service);
+        if (cached != null || found.containsKey(service))
+        {
+            return service.cast(cached);
+        }
+        final S instance = find(service);
+        found.put(service, instance);
+        return instance;
+    }
+
+    /**
+     * Find the first service which fit the required type.
+     * 
+     * @param <S> The service type.
+     * @param service The service type.
+     * @return The service implementation found, <code>null</code> if none.
+     */
+    private <S> S find(Class<S> service)
+    {
         for (final Object object : services)
         {
             if (service.isAssignableFrom(object.getClass()))
@@ -203,6 +249,6 @@ public class Services
         {
             return service.cast(this);
         }
-        throw new LionEngineException(ERROR_SERVICE_GET, service.getName());
+        return null;
     }
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Thread safe update declaration. Any {@link com.b3dgs.lionengine.Updatable} class annotated with only reads and
+ * writes its own state, or the state of its own features, during its update, so the updates of different instances
+ * can run concurrently.
+ * <p>
+ * Annotated {@link Featurable} are updated in parallel by {@link com.b3dgs.lionengine.game.handler.ComponentUpdatable}
+ * in parallel mode. Only featurables are checked: their update must only call features which are thread safe too.
+ * </p>
+ * <p>
+ * The annotation is not inherited, sub classes must be annotated again if they remain thread safe.
+ * </p>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ThreadSafe
+{
+    // Nothing
+}
@@ -24,11 +24,13 @@ import java.util.Queue;
 
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
+import com.b3dgs.lionengine.game.feature.Recyclable;
 
 /**
  * Default identifiable implementation. Handle a list of unique ID, provide the next free ID, and recycle destroyed ID.
+ * Once destroyed, it can be recycled with a new unique ID.
  */
-public class IdentifiableModel extends FeatureModel implements Identifiable
+public class IdentifiableModel extends FeatureModel implements Identifiable, Recyclable
 {
     /** ID used (list of active id used). */
     private static final Collection<Integer> IDS = new HashSet<Integer>();
@@ -69,7 +71,7 @@ public class IdentifiableModel extends FeatureModel implements Identifiable
     /** Listeners. */
     private final Collection<IdentifiableListener> listeners = new HashSet<IdentifiableListener>(1);
     /** Unique ID. */
-    private final Integer id = getFreeId();
+    private Integer id = getFreeId();
     /** Destroy request flag. */
     private boolean destroy;
     /** Destroyed flag. */
@@ -130,6 +132,36 @@ public class IdentifiableModel extends FeatureModel implements Identifiable
         destroyed = true;
         IDS.remove(id);
         RECYCLE.add(id);
+        for (final IdentifiableListener listener : listeners)
+        {
+            if (listener instanceof IdentifiableRecycleListener)
+            {
+                ((IdentifiableRecycleListener) listener).notifyRecyclable(id);
+            }
+        }
         listeners.clear();
     }
+
+    /*
+     * Recyclable
+     */
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Take a new unique ID, only if destroyed.
+     * </p>
+     * 
+     * @throws LionEngineException If no free ID available.
+     */
+    @Override
+    public void recycle()
+    {
+        if (destroyed)
+        {
+            id = getFreeId();
+            destroy = false;
+            destroyed = false;
+        }
+    }
 }
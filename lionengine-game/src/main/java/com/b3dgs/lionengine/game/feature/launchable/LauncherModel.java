@@ -30,6 +30,7 @@ import com.b3dgs.lionengine.game.feature.Factory;
 import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.FeatureProvider;
+import com.b3dgs.lionengine.game.feature.Recyclable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
 import com.b3dgs.lionengine.game.feature.identifiable.Identifiable;
@@ -38,9 +39,10 @@ import com.b3dgs.lionengine.game.handler.Handler;
 import com.b3dgs.lionengine.util.UtilMath;
 
 /**
- * Default launcher model implementation.
+ * Default launcher model implementation. Recycling restores the configured rate, clears the offset and target, and
+ * restarts the fire timer.
  */
-public class LauncherModel extends FeatureModel implements Launcher
+public class LauncherModel extends FeatureModel implements Launcher, Recyclable
 {
     /** Launcher listeners. */
     private final Collection<LauncherListener> listeners = new HashSet<LauncherListener>();
@@ -48,6 +50,8 @@ public class LauncherModel extends FeatureModel implements Launcher
     private final Timing fire = new Timing();
     /** Launchable configuration. */
     private final Iterable<LaunchableConfig> launchables;
+    /** Configured fire rate in millisecond. */
+    private final long configuredRate;
     /** Factory reference. */
     private Factory factory;
     /** Handler reference. */
@@ -95,6 +99,7 @@ public class LauncherModel extends FeatureModel implements Launcher
         final LauncherConfig config = LauncherConfig.imports(setup);
         launchables = config.getLaunchables();
         rate = config.getRate();
+        configuredRate = rate;
         fire.start();
     }
 
@@ -258,4 +263,18 @@ public class LauncherModel extends FeatureModel implements Launcher
     {
         return offsetY;
     }
+
+    /*
+     * Recyclable
+     */
+
+    @Override
+    public void recycle()
+    {
+        target = null;
+        rate = configuredRate;
+        offsetX = 0;
+        offsetY = 0;
+        fire.restart();
+    }
 }
@@ -25,6 +25,7 @@ import java.util.Set;
 import java.util.TreeSet;
 
 import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.FeatureId;
 import com.b3dgs.lionengine.game.feature.FeatureProvider;
 import com.b3dgs.lionengine.game.feature.displayable.Displayable;
 import com.b3dgs.lionengine.game.feature.layerable.Layerable;
@@ -37,6 +38,10 @@ import com.b3dgs.lionengine.graphic.Graphic;
  */
 public class ComponentDisplayable implements ComponentRenderer, HandlerListener, LayerableListener
 {
+    /** Displayable feature identifier. */
+    private static final FeatureId<Displayable> DISPLAYABLE = FeatureId.get(Displayable.class);
+    /** Layerable feature identifier. */
+    private static final FeatureId<Layerable> LAYERABLE = FeatureId.get(Layerable.class);
     /** Default layer value. */
     private static final Integer LAYER_DEFAULT = Integer.valueOf(0);
 
@@ -48,9 +53,9 @@ public class ComponentDisplayable implements ComponentRenderer, HandlerListener,
      */
     private static Integer getLayer(Featurable featurable)
     {
-        if (featurable.hasFeature(Layerable.class))
+        if (featurable.hasFeature(LAYERABLE))
         {
-            final Layerable layerable = featurable.getFeature(Layerable.class);
+            final Layerable layerable = featurable.getFeature(LAYERABLE);
             return layerable.getLayer();
         }
         return LAYER_DEFAULT;
@@ -130,9 +135,9 @@ public class ComponentDisplayable implements ComponentRenderer, HandlerListener,
     @Override
     public void notifyHandlableAdded(Featurable featurable)
     {
-        if (featurable.hasFeature(Displayable.class))
+        if (featurable.hasFeature(DISPLAYABLE))
         {
-            final Displayable displayable = featurable.getFeature(Displayable.class);
+            final Displayable displayable = featurable.getFeature(DISPLAYABLE);
             final Integer layer = getLayer(featurable);
             final Collection<Displayable> displayables = getLayer(layer);
             displayables.add(displayable);
@@ -143,9 +148,9 @@ public class ComponentDisplayable implements ComponentRenderer, HandlerListener,
     @Override
     public void notifyHandlableRemoved(Featurable featurable)
     {
-        if (featurable.hasFeature(Displayable.class))
+        if (featurable.hasFeature(DISPLAYABLE))
         {
-            final Displayable displayable = featurable.getFeature(Displayable.class);
+            final Displayable displayable = featurable.getFeature(DISPLAYABLE);
             final Integer layer = getLayer(featurable);
             remove(layer, displayable);
         }
@@ -17,20 +17,168 @@
  */
 package com.b3dgs.lionengine.game.handler;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.game.feature.ThreadSafe;
 
 /**
  * Updater component implementation which updates {@link Updatable} elements with an extrapolation value (
  * {@link Updatable#update(double)}).
+ * <p>
+ * In parallel mode, elements annotated with {@link ThreadSafe} are updated by chunks on a pool of workers, after the
+ * other elements which are updated one at a time on the caller thread. The update returns once all the chunks are
+ * done, so the {@link Handler} add and remove lists are still applied serially. Workers are stopped on
+ * {@link #terminate()}, called by {@link Handler#terminate()}.
+ * </p>
  */
-public class ComponentUpdatable implements ComponentUpdater
+public class ComponentUpdatable implements ComponentUpdater, ComponentTerminable
 {
+    /** Worker thread name. */
+    private static final String THREAD_NAME = "ComponentUpdatable-";
+    /** Number of chunks per worker, for load balancing. */
+    private static final int CHUNKS_PER_WORKER = 4;
+    /** Minimum chunk size, smaller ones cost more to dispatch than to update. */
+    private static final int CHUNK_MIN = 64;
+    /** Error parallel update. */
+    private static final String ERROR_UPDATE = "Parallel update failed !";
+
+    /** Thread safe state by type. */
+    private final Map<Class<?>, Boolean> types = new HashMap<Class<?>, Boolean>();
+    /** Thread safe elements of the current update. */
+    private final List<Updatable> parallel = new ArrayList<Updatable>();
+    /** Chunks of the current update. */
+    private final List<Chunk> chunks = new ArrayList<Chunk>();
+    /** Workers pool (<code>null</code> if serial mode). */
+    private final ExecutorService executor;
+    /** Number of workers (<code>0</code> if serial mode). */
+    private final int workers;
+
     /**
-     * Create component.
+     * Create component, in serial mode.
      */
     public ComponentUpdatable()
     {
         super();
+
+        executor = null;
+        workers = 0;
+    }
+
+    /**
+     * Create component, in parallel mode.
+     * 
+     * @param workers The number of workers (strictly positive).
+     * @throws LionEngineException If invalid workers number.
+     */
+    public ComponentUpdatable(int workers)
+    {
+        super();
+
+        Check.superiorStrict(workers, 0);
+
+        this.workers = workers;
+        executor = Executors.newFixedThreadPool(workers, new ThreadFactory()
+        {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, THREAD_NAME + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Check if element is declared as thread safe.
+     * 
+     * @param updatable The element to check.
+     * @return <code>true</code> if thread safe, <code>false</code> else.
+     */
+    private boolean isThreadSafe(Updatable updatable)
+    {
+        final Class<?> type = updatable.getClass();
+        Boolean safe = types.get(type);
+        if (safe == null)
+        {
+            safe = Boolean.valueOf(type.isAnnotationPresent(ThreadSafe.class));
+            types.put(type, safe);
+        }
+        return safe.booleanValue();
+    }
+
+    /**
+     * Update the thread safe elements by chunks on workers.
+     * 
+     * @param extrp The extrapolation value.
+     * @throws LionEngineException If an element update failed.
+     */
+    private void updateParallel(double extrp)
+    {
+        final int count = parallel.size();
+        final int split = workers * CHUNKS_PER_WORKER;
+        final int size = Math.max(CHUNK_MIN, (count + split - 1) / split);
+        int used = 0;
+        for (int start = 0; start < count; start += size)
+        {
+            if (used == chunks.size())
+            {
+                chunks.add(new Chunk());
+            }
+            chunks.get(used).set(start, Math.min(count, start + size), extrp);
+            used++;
+        }
+        if (used == 1)
+        {
+            chunks.get(0).call();
+        }
+        else if (used > 1)
+        {
+            try
+            {
+                for (final Future<Void> future : executor.invokeAll(chunks.subList(0, used)))
+                {
+                    future.get();
+                }
+            }
+            catch (final InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+                throw new LionEngineException(exception, ERROR_UPDATE);
+            }
+            catch (final ExecutionException exception)
+            {
+                throw new LionEngineException(exception.getCause(), ERROR_UPDATE);
+            }
+        }
+    }
+
+    /*
+     * ComponentTerminable
+     */
+
+    @Override
+    public void terminate()
+    {
+        if (executor != null)
+        {
+            executor.shutdownNow();
+        }
     }
 
     /*
@@ -40,9 +188,70 @@ public class ComponentUpdatable implements ComponentUpdater
     @Override
     public void update(double extrp, Handlables featurables)
     {
+        parallel.clear();
         for (final Updatable updatable : featurables.get(Updatable.class))
         {
-            updatable.update(extrp);
+            if (executor != null && isThreadSafe(updatable))
+            {
+                parallel.add(updatable);
+            }
+            else
+            {
+                updatable.update(extrp);
+            }
+        }
+        if (executor != null)
+        {
+            updateParallel(extrp);
+        }
+    }
+
+    /**
+     * Chunk of thread safe elements to update.
+     */
+    private final class Chunk implements Callable<Void>
+    {
+        /** First element index. */
+        private int start;
+        /** Last element index excluded. */
+        private int end;
+        /** Extrapolation value. */
+        private double extrp;
+
+        /**
+         * Create chunk.
+         */
+        Chunk()
+        {
+            super();
+        }
+
+        /**
+         * Set the chunk range.
+         * 
+         * @param start The first element index.
+         * @param end The last element index excluded.
+         * @param extrp The extrapolation value.
+         */
+        void set(int start, int end, double extrp)
+        {
+            this.start = start;
+            this.end = end;
+            this.extrp = extrp;
+        }
+
+        /*
+         * Callable
+         */
+
+        @Override
+        public Void call()
+        {
+            for (int i = start; i < end; i++)
+            {
+                parallel.get(i).update(extrp);
+            }
+            return null;
         }
     }
 }
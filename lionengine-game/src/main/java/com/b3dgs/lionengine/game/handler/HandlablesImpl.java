@@ -17,12 +17,12 @@
  */
 package com.b3dgs.lionengine.game.handler;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
-import java.util.Set;
 
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.game.feature.Featurable;
@@ -32,16 +32,57 @@ import com.b3dgs.lionengine.util.UtilReflection;
 
 /**
  * Handlables implementation.
+ * <p>
+ * Each type is stored in a densely packed list, iterated in array order. The types of a featurable class and of a
+ * feature type are computed once and cached.
+ * </p>
  */
 final class HandlablesImpl implements Handlables
 {
     /** Featurable not found error. */
     private static final String ERROR_FEATURABLE_NOT_FOUND = "Featurable not found: ";
 
+    /**
+     * Get the types of a featurable class: its class, and the interfaces of its class and super classes.
+     * 
+     * @param type The featurable class.
+     * @return The featurable types.
+     */
+    private static Collection<Class<?>> createFeaturableTypes(Class<?> type)
+    {
+        final Collection<Class<?>> types = new LinkedHashSet<Class<?>>();
+        types.add(type);
+        Class<?> current = type;
+        while (current != null)
+        {
+            Collections.addAll(types, current.getInterfaces());
+            current = current.getSuperclass();
+        }
+        return new ArrayList<Class<?>>(types);
+    }
+
+    /**
+     * Get the types of a feature: its type, and its feature interfaces.
+     * 
+     * @param feature The feature type.
+     * @return The feature types.
+     */
+    private static Collection<Class<?>> createFeatureTypes(Class<? extends Feature> feature)
+    {
+        final Collection<Class<?>> types = new LinkedHashSet<Class<?>>();
+        types.add(feature);
+        types.addAll(UtilReflection.getInterfaces(feature, Feature.class));
+        return new ArrayList<Class<?>>(types);
+    }
+
     /** List of featurables (key is the featurable ID). */
     private final Map<Integer, Featurable> featurables;
+    /** List of featurables, in handled order. */
+    private final HandlablesList<Featurable> values;
     /** List of typed items (key is the feature type). */
-    private final Map<Class<?>, Set<Object>> items;
+    private final Map<Class<?>, HandlablesList<Object>> items;
+    /** Cached types by featurable class or feature type. */
+    private final Map<Class<?>, Collection<Class<?>>> types;
 
     /**
      * Create the handlables.
@@ -49,7 +90,9 @@ final class HandlablesImpl implements Handlables
     HandlablesImpl()
     {
         featurables = new HashMap<Integer, Featurable>();
-        items = new HashMap<Class<?>, Set<Object>>();
+        values = new HandlablesList<Featurable>();
+        items = new HashMap<Class<?>, HandlablesList<Object>>();
+        types = new HashMap<Class<?>, Collection<Class<?>>>();
     }
 
     /**
@@ -60,23 +103,20 @@ final class HandlablesImpl implements Handlables
     public void add(Featurable featurable)
     {
         featurables.put(featurable.getFeature(Identifiable.class).getId(), featurable);
-
-        for (final Class<?> type : featurable.getClass().getInterfaces())
-        {
-            addType(type, featurable);
-        }
+        values.add(featurable);
 
         for (final Class<? extends Feature> feature : featurable.getFeaturesType())
         {
             final Feature object = featurable.getFeature(feature);
-            addType(feature, object);
-            for (final Class<?> other : UtilReflection.getInterfaces(feature, Feature.class))
+            for (final Class<?> type : getFeatureTypes(feature))
             {
-                addType(other, object);
+                addType(type, object);
             }
         }
-        addType(featurable.getClass(), featurable);
-        addSuperClass(featurable, featurable.getClass());
+        for (final Class<?> type : getFeaturableTypes(featurable.getClass()))
+        {
+            addType(type, featurable);
+        }
     }
 
     /**
@@ -86,24 +126,20 @@ final class HandlablesImpl implements Handlables
      */
     public void remove(Featurable featurable)
     {
-        for (final Class<?> type : featurable.getClass().getInterfaces())
-        {
-            remove(type, featurable);
-        }
-
         for (final Class<? extends Feature> feature : featurable.getFeaturesType())
         {
             final Feature object = featurable.getFeature(feature);
-            remove(feature, object);
-            for (final Class<?> other : UtilReflection.getInterfaces(feature, Feature.class))
+            for (final Class<?> type : getFeatureTypes(feature))
             {
-                remove(other, object);
+                remove(type, object);
             }
-
         }
-        remove(featurable.getClass(), featurable);
-        removeSuperClass(featurable, featurable.getClass());
+        for (final Class<?> type : getFeaturableTypes(featurable.getClass()))
+        {
+            remove(type, featurable);
+        }
 
+        values.remove(featurable);
         featurables.remove(featurable.getFeature(Identifiable.class).getId());
     }
 
@@ -118,56 +154,64 @@ final class HandlablesImpl implements Handlables
     }
 
     /**
-     * Add a type from its interface.
+     * Get the number of featurables.
      * 
-     * @param type The type interface.
-     * @param object The type value.
+     * @return The number of featurables.
      */
-    private void addType(Class<?> type, Object object)
+    public int size()
     {
-        if (!items.containsKey(type))
-        {
-            items.put(type, new HashSet<Object>());
-        }
-        items.get(type).add(object);
+        return values.size();
     }
 
     /**
-     * Add object parent super type.
+     * Get the featurable class types, computed once.
      * 
-     * @param object The current object to check.
-     * @param type The current class level to check.
+     * @param type The featurable class.
+     * @return The featurable types.
      */
-    private void addSuperClass(Object object, Class<?> type)
+    private Collection<Class<?>> getFeaturableTypes(Class<?> type)
     {
-        for (final Class<?> types : type.getInterfaces())
+        Collection<Class<?>> cached = types.get(type);
+        if (cached == null)
         {
-            addType(types, object);
-        }
-        final Class<?> parent = type.getSuperclass();
-        if (parent != null)
-        {
-            addSuperClass(object, parent);
+            cached = createFeaturableTypes(type);
+            types.put(type, cached);
         }
+        return cached;
     }
 
     /**
-     * Remove object parent super type.
+     * Get the feature types, computed once.
      * 
-     * @param object The current object to check.
-     * @param type The current class level to check.
+     * @param feature The feature type.
+     * @return The feature types.
      */
-    private void removeSuperClass(Object object, Class<?> type)
+    private Collection<Class<?>> getFeatureTypes(Class<? extends Feature> feature)
     {
-        for (final Class<?> types : type.getInterfaces())
+        Collection<Class<?>> cached = types.get(feature);
+        if (cached == null)
         {
-            remove(types, object);
+            cached = createFeatureTypes(feature);
+            types.put(feature, cached);
         }
-        final Class<?> parent = type.getSuperclass();
-        if (parent != null)
+        return cached;
+    }
+
+    /**
+     * Add a type from its interface.
+     * 
+     * @param type The type interface.
+     * @param object The type value.
+     */
+    private void addType(Class<?> type, Object object)
+    {
+        HandlablesList<Object> list = items.get(type);
+        if (list == null)
         {
-            removeSuperClass(object, parent);
+            list = new HandlablesList<Object>();
+            items.put(type, list);
         }
+        list.add(object);
     }
 
     /**
@@ -178,10 +222,10 @@ final class HandlablesImpl implements Handlables
      */
     private void remove(Class<?> type, Object object)
     {
-        final Set<?> set = items.get(type);
-        if (set != null)
+        final HandlablesList<Object> list = items.get(type);
+        if (list != null)
         {
-            set.remove(object);
+            list.remove(object);
         }
     }
 
@@ -204,10 +248,10 @@ final class HandlablesImpl implements Handlables
     @SuppressWarnings("unchecked")
     public <I> Iterable<I> get(Class<I> type)
     {
-        final Set<?> featurables = items.get(type);
-        if (featurables != null)
+        final HandlablesList<?> list = items.get(type);
+        if (list != null)
         {
-            return (Iterable<I>) featurables;
+            return (Iterable<I>) list;
         }
         return Collections.emptySet();
     }
@@ -215,6 +259,6 @@ final class HandlablesImpl implements Handlables
     @Override
     public Iterable<Featurable> values()
     {
-        return featurables.values();
+        return values;
     }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.handler;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.b3dgs.lionengine.LionEngineException;
+
+/**
+ * Densely packed list of the handled objects of a type. Objects are stored in an array, removed by moving the last one
+ * at their place, and iterated in array order.
+ * 
+ * @param <T> The object type.
+ */
+final class HandlablesList<T> implements Iterable<T>
+{
+    /** Default capacity. */
+    private static final int DEFAULT_CAPACITY = 16;
+    /** Unsupported removal error. */
+    private static final String ERROR_REMOVE = "Unsupported iterator removal !";
+
+    /** Objects index in array. */
+    private final Map<T, Integer> indexes = new HashMap<T, Integer>();
+    /** Objects array. */
+    private Object[] objects = new Object[DEFAULT_CAPACITY];
+    /** Number of objects. */
+    private int size;
+
+    /**
+     * Create list.
+     */
+    HandlablesList()
+    {
+        super();
+    }
+
+    /**
+     * Add the object if not already contained.
+     * 
+     * @param object The object to add.
+     */
+    public void add(T object)
+    {
+        if (!indexes.containsKey(object))
+        {
+            if (size == objects.length)
+            {
+                final Object[] grown = new Object[size * 2];
+                System.arraycopy(objects, 0, grown, 0, size);
+                objects = grown;
+            }
+            indexes.put(object, Integer.valueOf(size));
+            objects[size] = object;
+            size++;
+        }
+    }
+
+    /**
+     * Remove the object if contained, the last object takes its place.
+     * 
+     * @param object The object to remove.
+     */
+    public void remove(T object)
+    {
+        final Integer index = indexes.remove(object);
+        if (index != null)
+        {
+            final int removed = index.intValue();
+            size--;
+            if (removed < size)
+            {
+                @SuppressWarnings("unchecked")
+                final T last = (T) objects[size];
+                objects[removed] = last;
+                indexes.put(last, index);
+            }
+            objects[size] = null;
+        }
+    }
+
+    /**
+     * Get the number of objects.
+     * 
+     * @return The number of objects.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /*
+     * Iterable
+     */
+
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new Iterator<T>()
+        {
+            /** Next index. */
+            private int next;
+
+            @Override
+            public boolean hasNext()
+            {
+                return next < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next()
+            {
+                if (next >= size)
+                {
+                    throw new NoSuchElementException();
+                }
+                return (T) objects[next++];
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new LionEngineException(ERROR_REMOVE);
+            }
+        };
+    }
+}
@@ -174,6 +174,28 @@ public class Handler implements Handlables, Updatable, Renderable, IdentifiableL
         willDelete = true;
     }
 
+    /**
+     * Terminate the components implementing {@link ComponentTerminable}, releasing their resources. Handler must not be
+     * updated anymore.
+     */
+    public final void terminate()
+    {
+        for (final ComponentUpdater component : updaters)
+        {
+            if (component instanceof ComponentTerminable)
+            {
+                ((ComponentTerminable) component).terminate();
+            }
+        }
+        for (final ComponentRenderer component : renderers)
+        {
+            if (component instanceof ComponentTerminable && !updaters.contains(component))
+            {
+                ((ComponentTerminable) component).terminate();
+            }
+        }
+    }
+
     /**
      * Get the number of handled featurables.
      * 
@@ -181,7 +203,7 @@ public class Handler implements Handlables, Updatable, Renderable, IdentifiableL
      */
     public final int size()
     {
-        return featurables.getIds().size();
+        return featurables.size();
     }
 
     /**
@@ -19,6 +19,7 @@ package com.b3dgs.lionengine.game.handler;
 
 import java.io.IOException;
 
+import com.b3dgs.lionengine.Check;
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.Updatable;
@@ -29,6 +30,9 @@ import com.b3dgs.lionengine.core.Resolution;
 import com.b3dgs.lionengine.game.camera.Camera;
 import com.b3dgs.lionengine.game.feature.Factory;
 import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.feature.persister.MapTileEncoding;
+import com.b3dgs.lionengine.game.map.feature.persister.MapTilePersister;
 import com.b3dgs.lionengine.graphic.ColorRgba;
 import com.b3dgs.lionengine.graphic.Graphic;
 import com.b3dgs.lionengine.graphic.Renderable;
@@ -90,6 +94,14 @@ import com.b3dgs.lionengine.util.UtilStream;
  *         // Render routine
  *         world.render(g);
  *     }
+ 
+ * 
+ *     &#064;Override
+ *     public void onTerminated(boolean hasNextSequence)
+ *     {
+ *         // Release world resources
+ *         world.terminate();
+ *     }
  * }
  * </pre>
  */
@@ -172,6 +184,39 @@ public abstract class WorldGame implements Updatable, Renderable
         }
     }
 
+    /**
+     * Save world to the specified file, with the {@link MapTile} service tiles saved using the specified encoding.
+     * Encoding is applied to its {@link MapTilePersister} for this save only, and is detected when loading.
+     * 
+     * @param media The output media.
+     * @param encoding The tiles encoding.
+     * @throws LionEngineException If invalid argument or error on saving to file.
+     */
+    public final void saveToFile(Media media, MapTileEncoding encoding)
+    {
+        Check.notNull(encoding);
+
+        final MapTile map = services.getOptional(MapTile.class);
+        if (map != null && map.hasFeature(MapTilePersister.class))
+        {
+            final MapTilePersister persister = map.getFeature(MapTilePersister.class);
+            final MapTileEncoding previous = persister.getEncoding();
+            persister.setEncoding(encoding);
+            try
+            {
+                saveToFile(media);
+            }
+            finally
+            {
+                persister.setEncoding(previous);
+            }
+        }
+        else
+        {
+            saveToFile(media);
+        }
+    }
+
     /**
      * Load world from the specified file.
      * 
@@ -195,6 +240,15 @@ public abstract class WorldGame implements Updatable, Renderable
         }
     }
 
+    /**
+     * Terminate the world, releasing the {@link Handler} components resources (see {@link Handler#terminate()}). Should
+     * be called when the world is not used anymore, such as on {@link com.b3dgs.lionengine.core.Sequence} termination.
+     */
+    public void terminate()
+    {
+        handler.terminate();
+    }
+
     /**
      * Fill with color.
      * 
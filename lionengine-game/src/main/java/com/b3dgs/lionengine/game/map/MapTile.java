@@ -145,6 +145,20 @@ public interface MapTile extends Surface, Featurable
      */
     void append(MapTile map, int offsetX, int offsetY);
 
+    /**
+     * Add a listener, notified when tiles are set or cleared.
+     * 
+     * @param listener The listener to add.
+     */
+    void addListener(MapTileListener listener);
+
+    /**
+     * Remove a listener.
+     * 
+     * @param listener The listener to remove.
+     */
+    void removeListener(MapTileListener listener);
+
     /**
      * Remove all tiles from map and clear internal data. Keep existing loaded tile sheets ({@link #loadSheets(Media)}).
      */
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+
+/**
+ * Chunk of {@link MapTileChunked}, storing its packed tiles and the features of the tiles which have some.
+ */
+final class MapTileChunk
+{
+    /** Tiles features, by tile index in chunk (only for tiles with features). */
+    private final Map<Integer, Featurable> featurables = new HashMap<Integer, Featurable>();
+    /** Packed tiles, row by row. */
+    private final int[] tiles;
+    /** Horizontal chunk index. */
+    private final int cx;
+    /** Vertical chunk index. */
+    private final int cy;
+    /** Number of holds, keeping chunk loaded. */
+    private int holds;
+    /** Last update using the chunk. */
+    private long used;
+    /** Modified flag. */
+    private boolean modified;
+
+    /**
+     * Create a chunk.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @param tiles The packed tiles, row by row.
+     */
+    MapTileChunk(int cx, int cy, int[] tiles)
+    {
+        this.cx = cx;
+        this.cy = cy;
+        this.tiles = tiles;
+    }
+
+    /**
+     * Get the features holder of a tile.
+     * 
+     * @param index The tile index in chunk.
+     * @param create <code>true</code> to create holder if none, <code>false</code> to only get the existing one.
+     * @return The features holder, <code>null</code> if none and not created.
+     */
+    Featurable getFeaturable(int index, boolean create)
+    {
+        final Integer key = Integer.valueOf(index);
+        Featurable featurable = featurables.get(key);
+        if (featurable == null && create)
+        {
+            featurable = new FeaturableModel();
+            featurables.put(key, featurable);
+        }
+        return featurable;
+    }
+
+    /**
+     * Set the features holder of a tile.
+     * 
+     * @param index The tile index in chunk.
+     * @param featurable The features holder (<code>null</code> to remove).
+     */
+    void setFeaturable(int index, Featurable featurable)
+    {
+        if (featurable == null)
+        {
+            featurables.remove(Integer.valueOf(index));
+        }
+        else
+        {
+            featurables.put(Integer.valueOf(index), featurable);
+        }
+    }
+
+    /**
+     * Mark the chunk as modified. A modified chunk is not unloaded anymore, as its changes would be lost.
+     */
+    void setModified()
+    {
+        modified = true;
+    }
+
+    /**
+     * Check if chunk has been modified.
+     * 
+     * @return <code>true</code> if modified, <code>false</code> else.
+     */
+    boolean isModified()
+    {
+        return modified;
+    }
+
+    /**
+     * Hold the chunk, which is not unloaded anymore until released.
+     */
+    void hold()
+    {
+        holds++;
+    }
+
+    /**
+     * Release a hold of the chunk.
+     */
+    void release()
+    {
+        if (holds > 0)
+        {
+            holds--;
+        }
+    }
+
+    /**
+     * Check if chunk is held.
+     * 
+     * @return <code>true</code> if held, <code>false</code> else.
+     */
+    boolean isHeld()
+    {
+        return holds > 0;
+    }
+
+    /**
+     * Set the last update using the chunk.
+     * 
+     * @param used The update number.
+     */
+    void setUsed(long used)
+    {
+        this.used = used;
+    }
+
+    /**
+     * Get the last update using the chunk.
+     * 
+     * @return The update number.
+     */
+    long getUsed()
+    {
+        return used;
+    }
+
+    /**
+     * Get the packed tiles.
+     * 
+     * @return The packed tiles, row by row.
+     */
+    int[] getTiles()
+    {
+        return tiles;
+    }
+
+    /**
+     * Get the horizontal chunk index.
+     * 
+     * @return The horizontal chunk index.
+     */
+    int getX()
+    {
+        return cx;
+    }
+
+    /**
+     * Get the vertical chunk index.
+     * 
+     * @return The vertical chunk index.
+     */
+    int getY()
+    {
+        return cy;
+    }
+}
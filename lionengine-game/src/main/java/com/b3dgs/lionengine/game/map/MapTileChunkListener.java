@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map;
+
+/**
+ * Notify {@link MapTileChunked} chunks loading and unloading.
+ */
+public interface MapTileChunkListener
+{
+    /**
+     * Notify a chunk has been loaded. Its tiles can now be accessed.
+     * 
+     * @param tx The horizontal chunk location in tile.
+     * @param ty The vertical chunk location in tile.
+     * @param width The chunk width in tile.
+     * @param height The chunk height in tile.
+     */
+    void notifyChunkLoaded(int tx, int ty, int width, int height);
+
+    /**
+     * Notify a chunk has been unloaded. Its tiles and their features are not available anymore.
+     * 
+     * @param tx The horizontal chunk location in tile.
+     * @param ty The vertical chunk location in tile.
+     * @param width The chunk width in tile.
+     * @param height The chunk height in tile.
+     */
+    void notifyChunkUnloaded(int tx, int ty, int width, int height);
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map;
+
+import java.io.IOException;
+
+import com.b3dgs.lionengine.Media;
+
+/**
+ * Provide the tiles of a map by area, allowing {@link MapTileChunked} to load only the needed chunks.
+ * <p>
+ * Areas may be read from a background thread, so {@link #load(int, int, int, int, int[])} must be thread safe.
+ * </p>
+ * 
+ * @see MapTileChunked
+ */
+public interface MapTileChunkSource
+{
+    /**
+     * Get the tile width.
+     * 
+     * @return The tile width.
+     */
+    int getTileWidth();
+
+    /**
+     * Get the tile height.
+     * 
+     * @return The tile height.
+     */
+    int getTileHeight();
+
+    /**
+     * Get the map width in tile.
+     * 
+     * @return The map width in tile.
+     */
+    int getInTileWidth();
+
+    /**
+     * Get the map height in tile.
+     * 
+     * @return The map height in tile.
+     */
+    int getInTileHeight();
+
+    /**
+     * Get the sheets configuration.
+     * 
+     * @return The sheets configuration, <code>null</code> if none.
+     */
+    Media getSheetsConfig();
+
+    /**
+     * Load the tiles of an area, as values packed with {@link MapTilePacked#pack(int, int)}. Area may exceed the map
+     * size, tiles outside map are left untouched.
+     * 
+     * @param tx The horizontal area location in tile.
+     * @param ty The vertical area location in tile.
+     * @param width The area width in tile.
+     * @param height The area height in tile.
+     * @param tiles The loaded tiles, row by row (length must be at least <code>width * height</code>).
+     * @throws IOException If error on reading.
+     */
+    void load(int tx, int ty, int width, int height, int[] tiles) throws IOException;
+
+    /**
+     * Close the source.
+     */
+    void close();
+}
@@ -0,0 +1,707 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.tile.Tile;
+import com.b3dgs.lionengine.graphic.Viewer;
+import com.b3dgs.lionengine.util.UtilMath;
+
+/**
+ * Tile based map divided in square chunks, loaded on demand from a {@link MapTileChunkSource} around the
+ * {@link Viewer} (usually the camera).
+ * <p>
+ * On each {@link #update(double)}, chunks covered by the viewer are loaded if needed, chunks ahead of the viewer
+ * movement are read in background, and the least recently viewed chunks are unloaded when more than the capacity are
+ * loaded, not counting visible, modified and held chunks which are never unloaded.
+ * </p>
+ * <p>
+ * Tiles of a chunk which is not loaded are reported as missing (<code>null</code>). Tiles features are stored with
+ * their chunk, and {@link MapTileChunkListener} are notified on loading to attach them (as the pathfinding and
+ * collision features do). Tiles state which cannot be restored on loading must hold their chunk (see
+ * {@link #hold(int, int)}), as the pathfinding does for the objects id.
+ * </p>
+ * <p>
+ * Reading tiles does not change the loaded chunks, so tiles can be read from other threads (as the path queries
+ * workers do) while the map is updated.
+ * </p>
+ * 
+ * @see MapTileChunkSource
+ * @see MapTileChunkListener
+ */
+public class MapTileChunked extends MapTileGame implements PackedTiles, Updatable
+{
+    /** Prefetch thread name. */
+    private static final String THREAD_NAME = "MapTileChunked-prefetch";
+    /** Chunks map load factor. */
+    private static final float LOAD_FACTOR = 0.75F;
+    /** Chunk loading error. */
+    private static final String ERROR_LOAD = "Unable to load chunk: ";
+    /** Chunks order, from the least recently viewed. */
+    private static final Comparator<MapTileChunk> LEAST_USED = new Comparator<MapTileChunk>()
+    {
+        @Override
+        public int compare(MapTileChunk chunk, MapTileChunk other)
+        {
+            if (chunk.getUsed() < other.getUsed())
+            {
+                return -1;
+            }
+            if (chunk.getUsed() > other.getUsed())
+            {
+                return 1;
+            }
+            return 0;
+        }
+    };
+
+    /**
+     * Get the chunk key.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @param chunksX The number of horizontal chunks.
+     * @return The chunk key.
+     */
+    private static Integer getKey(int cx, int cy, int chunksX)
+    {
+        return Integer.valueOf(cy * chunksX + cx);
+    }
+
+    /** Loaded chunks. */
+    private final Map<Integer, MapTileChunk> chunks;
+    /** Chunk listeners. */
+    private final Collection<MapTileChunkListener> listeners = new ArrayList<MapTileChunkListener>();
+    /** Chunks being read in background. */
+    private final Collection<Integer> pending = new HashSet<Integer>();
+    /** Background reader. */
+    private final ExecutorService executor;
+    /** Viewer reference. */
+    private final Viewer viewer;
+    /** Chunk size in tile. */
+    private final int chunkSize;
+    /** Maximum number of loaded chunks. */
+    private final int capacity;
+    /** Chunks read in background, waiting to be added (replaced on clear to ignore running reads). */
+    private Queue<MapTileChunk> prefetched = new ConcurrentLinkedQueue<MapTileChunk>();
+    /** Tiles source (<code>null</code> if none). */
+    private MapTileChunkSource source;
+    /** Number of horizontal chunks. */
+    private int chunksX;
+    /** Number of vertical chunks. */
+    private int chunksY;
+    /** Visible chunks horizontal start. */
+    private int minX;
+    /** Visible chunks vertical start. */
+    private int minY;
+    /** Visible chunks horizontal end (included). */
+    private int maxX = -1;
+    /** Visible chunks vertical end (included). */
+    private int maxY = -1;
+    /** Last viewer horizontal location. */
+    private double lastX;
+    /** Last viewer vertical location. */
+    private double lastY;
+    /** Number of updates, stamping the visible chunks. */
+    private long updates;
+
+    /**
+     * Create a chunked map tile.
+     * 
+     * @param viewer The viewer reference, loaded chunks follow it.
+     * @param chunkSize The chunk size in tile (strictly positive).
+     * @param capacity The maximum number of loaded chunks, not counting visible and modified ones (strictly positive).
+     * @throws LionEngineException If invalid arguments.
+     */
+    public MapTileChunked(Viewer viewer, int chunkSize, int capacity)
+    {
+        super();
+
+        Check.notNull(viewer);
+        Check.superiorStrict(chunkSize, 0);
+        Check.superiorStrict(capacity, 0);
+
+        this.viewer = viewer;
+        this.chunkSize = chunkSize;
+        this.capacity = capacity;
+        chunks = new ConcurrentHashMap<Integer, MapTileChunk>(capacity, LOAD_FACTOR, 1);
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Create the map from a tiles source, without loading any tile. Sheets are loaded if defined by the source.
+     * 
+     * @param source The tiles source.
+     * @throws LionEngineException If invalid source.
+     */
+    public void load(MapTileChunkSource source)
+    {
+        Check.notNull(source);
+
+        create(source.getTileWidth(), source.getTileHeight(), source.getInTileWidth(), source.getInTileHeight());
+        if (source.getSheetsConfig() != null)
+        {
+            loadSheets(source.getSheetsConfig());
+        }
+        this.source = source;
+    }
+
+    /**
+     * Add a chunk listener.
+     * 
+     * @param listener The listener to add.
+     */
+    public void addListener(MapTileChunkListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a chunk listener.
+     * 
+     * @param listener The listener to remove.
+     */
+    public void removeListener(MapTileChunkListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Load the chunk containing the tile if not already loaded, waiting for its reading.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @throws LionEngineException If outside map or error on reading.
+     */
+    public void loadChunk(int tx, int ty)
+    {
+        Check.superiorOrEqual(tx, 0);
+        Check.superiorOrEqual(ty, 0);
+        Check.inferiorStrict(tx, getInTileWidth());
+        Check.inferiorStrict(ty, getInTileHeight());
+
+        loadChunkIndex(tx / chunkSize, ty / chunkSize);
+    }
+
+    /**
+     * Hold the chunk containing the tile, loading it if needed. A held chunk is not unloaded until released as many
+     * times as held (see {@link #release(int, int)}).
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @throws LionEngineException If outside map or error on reading.
+     */
+    public void hold(int tx, int ty)
+    {
+        Check.superiorOrEqual(tx, 0);
+        Check.superiorOrEqual(ty, 0);
+        Check.inferiorStrict(tx, getInTileWidth());
+        Check.inferiorStrict(ty, getInTileHeight());
+
+        loadChunkIndex(tx / chunkSize, ty / chunkSize).hold();
+    }
+
+    /**
+     * Release a hold of the chunk containing the tile (see {@link #hold(int, int)}).
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     */
+    public void release(int tx, int ty)
+    {
+        final MapTileChunk chunk = getChunk(tx, ty);
+        if (chunk != null)
+        {
+            chunk.release();
+        }
+    }
+
+    /**
+     * Check if the chunk containing the tile is loaded.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return <code>true</code> if loaded, <code>false</code> else.
+     */
+    public boolean isLoaded(int tx, int ty)
+    {
+        return getChunk(tx, ty) != null;
+    }
+
+    /**
+     * Get the number of loaded chunks.
+     * 
+     * @return The number of loaded chunks.
+     */
+    public int getLoadedChunks()
+    {
+        return chunks.size();
+    }
+
+    /**
+     * Get the chunk size.
+     * 
+     * @return The chunk size in tile.
+     */
+    public int getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    /**
+     * Stop background reading and close the source. Map must not be updated anymore.
+     */
+    public void terminate()
+    {
+        executor.shutdownNow();
+        if (source != null)
+        {
+            source.close();
+        }
+    }
+
+    /**
+     * Get the loaded chunk containing the tile.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return The chunk, <code>null</code> if outside map or not loaded.
+     */
+    private MapTileChunk getChunk(int tx, int ty)
+    {
+        if (!UtilMath.isBetween(tx, 0, getInTileWidth() - 1) || !UtilMath.isBetween(ty, 0, getInTileHeight() - 1))
+        {
+            return null;
+        }
+        return chunks.get(getKey(tx / chunkSize, ty / chunkSize, chunksX));
+    }
+
+    /**
+     * Get the tile index in its chunk.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return The tile index in chunk.
+     */
+    private int getIndex(int tx, int ty)
+    {
+        return ty % chunkSize * chunkSize + tx % chunkSize;
+    }
+
+    /**
+     * Load the chunk if not already loaded, waiting for its reading.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @return The loaded chunk.
+     * @throws LionEngineException If error on reading.
+     */
+    private MapTileChunk loadChunkIndex(int cx, int cy)
+    {
+        final MapTileChunk chunk = chunks.get(getKey(cx, cy, chunksX));
+        if (chunk != null)
+        {
+            return chunk;
+        }
+        try
+        {
+            return add(read(cx, cy));
+        }
+        catch (final IOException exception)
+        {
+            throw new LionEngineException(exception, ERROR_LOAD, String.valueOf(cx), String.valueOf(cy));
+        }
+    }
+
+    /**
+     * Read the chunk tiles from source.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @return The read chunk.
+     * @throws IOException If error on reading.
+     */
+    private MapTileChunk read(int cx, int cy) throws IOException
+    {
+        final int[] tiles = new int[chunkSize * chunkSize];
+        if (source != null)
+        {
+            source.load(cx * chunkSize, cy * chunkSize, chunkSize, chunkSize, tiles);
+        }
+        return new MapTileChunk(cx, cy, tiles);
+    }
+
+    /**
+     * Add a loaded chunk and notify listeners.
+     * 
+     * @param chunk The loaded chunk.
+     * @return The added chunk.
+     */
+    private MapTileChunk add(MapTileChunk chunk)
+    {
+        final Integer key = getKey(chunk.getX(), chunk.getY(), chunksX);
+        chunk.setUsed(updates);
+        chunks.put(key, chunk);
+        pending.remove(key);
+
+        final int tx = chunk.getX() * chunkSize;
+        final int ty = chunk.getY() * chunkSize;
+        final int width = Math.min(chunkSize, getInTileWidth() - tx);
+        final int height = Math.min(chunkSize, getInTileHeight() - ty);
+        for (final MapTileChunkListener listener : listeners)
+        {
+            listener.notifyChunkLoaded(tx, ty, width, height);
+        }
+        return chunk;
+    }
+
+    /**
+     * Add the chunks read in background, if not already loaded meanwhile.
+     */
+    private void addPrefetched()
+    {
+        MapTileChunk chunk = prefetched.poll();
+        while (chunk != null)
+        {
+            final Integer key = getKey(chunk.getX(), chunk.getY(), chunksX);
+            pending.remove(key);
+            if (!chunks.containsKey(key))
+            {
+                add(chunk);
+            }
+            chunk = prefetched.poll();
+        }
+    }
+
+    /**
+     * Read chunks in background if not loaded or already being read.
+     * 
+     * @param startX The horizontal chunk start index.
+     * @param startY The vertical chunk start index.
+     * @param endX The horizontal chunk end index (included).
+     * @param endY The vertical chunk end index (included).
+     */
+    private void prefetch(int startX, int startY, int endX, int endY)
+    {
+        final Queue<MapTileChunk> queue = prefetched;
+        for (int cy = Math.max(0, startY); cy <= Math.min(chunksY - 1, endY); cy++)
+        {
+            for (int cx = Math.max(0, startX); cx <= Math.min(chunksX - 1, endX); cx++)
+            {
+                final Integer key = getKey(cx, cy, chunksX);
+                if (!chunks.containsKey(key) && pending.add(key))
+                {
+                    final int x = cx;
+                    final int y = cy;
+                    executor.execute(new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            try
+                            {
+                                queue.add(read(x, y));
+                            }
+                            catch (final IOException exception)
+                            {
+                                if (!executor.isShutdown())
+                                {
+                                    Verbose.exception(exception, ERROR_LOAD);
+                                }
+                            }
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if chunk can be unloaded (not visible, not modified and not held).
+     * 
+     * @param chunk The chunk to check.
+     * @return <code>true</code> if can be unloaded, <code>false</code> else.
+     */
+    private boolean isUnloadable(MapTileChunk chunk)
+    {
+        final boolean visible = UtilMath.isBetween(chunk.getX(), minX, maxX)
+                                && UtilMath.isBetween(chunk.getY(), minY, maxY);
+        return !visible && !chunk.isModified() && !chunk.isHeld();
+    }
+
+    /**
+     * Unload the least recently viewed chunks until capacity is respected. Visible, modified and held chunks are kept.
+     */
+    private void unload()
+    {
+        final List<MapTileChunk> unloadable = new ArrayList<MapTileChunk>();
+        for (final MapTileChunk chunk : chunks.values())
+        {
+            if (isUnloadable(chunk))
+            {
+                unloadable.add(chunk);
+            }
+        }
+        if (unloadable.size() <= capacity)
+        {
+            return;
+        }
+        Collections.sort(unloadable, LEAST_USED);
+        final List<MapTileChunk> unloaded = unloadable.subList(0, unloadable.size() - capacity);
+        for (final MapTileChunk chunk : unloaded)
+        {
+            chunks.remove(getKey(chunk.getX(), chunk.getY(), chunksX));
+        }
+        for (final MapTileChunk chunk : unloaded)
+        {
+            final int tx = chunk.getX() * chunkSize;
+            final int ty = chunk.getY() * chunkSize;
+            final int width = Math.min(chunkSize, getInTileWidth() - tx);
+            final int height = Math.min(chunkSize, getInTileHeight() - ty);
+            for (final MapTileChunkListener listener : listeners)
+            {
+                listener.notifyChunkUnloaded(tx, ty, width, height);
+            }
+        }
+    }
+
+    /*
+     * Updatable
+     */
+
+    @Override
+    public void update(double extrp)
+    {
+        if (!isCreated())
+        {
+            return;
+        }
+        updates++;
+        addPrefetched();
+
+        final double chunkWidth = getTileWidth() * (double) chunkSize;
+        final double chunkHeight = getTileHeight() * (double) chunkSize;
+        final double x = viewer.getX() + viewer.getViewX();
+        final double y = viewer.getY() - viewer.getViewY();
+        minX = Math.max(0, (int) Math.floor(x / chunkWidth));
+        minY = Math.max(0, (int) Math.floor(y / chunkHeight));
+        maxX = Math.min(chunksX - 1, (int) Math.floor((x + viewer.getWidth()) / chunkWidth));
+        maxY = Math.min(chunksY - 1, (int) Math.floor((y + viewer.getHeight()) / chunkHeight));
+
+        for (int cy = minY; cy <= maxY; cy++)
+        {
+            for (int cx = minX; cx <= maxX; cx++)
+            {
+                loadChunkIndex(cx, cy).setUsed(updates);
+            }
+        }
+
+        final double dx = viewer.getX() - lastX;
+        final double dy = viewer.getY() - lastY;
+        lastX = viewer.getX();
+        lastY = viewer.getY();
+
+        final int aheadX = (int) Math.signum(dx);
+        final int aheadY = (int) Math.signum(dy);
+        if (aheadX != 0)
+        {
+            final int cx = aheadX > 0 ? maxX + 1 : minX - 1;
+            prefetch(cx, minY, cx, maxY);
+        }
+        if (aheadY != 0)
+        {
+            final int cy = aheadY > 0 ? maxY + 1 : minY - 1;
+            prefetch(minX, cy, maxX, cy);
+        }
+        if (aheadX != 0 && aheadY != 0)
+        {
+            final int cx = aheadX > 0 ? maxX + 1 : minX - 1;
+            final int cy = aheadY > 0 ? maxY + 1 : minY - 1;
+            prefetch(cx, cy, cx, cy);
+        }
+        unload();
+    }
+
+    /*
+     * PackedTiles
+     */
+
+    @Override
+    public Featurable getFeaturable(int tx, int ty, boolean create)
+    {
+        final MapTileChunk chunk;
+        if (create)
+        {
+            chunk = loadChunkIndex(tx / chunkSize, ty / chunkSize);
+        }
+        else
+        {
+            chunk = getChunk(tx, ty);
+        }
+        if (chunk == null)
+        {
+            return null;
+        }
+        return chunk.getFeaturable(getIndex(tx, ty), create);
+    }
+
+    /*
+     * MapTileGame
+     */
+
+    @Override
+    protected void createTiles(int widthInTile, int heightInTile)
+    {
+        chunksX = (widthInTile + chunkSize - 1) / chunkSize;
+        chunksY = (heightInTile + chunkSize - 1) / chunkSize;
+    }
+
+    @Override
+    protected void resizeTiles(int oldWidth, int oldheight, int newWidth, int newHeight)
+    {
+        createTiles(newWidth, newHeight);
+
+        final Collection<MapTileChunk> loaded = new ArrayList<MapTileChunk>(chunks.values());
+        chunks.clear();
+        for (final MapTileChunk chunk : loaded)
+        {
+            chunks.put(getKey(chunk.getX(), chunk.getY(), chunksX), chunk);
+        }
+        pending.clear();
+        prefetched = new ConcurrentLinkedQueue<MapTileChunk>();
+    }
+
+    /*
+     * MapTile
+     */
+
+    @Override
+    public void clear()
+    {
+        chunks.clear();
+        pending.clear();
+        prefetched = new ConcurrentLinkedQueue<MapTileChunk>();
+        notifyTilesCleared();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The chunk of the tile is loaded if needed, and will not be unloaded anymore.
+     * </p>
+     */
+    @Override
+    public void setTile(Tile tile)
+    {
+        final int tx = tile.getInTileX();
+        final int ty = tile.getInTileY();
+        Check.inferiorStrict(tx, getInTileWidth());
+        Check.inferiorStrict(ty, getInTileHeight());
+
+        final MapTileChunk chunk = loadChunkIndex(tx / chunkSize, ty / chunkSize);
+        final int index = getIndex(tx, ty);
+        chunk.getTiles()[index] = MapTilePacked.pack(tile.getSheet().intValue(), tile.getNumber());
+        chunk.setModified();
+
+        if (!(tile instanceof TilePacked && ((TilePacked) tile).isViewOf(this)))
+        {
+            if (tile.getFeatures().iterator().hasNext())
+            {
+                chunk.setFeaturable(index, tile);
+            }
+            else
+            {
+                chunk.setFeaturable(index, null);
+            }
+        }
+        notifyTileSet(tile);
+    }
+
+    @Override
+    public Tile getTile(int tx, int ty)
+    {
+        final MapTileChunk chunk = getChunk(tx, ty);
+        if (chunk == null)
+        {
+            return null;
+        }
+        final int packed = chunk.getTiles()[getIndex(tx, ty)];
+        if (packed == 0)
+        {
+            return null;
+        }
+        return new TilePacked(this, tx, ty, packed);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only tiles of loaded chunks are counted.
+     * </p>
+     */
+    @Override
+    public int getTilesNumber()
+    {
+        int tilesNumber = 0;
+        for (final MapTileChunk chunk : chunks.values())
+        {
+            for (final int packed : chunk.getTiles())
+            {
+                if (packed != 0)
+                {
+                    tilesNumber++;
+                }
+            }
+        }
+        return tilesNumber;
+    }
+
+    @Override
+    public boolean isCreated()
+    {
+        return chunksX > 0;
+    }
+}
@@ -66,6 +66,8 @@ public class MapTileGame extends FeaturableModel implements MapTile
     /** Inconsistent tile size. */
     private static final String ERROR_TILE_SIZE = "Tile size is inconsistent between sheets !";
 
+    /** Tiles listeners. */
+    private final Collection<MapTileListener> listeners = new ArrayList<MapTileListener>();
     /** Sheets list. */
     private final Map<Integer, SpriteTiled> sheets = new HashMap<Integer, SpriteTiled>();
     /** Sheet configuration file. */
@@ -92,16 +94,59 @@ public class MapTileGame extends FeaturableModel implements MapTile
     }
 
     /**
-     * Resize map with new size.
+     * Allocate the tiles storage, without any tile.
+     * 
+     * @param widthInTile The map width in tile.
+     * @param heightInTile The map height in tile.
+     */
+    protected void createTiles(int widthInTile, int heightInTile)
+    {
+        tiles = new ArrayList<List<Tile>>(heightInTile);
+
+        for (int v = 0; v < heightInTile; v++)
+        {
+            tiles.add(v, new ArrayList<Tile>(widthInTile));
+            for (int h = 0; h < widthInTile; h++)
+            {
+                tiles.get(v).add(h, null);
+            }
+        }
+    }
+
+    /**
+     * Notify listeners that a tile has been set. Must be called by {@link #setTile(Tile)} implementations.
+     * 
+     * @param tile The tile set.
+     */
+    protected final void notifyTileSet(Tile tile)
+    {
+        for (final MapTileListener listener : listeners)
+        {
+            listener.notifyTileSet(tile);
+        }
+    }
+
+    /**
+     * Notify listeners that all tiles have been removed. Must be called by {@link #clear()} implementations.
+     */
+    protected final void notifyTilesCleared()
+    {
+        for (final MapTileListener listener : listeners)
+        {
+            listener.notifyTilesCleared();
+        }
+    }
+
+    /**
+     * Resize the tiles storage, keeping existing tiles.
      * 
+     * @param oldWidth The old width in tile.
+     * @param oldheight The old height in tile.
      * @param newWidth The new width in tile.
      * @param newHeight The new height in tile.
      */
-    private void resize(int newWidth, int newHeight)
+    protected void resizeTiles(int oldWidth, int oldheight, int newWidth, int newHeight)
     {
-        final int oldWidth = widthInTile;
-        final int oldheight = heightInTile;
-
         // Adjust height
         for (int v = 0; v < newHeight - oldheight; v++)
         {
@@ -124,6 +169,17 @@ public class MapTileGame extends FeaturableModel implements MapTile
                 tiles.get(v).add(null);
             }
         }
+    }
+
+    /**
+     * Resize map with new size.
+     * 
+     * @param newWidth The new width in tile.
+     * @param newHeight The new height in tile.
+     */
+    private void resize(int newWidth, int newHeight)
+    {
+        resizeTiles(widthInTile, heightInTile, newWidth, newHeight);
 
         widthInTile = newWidth;
         heightInTile = newHeight;
@@ -149,16 +205,7 @@ public class MapTileGame extends FeaturableModel implements MapTile
 
         radius = (int) Math.ceil(StrictMath.sqrt(widthInTile * widthInTile + heightInTile * (double) heightInTile));
         clear();
-        tiles = new ArrayList<List<Tile>>(heightInTile);
-
-        for (int v = 0; v < heightInTile; v++)
-        {
-            tiles.add(v, new ArrayList<Tile>(widthInTile));
-            for (int h = 0; h < widthInTile; h++)
-            {
-                tiles.get(v).add(h, null);
-            }
-        }
+        createTiles(widthInTile, heightInTile);
     }
 
     @Override
@@ -288,6 +335,19 @@ public class MapTileGame extends FeaturableModel implements MapTile
             }
             tiles.clear();
         }
+        notifyTilesCleared();
+    }
+
+    @Override
+    public void addListener(MapTileListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(MapTileListener listener)
+    {
+        listeners.remove(listener);
     }
 
     @Override
@@ -299,6 +359,7 @@ public class MapTileGame extends FeaturableModel implements MapTile
         Check.inferiorStrict(ty, getInTileHeight());
 
         tiles.get(ty).set(tx, tile);
+        notifyTileSet(tile);
     }
 
     @Override
@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.tile.Tile;
+import com.b3dgs.lionengine.util.UtilMath;
+
+/**
+ * Tile based map storing tiles in a single primitive array, instead of one object per tile.
+ * <p>
+ * Each tile is packed in an <code>int</code> made of its sheet and its number, <code>0</code> meaning no tile. Tile
+ * location is deduced from its index, and {@link #getTile(int, int)} returns a lightweight view on the packed value.
+ * </p>
+ * <p>
+ * Tiles features are kept only for tiles which have some, as they are added through the tile views (or carried by
+ * the tile given to {@link #setTile(Tile)}). Replacing a tile drops its features, as with {@link MapTileGame}.
+ * </p>
+ * <p>
+ * Features still cost one object per tile when a map feature adds them to all tiles. They are held in a compact array
+ * instead of a {@link com.b3dgs.lionengine.game.feature.FeaturableModel}: for a 1024x1024 map, tiles take 4MB alone
+ * (228MB with {@link MapTileGame}), 104MB with a {@link com.b3dgs.lionengine.game.pathfinding.TilePath} on each tile
+ * (452MB), and 168MB with a {@link com.b3dgs.lionengine.game.collision.tile.TileCollision} on each tile (604MB).
+ * </p>
+ * 
+ * @see MapTileGame
+ */
+public class MapTilePacked extends MapTileGame implements PackedTiles
+{
+    /** Maximum sheet value (excluded). */
+    public static final int MAX_SHEET = 0xFFFF;
+    /** Maximum number value (excluded). */
+    public static final int MAX_NUMBER = 0x10000;
+    /** Sheet shift in packed value. */
+    static final int SHEET_SHIFT = 16;
+    /** Number mask in packed value. */
+    static final int NUMBER_MASK = 0xFFFF;
+    /** Tile value error. */
+    private static final String ERROR_TILE = "Tile cannot be packed: ";
+
+    /**
+     * Pack a tile.
+     * 
+     * @param sheet The sheet number (must be positive and inferior to {@value #MAX_SHEET}).
+     * @param number The tile number (must be positive and inferior to {@value #MAX_NUMBER}).
+     * @return The packed value (never <code>0</code>).
+     * @throws LionEngineException If tile cannot be packed.
+     */
+    public static int pack(int sheet, int number)
+    {
+        if (sheet < 0 || sheet >= MAX_SHEET || number < 0 || number >= MAX_NUMBER)
+        {
+            throw new LionEngineException(ERROR_TILE, String.valueOf(sheet), Constant.SLASH, String.valueOf(number));
+        }
+        return (sheet + 1) << SHEET_SHIFT | number;
+    }
+
+    /**
+     * Get the sheet of a packed tile.
+     * 
+     * @param packed The packed value (must not be <code>0</code>).
+     * @return The sheet number.
+     */
+    public static int unpackSheet(int packed)
+    {
+        return (packed >>> SHEET_SHIFT) - 1;
+    }
+
+    /**
+     * Get the number of a packed tile.
+     * 
+     * @param packed The packed value (must not be <code>0</code>).
+     * @return The tile number.
+     */
+    public static int unpackNumber(int packed)
+    {
+        return packed & NUMBER_MASK;
+    }
+
+    /** Tiles features, by tile index (<code>null</code> until a first tile has features). */
+    private Featurable[] featurables;
+    /** Packed tiles, row by row (<code>null</code> if not created). */
+    private int[] tiles;
+
+    /**
+     * Create a packed map tile.
+     */
+    public MapTilePacked()
+    {
+        super();
+    }
+
+    /**
+     * Create the map from a tiles source, and load all its tiles at once. Sheets are loaded if defined by the source.
+     * Source is not closed.
+     * 
+     * @param source The tiles source.
+     * @throws IOException If error on reading.
+     * @throws LionEngineException If invalid source.
+     */
+    public void load(MapTileChunkSource source) throws IOException
+    {
+        Check.notNull(source);
+
+        create(source.getTileWidth(), source.getTileHeight(), source.getInTileWidth(), source.getInTileHeight());
+        if (source.getSheetsConfig() != null)
+        {
+            loadSheets(source.getSheetsConfig());
+        }
+        source.load(0, 0, getInTileWidth(), getInTileHeight(), tiles);
+    }
+
+    /**
+     * Get the packed tile value.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return The packed value, <code>0</code> if no tile or outside map.
+     */
+    public int getPacked(int tx, int ty)
+    {
+        if (!UtilMath.isBetween(tx, 0, getInTileWidth() - 1) || !UtilMath.isBetween(ty, 0, getInTileHeight() - 1))
+        {
+            return 0;
+        }
+        return tiles[ty * getInTileWidth() + tx];
+    }
+
+    /*
+     * MapTileGame
+     */
+
+    @Override
+    protected void createTiles(int widthInTile, int heightInTile)
+    {
+        tiles = new int[widthInTile * heightInTile];
+        featurables = null;
+    }
+
+    @Override
+    protected void resizeTiles(int oldWidth, int oldheight, int newWidth, int newHeight)
+    {
+        final int[] resized = new int[newWidth * newHeight];
+        for (int ty = 0; ty < oldheight; ty++)
+        {
+            System.arraycopy(tiles, ty * oldWidth, resized, ty * newWidth, oldWidth);
+        }
+        tiles = resized;
+
+        if (featurables != null)
+        {
+            final Featurable[] moved = new Featurable[newWidth * newHeight];
+            for (int ty = 0; ty < oldheight; ty++)
+            {
+                System.arraycopy(featurables, ty * oldWidth, moved, ty * newWidth, oldWidth);
+            }
+            featurables = moved;
+        }
+    }
+
+    /*
+     * PackedTiles
+     */
+
+    @Override
+    public Featurable getFeaturable(int tx, int ty, boolean create)
+    {
+        final int index = ty * getInTileWidth() + tx;
+        if (featurables == null)
+        {
+            if (!create)
+            {
+                return null;
+            }
+            featurables = new Featurable[tiles.length];
+        }
+        if (featurables[index] == null && create)
+        {
+            featurables[index] = new TileFeatures();
+        }
+        return featurables[index];
+    }
+
+    /*
+     * MapTile
+     */
+
+    @Override
+    public void clear()
+    {
+        if (tiles != null)
+        {
+            Arrays.fill(tiles, 0);
+        }
+        featurables = null;
+        notifyTilesCleared();
+    }
+
+    @Override
+    public void setTile(Tile tile)
+    {
+        final int tx = tile.getInTileX();
+        final int ty = tile.getInTileY();
+        Check.inferiorStrict(tx, getInTileWidth());
+        Check.inferiorStrict(ty, getInTileHeight());
+
+        final int index = ty * getInTileWidth() + tx;
+        tiles[index] = pack(tile.getSheet().intValue(), tile.getNumber());
+
+        if (!(tile instanceof TilePacked && ((TilePacked) tile).isViewOf(this)))
+        {
+            if (tile.getFeatures().iterator().hasNext())
+            {
+                if (featurables == null)
+                {
+                    featurables = new Featurable[tiles.length];
+                }
+                featurables[index] = tile;
+            }
+            else if (featurables != null)
+            {
+                featurables[index] = null;
+            }
+        }
+        notifyTileSet(tile);
+    }
+
+    @Override
+    public Tile getTile(int tx, int ty)
+    {
+        final int packed = getPacked(tx, ty);
+        if (packed == 0)
+        {
+            return null;
+        }
+        return new TilePacked(this, tx, ty, packed);
+    }
+
+    @Override
+    public int getTilesNumber()
+    {
+        int tilesNumber = 0;
+        if (tiles != null)
+        {
+            for (final int packed : tiles)
+            {
+                if (packed != 0)
+                {
+                    tilesNumber++;
+                }
+            }
+        }
+        return tilesNumber;
+    }
+
+    @Override
+    public boolean isCreated()
+    {
+        return tiles != null;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map;
+
+import com.b3dgs.lionengine.game.feature.Featurable;
+
+/**
+ * Map storing its tiles as packed values, and the features of the tiles which have some.
+ * 
+ * @see TilePacked
+ */
+interface PackedTiles extends MapTile
+{
+    /**
+     * Get the features holder of a tile.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @param create <code>true</code> to create holder if none, <code>false</code> to only get the existing one.
+     * @return The features holder, <code>null</code> if none and not created.
+     */
+    Featurable getFeaturable(int tx, int ty, boolean create);
+}
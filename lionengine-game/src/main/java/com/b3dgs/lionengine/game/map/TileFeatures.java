@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Feature;
+import com.b3dgs.lionengine.game.feature.FeatureId;
+import com.b3dgs.lionengine.game.feature.Services;
+
+/**
+ * Compact features holder of a packed tile, storing its few features in an array instead of the maps used by
+ * {@link com.b3dgs.lionengine.game.feature.FeaturableModel}, as there may be one holder per tile.
+ * <p>
+ * Adding a feature of an already stored class replaces it. Features are prepared with
+ * {@link Feature#prepare(com.b3dgs.lionengine.game.feature.FeatureProvider, Services)}, but their service fields are
+ * not injected: tile features must get their services on prepare.
+ * </p>
+ */
+final class TileFeatures implements Featurable
+{
+    /** Feature not found error. */
+    private static final String ERROR_FEATURE_NOT_FOUND = "Feature not found: ";
+    /** No features. */
+    private static final Feature[] NONE = new Feature[0];
+
+    /**
+     * Get a copy of the feature array with the feature added, replacing the one of the same class if any. The current
+     * array is not modified, as it may be read while replaced.
+     * 
+     * @param array The current features.
+     * @param feature The feature to add.
+     * @return The updated features.
+     */
+    private static Feature[] add(Feature[] array, Feature feature)
+    {
+        for (int i = 0; i < array.length; i++)
+        {
+            if (array[i].getClass() == feature.getClass())
+            {
+                final Feature[] replaced = array.clone();
+                replaced[i] = feature;
+                return replaced;
+            }
+        }
+        final Feature[] added = Arrays.copyOf(array, array.length + 1);
+        added[array.length] = feature;
+        return added;
+    }
+
+    /** Features, in add order (read by path finding workers while replaced). */
+    private volatile Feature[] features = NONE;
+    /** Features to prepare, in add order. */
+    private Feature[] toPrepare = NONE;
+    /** Prepared flag. */
+    private boolean prepared;
+
+    /**
+     * Create a tile features holder.
+     */
+    TileFeatures()
+    {
+        super();
+    }
+
+    /**
+     * Find the last added feature of the type.
+     * 
+     * @param type The feature class or interface.
+     * @return The feature instance, <code>null</code> if not found.
+     */
+    private Feature find(Class<?> type)
+    {
+        final Feature[] current = features;
+        for (int i = current.length - 1; i >= 0; i--)
+        {
+            if (type.isInstance(current[i]))
+            {
+                return current[i];
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Featurable
+     */
+
+    @Override
+    public void prepareFeatures(Services services)
+    {
+        prepared = true;
+        for (final Feature feature : toPrepare)
+        {
+            feature.prepare(this, services);
+
+            for (final Feature current : toPrepare)
+            {
+                if (feature != current)
+                {
+                    current.checkListener(feature);
+                }
+            }
+        }
+        toPrepare = NONE;
+    }
+
+    @Override
+    public void addFeature(Feature feature)
+    {
+        features = add(features, feature);
+        toPrepare = add(toPrepare, feature);
+    }
+
+    @Override
+    public <T extends Feature> T addFeatureAndGet(T feature)
+    {
+        addFeature(feature);
+        return feature;
+    }
+
+    @Override
+    public <C extends Feature> C getFeature(Class<C> feature)
+    {
+        final Feature value = find(feature);
+        if (value == null)
+        {
+            throw new LionEngineException(ERROR_FEATURE_NOT_FOUND, feature.getName());
+        }
+        return feature.cast(value);
+    }
+
+    @Override
+    public <C extends Feature> C getFeature(FeatureId<C> id)
+    {
+        return getFeature(id.getType());
+    }
+
+    @Override
+    public Iterable<Feature> getFeatures()
+    {
+        return Collections.unmodifiableList(Arrays.asList(features));
+    }
+
+    @Override
+    public Iterable<Class<? extends Feature>> getFeaturesType()
+    {
+        final Collection<Class<? extends Feature>> types = new HashSet<Class<? extends Feature>>();
+        for (final Feature feature : features)
+        {
+            types.add(feature.getClass());
+            for (final Class<?> type : feature.getClass().getInterfaces())
+            {
+                if (Feature.class.isAssignableFrom(type))
+                {
+                    types.add(type.asSubclass(Feature.class));
+                }
+            }
+        }
+        return types;
+    }
+
+    @Override
+    public boolean hasFeature(Class<? extends Feature> feature)
+    {
+        return find(feature) != null;
+    }
+
+    @Override
+    public boolean hasFeature(FeatureId<?> id)
+    {
+        return find(id.getType()) != null;
+    }
+
+    @Override
+    public boolean isPrepared()
+    {
+        return prepared;
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map;
+
+import java.util.Collections;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Feature;
+import com.b3dgs.lionengine.game.feature.FeatureId;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.tile.Tile;
+
+/**
+ * Lightweight tile view on a {@link PackedTiles} value. Features are stored by the map, and created on first add.
+ */
+final class TilePacked implements Tile
+{
+    /** Feature not found error. */
+    private static final String ERROR_FEATURE_NOT_FOUND = "Feature not found: ";
+
+    /** Map owner. */
+    private final PackedTiles map;
+    /** Packed value. */
+    private final int packed;
+    /** In tile x. */
+    private final int inTileX;
+    /** In tile y. */
+    private final int inTileY;
+
+    /**
+     * Create a tile view.
+     * 
+     * @param map The map owner.
+     * @param inTileX The horizontal tile location.
+     * @param inTileY The vertical tile location.
+     * @param packed The packed value.
+     */
+    TilePacked(PackedTiles map, int inTileX, int inTileY, int packed)
+    {
+        this.map = map;
+        this.inTileX = inTileX;
+        this.inTileY = inTileY;
+        this.packed = packed;
+    }
+
+    /**
+     * Check if tile is a view of the map.
+     * 
+     * @param owner The map to check.
+     * @return <code>true</code> if view of map, <code>false</code> else.
+     */
+    boolean isViewOf(PackedTiles owner)
+    {
+        return map == owner;
+    }
+
+    /**
+     * Get the features holder.
+     * 
+     * @param create <code>true</code> to create holder if none, <code>false</code> to only get the existing one.
+     * @return The features holder, <code>null</code> if none and not created.
+     */
+    private Featurable getFeaturable(boolean create)
+    {
+        return map.getFeaturable(inTileX, inTileY, create);
+    }
+
+    /*
+     * Tile
+     */
+
+    @Override
+    public Integer getSheet()
+    {
+        return Integer.valueOf(MapTilePacked.unpackSheet(packed));
+    }
+
+    @Override
+    public int getNumber()
+    {
+        return MapTilePacked.unpackNumber(packed);
+    }
+
+    @Override
+    public double getX()
+    {
+        return inTileX * (double) map.getTileWidth();
+    }
+
+    @Override
+    public double getY()
+    {
+        return inTileY * (double) map.getTileHeight();
+    }
+
+    @Override
+    public int getWidth()
+    {
+        return map.getTileWidth();
+    }
+
+    @Override
+    public int getHeight()
+    {
+        return map.getTileHeight();
+    }
+
+    @Override
+    public int getInTileX()
+    {
+        return inTileX;
+    }
+
+    @Override
+    public int getInTileY()
+    {
+        return inTileY;
+    }
+
+    @Override
+    public int getInTileWidth()
+    {
+        return 1;
+    }
+
+    @Override
+    public int getInTileHeight()
+    {
+        return 1;
+    }
+
+    /*
+     * Featurable
+     */
+
+    @Override
+    public void prepareFeatures(Services services)
+    {
+        getFeaturable(true).prepareFeatures(services);
+    }
+
+    @Override
+    public void addFeature(Feature feature)
+    {
+        getFeaturable(true).addFeature(feature);
+    }
+
+    @Override
+    public <T extends Feature> T addFeatureAndGet(T feature)
+    {
+        return getFeaturable(true).addFeatureAndGet(feature);
+    }
+
+    @Override
+    public <C extends Feature> C getFeature(Class<C> feature)
+    {
+        final Featurable featurable = getFeaturable(false);
+        if (featurable == null)
+        {
+            throw new LionEngineException(ERROR_FEATURE_NOT_FOUND, feature.getName());
+        }
+        return featurable.getFeature(feature);
+    }
+
+    @Override
+    public <C extends Feature> C getFeature(FeatureId<C> id)
+    {
+        final Featurable featurable = getFeaturable(false);
+        if (featurable == null)
+        {
+            throw new LionEngineException(ERROR_FEATURE_NOT_FOUND, id.getType().getName());
+        }
+        return featurable.getFeature(id);
+    }
+
+    @Override
+    public Iterable<Feature> getFeatures()
+    {
+        final Featurable featurable = getFeaturable(false);
+        if (featurable == null)
+        {
+            return Collections.emptyList();
+        }
+        return featurable.getFeatures();
+    }
+
+    @Override
+    public Iterable<Class<? extends Feature>> getFeaturesType()
+    {
+        final Featurable featurable = getFeaturable(false);
+        if (featurable == null)
+        {
+            return Collections.emptyList();
+        }
+        return featurable.getFeaturesType();
+    }
+
+    @Override
+    public boolean hasFeature(Class<? extends Feature> feature)
+    {
+        final Featurable featurable = getFeaturable(false);
+        return featurable != null && featurable.hasFeature(feature);
+    }
+
+    @Override
+    public boolean hasFeature(FeatureId<?> id)
+    {
+        final Featurable featurable = getFeaturable(false);
+        return featurable != null && featurable.hasFeature(id);
+    }
+
+    @Override
+    public boolean isPrepared()
+    {
+        final Featurable featurable = getFeaturable(false);
+        return featurable != null && featurable.isPrepared();
+    }
+
+    /*
+     * Object
+     */
+
+    @Override
+    public int hashCode()
+    {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + map.getTileWidth();
+        result = prime * result + map.getTileHeight();
+        result = prime * result + inTileX;
+        result = prime * result + inTileY;
+        result = prime * result + packed;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof TilePacked))
+        {
+            return false;
+        }
+        final TilePacked other = (TilePacked) obj;
+        return packed == other.packed
+               && map.getTileWidth() == other.map.getTileWidth()
+               && map.getTileHeight() == other.map.getTileHeight()
+               && inTileX == other.inTileX
+               && inTileY == other.inTileY;
+    }
+}
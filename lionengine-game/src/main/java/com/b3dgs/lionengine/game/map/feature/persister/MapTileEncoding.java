@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map.feature.persister;
+
+/**
+ * List of tiles encodings supported by {@link MapTilePersister#save(com.b3dgs.lionengine.stream.FileWriting)}. The
+ * encoding is saved with the level, and detected on loading.
+ * <p>
+ * Encodings are saved by their order, which must not change.
+ * </p>
+ */
+public enum MapTileEncoding
+{
+    /** One record per tile, made of its sheet, number and location. */
+    TILES,
+    /** Distinct tiles dictionary, followed by each row run length encoded as dictionary indexes. */
+    RUN_LENGTH,
+    /** {@link #RUN_LENGTH} compressed with Deflate. */
+    RUN_LENGTH_DEFLATE;
+}
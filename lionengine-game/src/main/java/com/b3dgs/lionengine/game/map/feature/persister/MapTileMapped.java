@@ -0,0 +1,369 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map.feature.persister;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileChunkSource;
+import com.b3dgs.lionengine.game.map.MapTilePacked;
+import com.b3dgs.lionengine.game.tile.Tile;
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Versioned map format, designed to be memory mapped and read by area with {@link MapTileMappedSource}.
+ * <p>
+ * Tiles are grouped by square chunks, each stored as fixed size records so any chunk is located from the index
+ * header, without reading the rest of the file. Data are saved this way (big endian):
+ * </p>
+ * 
+ * <pre>
+ * <code>(int)</code> magic number ({@link #MAGIC})
+ * <code>(short)</code> format version ({@value #VERSION})
+ * <code>(int)</code> tile width
+ * <code>(int)</code> tile height
+ * <code>(int)</code> width in tiles
+ * <code>(int)</code> height in tiles
+ * <code>(int)</code> chunk size in tiles
+ * <code>(short)</code> sheets configuration path length in bytes (<code>0</code> if none)
+ * <code>(byte[])</code> sheets configuration path (UTF-8), padded to a multiple of 4 bytes
+ * for each chunk, row by row
+ *   <code>(int)</code> chunk location in file (<code>0</code> if chunk has no tile)
+ * for each non empty chunk
+ *   for each tile of the chunk, row by row
+ *     <code>(int)</code> tile packed with {@link MapTilePacked#pack(int, int)} (<code>0</code> if no tile)
+ * </pre>
+ * <p>
+ * File size is limited to {@link Integer#MAX_VALUE}, as mapped at once.
+ * </p>
+ * 
+ * @see MapTileMappedSource
+ */
+public final class MapTileMapped
+{
+    /** Magic number ("LMAP"). */
+    public static final int MAGIC = 0x4C4D4150;
+    /** Current format version. */
+    public static final short VERSION = 1;
+    /** Default chunk size in tile. */
+    public static final int DEFAULT_CHUNK_SIZE = 32;
+    /** Integer size in bytes. */
+    static final int INT_SIZE = Integer.SIZE / Byte.SIZE;
+    /** Header size in bytes, without sheets configuration path and chunks index. */
+    static final int HEADER_SIZE = 6 * INT_SIZE + 2 * Short.SIZE / Byte.SIZE;
+    /** Write mode. */
+    private static final String MODE = "rw";
+    /** Sheets configuration error. */
+    private static final String ERROR_CONFIG = "Sheets configuration path too long !";
+    /** File size error. */
+    private static final String ERROR_SIZE = "Level too large to be mapped !";
+
+    /**
+     * Check if level is saved with this format.
+     * 
+     * @param level The level to check.
+     * @return <code>true</code> if mapped format, <code>false</code> else.
+     * @throws LionEngineException If unable to open level.
+     */
+    public static boolean isMapped(Media level)
+    {
+        Check.notNull(level);
+
+        final InputStream stream = level.getInputStream();
+        try
+        {
+            return new DataInputStream(stream).readInt() == MAGIC;
+        }
+        catch (final IOException exception)
+        {
+            return false;
+        }
+        finally
+        {
+            UtilStream.safeClose(stream);
+        }
+    }
+
+    /**
+     * Save a map with this format.
+     * 
+     * @param map The map to save.
+     * @param level The output level.
+     * @param chunkSize The chunk size in tile (strictly positive).
+     * @throws IOException If error on writing.
+     * @throws LionEngineException If invalid arguments or tiles cannot be packed.
+     */
+    public static void save(MapTile map, Media level, int chunkSize) throws IOException
+    {
+        Check.notNull(map);
+
+        write(new MapSource(map), level, chunkSize);
+    }
+
+    /**
+     * Convert a level saved by {@link MapTilePersisterModel#save(com.b3dgs.lionengine.stream.FileWriting)} to this
+     * format. Level is streamed by chunks, without creating the map.
+     * 
+     * @param legacy The level to convert.
+     * @param level The output level.
+     * @param chunkSize The chunk size in tile (strictly positive).
+     * @throws IOException If error on writing.
+     * @throws LionEngineException If invalid arguments or unable to read legacy level.
+     */
+    public static void convert(Media legacy, Media level, int chunkSize) throws IOException
+    {
+        final MapTileChunkSource source = new MapTilePersisterSource(legacy, chunkSize);
+        try
+        {
+            write(source, level, chunkSize);
+        }
+        finally
+        {
+            source.close();
+        }
+    }
+
+    /**
+     * Get the sheets configuration path length, padded to keep tiles records aligned.
+     * 
+     * @param length The path length in bytes.
+     * @return The padded length.
+     */
+    static int getPadded(int length)
+    {
+        return (length + INT_SIZE - 1) / INT_SIZE * INT_SIZE;
+    }
+
+    /**
+     * Write the tiles source with this format.
+     * 
+     * @param source The tiles source.
+     * @param level The output level.
+     * @param chunkSize The chunk size in tile (strictly positive).
+     * @throws IOException If error on writing.
+     */
+    private static void write(MapTileChunkSource source, Media level, int chunkSize) throws IOException
+    {
+        Check.notNull(level);
+        Check.superiorStrict(chunkSize, 0);
+
+        final byte[] config = getConfig(source);
+        final int chunksX = (source.getInTileWidth() + chunkSize - 1) / chunkSize;
+        final int chunksY = (source.getInTileHeight() + chunkSize - 1) / chunkSize;
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + getPadded(config.length)
+                                                      + chunksX * chunksY * INT_SIZE);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.putInt(source.getTileWidth());
+        header.putInt(source.getTileHeight());
+        header.putInt(source.getInTileWidth());
+        header.putInt(source.getInTileHeight());
+        header.putInt(chunkSize);
+        header.putShort((short) config.length);
+        header.put(config);
+        header.position(HEADER_SIZE + getPadded(config.length));
+
+        final RandomAccessFile file = new RandomAccessFile(level.getFile(), MODE);
+        try
+        {
+            file.setLength(0L);
+            final FileChannel channel = file.getChannel();
+            final int[] tiles = new int[chunkSize * chunkSize];
+            final ByteBuffer chunk = ByteBuffer.allocateDirect(tiles.length * INT_SIZE);
+            long position = header.capacity();
+            for (int cy = 0; cy < chunksY; cy++)
+            {
+                for (int cx = 0; cx < chunksX; cx++)
+                {
+                    Arrays.fill(tiles, 0);
+                    source.load(cx * chunkSize, cy * chunkSize, chunkSize, chunkSize, tiles);
+                    if (isEmpty(tiles))
+                    {
+                        header.putInt(0);
+                    }
+                    else
+                    {
+                        if (position + chunk.capacity() > Integer.MAX_VALUE)
+                        {
+                            throw new IOException(ERROR_SIZE);
+                        }
+                        header.putInt((int) position);
+                        chunk.clear();
+                        chunk.asIntBuffer().put(tiles);
+                        write(channel, chunk, position);
+                        position += chunk.capacity();
+                    }
+                }
+            }
+            header.flip();
+            write(channel, header, 0L);
+        }
+        finally
+        {
+            UtilStream.safeClose(file);
+        }
+    }
+
+    /**
+     * Get the sheets configuration path.
+     * 
+     * @param source The tiles source.
+     * @return The path bytes (empty if none).
+     * @throws IOException If path too long.
+     */
+    private static byte[] getConfig(MapTileChunkSource source) throws IOException
+    {
+        if (source.getSheetsConfig() == null)
+        {
+            return new byte[0];
+        }
+        final byte[] config = source.getSheetsConfig().getPath().getBytes(Constant.UTF_8);
+        if (config.length > Short.MAX_VALUE)
+        {
+            throw new IOException(ERROR_CONFIG);
+        }
+        return config;
+    }
+
+    /**
+     * Check if chunk has no tile.
+     * 
+     * @param tiles The chunk tiles.
+     * @return <code>true</code> if no tile, <code>false</code> else.
+     */
+    private static boolean isEmpty(int[] tiles)
+    {
+        for (final int tile : tiles)
+        {
+            if (tile != 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write the buffer content.
+     * 
+     * @param channel The output channel.
+     * @param buffer The buffer to write.
+     * @param position The file location.
+     * @throws IOException If error on writing.
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * Private constructor.
+     */
+    private MapTileMapped()
+    {
+        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+    }
+
+    /**
+     * Tiles source reading an existing map.
+     */
+    private static final class MapSource implements MapTileChunkSource
+    {
+        /** The map reference. */
+        private final MapTile map;
+
+        /**
+         * Create the source.
+         * 
+         * @param map The map reference.
+         */
+        MapSource(MapTile map)
+        {
+            this.map = map;
+        }
+
+        /*
+         * MapTileChunkSource
+         */
+
+        @Override
+        public int getTileWidth()
+        {
+            return map.getTileWidth();
+        }
+
+        @Override
+        public int getTileHeight()
+        {
+            return map.getTileHeight();
+        }
+
+        @Override
+        public int getInTileWidth()
+        {
+            return map.getInTileWidth();
+        }
+
+        @Override
+        public int getInTileHeight()
+        {
+            return map.getInTileHeight();
+        }
+
+        @Override
+        public Media getSheetsConfig()
+        {
+            return map.getSheetsConfig();
+        }
+
+        @Override
+        public void load(int tx, int ty, int width, int height, int[] tiles)
+        {
+            for (int v = 0; v < height; v++)
+            {
+                for (int h = 0; h < width; h++)
+                {
+                    final Tile tile = map.getTile(tx + h, ty + v);
+                    if (tile != null)
+                    {
+                        tiles[v * width + h] = MapTilePacked.pack(tile.getSheet().intValue(), tile.getNumber());
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            // Nothing to close
+        }
+    }
+}
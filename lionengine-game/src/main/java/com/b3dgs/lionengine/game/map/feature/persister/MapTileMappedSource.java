@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map.feature.persister;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.map.MapTileChunkSource;
+import com.b3dgs.lionengine.game.map.MapTileChunked;
+import com.b3dgs.lionengine.game.map.MapTilePacked;
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Tiles source reading a level saved with the {@link MapTileMapped} format, to be streamed by {@link MapTileChunked}
+ * or loaded at once by {@link MapTilePacked#load(MapTileChunkSource)}.
+ * <p>
+ * The level is memory mapped on creation, and only its header is read. Areas are then copied from the mapped chunks
+ * records, without any intermediate buffer. Level must be a file (not packed in an archive).
+ * </p>
+ * <p>
+ * The mapping remains valid until the source is garbage collected, even after {@link #close()}.
+ * </p>
+ */
+public class MapTileMappedSource implements MapTileChunkSource
+{
+    /** Read mode. */
+    private static final String MODE = "r";
+    /** Open error. */
+    private static final String ERROR_OPEN = "Unable to open level !";
+    /** Read error. */
+    private static final String ERROR_READ = "Unable to read level !";
+    /** Format error. */
+    private static final String ERROR_FORMAT = "Unsupported level format: ";
+    /** Chunk error. */
+    private static final String ERROR_CHUNK = "Invalid chunk location: ";
+
+    /**
+     * Map the level file.
+     * 
+     * @param level The level media.
+     * @return The mapped level.
+     * @throws LionEngineException If unable to open or read level.
+     */
+    private static ByteBuffer map(Media level)
+    {
+        Check.notNull(level);
+
+        final RandomAccessFile file;
+        try
+        {
+            file = new RandomAccessFile(level.getFile(), MODE);
+        }
+        catch (final FileNotFoundException exception)
+        {
+            throw new LionEngineException(exception, level, ERROR_OPEN);
+        }
+        try
+        {
+            final FileChannel channel = file.getChannel();
+            final long size = channel.size();
+            if (size < MapTileMapped.HEADER_SIZE || size > Integer.MAX_VALUE)
+            {
+                throw new IOException(ERROR_FORMAT + size);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+        }
+        catch (final IOException exception)
+        {
+            throw new LionEngineException(exception, level, ERROR_READ);
+        }
+        finally
+        {
+            UtilStream.safeClose(file);
+        }
+    }
+
+    /**
+     * Read the sheets configuration path, and skip its padding.
+     * 
+     * @param buffer The mapped level.
+     * @return The sheets configuration, <code>null</code> if none.
+     */
+    private static Media readConfig(ByteBuffer buffer)
+    {
+        final int length = buffer.getShort();
+        final byte[] config = new byte[length];
+        buffer.get(config);
+        buffer.position(buffer.position() + MapTileMapped.getPadded(length) - length);
+        if (length > 0)
+        {
+            return Medias.create(new String(config, Constant.UTF_8));
+        }
+        return null;
+    }
+
+    /** Mapped level tiles. */
+    private final IntBuffer records;
+    /** Chunks records location by chunk index (<code>-1</code> if empty chunk). */
+    private final int[] index;
+    /** Tile width. */
+    private final int tileWidth;
+    /** Tile height. */
+    private final int tileHeight;
+    /** Map width in tile. */
+    private final int widthInTile;
+    /** Map height in tile. */
+    private final int heightInTile;
+    /** Chunk size in tile. */
+    private final int chunkSize;
+    /** Horizontal chunks number. */
+    private final int chunksX;
+    /** Sheets configuration (<code>null</code> if none). */
+    private final Media sheetsConfig;
+
+    /**
+     * Create the source, and map the level.
+     * 
+     * @param level The level saved with the {@link MapTileMapped} format.
+     * @throws LionEngineException If invalid level or unable to read level.
+     */
+    public MapTileMappedSource(Media level)
+    {
+        final ByteBuffer buffer = map(level);
+        try
+        {
+            final int magic = buffer.getInt();
+            final short version = buffer.getShort();
+            if (magic != MapTileMapped.MAGIC || version < 1 || version > MapTileMapped.VERSION)
+            {
+                throw new IOException(ERROR_FORMAT + Integer.toHexString(magic) + Constant.SLASH + version);
+            }
+            tileWidth = buffer.getInt();
+            tileHeight = buffer.getInt();
+            widthInTile = buffer.getInt();
+            heightInTile = buffer.getInt();
+            chunkSize = buffer.getInt();
+            if (chunkSize < 1 || widthInTile < 0 || heightInTile < 0)
+            {
+                throw new IOException(ERROR_FORMAT + chunkSize);
+            }
+            sheetsConfig = readConfig(buffer);
+            chunksX = (widthInTile + chunkSize - 1) / chunkSize;
+            index = readIndex(buffer, chunksX * ((heightInTile + chunkSize - 1) / chunkSize));
+            buffer.position(0);
+            records = buffer.asIntBuffer();
+        }
+        catch (final IOException exception)
+        {
+            throw new LionEngineException(exception, level, ERROR_READ);
+        }
+        catch (final RuntimeException exception)
+        {
+            throw new LionEngineException(exception, level, ERROR_READ);
+        }
+    }
+
+    /**
+     * Read the chunks location, as records index.
+     * 
+     * @param buffer The mapped level.
+     * @param count The number of chunks.
+     * @return The chunks records index.
+     * @throws IOException If a chunk is outside level.
+     */
+    private int[] readIndex(ByteBuffer buffer, int count) throws IOException
+    {
+        final int records = chunkSize * chunkSize;
+        final int[] chunks = new int[count];
+        final int start = buffer.position() + count * MapTileMapped.INT_SIZE;
+        for (int i = 0; i < count; i++)
+        {
+            final int location = buffer.getInt();
+            if (location == 0)
+            {
+                chunks[i] = -1;
+            }
+            else if (location < start || location % MapTileMapped.INT_SIZE != 0
+                     || (long) location + records * MapTileMapped.INT_SIZE > buffer.capacity())
+            {
+                throw new IOException(ERROR_CHUNK + location);
+            }
+            else
+            {
+                chunks[i] = location / MapTileMapped.INT_SIZE;
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Get the chunk size in tile.
+     * 
+     * @return The chunk size in tile.
+     */
+    public int getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    /*
+     * MapTileChunkSource
+     */
+
+    @Override
+    public int getTileWidth()
+    {
+        return tileWidth;
+    }
+
+    @Override
+    public int getTileHeight()
+    {
+        return tileHeight;
+    }
+
+    @Override
+    public int getInTileWidth()
+    {
+        return widthInTile;
+    }
+
+    @Override
+    public int getInTileHeight()
+    {
+        return heightInTile;
+    }
+
+    @Override
+    public Media getSheetsConfig()
+    {
+        return sheetsConfig;
+    }
+
+    @Override
+    public void load(int tx, int ty, int width, int height, int[] tiles)
+    {
+        final int fromX = Math.max(0, tx);
+        final int fromY = Math.max(0, ty);
+        final int toX = Math.min(widthInTile, tx + width);
+        final int toY = Math.min(heightInTile, ty + height);
+        if (fromX >= toX || fromY >= toY)
+        {
+            return;
+        }
+        final IntBuffer view = records.duplicate();
+        for (int cy = fromY / chunkSize; cy <= (toY - 1) / chunkSize; cy++)
+        {
+            for (int cx = fromX / chunkSize; cx <= (toX - 1) / chunkSize; cx++)
+            {
+                final int start = index[cy * chunksX + cx];
+                if (start > -1)
+                {
+                    final int x = Math.max(fromX, cx * chunkSize);
+                    final int length = Math.min(toX, (cx + 1) * chunkSize) - x;
+                    final int endY = Math.min(toY, (cy + 1) * chunkSize);
+                    for (int y = Math.max(fromY, cy * chunkSize); y < endY; y++)
+                    {
+                        view.position(start + (y - cy * chunkSize) * chunkSize + x - cx * chunkSize);
+                        view.get(tiles, (y - ty) * width + x - tx, length);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        // Mapping is released by the garbage collector
+    }
+}
@@ -17,13 +17,53 @@
  */
 package com.b3dgs.lionengine.game.map.feature.persister;
 
+import java.io.IOException;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.game.Persistable;
 import com.b3dgs.lionengine.game.feature.Feature;
+import com.b3dgs.lionengine.stream.FileWriting;
 
 /**
  * Handle the map persistence by providing saving and loading functions.
+ * <p>
+ * Map can be saved as a stream with {@link #save(FileWriting)}, or with the random access {@link MapTileMapped}
+ * format with {@link #save(Media)}. The stream tiles encoding is selected with {@link #setEncoding(MapTileEncoding)}.
+ * </p>
  */
 public interface MapTilePersister extends Feature, Persistable
 {
-    // Marker
+    /**
+     * Save map to the {@link MapTileMapped} format.
+     * 
+     * @param level The output level file.
+     * @throws IOException If error on writing.
+     * @throws LionEngineException If tiles cannot be saved with this format.
+     */
+    void save(Media level) throws IOException;
+
+    /**
+     * Load map from a level file, saved with the {@link MapTileMapped} format, or with {@link #save(FileWriting)}.
+     * 
+     * @param level The input level file.
+     * @throws IOException If error on reading.
+     * @throws LionEngineException If unable to open level.
+     */
+    void load(Media level) throws IOException;
+
+    /**
+     * Set the tiles encoding used by {@link #save(FileWriting)}. Loading detects the encoding.
+     * 
+     * @param encoding The tiles encoding.
+     * @throws LionEngineException If invalid argument.
+     */
+    void setEncoding(MapTileEncoding encoding);
+
+    /**
+     * Get the tiles encoding used by {@link #save(FileWriting)}.
+     * 
+     * @return The tiles encoding.
+     */
+    MapTileEncoding getEncoding();
 }
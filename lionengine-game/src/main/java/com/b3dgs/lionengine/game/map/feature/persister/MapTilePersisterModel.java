@@ -17,18 +17,34 @@
  */
 package com.b3dgs.lionengine.game.map.feature.persister;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import com.b3dgs.lionengine.Check;
 import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.core.Medias;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.FeatureProvider;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileChunkSource;
+import com.b3dgs.lionengine.game.map.MapTilePacked;
 import com.b3dgs.lionengine.game.tile.Tile;
 import com.b3dgs.lionengine.stream.FileReading;
 import com.b3dgs.lionengine.stream.FileWriting;
+import com.b3dgs.lionengine.stream.Stream;
+import com.b3dgs.lionengine.util.UtilStream;
 
 /**
  * Handle the map persistence by providing saving and loading functions.
@@ -38,10 +54,18 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
     /** Error sheet missing message. */
     private static final String ERROR_SHEET_MISSING = "Sheet missing: ";
     /** Number of horizontal tiles to make a bloc. Used to reduce saved map file size. */
-    private static final int BLOC_SIZE = 256;
+    static final int BLOC_SIZE = 256;
+    /** Bloc tiles count mask (saved as short). */
+    private static final int COUNT_MASK = 0xFFFF;
+    /** Encoded level marker, saved instead of the tile width (which is strictly positive). */
+    static final int ENCODED = -1;
+    /** Error encoding message. */
+    private static final String ERROR_ENCODING = "Unsupported encoding: ";
 
     /** The services reference. */
     private MapTile map;
+    /** The tiles encoding used on saving. */
+    private MapTileEncoding encoding = MapTileEncoding.TILES;
 
     /**
      * Create the persister.
@@ -153,6 +177,252 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
         }
     }
 
+    /**
+     * Load the tiles of a mapped level, row by row.
+     * 
+     * @param source The mapped level.
+     * @throws IOException If error on reading.
+     */
+    private void loadTiles(MapTileChunkSource source) throws IOException
+    {
+        final int widthInTile = source.getInTileWidth();
+        final int[] tiles = new int[widthInTile];
+        for (int ty = 0; ty < source.getInTileHeight(); ty++)
+        {
+            Arrays.fill(tiles, 0);
+            source.load(0, ty, widthInTile, 1, tiles);
+            for (int tx = 0; tx < widthInTile; tx++)
+            {
+                if (tiles[tx] != 0)
+                {
+                    final Integer sheet = Integer.valueOf(MapTilePacked.unpackSheet(tiles[tx]));
+                    if (sheet.intValue() > map.getSheetsNumber())
+                    {
+                        throw new IOException(ERROR_SHEET_MISSING + Constant.DOUBLE_DOT + sheet);
+                    }
+                    map.setTile(map.createTile(sheet,
+                                               MapTilePacked.unpackNumber(tiles[tx]),
+                                               tx * (double) map.getTileWidth(),
+                                               ty * (double) map.getTileHeight()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Save the tiles blocs, with {@link MapTileEncoding#TILES}.
+     * 
+     * @param output The output level file.
+     * @throws IOException If error on writing.
+     */
+    private void saveBlocs(FileWriting output) throws IOException
+    {
+        final int widthInTile = map.getInTileWidth();
+
+        // Header
+        output.writeInteger(map.getTileWidth());
+        output.writeInteger(map.getTileHeight());
+        output.writeInteger(widthInTile);
+        output.writeInteger(map.getInTileHeight());
+
+        final boolean hasConfig = map.getSheetsConfig() != null;
+        output.writeBoolean(hasConfig);
+        if (hasConfig)
+        {
+            output.writeString(map.getSheetsConfig().getPath());
+        }
+
+        final int step = BLOC_SIZE;
+        final int x = Math.min(step, widthInTile);
+        final int t = (int) Math.ceil(widthInTile / (double) step);
+
+        output.writeShort((short) t);
+        for (int s = 0; s < t; s++)
+        {
+            final int count = countTiles(x, step, s);
+            output.writeShort((short) count);
+            saveTiles(output, Math.min(widthInTile, BLOC_SIZE), step, s);
+        }
+    }
+
+    /**
+     * Save the tiles encoded, with a payload compressed if required. Data are saved this way:
+     * 
+     * <pre>
+     * <code>(int)</code> encoded level marker
+     * <code>(byte)</code> encoding
+     * <code>(int)</code> payload length in bytes
+     * <code>(byte[])</code> payload, see {@link MapTileRunLength}
+     * </pre>
+     * 
+     * @param output The output level file.
+     * @throws IOException If error on writing.
+     */
+    private void saveEncoded(FileWriting output) throws IOException
+    {
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        OutputStream stream = payload;
+        if (MapTileEncoding.RUN_LENGTH_DEFLATE == encoding)
+        {
+            stream = new DeflaterOutputStream(stream);
+        }
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(stream));
+        try
+        {
+            MapTileRunLength.write(map, data);
+        }
+        finally
+        {
+            data.close();
+        }
+        output.writeInteger(ENCODED);
+        output.writeByte((byte) encoding.ordinal());
+        output.writeInteger(payload.size());
+        output.writeBytes(payload.toByteArray());
+    }
+
+    /**
+     * Load the tiles blocs, saved with {@link MapTileEncoding#TILES}.
+     * 
+     * @param input The input level file.
+     * @param tileWidth The tile width, already read.
+     * @throws IOException If error on reading.
+     */
+    private void loadBlocs(FileReading input, int tileWidth) throws IOException
+    {
+        map.create(tileWidth, input.readInteger(), input.readInteger(), input.readInteger());
+        if (input.readBoolean())
+        {
+            map.loadSheets(Medias.create(input.readString()));
+        }
+
+        final int t = input.readShort();
+        for (int v = 0; v < t; v++)
+        {
+            final int n = input.readShort() & COUNT_MASK;
+            for (int h = 0; h < n; h++)
+            {
+                final Tile tile = loadTile(input, v);
+                if (tile.getSheet().intValue() > map.getSheetsNumber())
+                {
+                    throw new IOException(ERROR_SHEET_MISSING + Constant.DOUBLE_DOT + tile.getSheet());
+                }
+                map.setTile(tile);
+            }
+        }
+    }
+
+    /**
+     * Load the tiles encoded (see {@link #saveEncoded(FileWriting)}).
+     * 
+     * @param input The input level file.
+     * @throws IOException If error on reading.
+     */
+    private void loadEncoded(FileReading input) throws IOException
+    {
+        final int index = input.readByte();
+        if (index <= MapTileEncoding.TILES.ordinal() || index >= MapTileEncoding.values().length)
+        {
+            throw new IOException(ERROR_ENCODING + index);
+        }
+        final int length = input.readInteger();
+        if (length < 0)
+        {
+            throw new IOException(ERROR_ENCODING + length);
+        }
+        final byte[] payload = new byte[length];
+        input.readBytes(payload);
+
+        InputStream stream = new ByteArrayInputStream(payload);
+        if (MapTileEncoding.RUN_LENGTH_DEFLATE == MapTileEncoding.values()[index])
+        {
+            stream = new InflaterInputStream(stream);
+        }
+        final DataInputStream data = new DataInputStream(new BufferedInputStream(stream));
+        try
+        {
+            MapTileRunLength.read(data, map);
+        }
+        finally
+        {
+            data.close();
+        }
+    }
+
+    /*
+     * MapTilePersister
+     */
+
+    @Override
+    public void setEncoding(MapTileEncoding encoding)
+    {
+        Check.notNull(encoding);
+
+        this.encoding = encoding;
+    }
+
+    @Override
+    public MapTileEncoding getEncoding()
+    {
+        return encoding;
+    }
+
+    @Override
+    public void save(Media level) throws IOException
+    {
+        MapTileMapped.save(map, level, MapTileMapped.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A {@link MapTilePacked} is filled directly from the mapped level, other maps create each of their tiles.
+     * </p>
+     */
+    @Override
+    public void load(Media level) throws IOException
+    {
+        if (MapTileMapped.isMapped(level))
+        {
+            final MapTileChunkSource source = new MapTileMappedSource(level);
+            try
+            {
+                if (map instanceof MapTilePacked)
+                {
+                    ((MapTilePacked) map).load(source);
+                }
+                else
+                {
+                    map.create(source.getTileWidth(),
+                               source.getTileHeight(),
+                               source.getInTileWidth(),
+                               source.getInTileHeight());
+                    if (source.getSheetsConfig() != null)
+                    {
+                        map.loadSheets(source.getSheetsConfig());
+                    }
+                    loadTiles(source);
+                }
+            }
+            finally
+            {
+                source.close();
+            }
+        }
+        else
+        {
+            final FileReading input = Stream.createFileReading(level);
+            try
+            {
+                load(input);
+            }
+            finally
+            {
+                UtilStream.safeClose(input);
+            }
+        }
+    }
+
     /*
      * Persistable
      */
@@ -180,6 +450,10 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
      *   for each tile in this bloc
      *     call tile.save(file)
      * </pre>
+     * <p>
+     * This is the {@link MapTileEncoding#TILES} layout. Other encodings are saved as described by
+     * {@link #saveEncoded(FileWriting)}.
+     * </p>
      * 
      * @param output The output level file.
      * @throws IOException If error on writing.
@@ -187,31 +461,13 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
     @Override
     public void save(FileWriting output) throws IOException
     {
-        final int widthInTile = map.getInTileWidth();
-
-        // Header
-        output.writeInteger(map.getTileWidth());
-        output.writeInteger(map.getTileHeight());
-        output.writeInteger(widthInTile);
-        output.writeInteger(map.getInTileHeight());
-
-        final boolean hasConfig = map.getSheetsConfig() != null;
-        output.writeBoolean(hasConfig);
-        if (hasConfig)
+        if (MapTileEncoding.TILES == encoding)
         {
-            output.writeString(map.getSheetsConfig().getPath());
+            saveBlocs(output);
         }
-
-        final int step = BLOC_SIZE;
-        final int x = Math.min(step, widthInTile);
-        final int t = (int) Math.ceil(widthInTile / (double) step);
-
-        output.writeShort((short) t);
-        for (int s = 0; s < t; s++)
+        else
         {
-            final int count = countTiles(x, step, s);
-            output.writeShort((short) count);
-            saveTiles(output, Math.min(widthInTile, BLOC_SIZE), step, s);
+            saveEncoded(output);
         }
     }
 
@@ -235,6 +491,9 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
      *     call load(file)
      *     call setTile(...) to update map with this new tile
      * </pre>
+     * <p>
+     * Encoding is detected, so a level saved with any {@link MapTileEncoding} can be loaded.
+     * </p>
      * 
      * @param input The input level file.
      * @throws IOException If error on reading.
@@ -242,25 +501,14 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
     @Override
     public void load(FileReading input) throws IOException
     {
-        map.create(input.readInteger(), input.readInteger(), input.readInteger(), input.readInteger());
-        if (input.readBoolean())
+        final int tileWidth = input.readInteger();
+        if (ENCODED == tileWidth)
         {
-            map.loadSheets(Medias.create(input.readString()));
+            loadEncoded(input);
         }
-
-        final int t = input.readShort();
-        for (int v = 0; v < t; v++)
+        else
         {
-            final int n = input.readShort();
-            for (int h = 0; h < n; h++)
-            {
-                final Tile tile = loadTile(input, v);
-                if (tile.getSheet().intValue() > map.getSheetsNumber())
-                {
-                    throw new IOException(ERROR_SHEET_MISSING + Constant.DOUBLE_DOT + tile.getSheet());
-                }
-                map.setTile(tile);
-            }
+            loadBlocs(input, tileWidth);
         }
     }
 }
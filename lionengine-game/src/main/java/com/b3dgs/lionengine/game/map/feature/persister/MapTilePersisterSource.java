@@ -0,0 +1,435 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map.feature.persister;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.InflaterInputStream;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.map.MapTileChunkSource;
+import com.b3dgs.lionengine.game.map.MapTileChunked;
+import com.b3dgs.lionengine.game.map.MapTilePacked;
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Tiles source reading a level saved by {@link MapTilePersisterModel}, to be streamed by {@link MapTileChunked}.
+ * <p>
+ * The level is scanned once on creation to index, for each tiles column, where each chunk row starts. Areas are then
+ * read directly from their location in file. Level must be a file (not packed in an archive).
+ * </p>
+ * <p>
+ * Levels saved with a run length {@link MapTileEncoding} are detected: their runs are kept in memory (inflated if
+ * compressed), indexed by row, and decoded on loading.
+ * </p>
+ */
+public class MapTilePersisterSource implements MapTileChunkSource
+{
+    /** Saved tile size (sheet, number, location x and y). */
+    private static final int TILE_SIZE = 4 * Integer.SIZE / Byte.SIZE;
+    /** Bloc tiles count mask (saved as short). */
+    private static final int COUNT_MASK = 0xFFFF;
+    /** Read mode. */
+    private static final String MODE = "r";
+    /** Open error. */
+    private static final String ERROR_OPEN = "Unable to open level !";
+    /** Read error. */
+    private static final String ERROR_READ = "Unable to read level !";
+    /** Order error. */
+    private static final String ERROR_ORDER = "Unsupported tiles order at: ";
+    /** Header error. */
+    private static final String ERROR_HEADER = "Invalid level header: ";
+    /** Encoding error. */
+    private static final String ERROR_ENCODING = "Unsupported encoding: ";
+    /** Copy buffer size. */
+    private static final int BUFFER_SIZE = 4096;
+
+    /**
+     * Open the level file.
+     * 
+     * @param level The level media.
+     * @return The opened file.
+     * @throws LionEngineException If unable to open level.
+     */
+    private static RandomAccessFile open(Media level)
+    {
+        Check.notNull(level);
+
+        try
+        {
+            return new RandomAccessFile(level.getFile(), MODE);
+        }
+        catch (final FileNotFoundException exception)
+        {
+            throw new LionEngineException(exception, level, ERROR_OPEN);
+        }
+    }
+
+    /**
+     * Inflate compressed data.
+     * 
+     * @param data The compressed data.
+     * @return The inflated data.
+     * @throws IOException If error on reading.
+     */
+    private static byte[] inflate(byte[] data) throws IOException
+    {
+        final InputStream input = new InflaterInputStream(new ByteArrayInputStream(data));
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(data.length);
+        try
+        {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read = input.read(buffer);
+            while (read >= 0)
+            {
+                output.write(buffer, 0, read);
+                read = input.read(buffer);
+            }
+        }
+        finally
+        {
+            input.close();
+        }
+        return output.toByteArray();
+    }
+
+    /** Level file. */
+    private final RandomAccessFile file;
+    /** Level channel. */
+    private final FileChannel channel;
+    /** Chunk size in tile. */
+    private final int chunkSize;
+    /** Column tiles location in file for each chunk row, plus column end. */
+    private long[] index;
+    /** Number of chunk rows. */
+    private int rows;
+    /** Tile width. */
+    private int tileWidth;
+    /** Tile height. */
+    private int tileHeight;
+    /** Map width in tile. */
+    private int widthInTile;
+    /** Map height in tile. */
+    private int heightInTile;
+    /** Sheets configuration (<code>null</code> if none). */
+    private Media sheetsConfig;
+    /** Run length encoded data (<code>null</code> if not encoded). */
+    private byte[] runs;
+    /** Rows location in run length encoded data. */
+    private int[] rowStarts;
+    /** Packed distinct tiles of run length encoded data. */
+    private int[] dictionary;
+
+    /**
+     * Create the source, and index the level.
+     * 
+     * @param level The level saved by {@link MapTilePersisterModel}.
+     * @param chunkSize The indexed chunk size in tile, should be the {@link MapTileChunked} one (strictly positive).
+     * @throws LionEngineException If invalid arguments or unable to read level.
+     */
+    public MapTilePersisterSource(Media level, int chunkSize)
+    {
+        Check.superiorStrict(chunkSize, 0);
+
+        this.chunkSize = chunkSize;
+        file = open(level);
+        channel = file.getChannel();
+        try
+        {
+            final int marker = file.readInt();
+            if (MapTilePersisterModel.ENCODED == marker)
+            {
+                readEncoded();
+            }
+            else
+            {
+                tileWidth = marker;
+                readHeader(file);
+                readIndex(file.getFilePointer());
+            }
+        }
+        catch (final IOException exception)
+        {
+            close();
+            throw new LionEngineException(exception, level, ERROR_READ);
+        }
+    }
+
+    /**
+     * Read the level header, after the tile width.
+     * 
+     * @param input The input data.
+     * @throws IOException If error on reading.
+     */
+    private void readHeader(DataInput input) throws IOException
+    {
+        tileHeight = input.readInt();
+        widthInTile = input.readInt();
+        heightInTile = input.readInt();
+        if (input.readBoolean())
+        {
+            sheetsConfig = Medias.create(input.readUTF());
+        }
+        if (tileWidth <= 0 || tileHeight <= 0 || widthInTile < 0 || heightInTile < 0)
+        {
+            throw new IOException(ERROR_HEADER + tileWidth + Constant.SLASH + tileHeight);
+        }
+        rows = (heightInTile + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * Read the run length encoded data, and index the start of each row (see {@link MapTileRunLength}).
+     * 
+     * @throws IOException If error on reading.
+     */
+    private void readEncoded() throws IOException
+    {
+        final int encoding = file.readByte();
+        if (encoding <= MapTileEncoding.TILES.ordinal() || encoding >= MapTileEncoding.values().length)
+        {
+            throw new IOException(ERROR_ENCODING + encoding);
+        }
+        final int length = file.readInt();
+        if (length < 0)
+        {
+            throw new IOException(ERROR_ENCODING + length);
+        }
+        final byte[] payload = new byte[length];
+        file.readFully(payload);
+        if (MapTileEncoding.RUN_LENGTH_DEFLATE == MapTileEncoding.values()[encoding])
+        {
+            runs = inflate(payload);
+        }
+        else
+        {
+            runs = payload;
+        }
+
+        final ByteArrayInputStream stream = new ByteArrayInputStream(runs);
+        final DataInputStream input = new DataInputStream(stream);
+        tileWidth = input.readInt();
+        readHeader(input);
+        dictionary = MapTileRunLength.readDictionary(input);
+        rowStarts = new int[heightInTile];
+        for (int ty = 0; ty < heightInTile; ty++)
+        {
+            rowStarts[ty] = runs.length - stream.available();
+            MapTileRunLength.readRow(input, dictionary, widthInTile, 0, 0, null, 0);
+        }
+    }
+
+    /**
+     * Read the tiles location, and index the start of each chunk row for each column.
+     * 
+     * @param start The tiles blocs location in file.
+     * @throws IOException If error on reading.
+     */
+    private void readIndex(long start) throws IOException
+    {
+        index = new long[widthInTile * (rows + 1)];
+        final int[] last = new int[widthInTile];
+        final long[] end = new long[widthInTile];
+        Arrays.fill(last, -1);
+
+        channel.position(start);
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        long position = start + Short.SIZE / Byte.SIZE;
+        final int blocs = input.readShort();
+        for (int v = 0; v < blocs; v++)
+        {
+            final int count = input.readShort() & COUNT_MASK;
+            position += Short.SIZE / Byte.SIZE;
+            for (int i = 0; i < count; i++)
+            {
+                input.readInt();
+                input.readInt();
+                final int tx = input.readInt() + v * MapTilePersisterModel.BLOC_SIZE;
+                final int ty = input.readInt();
+                if (tx < 0 || tx >= widthInTile || ty < 0 || ty >= heightInTile || ty <= last[tx])
+                {
+                    throw new IOException(ERROR_ORDER + position);
+                }
+                final int base = tx * (rows + 1);
+                for (int row = getNextRow(last[tx]); row <= ty / chunkSize; row++)
+                {
+                    index[base + row] = position;
+                }
+                last[tx] = ty;
+                position += TILE_SIZE;
+                end[tx] = position;
+            }
+        }
+        for (int tx = 0; tx < widthInTile; tx++)
+        {
+            final int base = tx * (rows + 1);
+            for (int row = getNextRow(last[tx]); row <= rows; row++)
+            {
+                index[base + row] = end[tx];
+            }
+        }
+    }
+
+    /**
+     * Get the first chunk row not indexed yet for a column.
+     * 
+     * @param last The last indexed tile vertical location of the column (<code>-1</code> if none).
+     * @return The first chunk row not indexed.
+     */
+    private int getNextRow(int last)
+    {
+        if (last < 0)
+        {
+            return 0;
+        }
+        return last / chunkSize + 1;
+    }
+
+    /**
+     * Load the tiles of an area from the run length encoded data.
+     * 
+     * @param tx The horizontal area location in tile.
+     * @param ty The vertical area location in tile.
+     * @param width The area width in tile.
+     * @param height The area height in tile.
+     * @param tiles The loaded tiles, row by row.
+     * @throws IOException If error on reading.
+     */
+    private void loadEncoded(int tx, int ty, int width, int height, int[] tiles) throws IOException
+    {
+        final int end = Math.min(heightInTile, ty + height);
+        for (int y = Math.max(0, ty); y < end; y++)
+        {
+            final int start = rowStarts[y];
+            final DataInput input = new DataInputStream(new ByteArrayInputStream(runs, start, runs.length - start));
+            MapTileRunLength.readRow(input, dictionary, widthInTile, tx, width, tiles, (y - ty) * width);
+        }
+    }
+
+    /**
+     * Read the file content.
+     * 
+     * @param buffer The buffer to fill.
+     * @param position The file location.
+     * @throws IOException If error on reading.
+     */
+    private void read(ByteBuffer buffer, long position) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+            {
+                throw new EOFException(ERROR_READ);
+            }
+        }
+        buffer.flip();
+    }
+
+    /*
+     * MapTileChunkSource
+     */
+
+    @Override
+    public int getTileWidth()
+    {
+        return tileWidth;
+    }
+
+    @Override
+    public int getTileHeight()
+    {
+        return tileHeight;
+    }
+
+    @Override
+    public int getInTileWidth()
+    {
+        return widthInTile;
+    }
+
+    @Override
+    public int getInTileHeight()
+    {
+        return heightInTile;
+    }
+
+    @Override
+    public Media getSheetsConfig()
+    {
+        return sheetsConfig;
+    }
+
+    @Override
+    public void load(int tx, int ty, int width, int height, int[] tiles) throws IOException
+    {
+        if (runs != null)
+        {
+            loadEncoded(tx, ty, width, height, tiles);
+            return;
+        }
+        final int startRow = Math.max(0, ty) / chunkSize;
+        final int endRow = Math.min(rows, (ty + height - 1) / chunkSize + 1);
+        for (int h = 0; h < width; h++)
+        {
+            final int x = tx + h;
+            if (x >= 0 && x < widthInTile && startRow < endRow)
+            {
+                final int base = x * (rows + 1);
+                final long from = index[base + startRow];
+                final long to = index[base + endRow];
+                if (to > from)
+                {
+                    final ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+                    read(buffer, from);
+                    while (buffer.hasRemaining())
+                    {
+                        final int sheet = buffer.getInt();
+                        final int number = buffer.getInt();
+                        buffer.getInt();
+                        final int y = buffer.getInt();
+                        if (y >= ty && y < ty + height)
+                        {
+                            tiles[(y - ty) * width + h] = MapTilePacked.pack(sheet, number);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        UtilStream.safeClose(file);
+    }
+}
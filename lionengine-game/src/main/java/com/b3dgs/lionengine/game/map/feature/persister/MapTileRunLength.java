@@ -0,0 +1,376 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map.feature.persister;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTilePacked;
+import com.b3dgs.lionengine.game.tile.Tile;
+
+/**
+ * Run length tiles encoding, used by {@link MapTileEncoding#RUN_LENGTH}. Data are saved this way:
+ * 
+ * <pre>
+ * <code>(int)</code> tile width
+ * <code>(int)</code> tile height
+ * <code>(int)</code> width in tiles
+ * <code>(int)</code> height in tiles
+ * <code>(boolean)</code> has sheets configuration
+ * <code>(String)</code> sheets configuration file (only if defined)
+ * <code>(int)</code> number of distinct tiles
+ * for each distinct tile
+ *   <code>(int)</code> sheet number
+ *   <code>(int)</code> index number inside sheet
+ * for each row
+ *   for each run of identical tiles, until row is complete
+ *     <code>(short)</code> run length minus one (unsigned)
+ *     <code>(byte, short or int)</code> distinct tile index plus one (<code>0</code> if no tile), on the smallest
+ *     type able to store all indexes
+ * </pre>
+ */
+final class MapTileRunLength
+{
+    /** Maximum run length. */
+    private static final int MAX_RUN = 0x10000;
+    /** Run length mask (saved as short). */
+    private static final int RUN_MASK = 0xFFFF;
+    /** Byte index mask. */
+    private static final int BYTE_MASK = 0xFF;
+    /** Error sheet missing message. */
+    private static final String ERROR_SHEET_MISSING = "Sheet missing: ";
+    /** Invalid data error. */
+    private static final String ERROR_DATA = "Invalid run length data: ";
+
+    /**
+     * Write the map tiles.
+     * 
+     * @param map The map to write.
+     * @param output The output data.
+     * @throws IOException If error on writing.
+     */
+    static void write(MapTile map, DataOutput output) throws IOException
+    {
+        output.writeInt(map.getTileWidth());
+        output.writeInt(map.getTileHeight());
+        output.writeInt(map.getInTileWidth());
+        output.writeInt(map.getInTileHeight());
+        final boolean hasConfig = map.getSheetsConfig() != null;
+        output.writeBoolean(hasConfig);
+        if (hasConfig)
+        {
+            output.writeUTF(map.getSheetsConfig().getPath());
+        }
+
+        final Map<Long, Integer> indexes = new HashMap<Long, Integer>();
+        final List<Tile> tiles = new ArrayList<Tile>();
+        for (int ty = 0; ty < map.getInTileHeight(); ty++)
+        {
+            Tile last = null;
+            for (int tx = 0; tx < map.getInTileWidth(); tx++)
+            {
+                final Tile tile = map.getTile(tx, ty);
+                if (tile != null && !isSame(tile, last))
+                {
+                    final Long key = getKey(tile);
+                    if (!indexes.containsKey(key))
+                    {
+                        indexes.put(key, Integer.valueOf(tiles.size() + 1));
+                        tiles.add(tile);
+                    }
+                }
+                last = tile;
+            }
+        }
+        output.writeInt(tiles.size());
+        for (final Tile tile : tiles)
+        {
+            output.writeInt(tile.getSheet().intValue());
+            output.writeInt(tile.getNumber());
+        }
+        for (int ty = 0; ty < map.getInTileHeight(); ty++)
+        {
+            writeRow(map, ty, indexes, output);
+        }
+    }
+
+    /**
+     * Read the map tiles, and fill the map.
+     * 
+     * @param input The input data.
+     * @param map The map to fill.
+     * @throws IOException If error on reading.
+     */
+    static void read(DataInput input, MapTile map) throws IOException
+    {
+        map.create(input.readInt(), input.readInt(), input.readInt(), input.readInt());
+        if (input.readBoolean())
+        {
+            map.loadSheets(Medias.create(input.readUTF()));
+        }
+
+        final int count = input.readInt();
+        if (count < 0)
+        {
+            throw new IOException(ERROR_DATA + count);
+        }
+        final Integer[] sheets = new Integer[count + 1];
+        final int[] numbers = new int[count + 1];
+        for (int i = 1; i <= count; i++)
+        {
+            sheets[i] = Integer.valueOf(input.readInt());
+            numbers[i] = input.readInt();
+            if (sheets[i].intValue() > map.getSheetsNumber())
+            {
+                throw new IOException(ERROR_SHEET_MISSING + Constant.DOUBLE_DOT + sheets[i]);
+            }
+        }
+
+        final int widthInTile = map.getInTileWidth();
+        for (int ty = 0; ty < map.getInTileHeight(); ty++)
+        {
+            int tx = 0;
+            while (tx < widthInTile)
+            {
+                final int length = (input.readShort() & RUN_MASK) + 1;
+                final int index = readIndex(input, count);
+                if (index < 0 || index > count || tx + length > widthInTile)
+                {
+                    throw new IOException(ERROR_DATA + tx + Constant.SLASH + ty);
+                }
+                if (index > 0)
+                {
+                    for (int x = tx; x < tx + length; x++)
+                    {
+                        map.setTile(map.createTile(sheets[index],
+                                                   numbers[index],
+                                                   x * (double) map.getTileWidth(),
+                                                   ty * (double) map.getTileHeight()));
+                    }
+                }
+                tx += length;
+            }
+        }
+    }
+
+    /**
+     * Read the distinct tiles dictionary, as values packed with {@link MapTilePacked#pack(int, int)}.
+     * 
+     * @param input The input data, located after the header.
+     * @return The packed distinct tiles, index <code>0</code> standing for no tile.
+     * @throws IOException If error on reading.
+     */
+    static int[] readDictionary(DataInput input) throws IOException
+    {
+        final int count = input.readInt();
+        if (count < 0)
+        {
+            throw new IOException(ERROR_DATA + count);
+        }
+        final int[] dictionary = new int[count + 1];
+        for (int i = 1; i <= count; i++)
+        {
+            final int sheet = input.readInt();
+            final int number = input.readInt();
+            if (sheet < 0 || sheet >= MapTilePacked.MAX_SHEET || number < 0 || number >= MapTilePacked.MAX_NUMBER)
+            {
+                throw new IOException(ERROR_DATA + sheet + Constant.SLASH + number);
+            }
+            dictionary[i] = MapTilePacked.pack(sheet, number);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Read the runs of a row, storing its tiles inside an area.
+     * 
+     * @param input The input data, located at the row start.
+     * @param dictionary The packed distinct tiles (see {@link #readDictionary(DataInput)}).
+     * @param widthInTile The map width in tile.
+     * @param tx The horizontal area location in tile.
+     * @param width The area width in tile.
+     * @param tiles The area tiles, left untouched where there is no tile (<code>null</code> to skip the row).
+     * @param offset The index in tiles of the area row start.
+     * @throws IOException If error on reading.
+     */
+    static void readRow(DataInput input, int[] dictionary, int widthInTile, int tx, int width, int[] tiles, int offset)
+            throws IOException
+    {
+        final int count = dictionary.length - 1;
+        int x = 0;
+        while (x < widthInTile)
+        {
+            final int length = (input.readShort() & RUN_MASK) + 1;
+            final int index = readIndex(input, count);
+            if (index < 0 || index > count || x + length > widthInTile)
+            {
+                throw new IOException(ERROR_DATA + x);
+            }
+            if (index > 0 && tiles != null)
+            {
+                final int end = Math.min(x + length, tx + width);
+                for (int h = Math.max(x, tx); h < end; h++)
+                {
+                    tiles[offset + h - tx] = dictionary[index];
+                }
+            }
+            x += length;
+        }
+    }
+
+    /**
+     * Write the runs of a row.
+     * 
+     * @param map The map to write.
+     * @param ty The row index.
+     * @param indexes The distinct tiles indexes.
+     * @param output The output data.
+     * @throws IOException If error on writing.
+     */
+    private static void writeRow(MapTile map, int ty, Map<Long, Integer> indexes, DataOutput output)
+            throws IOException
+    {
+        final int count = indexes.size();
+        Tile last = map.getTile(0, ty);
+        int index = getIndex(last, indexes);
+        int length = 1;
+        for (int tx = 1; tx < map.getInTileWidth(); tx++)
+        {
+            final Tile tile = map.getTile(tx, ty);
+            if (isSame(tile, last) && length < MAX_RUN)
+            {
+                length++;
+            }
+            else
+            {
+                output.writeShort(length - 1);
+                writeIndex(output, index, count);
+                index = getIndex(tile, indexes);
+                length = 1;
+            }
+            last = tile;
+        }
+        output.writeShort(length - 1);
+        writeIndex(output, index, count);
+    }
+
+    /**
+     * Write a distinct tile index.
+     * 
+     * @param output The output data.
+     * @param index The index to write.
+     * @param count The number of distinct tiles.
+     * @throws IOException If error on writing.
+     */
+    private static void writeIndex(DataOutput output, int index, int count) throws IOException
+    {
+        if (count <= BYTE_MASK)
+        {
+            output.writeByte(index);
+        }
+        else if (count <= RUN_MASK)
+        {
+            output.writeShort(index);
+        }
+        else
+        {
+            output.writeInt(index);
+        }
+    }
+
+    /**
+     * Read a distinct tile index.
+     * 
+     * @param input The input data.
+     * @param count The number of distinct tiles.
+     * @return The read index.
+     * @throws IOException If error on reading.
+     */
+    private static int readIndex(DataInput input, int count) throws IOException
+    {
+        if (count <= BYTE_MASK)
+        {
+            return input.readUnsignedByte();
+        }
+        else if (count <= RUN_MASK)
+        {
+            return input.readUnsignedShort();
+        }
+        return input.readInt();
+    }
+
+    /**
+     * Get the distinct tile index.
+     * 
+     * @param tile The tile (can be <code>null</code>).
+     * @param indexes The distinct tiles indexes.
+     * @return The tile index, <code>0</code> if no tile.
+     */
+    private static int getIndex(Tile tile, Map<Long, Integer> indexes)
+    {
+        if (tile == null)
+        {
+            return 0;
+        }
+        return indexes.get(getKey(tile)).intValue();
+    }
+
+    /**
+     * Get the distinct tile key.
+     * 
+     * @param tile The tile reference.
+     * @return The tile key, made of its sheet and number.
+     */
+    private static Long getKey(Tile tile)
+    {
+        return Long.valueOf((long) tile.getSheet().intValue() << Integer.SIZE | tile.getNumber() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Check if tiles have the same sheet and number.
+     * 
+     * @param tile The current tile (can be <code>null</code>).
+     * @param other The other tile (can be <code>null</code>).
+     * @return <code>true</code> if same, <code>false</code> else.
+     */
+    private static boolean isSame(Tile tile, Tile other)
+    {
+        if (tile == null || other == null)
+        {
+            return tile == other;
+        }
+        return tile.getSheet().equals(other.getSheet()) && tile.getNumber() == other.getNumber();
+    }
+
+    /**
+     * Private constructor.
+     */
+    private MapTileRunLength()
+    {
+        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+    }
+}
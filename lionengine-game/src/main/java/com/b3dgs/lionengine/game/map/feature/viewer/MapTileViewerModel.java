@@ -19,28 +19,56 @@ package com.b3dgs.lionengine.game.map.feature.viewer;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.core.Graphics;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.FeatureProvider;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileChunkListener;
+import com.b3dgs.lionengine.game.map.MapTileChunked;
+import com.b3dgs.lionengine.game.map.MapTileListener;
 import com.b3dgs.lionengine.game.map.MapTileRenderer;
 import com.b3dgs.lionengine.game.map.MapTileRendererModel;
 import com.b3dgs.lionengine.game.tile.Tile;
 import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.graphic.Transparency;
 import com.b3dgs.lionengine.graphic.Viewer;
 
 /**
  * Map tile renderer default implementation.
+ * <p>
+ * By default, each visible tile is rendered on each frame. When created with a chunk size, the map is rendered by
+ * chunks of tiles into cached images, and only the chunks covering the view are drawn on each frame. A chunk is
+ * rendered again only when one of its tiles is set, so renderers must be static (their result must depend only on the
+ * tile). Cached chunks not visible anymore are released when their number exceeds twice the visible ones.
+ * </p>
  */
-public class MapTileViewerModel extends FeatureModel implements MapTileViewer
+public class MapTileViewerModel extends FeatureModel
+                                implements MapTileViewer, MapTileListener, MapTileChunkListener
 {
     /** Map tiles renderers. */
     private final Collection<MapTileRenderer> renderers = new ArrayList<MapTileRenderer>();
+    /** Cached chunks by index, in access order (empty if not cached). */
+    private final Map<Integer, ImageBuffer> chunks = new LinkedHashMap<Integer, ImageBuffer>(16, 0.75f, true);
+    /** Chunk size in tile (<code>0</code> if not cached). */
+    private final int chunkSize;
     /** Map reference. */
     private MapTile map;
     /** Viewer reference. */
     private Viewer viewer;
+    /** Horizontal chunks number of cached chunks. */
+    private int chunksX;
+    /** Tile width of cached chunks. */
+    private int tileWidth;
+    /** Tile height of cached chunks. */
+    private int tileHeight;
 
     /**
      * Create the viewer. It is shipped with a default renderer if no one defined: {@link MapTileRendererModel}.
@@ -53,8 +81,79 @@ public class MapTileViewerModel extends FeatureModel implements MapTileViewer
      * </ul>
      */
     public MapTileViewerModel()
+    {
+        this(0);
+    }
+
+    /**
+     * Create the viewer, rendering the map by cached chunks. It is shipped with a default renderer if no one defined:
+     * {@link MapTileRendererModel}.
+     * <p>
+     * The {@link Services} must provide:
+     * </p>
+     * <ul>
+     * <li>{@link MapTile}</li>
+     * <li>{@link Viewer}</li>
+     * </ul>
+     * 
+     * @param chunkSize The chunk size in tile (<code>0</code> to render tiles without cache, positive else).
+     * @throws LionEngineException If invalid chunk size.
+     */
+    public MapTileViewerModel(int chunkSize)
     {
         super();
+
+        Check.superiorOrEqual(chunkSize, 0);
+
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Get the number of cached chunks.
+     * 
+     * @return The number of cached chunks.
+     */
+    public int getCachedChunks()
+    {
+        return chunks.size();
+    }
+
+    /**
+     * Release all cached chunks. They will be rendered again when visible.
+     */
+    public void invalidate()
+    {
+        for (final ImageBuffer chunk : chunks.values())
+        {
+            chunk.dispose();
+        }
+        chunks.clear();
+    }
+
+    /**
+     * Release the cached chunks covering an area.
+     * 
+     * @param tx The horizontal area location in tile.
+     * @param ty The vertical area location in tile.
+     * @param width The area width in tile.
+     * @param height The area height in tile.
+     */
+    private void invalidate(int tx, int ty, int width, int height)
+    {
+        if (!chunks.isEmpty())
+        {
+            for (int cy = ty / chunkSize; cy <= (ty + height - 1) / chunkSize; cy++)
+            {
+                for (int cx = tx / chunkSize; cx <= (tx + width - 1) / chunkSize; cx++)
+                {
+                    final ImageBuffer chunk = chunks.remove(Integer.valueOf(cy * chunksX + cx));
+                    if (chunk != null)
+                    {
+                        chunk.dispose();
+                    }
+                }
+            }
+        }
     }
 
     /**
@@ -104,6 +203,132 @@ public class MapTileViewerModel extends FeatureModel implements MapTileViewer
         }
     }
 
+    /**
+     * Render the visible tiles by cached chunks.
+     * 
+     * @param g The graphic output.
+     */
+    private void renderChunks(Graphic g)
+    {
+        if (map.getInTileWidth() <= 0 || map.getInTileHeight() <= 0)
+        {
+            return;
+        }
+        final int chunksNumberX = (map.getInTileWidth() + chunkSize - 1) / chunkSize;
+        if (chunksNumberX != chunksX || map.getTileWidth() != tileWidth || map.getTileHeight() != tileHeight)
+        {
+            invalidate();
+            chunksX = chunksNumberX;
+            tileWidth = map.getTileWidth();
+            tileHeight = map.getTileHeight();
+        }
+
+        final int inTileWidth = (int) Math.ceil(viewer.getWidth() / (double) tileWidth);
+        final int inTileHeight = (int) Math.ceil(viewer.getHeight() / (double) tileHeight);
+        final int sx = Math.max(0, (int) Math.floor((viewer.getX() + viewer.getViewX()) / tileWidth));
+        final int sy = Math.max(0, (int) Math.floor((viewer.getY() - viewer.getViewY()) / tileHeight));
+        final int ex = Math.min(map.getInTileWidth() - 1,
+                                (int) Math.floor((viewer.getX() + viewer.getViewX()) / tileWidth) + inTileWidth);
+        final int ey = Math.min(map.getInTileHeight() - 1,
+                                (int) Math.floor((viewer.getY() - viewer.getViewY()) / tileHeight) + inTileHeight);
+        if (sx > ex || sy > ey)
+        {
+            return;
+        }
+        final double viewX = viewer.getX();
+        final double viewY = viewer.getY() - viewer.getViewY() + viewer.getScreenHeight() - viewer.getViewY();
+
+        for (int cy = sy / chunkSize; cy <= ey / chunkSize; cy++)
+        {
+            for (int cx = sx / chunkSize; cx <= ex / chunkSize; cx++)
+            {
+                final ImageBuffer chunk = getChunk(cx, cy);
+
+                // Draw only the visible tiles of the chunk
+                final int left = Math.max(sx, cx * chunkSize) - cx * chunkSize;
+                final int right = Math.min(ex + 1, (cx + 1) * chunkSize) - cx * chunkSize;
+                final int top = (cy + 1) * chunkSize - Math.min(ey + 1, (cy + 1) * chunkSize);
+                final int bottom = (cy + 1) * chunkSize - Math.max(sy, cy * chunkSize);
+                final int x = (int) (cx * chunkSize * tileWidth - viewX);
+                final int y = (int) (-(cy + 1) * chunkSize * tileHeight + viewY);
+                g.drawImage(chunk,
+                            x + left * tileWidth,
+                            y + top * tileHeight,
+                            x + right * tileWidth,
+                            y + bottom * tileHeight,
+                            left * tileWidth,
+                            top * tileHeight,
+                            right * tileWidth,
+                            bottom * tileHeight);
+            }
+        }
+        release((ex / chunkSize - sx / chunkSize + 1) * (ey / chunkSize - sy / chunkSize + 1));
+    }
+
+    /**
+     * Get the cached chunk, and render it if not cached.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @return The cached chunk.
+     */
+    private ImageBuffer getChunk(int cx, int cy)
+    {
+        final Integer key = Integer.valueOf(cy * chunksX + cx);
+        ImageBuffer chunk = chunks.get(key);
+        if (chunk == null)
+        {
+            chunk = Graphics.createImageBuffer(chunkSize * tileWidth, chunkSize * tileHeight, Transparency.TRANSLUCENT);
+            final Graphic g = chunk.createGraphic();
+            try
+            {
+                final int top = (cy + 1) * chunkSize * tileHeight;
+                final int endX = Math.min(map.getInTileWidth(), (cx + 1) * chunkSize);
+                final int endY = Math.min(map.getInTileHeight(), (cy + 1) * chunkSize);
+                for (int ty = cy * chunkSize; ty < endY; ty++)
+                {
+                    for (int tx = cx * chunkSize; tx < endX; tx++)
+                    {
+                        final Tile tile = map.getTile(tx, ty);
+                        if (tile != null)
+                        {
+                            final int x = (int) (tile.getX() - cx * chunkSize * tileWidth);
+                            final int y = (int) (top - tile.getY() - tile.getHeight());
+                            for (final MapTileRenderer renderer : renderers)
+                            {
+                                renderer.renderTile(g, map, tile, x, y);
+                            }
+                        }
+                    }
+                }
+            }
+            finally
+            {
+                g.dispose();
+            }
+            chunk.prepare();
+            chunks.put(key, chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Release the least recently drawn chunks, keeping up to twice the visible chunks.
+     * 
+     * @param visible The number of visible chunks.
+     */
+    private void release(int visible)
+    {
+        final Iterator<ImageBuffer> iterator = chunks.values().iterator();
+        int count = chunks.size();
+        while (count > visible * 2 && iterator.hasNext())
+        {
+            iterator.next().dispose();
+            iterator.remove();
+            count--;
+        }
+    }
+
     /*
      * MapTileViewer
      */
@@ -119,29 +344,45 @@ public class MapTileViewerModel extends FeatureModel implements MapTileViewer
         {
             renderers.add(new MapTileRendererModel());
         }
+        if (chunkSize > 0)
+        {
+            map.addListener((MapTileListener) this);
+            if (map instanceof MapTileChunked)
+            {
+                ((MapTileChunked) map).addListener((MapTileChunkListener) this);
+            }
+        }
     }
 
     @Override
     public void addRenderer(MapTileRenderer renderer)
     {
         renderers.add(renderer);
+        invalidate();
     }
 
     @Override
     public void removeRenderer(MapTileRenderer renderer)
     {
         renderers.remove(renderer);
+        invalidate();
     }
 
     @Override
     public void clear()
     {
         renderers.clear();
+        invalidate();
     }
 
     @Override
     public void render(Graphic g)
     {
+        if (chunkSize > 0)
+        {
+            renderChunks(g);
+            return;
+        }
         final int inTileHeight = (int) Math.ceil(viewer.getHeight() / (double) map.getTileHeight());
         final int sy = (int) Math.floor((viewer.getY() - viewer.getViewY()) / map.getTileHeight());
         final double viewY = viewer.getY() - viewer.getViewY() + viewer.getScreenHeight() - viewer.getViewY();
@@ -155,4 +396,36 @@ public class MapTileViewerModel extends FeatureModel implements MapTileViewer
             }
         }
     }
+
+    /*
+     * MapTileListener
+     */
+
+    @Override
+    public void notifyTileSet(Tile tile)
+    {
+        invalidate(tile.getInTileX(), tile.getInTileY(), 1, 1);
+    }
+
+    @Override
+    public void notifyTilesCleared()
+    {
+        invalidate();
+    }
+
+    /*
+     * MapTileChunkListener
+     */
+
+    @Override
+    public void notifyChunkLoaded(int tx, int ty, int width, int height)
+    {
+        invalidate(tx, ty, width, height);
+    }
+
+    @Override
+    public void notifyChunkUnloaded(int tx, int ty, int width, int height)
+    {
+        invalidate(tx, ty, width, height);
+    }
 }
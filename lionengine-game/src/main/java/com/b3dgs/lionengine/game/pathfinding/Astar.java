@@ -39,6 +39,23 @@ public final class Astar
         return new PathFinderImpl(map, maxSearchDistance, heuristic);
     }
 
+    /**
+     * Create a hierarchical path finder. Long paths are searched on map clusters, and returned partial, next steps
+     * being searched on tiles with {@link Path#refine()}. It can be shared by movers, as {@link PathfindableModel} uses
+     * the {@link PathFinder} found in {@link com.b3dgs.lionengine.game.feature.Services}.
+     * 
+     * @param map The map to be searched. Must have the {@link com.b3dgs.lionengine.game.pathfinding.MapTilePath}
+     *            feature.
+     * @param clusterSize The cluster size in tile (superior or equal to 2).
+     * @param heuristic The heuristic used to determine the search order of the map.
+     * @return The path finder instance.
+     * @throws LionEngineException If invalid cluster size.
+     */
+    public static PathFinder createPathFinderHierarchical(MapTile map, int clusterSize, Heuristic heuristic)
+    {
+        return new PathFinderHierarchical(map, clusterSize, heuristic);
+    }
+
     /**
      * Create the closest heuristic.
      * 
@@ -0,0 +1,852 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.b3dgs.lionengine.game.feature.FeatureId;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.tile.Tile;
+
+/**
+ * Abstract graph of the map clusters, for movers sharing the same categories profile.
+ * <p>
+ * Map is partitioned in square clusters. Each border between two clusters has entrances, where the mover can cross
+ * from one cluster to the other. Entrances are the graph nodes, linked to their twin across the border, and to the
+ * other nodes of their cluster with the cost of the shortest path between them. Tiles blocked by
+ * {@link StaticBlockers} are considered as blocking, other objects id are not considered.
+ * </p>
+ * <p>
+ * Borders entrances are built when the search first reaches their clusters, and nodes links when the search expands
+ * them. An invalidated cluster discards its borders entrances, and the links of the nodes of itself and its neighbors,
+ * built again on demand.
+ * </p>
+ */
+final class ClusterGraph
+{
+    /** Minimum crossable border length to place an entrance at each end, instead of one at the middle. */
+    private static final int ENTRANCE_SPLIT = 6;
+    /** Movement flags, indexed by (vertical side + 1) * 3 + horizontal side + 1. */
+    private static final int[] MOVEMENTS = createMovements();
+    /** Tile path feature identifier. */
+    private static final FeatureId<TilePath> TILE_PATH = FeatureId.get(TilePath.class);
+
+    /**
+     * Create the movement flags.
+     * 
+     * @return The movement flags.
+     */
+    private static int[] createMovements()
+    {
+        final int[] movements = new int[9];
+        for (int y = -1; y < 2; y++)
+        {
+            for (int x = -1; x < 2; x++)
+            {
+                movements[(y + 1) * 3 + x + 1] = 1 << MovementTile.from(x, y).ordinal();
+            }
+        }
+        return movements;
+    }
+
+    /**
+     * Get the horizontal tile index on the other side of the border.
+     * 
+     * @param tx The horizontal tile index on cluster side.
+     * @param right <code>true</code> for the right border, <code>false</code> for the bottom border.
+     * @return The opposite horizontal tile index.
+     */
+    private static int getOppositeX(int tx, boolean right)
+    {
+        if (right)
+        {
+            return tx + 1;
+        }
+        return tx;
+    }
+
+    /**
+     * Get the vertical tile index on the other side of the border.
+     * 
+     * @param ty The vertical tile index on cluster side.
+     * @param right <code>true</code> for the right border, <code>false</code> for the bottom border.
+     * @return The opposite vertical tile index.
+     */
+    private static int getOppositeY(int ty, boolean right)
+    {
+        if (right)
+        {
+            return ty;
+        }
+        return ty + 1;
+    }
+
+    /** Borders entrances, right border at cluster index * 2, bottom border at cluster index * 2 + 1. */
+    private final List<List<ClusterNode>> borders;
+    /** Built borders, indexed as {@link #borders}. */
+    private final boolean[] bordered;
+    /** Cluster nodes buffer. */
+    private final List<ClusterNode> buffer = new ArrayList<ClusterNode>();
+    /** Categories of the graph profile, resolved on first use. */
+    private final Map<String, Category> categories = new HashMap<String, Category>();
+    /** Cluster tiles search nodes. */
+    private final Node[] tiles;
+    /** Cluster tiles search open list. */
+    private final NodeHeap open;
+    /** Loaded cluster tiles blocking state. */
+    private final boolean[] blocked;
+    /** Loaded cluster tiles cost. */
+    private final double[] costs;
+    /** Loaded cluster tiles allowed movements, as {@link #MOVEMENTS} flags. */
+    private final int[] movements;
+    /** Search targets, marked with the search generation. */
+    private final int[] targeted;
+    /** Map reference. */
+    private final MapTile map;
+    /** Static blockers reference. */
+    private final StaticBlockers blockers;
+    /** Cluster size in tile. */
+    private final int size;
+    /** Number of horizontal clusters. */
+    private final int clustersX;
+    /** Number of vertical clusters. */
+    private final int clustersY;
+    /** Loaded cluster index (<code>-1</code> if none). */
+    private int loaded = -1;
+    /** Current cluster search generation. */
+    private int generation;
+
+    /**
+     * Create graph.
+     * 
+     * @param map The map reference. Must have the {@link MapTilePath} feature.
+     * @param size The cluster size in tile.
+     * @param blockers The static blockers reference.
+     */
+    ClusterGraph(MapTile map, int size, StaticBlockers blockers)
+    {
+        this.map = map;
+        this.size = size;
+        this.blockers = blockers;
+        clustersX = (map.getInTileWidth() + size - 1) / size;
+        clustersY = (map.getInTileHeight() + size - 1) / size;
+
+        final int clusters = clustersX * clustersY;
+        borders = new ArrayList<List<ClusterNode>>(clusters * 2);
+        for (int i = 0; i < clusters * 2; i++)
+        {
+            borders.add(new ArrayList<ClusterNode>());
+        }
+        bordered = new boolean[clusters * 2];
+        tiles = new Node[size * size];
+        for (int i = 0; i < tiles.length; i++)
+        {
+            tiles[i] = new Node(i % size, i / size);
+        }
+        open = new NodeHeap(tiles.length);
+        blocked = new boolean[tiles.length];
+        costs = new double[tiles.length];
+        movements = new int[tiles.length];
+        targeted = new int[tiles.length];
+    }
+
+    /**
+     * Get the cluster index of a tile.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return The cluster index.
+     */
+    int getCluster(int tx, int ty)
+    {
+        return ty / size * clustersX + tx / size;
+    }
+
+    /**
+     * Invalidate the cluster containing the tile. Its borders will be built again when reached.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     */
+    void invalidate(int tx, int ty)
+    {
+        if (tx >= 0 && ty >= 0 && tx < map.getInTileWidth() && ty < map.getInTileHeight())
+        {
+            rebuild(getCluster(tx, ty));
+            loaded = -1;
+        }
+    }
+
+    /**
+     * Link the node to the other ones it can reach inside its cluster, if not linked since its cluster or a neighbor
+     * was rebuilt.
+     * 
+     * @param mover The mover reference, representing the graph profile.
+     * @param node The node to link.
+     */
+    void link(Pathfindable mover, ClusterNode node)
+    {
+        if (!node.isLinked())
+        {
+            getNodes(mover, node.getCluster(), buffer);
+            explore(mover, node.getX(), node.getY(), false, buffer);
+            for (final ClusterNode other : buffer)
+            {
+                final double cost = getExplored(other.getX(), other.getY());
+                if (other != node && cost >= 0.0)
+                {
+                    node.link(other, cost);
+                }
+            }
+            buffer.clear();
+            node.setLinked();
+        }
+    }
+
+    /**
+     * Get the entrance nodes of a cluster. Its borders are built if needed.
+     * 
+     * @param mover The mover reference, representing the graph profile.
+     * @param cluster The cluster index.
+     * @param nodes The nodes found (previous content is cleared).
+     */
+    void getNodes(Pathfindable mover, int cluster, Collection<ClusterNode> nodes)
+    {
+        nodes.clear();
+        addNodes(nodes, cluster, getBorder(mover, cluster, true));
+        addNodes(nodes, cluster, getBorder(mover, cluster, false));
+        if (cluster % clustersX > 0)
+        {
+            addNodes(nodes, cluster, getBorder(mover, cluster - 1, true));
+        }
+        if (cluster / clustersX > 0)
+        {
+            addNodes(nodes, cluster, getBorder(mover, cluster - clustersX, false));
+        }
+    }
+
+    /**
+     * Search the cost of the shortest paths between a tile and the targets of its cluster, without leaving the
+     * cluster. Search stops when all targets are reached. Costs are then read with {@link #getExplored(int, int)}.
+     * 
+     * @param mover The mover reference.
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @param reverse <code>true</code> to search paths from targets to this tile, <code>false</code> from this tile to
+     *            targets.
+     * @param targets The targets to reach, inside cluster.
+     */
+    void explore(Pathfindable mover, int tx, int ty, boolean reverse, Collection<ClusterNode> targets)
+    {
+        final int cluster = getCluster(tx, ty);
+        load(mover, cluster);
+        nextGeneration();
+
+        final int minX = cluster % clustersX * size;
+        final int minY = cluster / clustersX * size;
+        final int width = Math.min(size, map.getInTileWidth() - minX);
+        final int height = Math.min(size, map.getInTileHeight() - minY);
+        final int index = (ty - minY) * size + tx - minX;
+        if (!reverse && blocked[index])
+        {
+            // Leaving a blocked start is allowed, as done by tiles path finder
+            loadTile(mover, index, tx, ty);
+        }
+
+        int remaining = 0;
+        for (final ClusterNode target : targets)
+        {
+            final int ti = (target.getY() - minY) * size + target.getX() - minX;
+            if (targeted[ti] != generation)
+            {
+                targeted[ti] = generation;
+                remaining++;
+            }
+        }
+
+        final Node start = tiles[index];
+        start.visit(generation);
+        start.setCost(0.0);
+        start.setHeuristic(0.0);
+        open.add(start);
+
+        while (remaining > 0 && open.size() > 0)
+        {
+            final Node current = open.poll();
+            current.setClosed(true);
+
+            final int cx = current.getX();
+            final int cy = current.getY();
+            final int ci = cy * size + cx;
+            if (targeted[ci] == generation)
+            {
+                targeted[ci] = 0;
+                remaining--;
+            }
+            for (int y = -1; y < 2; y++)
+            {
+                for (int x = -1; x < 2; x++)
+                {
+                    final int nx = cx + x;
+                    final int ny = cy + y;
+                    final int ni = ny * size + nx;
+                    if (!(x == 0 && y == 0) && nx >= 0 && ny >= 0 && nx < width && ny < height && !blocked[ni])
+                    {
+                        if (!reverse && (movements[ci] & MOVEMENTS[(y + 1) * 3 + x + 1]) != 0)
+                        {
+                            updateNeighbour(current, tiles[ni], costs[ci]);
+                        }
+                        else if (reverse && (movements[ni] & MOVEMENTS[(1 - y) * 3 + 1 - x]) != 0)
+                        {
+                            updateNeighbour(current, tiles[ni], costs[ni]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the explored cost of a tile, from the last {@link #explore(Pathfindable, int, int, boolean, Collection)}.
+     * 
+     * @param tx The horizontal tile index, inside the explored cluster.
+     * @param ty The vertical tile index, inside the explored cluster.
+     * @return The cost found (<code>-1</code> if unreachable).
+     */
+    double getExplored(int tx, int ty)
+    {
+        final Node node = tiles[ty % size * size + tx % size];
+        if (node.isVisited(generation))
+        {
+            return node.getCost();
+        }
+        return -1.0;
+    }
+
+    /**
+     * Load the cluster tiles data, if not already loaded.
+     * 
+     * @param mover The mover reference.
+     * @param cluster The cluster index.
+     */
+    private void load(Pathfindable mover, int cluster)
+    {
+        if (loaded != cluster)
+        {
+            final int minX = cluster % clustersX * size;
+            final int minY = cluster / clustersX * size;
+            final int width = Math.min(size, map.getInTileWidth() - minX);
+            final int height = Math.min(size, map.getInTileHeight() - minY);
+            for (int y = 0; y < height; y++)
+            {
+                for (int x = 0; x < width; x++)
+                {
+                    final int index = y * size + x;
+                    final Category category = getCategory(mover, minX + x, minY + y);
+                    blocked[index] = category == null
+                                     || category.isBlocking()
+                                     || blockers.isBlocked(minX + x, minY + y);
+                    if (blocked[index])
+                    {
+                        costs[index] = 0.0;
+                        movements[index] = 0;
+                    }
+                    else
+                    {
+                        costs[index] = category.getCost();
+                        movements[index] = category.getMovements();
+                    }
+                }
+            }
+            loaded = cluster;
+        }
+    }
+
+    /**
+     * Load the tile cost and allowed movements.
+     * 
+     * @param mover The mover reference.
+     * @param index The tile index in cluster.
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     */
+    private void loadTile(Pathfindable mover, int index, int tx, int ty)
+    {
+        final Category category = getCategory(mover, tx, ty);
+        if (category != null)
+        {
+            costs[index] = category.getCost();
+            movements[index] = category.getMovements();
+        }
+    }
+
+    /**
+     * Get the category of the tile, in the graph profile.
+     * 
+     * @param mover The mover reference, representing the graph profile.
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return The tile category (<code>null</code> if no tile).
+     */
+    private Category getCategory(Pathfindable mover, int tx, int ty)
+    {
+        final Tile tile = map.getTile(tx, ty);
+        if (tile == null)
+        {
+            return null;
+        }
+        final String name = tile.getFeature(TILE_PATH).getCategory();
+        Category category = categories.get(name);
+        if (category == null)
+        {
+            category = new Category(mover, name);
+            categories.put(name, category);
+        }
+        return category;
+    }
+
+    /**
+     * Discard an invalidated cluster borders. Nodes of cluster and its neighbors will be linked again.
+     * 
+     * @param cluster The cluster index.
+     */
+    private void rebuild(int cluster)
+    {
+        final int cx = cluster % clustersX;
+        final int cy = cluster / clustersX;
+
+        unlink(cluster);
+        bordered[cluster * 2] = false;
+        bordered[cluster * 2 + 1] = false;
+        if (cx > 0)
+        {
+            unlink(cluster - 1);
+            bordered[(cluster - 1) * 2] = false;
+        }
+        if (cy > 0)
+        {
+            unlink(cluster - clustersX);
+            bordered[(cluster - clustersX) * 2 + 1] = false;
+        }
+        if (cx < clustersX - 1)
+        {
+            unlink(cluster + 1);
+        }
+        if (cy < clustersY - 1)
+        {
+            unlink(cluster + clustersX);
+        }
+    }
+
+    /**
+     * Remove the links of the cluster built nodes, which may reference discarded nodes.
+     * 
+     * @param cluster The cluster index.
+     */
+    private void unlink(int cluster)
+    {
+        final int cx = cluster % clustersX;
+        final int cy = cluster / clustersX;
+
+        unlink(borders.get(cluster * 2));
+        unlink(borders.get(cluster * 2 + 1));
+        if (cx > 0)
+        {
+            unlink(borders.get((cluster - 1) * 2));
+        }
+        if (cy > 0)
+        {
+            unlink(borders.get((cluster - clustersX) * 2 + 1));
+        }
+    }
+
+    /**
+     * Remove the links of the border nodes.
+     * 
+     * @param border The border nodes.
+     */
+    private static void unlink(List<ClusterNode> border)
+    {
+        for (final ClusterNode node : border)
+        {
+            node.clearLinks();
+        }
+    }
+
+    /**
+     * Build the entrances of a cluster border, with the next cluster.
+     * 
+     * @param mover The mover reference.
+     * @param cluster The cluster index.
+     * @param right <code>true</code> for the right border, <code>false</code> for the bottom border.
+     */
+    private void buildBorder(Pathfindable mover, int cluster, boolean right)
+    {
+        final List<ClusterNode> border = borders.get(getBorderIndex(cluster, right));
+        border.clear();
+
+        final int cx = cluster % clustersX;
+        final int cy = cluster / clustersX;
+        final int length;
+        if (right && cx < clustersX - 1)
+        {
+            length = Math.min(size, map.getInTileHeight() - cy * size);
+        }
+        else if (!right && cy < clustersY - 1)
+        {
+            length = Math.min(size, map.getInTileWidth() - cx * size);
+        }
+        else
+        {
+            length = 0;
+        }
+
+        int run = 0;
+        for (int i = 0; i <= length; i++)
+        {
+            if (i < length && isCrossable(mover, cluster, right, i))
+            {
+                run++;
+            }
+            else if (run > 0)
+            {
+                if (run >= ENTRANCE_SPLIT)
+                {
+                    addEntrance(mover, cluster, right, i - run);
+                    addEntrance(mover, cluster, right, i - 1);
+                }
+                else
+                {
+                    addEntrance(mover, cluster, right, i - 1 - run / 2);
+                }
+                run = 0;
+            }
+        }
+    }
+
+    /**
+     * Check if border can be crossed at this index, both sides are not blocking.
+     * 
+     * @param mover The mover reference.
+     * @param cluster The cluster index.
+     * @param right <code>true</code> for the right border, <code>false</code> for the bottom border.
+     * @param index The index along the border.
+     * @return <code>true</code> if crossable, <code>false</code> else.
+     */
+    private boolean isCrossable(Pathfindable mover, int cluster, boolean right, int index)
+    {
+        final int tx = getBorderX(cluster, right, index);
+        final int ty = getBorderY(cluster, right, index);
+        final int ox = getOppositeX(tx, right);
+        final int oy = getOppositeY(ty, right);
+
+        final Category category = getCategory(mover, tx, ty);
+        final Category opposite = getCategory(mover, ox, oy);
+
+        return category != null
+               && !category.isBlocking()
+               && opposite != null
+               && !opposite.isBlocking()
+               && !blockers.isBlocked(tx, ty)
+               && !blockers.isBlocked(ox, oy);
+    }
+
+    /**
+     * Add an entrance on border, as a node on each side.
+     * 
+     * @param mover The mover reference.
+     * @param cluster The cluster index.
+     * @param right <code>true</code> for the right border, <code>false</code> for the bottom border.
+     * @param index The index along the border.
+     */
+    private void addEntrance(Pathfindable mover, int cluster, boolean right, int index)
+    {
+        final int tx = getBorderX(cluster, right, index);
+        final int ty = getBorderY(cluster, right, index);
+        final int ox = getOppositeX(tx, right);
+        final int oy = getOppositeY(ty, right);
+        final int other;
+        if (right)
+        {
+            other = cluster + 1;
+        }
+        else
+        {
+            other = cluster + clustersX;
+        }
+
+        final ClusterNode node = new ClusterNode(tx, ty, cluster);
+        final ClusterNode twin = new ClusterNode(ox, oy, other);
+        final double cost = getStepCost(mover, tx, ty, ox, oy, false);
+        if (cost >= 0.0)
+        {
+            node.setTwin(twin, cost);
+        }
+        final double twinCost = getStepCost(mover, ox, oy, tx, ty, false);
+        if (twinCost >= 0.0)
+        {
+            twin.setTwin(node, twinCost);
+        }
+
+        final List<ClusterNode> border = borders.get(getBorderIndex(cluster, right));
+        border.add(node);
+        border.add(twin);
+    }
+
+    /**
+     * Update a neighbor tile search cost.
+     * 
+     * @param current The current node.
+     * @param neighbour The neighbor node.
+     * @param step The step cost between them.
+     */
+    private void updateNeighbour(Node current, Node neighbour, double step)
+    {
+        final double cost = current.getCost() + step;
+        if (!neighbour.isVisited(generation))
+        {
+            neighbour.visit(generation);
+            neighbour.setCost(cost);
+            neighbour.setHeuristic(0.0);
+            open.add(neighbour);
+        }
+        else if (!neighbour.isClosed(generation) && cost < neighbour.getCost())
+        {
+            neighbour.setCost(cost);
+            open.decrease(neighbour);
+        }
+    }
+
+    /**
+     * Get the cost of a step between two adjacent tiles, as computed by {@link PathFinderImpl}: the cost of the
+     * leaving tile, if movement is allowed by its category.
+     * 
+     * @param mover The mover reference.
+     * @param tx The current horizontal tile index.
+     * @param ty The current vertical tile index.
+     * @param nx The next horizontal tile index.
+     * @param ny The next vertical tile index.
+     * @param reverse <code>true</code> to move from next tile to current tile, <code>false</code> from current tile to
+     *            next tile.
+     * @return The step cost (<code>-1</code> if movement is not allowed).
+     */
+    private double getStepCost(Pathfindable mover, int tx, int ty, int nx, int ny, boolean reverse)
+    {
+        final int fromX;
+        final int fromY;
+        final int toX;
+        final int toY;
+        if (reverse)
+        {
+            fromX = nx;
+            fromY = ny;
+            toX = tx;
+            toY = ty;
+        }
+        else
+        {
+            fromX = tx;
+            fromY = ty;
+            toX = nx;
+            toY = ny;
+        }
+        final Category category = getCategory(mover, fromX, fromY);
+        final MovementTile movement = MovementTile.from(toX - fromX, toY - fromY);
+        if ((category.getMovements() & 1 << movement.ordinal()) != 0)
+        {
+            return category.getCost();
+        }
+        return -1.0;
+    }
+
+    /**
+     * Start a new cluster search generation.
+     */
+    private void nextGeneration()
+    {
+        if (generation == Integer.MAX_VALUE)
+        {
+            for (final Node node : tiles)
+            {
+                node.visit(0);
+            }
+            Arrays.fill(targeted, 0);
+            generation = 0;
+        }
+        generation++;
+        open.clear();
+    }
+
+    /**
+     * Add the nodes of the border which are on the cluster side.
+     * 
+     * @param nodes The nodes found.
+     * @param cluster The cluster index.
+     * @param border The border nodes.
+     */
+    private static void addNodes(Collection<ClusterNode> nodes, int cluster, List<ClusterNode> border)
+    {
+        for (final ClusterNode node : border)
+        {
+            if (node.getCluster() == cluster)
+            {
+                nodes.add(node);
+            }
+        }
+    }
+
+    /**
+     * Get the border entrances, built if needed.
+     * 
+     * @param mover The mover reference, representing the graph profile.
+     * @param cluster The cluster index.
+     * @param right <code>true</code> for the right border, <code>false</code> for the bottom border.
+     * @return The border entrances.
+     */
+    private List<ClusterNode> getBorder(Pathfindable mover, int cluster, boolean right)
+    {
+        final int index = getBorderIndex(cluster, right);
+        if (!bordered[index])
+        {
+            buildBorder(mover, cluster, right);
+            bordered[index] = true;
+        }
+        return borders.get(index);
+    }
+
+    /**
+     * Get the border index in {@link #borders}.
+     * 
+     * @param cluster The cluster index.
+     * @param right <code>true</code> for the right border, <code>false</code> for the bottom border.
+     * @return The border index.
+     */
+    private static int getBorderIndex(int cluster, boolean right)
+    {
+        if (right)
+        {
+            return cluster * 2;
+        }
+        return cluster * 2 + 1;
+    }
+
+    /**
+     * Get the horizontal tile index of a border tile, on the cluster side.
+     * 
+     * @param cluster The cluster index.
+     * @param right <code>true</code> for the right border, <code>false</code> for the bottom border.
+     * @param index The index along the border.
+     * @return The horizontal tile index.
+     */
+    private int getBorderX(int cluster, boolean right, int index)
+    {
+        final int minX = cluster % clustersX * size;
+        if (right)
+        {
+            return minX + size - 1;
+        }
+        return minX + index;
+    }
+
+    /**
+     * Get the vertical tile index of a border tile, on the cluster side.
+     * 
+     * @param cluster The cluster index.
+     * @param right <code>true</code> for the right border, <code>false</code> for the bottom border.
+     * @param index The index along the border.
+     * @return The vertical tile index.
+     */
+    private int getBorderY(int cluster, boolean right, int index)
+    {
+        final int minY = cluster / clustersX * size;
+        if (right)
+        {
+            return minY + index;
+        }
+        return minY + size - 1;
+    }
+
+    /**
+     * Path category values in the graph profile.
+     */
+    private static final class Category
+    {
+        /** Blocking flag. */
+        private final boolean blocking;
+        /** Movement cost. */
+        private final double cost;
+        /** Allowed movements, as {@link MovementTile} ordinal flags. */
+        private final int movements;
+
+        /**
+         * Resolve category values.
+         * 
+         * @param mover The mover reference, representing the graph profile.
+         * @param name The category name.
+         */
+        Category(Pathfindable mover, String name)
+        {
+            blocking = mover.isBlocking(name);
+            cost = mover.getCost(name);
+            int flags = 0;
+            for (final MovementTile movement : MovementTile.values())
+            {
+                if (mover.isMovementAllowed(name, movement))
+                {
+                    flags |= 1 << movement.ordinal();
+                }
+            }
+            movements = flags;
+        }
+
+        /**
+         * Check if category is blocking.
+         * 
+         * @return <code>true</code> if blocking, <code>false</code> else.
+         */
+        boolean isBlocking()
+        {
+            return blocking;
+        }
+
+        /**
+         * Get the movement cost.
+         * 
+         * @return The movement cost.
+         */
+        double getCost()
+        {
+            return cost;
+        }
+
+        /**
+         * Get the allowed movements.
+         * 
+         * @return The allowed movements, as {@link MovementTile} ordinal flags.
+         */
+        int getMovements()
+        {
+            return movements;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Abstract node of the {@link ClusterGraph}, located on a cluster entrance tile. It is linked to its twin node on the
+ * other side of the border, and to the other nodes of its cluster, with the cost of moving between them.
+ * <p>
+ * It also stores its abstract search state, reset on each new search generation.
+ * </p>
+ */
+final class ClusterNode
+{
+    /** Linked nodes inside cluster. */
+    private final List<ClusterNode> links = new ArrayList<ClusterNode>();
+    /** Linked nodes cost. */
+    private final List<Double> costs = new ArrayList<Double>();
+    /** Horizontal tile index. */
+    private final int tx;
+    /** Vertical tile index. */
+    private final int ty;
+    /** Cluster index. */
+    private final int cluster;
+    /** Twin node on the other side of the border (<code>null</code> if border cannot be crossed from this node). */
+    private ClusterNode twin;
+    /** Crossing cost to twin node. */
+    private double twinCost;
+    /** Linked flag, <code>true</code> once links inside cluster are built. */
+    private boolean linked;
+    /** Search generation. */
+    private int generation;
+    /** Search cost from start. */
+    private double cost;
+    /** Search estimated total cost. */
+    private double estimate;
+    /** Search parent. */
+    private ClusterNode parent;
+    /** Search closed flag. */
+    private boolean closed;
+
+    /**
+     * Create node.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @param cluster The cluster index.
+     */
+    ClusterNode(int tx, int ty, int cluster)
+    {
+        this.tx = tx;
+        this.ty = ty;
+        this.cluster = cluster;
+    }
+
+    /**
+     * Link to a node of the same cluster.
+     * 
+     * @param node The node to link.
+     * @param cost The cost to move to node.
+     */
+    void link(ClusterNode node, double cost)
+    {
+        links.add(node);
+        costs.add(Double.valueOf(cost));
+    }
+
+    /**
+     * Remove all links inside cluster. Twin is kept. Node will be linked again when reached by a search.
+     */
+    void clearLinks()
+    {
+        links.clear();
+        costs.clear();
+        linked = false;
+    }
+
+    /**
+     * Mark the links inside cluster as built.
+     */
+    void setLinked()
+    {
+        linked = true;
+    }
+
+    /**
+     * Check if links inside cluster are built.
+     * 
+     * @return <code>true</code> if linked, <code>false</code> else.
+     */
+    boolean isLinked()
+    {
+        return linked;
+    }
+
+    /**
+     * Set the twin node, on the other side of the border.
+     * 
+     * @param twin The twin node.
+     * @param cost The cost to cross the border.
+     */
+    void setTwin(ClusterNode twin, double cost)
+    {
+        this.twin = twin;
+        twinCost = cost;
+    }
+
+    /**
+     * Get the number of links inside cluster.
+     * 
+     * @return The number of links.
+     */
+    int getLinks()
+    {
+        return links.size();
+    }
+
+    /**
+     * Get the linked node.
+     * 
+     * @param index The link index.
+     * @return The linked node.
+     */
+    ClusterNode getLink(int index)
+    {
+        return links.get(index);
+    }
+
+    /**
+     * Get the linked node cost.
+     * 
+     * @param index The link index.
+     * @return The cost to move to linked node.
+     */
+    double getLinkCost(int index)
+    {
+        return costs.get(index).doubleValue();
+    }
+
+    /**
+     * Get the twin node.
+     * 
+     * @return The twin node (<code>null</code> if border cannot be crossed from this node).
+     */
+    ClusterNode getTwin()
+    {
+        return twin;
+    }
+
+    /**
+     * Get the crossing cost to twin node.
+     * 
+     * @return The crossing cost.
+     */
+    double getTwinCost()
+    {
+        return twinCost;
+    }
+
+    /**
+     * Get the horizontal tile index.
+     * 
+     * @return The horizontal tile index.
+     */
+    int getX()
+    {
+        return tx;
+    }
+
+    /**
+     * Get the vertical tile index.
+     * 
+     * @return The vertical tile index.
+     */
+    int getY()
+    {
+        return ty;
+    }
+
+    /**
+     * Get the cluster index.
+     * 
+     * @return The cluster index.
+     */
+    int getCluster()
+    {
+        return cluster;
+    }
+
+    /**
+     * Mark the node as visited by the search generation. Reset search state if the node was not yet visited by this
+     * generation.
+     * 
+     * @param generation The current search generation.
+     * @return <code>true</code> if node was not yet visited by this generation, <code>false</code> else.
+     */
+    boolean visit(int generation)
+    {
+        if (this.generation != generation)
+        {
+            this.generation = generation;
+            cost = Double.MAX_VALUE;
+            estimate = Double.MAX_VALUE;
+            parent = null;
+            closed = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Set the search state.
+     * 
+     * @param parent The parent node (<code>null</code> if none).
+     * @param cost The cost from start.
+     * @param estimate The estimated total cost.
+     */
+    void setSearch(ClusterNode parent, double cost, double estimate)
+    {
+        this.parent = parent;
+        this.cost = cost;
+        this.estimate = estimate;
+    }
+
+    /**
+     * Set the closed state.
+     * 
+     * @param closed <code>true</code> if closed, <code>false</code> else.
+     */
+    void setClosed(boolean closed)
+    {
+        this.closed = closed;
+    }
+
+    /**
+     * Get the search cost from start.
+     * 
+     * @return The cost from start.
+     */
+    double getCost()
+    {
+        return cost;
+    }
+
+    /**
+     * Get the search estimated total cost.
+     * 
+     * @return The estimated total cost.
+     */
+    double getEstimate()
+    {
+        return estimate;
+    }
+
+    /**
+     * Get the search parent.
+     * 
+     * @return The parent node (<code>null</code> if none).
+     */
+    ClusterNode getParent()
+    {
+        return parent;
+    }
+
+    /**
+     * Check if node is closed.
+     * 
+     * @return <code>true</code> if closed, <code>false</code> else.
+     */
+    boolean isClosed()
+    {
+        return closed;
+    }
+}
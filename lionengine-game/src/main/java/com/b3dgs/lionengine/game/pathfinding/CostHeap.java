@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary heap of tile indexes, ordered by their cost in an external array. Used by the flow field searches,
+ * allowing constant time membership checks and logarithmic cost updates without allocating nodes.
+ */
+final class CostHeap
+{
+    /** Heap elements (tile indexes). */
+    private final int[] heap;
+    /** Heap position of each tile index (<code>-1</code> if not in heap). */
+    private final int[] positions;
+    /** Tile costs reference. */
+    private final double[] costs;
+    /** Current size. */
+    private int size;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param costs The tile costs reference, one per tile index.
+     */
+    CostHeap(double[] costs)
+    {
+        this.costs = costs;
+        heap = new int[costs.length];
+        positions = new int[costs.length];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Add an element, or update its position if already contained and its cost has been decreased.
+     * 
+     * @param index The tile index.
+     */
+    public void push(int index)
+    {
+        if (positions[index] < 0)
+        {
+            heap[size] = index;
+            positions[index] = size;
+            size++;
+        }
+        siftUp(positions[index]);
+    }
+
+    /**
+     * Remove and get the element with the lowest cost.
+     * 
+     * @return The removed tile index.
+     */
+    public int poll()
+    {
+        final int first = heap[0];
+        positions[first] = -1;
+        size--;
+        if (size > 0)
+        {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return first;
+    }
+
+    /**
+     * Check if heap is empty.
+     * 
+     * @return <code>true</code> if empty, <code>false</code> else.
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Move element up until heap is ordered.
+     * 
+     * @param position The element position.
+     */
+    private void siftUp(int position)
+    {
+        final int index = heap[position];
+        int current = position;
+        while (current > 0)
+        {
+            final int parent = (current - 1) / 2;
+            if (costs[heap[parent]] <= costs[index])
+            {
+                break;
+            }
+            heap[current] = heap[parent];
+            positions[heap[current]] = current;
+            current = parent;
+        }
+        heap[current] = index;
+        positions[index] = current;
+    }
+
+    /**
+     * Move element down until heap is ordered.
+     * 
+     * @param position The element position.
+     */
+    private void siftDown(int position)
+    {
+        final int index = heap[position];
+        int current = position;
+        while (current * 2 + 1 < size)
+        {
+            int child = current * 2 + 1;
+            if (child + 1 < size && costs[heap[child + 1]] < costs[heap[child]])
+            {
+                child++;
+            }
+            if (costs[index] <= costs[heap[child]])
+            {
+                break;
+            }
+            heap[current] = heap[child];
+            positions[heap[current]] = current;
+            current = child;
+        }
+        heap[current] = index;
+        positions[index] = current;
+    }
+}
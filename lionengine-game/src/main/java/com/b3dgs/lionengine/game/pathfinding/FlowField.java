@@ -0,0 +1,666 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.tile.Tile;
+
+/**
+ * Flow field toward a destination, shared by the movers of the same profile (see {@link FlowFields}).
+ * <p>
+ * The integration field stores for each tile the cost to reach the destination, and the direction field the next tile
+ * to go to. Both are computed once by a reverse search from the destination, with the same costs and allowed
+ * movements as the {@link PathFinder}, so each follower only reads its next step instead of searching its own path.
+ * </p>
+ * <p>
+ * Tiles occupied by objects which are not following a field are blocking. When a tile changes, only the tiles whose
+ * flow went through it are computed again, on the next field access.
+ * </p>
+ * <p>
+ * Costs and allowed movements of each map category are resolved from the mover profile on creation. Categories added
+ * by a later pathfinding load are blocking, as movers then get another field with their new profile.
+ * </p>
+ */
+public final class FlowField
+{
+    /** Unreachable cost. */
+    private static final double UNREACHABLE = Double.POSITIVE_INFINITY;
+    /** Maximum consecutive steps waited for a free tile before stopping. */
+    private static final int MAX_WAIT = 16;
+    /** Movement flags, indexed by (vertical side + 1) * 3 + horizontal side + 1. */
+    private static final int[] MOVEMENTS = createMovements();
+
+    /**
+     * Create the movement flags.
+     * 
+     * @return The movement flags.
+     */
+    private static int[] createMovements()
+    {
+        final int[] movements = new int[9];
+        for (int y = -1; y < 2; y++)
+        {
+            for (int x = -1; x < 2; x++)
+            {
+                movements[(y + 1) * 3 + x + 1] = 1 << MovementTile.from(x, y).ordinal();
+            }
+        }
+        return movements;
+    }
+
+    /** Allowed movements flags by category, not blocking ones only. */
+    private final Map<String, Integer> categories = new HashMap<String, Integer>();
+    /** Costs by category, not blocking ones only. */
+    private final Map<String, Double> categoriesCost = new HashMap<String, Double>();
+    /** Changed tiles indexes, waiting for repair. */
+    private final Collection<Integer> changed = new LinkedHashSet<Integer>();
+    /** Cost to reach destination, by tile index. */
+    private final double[] integration;
+    /** Next tile index toward destination (<code>-1</code> if none), by tile index. */
+    private final int[] next;
+    /** Tile costs. */
+    private final double[] costs;
+    /** Tile allowed movements flags. */
+    private final int[] movements;
+    /** Blocked tiles by terrain. */
+    private final boolean[] terrain;
+    /** Blocked tiles by terrain or objects. */
+    private final boolean[] blocked;
+    /** Search open list. */
+    private final CostHeap open;
+    /** Map reference. */
+    private final MapTile map;
+    /** Map path reference. */
+    private final MapTilePath mapPath;
+    /** Followers id, not blocking. */
+    private final Collection<Integer> followers;
+    /** Map width in tile. */
+    private final int width;
+    /** Map height in tile. */
+    private final int height;
+    /** Destination horizontal tile. */
+    private final int dtx;
+    /** Destination vertical tile. */
+    private final int dty;
+    /** Destination tile index. */
+    private final int destination;
+    /** Number of followers. */
+    private int users;
+    /** Whole field invalidated flag. */
+    private boolean invalidated;
+
+    /**
+     * Create and compute the field.
+     * 
+     * @param map The map reference.
+     * @param mover The mover reference, representing its profile (only read on creation).
+     * @param followers The followers id, not blocking.
+     * @param dtx The destination horizontal tile.
+     * @param dty The destination vertical tile.
+     */
+    FlowField(MapTile map, Pathfindable mover, Collection<Integer> followers, int dtx, int dty)
+    {
+        this.map = map;
+        mapPath = map.getFeature(MapTilePath.class);
+        this.followers = followers;
+        this.dtx = dtx;
+        this.dty = dty;
+        width = map.getInTileWidth();
+        height = map.getInTileHeight();
+        destination = dty * width + dtx;
+
+        final int size = width * height;
+        integration = new double[size];
+        next = new int[size];
+        costs = new double[size];
+        movements = new int[size];
+        terrain = new boolean[size];
+        blocked = new boolean[size];
+        open = new CostHeap(integration);
+
+        resolve(mover);
+        compute();
+    }
+
+    /**
+     * Get the destination horizontal tile.
+     * 
+     * @return The destination horizontal tile.
+     */
+    public int getDestinationX()
+    {
+        return dtx;
+    }
+
+    /**
+     * Get the destination vertical tile.
+     * 
+     * @return The destination vertical tile.
+     */
+    public int getDestinationY()
+    {
+        return dty;
+    }
+
+    /**
+     * Check if destination can be reached from location.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @return <code>true</code> if reachable, <code>false</code> else.
+     */
+    public boolean isReachable(int tx, int ty)
+    {
+        return getCost(tx, ty) < UNREACHABLE;
+    }
+
+    /**
+     * Get the cost to reach the destination from location.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @return The cost to reach destination, {@link Double#POSITIVE_INFINITY} if unreachable.
+     */
+    public double getCost(int tx, int ty)
+    {
+        if (tx < 0 || ty < 0 || tx >= width || ty >= height)
+        {
+            return UNREACHABLE;
+        }
+        refresh();
+        return integration[ty * width + tx];
+    }
+
+    /**
+     * Get the next tile to go to from location.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @return The next tile, <code>null</code> if destination or unreachable.
+     */
+    public CoordTile getNext(int tx, int ty)
+    {
+        if (!isReachable(tx, ty))
+        {
+            return null;
+        }
+        final int index = next[ty * width + tx];
+        if (index < 0)
+        {
+            return null;
+        }
+        return new CoordTile(index % width, index / width);
+    }
+
+    /**
+     * Create a partial path following the field from location, its steps being appended one by one on refinement,
+     * choosing the next free tile toward destination.
+     * 
+     * @param follower The follower reference.
+     * @param tx The starting horizontal tile.
+     * @param ty The starting vertical tile.
+     * @return The partial path, <code>null</code> if destination is unreachable.
+     */
+    Path createPath(Pathfindable follower, int tx, int ty)
+    {
+        if (!isReachable(tx, ty))
+        {
+            return null;
+        }
+        final Path path = new Path();
+        path.appendStep(tx, ty);
+        path.setRefiner(new Follower(follower));
+        path.refine();
+        return path;
+    }
+
+    /**
+     * Invalidate tile, repaired on next field access.
+     * 
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     */
+    void invalidate(int tx, int ty)
+    {
+        if (tx >= 0 && ty >= 0 && tx < width && ty < height)
+        {
+            changed.add(Integer.valueOf(ty * width + tx));
+        }
+    }
+
+    /**
+     * Invalidate whole field, computed again on next field access.
+     */
+    void invalidate()
+    {
+        invalidated = true;
+    }
+
+    /**
+     * Add a follower.
+     */
+    void acquire()
+    {
+        users++;
+    }
+
+    /**
+     * Remove a follower.
+     * 
+     * @return <code>true</code> if field is not followed anymore, <code>false</code> else.
+     */
+    boolean release()
+    {
+        users--;
+        return users == 0;
+    }
+
+    /**
+     * Check if field is not followed.
+     * 
+     * @return <code>true</code> if not followed, <code>false</code> else.
+     */
+    boolean isUnused()
+    {
+        return users == 0;
+    }
+
+    /**
+     * Compute again or repair field if needed.
+     */
+    private void refresh()
+    {
+        if (invalidated)
+        {
+            compute();
+        }
+        else if (!changed.isEmpty())
+        {
+            repair();
+        }
+    }
+
+    /**
+     * Compute the whole field from destination.
+     */
+    private void compute()
+    {
+        for (int ty = 0; ty < height; ty++)
+        {
+            for (int tx = 0; tx < width; tx++)
+            {
+                final int index = ty * width + tx;
+                loadTile(index, tx, ty);
+                blocked[index] = index != destination && isBlocked(index, tx, ty);
+            }
+        }
+        Arrays.fill(integration, UNREACHABLE);
+        Arrays.fill(next, -1);
+        integration[destination] = 0.0;
+        open.push(destination);
+        propagate();
+
+        changed.clear();
+        invalidated = false;
+    }
+
+    /**
+     * Repair the changed tiles. Tiles whose flow went through a changed tile are reset, then computed again from their
+     * neighbors, decreased costs being propagated from them.
+     */
+    private void repair()
+    {
+        final List<Integer> reset = new ArrayList<Integer>();
+        for (final Integer index : changed)
+        {
+            final int tile = index.intValue();
+            final int tx = tile % width;
+            final int ty = tile / width;
+            final double cost = costs[tile];
+            final int flags = movements[tile];
+            final boolean wasTerrain = terrain[tile];
+            loadTile(tile, tx, ty);
+
+            final boolean state = tile != destination && isBlocked(tile, tx, ty);
+            if (tile != destination
+                && (state != blocked[tile]
+                    || wasTerrain != terrain[tile]
+                    || flags != movements[tile]
+                    || Double.compare(cost, costs[tile]) != 0))
+            {
+                blocked[tile] = state;
+                reset(tile, reset);
+            }
+        }
+        changed.clear();
+
+        for (final Integer index : reset)
+        {
+            seed(index.intValue());
+        }
+        propagate();
+    }
+
+    /**
+     * Reset the tile and the tiles whose flow goes through it.
+     * 
+     * @param tile The tile index.
+     * @param reset The reset tiles.
+     */
+    private void reset(int tile, List<Integer> reset)
+    {
+        int current = reset.size();
+        integration[tile] = UNREACHABLE;
+        next[tile] = -1;
+        reset.add(Integer.valueOf(tile));
+        while (current < reset.size())
+        {
+            final int index = reset.get(current).intValue();
+            current++;
+            final int tx = index % width;
+            final int ty = index / width;
+            for (int y = ty - 1; y <= ty + 1; y++)
+            {
+                for (int x = tx - 1; x <= tx + 1; x++)
+                {
+                    final int neighbor = y * width + x;
+                    if (x >= 0 && y >= 0 && x < width && y < height && next[neighbor] == index)
+                    {
+                        integration[neighbor] = UNREACHABLE;
+                        next[neighbor] = -1;
+                        reset.add(Integer.valueOf(neighbor));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Compute the tile cost from its reachable neighbors, and add it to the open list if reachable.
+     * 
+     * @param tile The tile index.
+     */
+    private void seed(int tile)
+    {
+        if (blocked[tile] || integration[tile] < UNREACHABLE)
+        {
+            return;
+        }
+        final int tx = tile % width;
+        final int ty = tile / width;
+        for (int y = -1; y < 2; y++)
+        {
+            for (int x = -1; x < 2; x++)
+            {
+                final int nx = tx + x;
+                final int ny = ty + y;
+                final int neighbor = ny * width + nx;
+                if (nx >= 0
+                    && ny >= 0
+                    && nx < width
+                    && ny < height
+                    && (movements[tile] & MOVEMENTS[(y + 1) * 3 + x + 1]) != 0
+                    && integration[neighbor] + costs[tile] < integration[tile])
+                {
+                    integration[tile] = integration[neighbor] + costs[tile];
+                    next[tile] = neighbor;
+                }
+            }
+        }
+        if (integration[tile] < UNREACHABLE)
+        {
+            open.push(tile);
+        }
+    }
+
+    /**
+     * Propagate costs from the open list to the tiles which can move to them.
+     */
+    private void propagate()
+    {
+        while (!open.isEmpty())
+        {
+            final int current = open.poll();
+            final int tx = current % width;
+            final int ty = current / width;
+            for (int y = -1; y < 2; y++)
+            {
+                for (int x = -1; x < 2; x++)
+                {
+                    final int px = tx - x;
+                    final int py = ty - y;
+                    final int previous = py * width + px;
+                    if (px >= 0
+                        && py >= 0
+                        && px < width
+                        && py < height
+                        && !blocked[previous]
+                        && (movements[previous] & MOVEMENTS[(y + 1) * 3 + x + 1]) != 0)
+                    {
+                        final double cost = integration[current] + costs[previous];
+                        if (cost < integration[previous])
+                        {
+                            integration[previous] = cost;
+                            next[previous] = current;
+                            open.push(previous);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolve the cost and allowed movements of each map category not blocking for the mover profile.
+     * 
+     * @param mover The mover reference, representing its profile.
+     */
+    private void resolve(Pathfindable mover)
+    {
+        for (final String category : mapPath.getCategories())
+        {
+            if (!mover.isBlocking(category))
+            {
+                int flags = 0;
+                for (final MovementTile movement : MovementTile.values())
+                {
+                    if (mover.isMovementAllowed(category, movement))
+                    {
+                        flags |= 1 << movement.ordinal();
+                    }
+                }
+                categories.put(category, Integer.valueOf(flags));
+                categoriesCost.put(category, Double.valueOf(mover.getCost(category)));
+            }
+        }
+    }
+
+    /**
+     * Load the tile terrain data.
+     * 
+     * @param index The tile index.
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     */
+    private void loadTile(int index, int tx, int ty)
+    {
+        final Tile tile = map.getTile(tx, ty);
+        String category = null;
+        if (tile != null)
+        {
+            category = tile.getFeature(TilePath.class).getCategory();
+        }
+        final Double cost = categoriesCost.get(category);
+        terrain[index] = cost == null;
+        if (terrain[index])
+        {
+            costs[index] = 0.0;
+            movements[index] = 0;
+        }
+        else
+        {
+            costs[index] = cost.doubleValue();
+            movements[index] = categories.get(category).intValue();
+        }
+    }
+
+    /**
+     * Check if tile is blocked by terrain or by an object which is not a follower.
+     * 
+     * @param index The tile index.
+     * @param tx The horizontal tile.
+     * @param ty The vertical tile.
+     * @return <code>true</code> if blocked, <code>false</code> else.
+     */
+    private boolean isBlocked(int index, int tx, int ty)
+    {
+        if (terrain[index])
+        {
+            return true;
+        }
+        for (final Integer id : mapPath.getObjectsId(tx, ty))
+        {
+            if (!followers.contains(id))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Follow the field, appending one step on each refinement.
+     */
+    private final class Follower implements PathRefiner
+    {
+        /** Follower reference. */
+        private final Pathfindable follower;
+        /** Consecutive steps waited. */
+        private int waited;
+
+        /**
+         * Create refiner.
+         * 
+         * @param follower The follower reference.
+         */
+        Follower(Pathfindable follower)
+        {
+            this.follower = follower;
+        }
+
+        /**
+         * Get the next free tile toward destination, the direction field one first, else the free neighbor with the
+         * lowest cost.
+         * 
+         * @param tile The current tile index.
+         * @return The next tile index, <code>-1</code> if none.
+         */
+        private int getStep(int tile)
+        {
+            if (next[tile] >= 0 && isFree(next[tile]))
+            {
+                return next[tile];
+            }
+            final int tx = tile % width;
+            final int ty = tile / width;
+            int step = -1;
+            for (int y = -1; y < 2; y++)
+            {
+                for (int x = -1; x < 2; x++)
+                {
+                    final int nx = tx + x;
+                    final int ny = ty + y;
+                    final int neighbor = ny * width + nx;
+                    if (nx >= 0
+                        && ny >= 0
+                        && nx < width
+                        && ny < height
+                        && (movements[tile] & MOVEMENTS[(y + 1) * 3 + x + 1]) != 0
+                        && integration[neighbor] < integration[step < 0 ? tile : step]
+                        && isFree(neighbor))
+                    {
+                        step = neighbor;
+                    }
+                }
+            }
+            return step;
+        }
+
+        /**
+         * Check if tile is free for the follower.
+         * 
+         * @param tile The tile index.
+         * @return <code>true</code> if free, <code>false</code> else.
+         */
+        private boolean isFree(int tile)
+        {
+            return !mapPath.isBlocked(follower, tile % width, tile / width, false);
+        }
+
+        /*
+         * PathRefiner
+         */
+
+        @Override
+        public boolean refine(Path path)
+        {
+            final int last = path.getLength() - 1;
+            final int tx = path.getX(last);
+            final int ty = path.getY(last);
+            final int tile = ty * width + tx;
+            if (tile == destination)
+            {
+                return false;
+            }
+            refresh();
+            if (integration[tile] >= UNREACHABLE)
+            {
+                return false;
+            }
+
+            final int step = getStep(tile);
+            if (step < 0)
+            {
+                if (waited >= MAX_WAIT)
+                {
+                    return false;
+                }
+                waited++;
+                path.appendStep(tx, ty);
+                return true;
+            }
+            waited = 0;
+            path.appendStep(step % width, step / width);
+            return step != destination;
+        }
+
+        @Override
+        public PathRefiner bind(PathSearcher searcher)
+        {
+            return this;
+        }
+    }
+}
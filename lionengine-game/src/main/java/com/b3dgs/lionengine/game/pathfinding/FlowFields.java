@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.map.MapTile;
+
+/**
+ * Flow fields service, sharing a {@link FlowField} between all movers going to the same destination with the same
+ * profile (same blocking categories, costs and allowed movements), instead of searching one path per mover.
+ * <p>
+ * Movers follow a field with {@link Pathfindable#setDestinationFlow(int, int)}, and the field is kept until its last
+ * follower arrived or changed its destination. Followers do not block fields, other objects do, and fields are
+ * repaired around the tiles where they are added or removed.
+ * </p>
+ * <p>
+ * The service must be added to {@link Services} before preparing the movers:
+ * </p>
+ * 
+ * <pre>
+ * services.add(new FlowFields(services));
+ * </pre>
+ */
+public class FlowFields implements MapTilePathListener
+{
+    /** Fields by profile and destination. */
+    private final Map<String, FlowField> fields = new HashMap<String, FlowField>();
+    /** Followers id. */
+    private final Collection<Integer> followers = new HashSet<Integer>();
+    /** Map reference. */
+    private final MapTile map;
+    /** Map path reference. */
+    private final MapTilePath mapPath;
+
+    /**
+     * Create the service.
+     * <p>
+     * The {@link Services} must provide the following services:
+     * </p>
+     * <ul>
+     * <li>{@link MapTile}</li>
+     * </ul>
+     * 
+     * @param services The services reference.
+     * @throws LionEngineException If services not found.
+     */
+    public FlowFields(Services services)
+    {
+        super();
+
+        map = services.get(MapTile.class);
+        mapPath = map.getFeature(MapTilePath.class);
+        mapPath.addListener(this);
+    }
+
+    /**
+     * Get the field toward destination for the mover profile, computed if not already existing. A field which is not
+     * followed is kept until {@link #clear()}.
+     * 
+     * @param mover The mover reference.
+     * @param dtx The destination horizontal tile.
+     * @param dty The destination vertical tile.
+     * @return The flow field.
+     */
+    public FlowField getField(Pathfindable mover, int dtx, int dty)
+    {
+        final String key = getKey(mover, dtx, dty);
+        FlowField field = fields.get(key);
+        if (field == null)
+        {
+            field = new FlowField(map, mover, followers, dtx, dty);
+            fields.put(key, field);
+        }
+        return field;
+    }
+
+    /**
+     * Get the number of fields.
+     * 
+     * @return The number of fields.
+     */
+    public int getFieldsCount()
+    {
+        return fields.size();
+    }
+
+    /**
+     * Remove the fields which are not followed.
+     */
+    public void clear()
+    {
+        final Iterator<FlowField> iterator = fields.values().iterator();
+        while (iterator.hasNext())
+        {
+            if (iterator.next().isUnused())
+            {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Follow the field toward destination.
+     * 
+     * @param mover The mover reference.
+     * @param id The mover id.
+     * @param dtx The destination horizontal tile.
+     * @param dty The destination vertical tile.
+     * @return The followed field.
+     */
+    FlowField acquire(Pathfindable mover, Integer id, int dtx, int dty)
+    {
+        final FlowField field = getField(mover, dtx, dty);
+        field.acquire();
+        if (followers.add(id))
+        {
+            invalidate(mover);
+        }
+        return field;
+    }
+
+    /**
+     * Stop following the field. Field is removed if not followed anymore.
+     * 
+     * @param mover The mover reference.
+     * @param id The mover id.
+     * @param field The followed field.
+     */
+    void release(Pathfindable mover, Integer id, FlowField field)
+    {
+        if (field.release())
+        {
+            fields.values().remove(field);
+        }
+        if (followers.remove(id))
+        {
+            invalidate(mover);
+        }
+    }
+
+    /**
+     * Get the field key.
+     * 
+     * @param mover The mover reference.
+     * @param dtx The destination horizontal tile.
+     * @param dty The destination vertical tile.
+     * @return The field key.
+     */
+    private String getKey(Pathfindable mover, int dtx, int dty)
+    {
+        return new StringBuilder(MoverProfile.get(mapPath, mover)).append(dtx)
+                                                                  .append(':')
+                                                                  .append(dty)
+                                                                  .toString();
+    }
+
+    /**
+     * Invalidate the tiles covered by the mover, as it changed its follower state.
+     * 
+     * @param mover The mover reference.
+     */
+    private void invalidate(Pathfindable mover)
+    {
+        final int tx = mover.getInTileX();
+        final int ty = mover.getInTileY();
+        for (int x = tx; x < tx + mover.getInTileWidth(); x++)
+        {
+            for (int y = ty; y < ty + mover.getInTileHeight(); y++)
+            {
+                notifyTilePathUpdated(x, y);
+            }
+        }
+    }
+
+    /*
+     * MapTilePathListener
+     */
+
+    @Override
+    public void notifyPathfindingLoaded()
+    {
+        for (final FlowField field : fields.values())
+        {
+            field.invalidate();
+        }
+    }
+
+    @Override
+    public void notifyTilePathUpdated(int tx, int ty)
+    {
+        for (final FlowField field : fields.values())
+        {
+            field.invalidate(tx, ty);
+        }
+    }
+
+    @Override
+    public void notifyObjectIdChanged(int tx, int ty, Integer id)
+    {
+        if (!followers.contains(id))
+        {
+            notifyTilePathUpdated(tx, ty);
+        }
+    }
+}
@@ -29,6 +29,20 @@ import com.b3dgs.lionengine.game.tile.Tiled;
  */
 public interface MapTilePath extends Feature
 {
+    /**
+     * Add a map tile path listener.
+     * 
+     * @param listener The listener to add.
+     */
+    void addListener(MapTilePathListener listener);
+
+    /**
+     * Remove a map tile path listener.
+     * 
+     * @param listener The listener to remove.
+     */
+    void removeListener(MapTilePathListener listener);
+
     /**
      * Load map pathfinding from an external file.
      * 
@@ -36,6 +50,15 @@ public interface MapTilePath extends Feature
      */
     void loadPathfinding(Media pathfindingConfig);
 
+    /**
+     * Update the tile path data at this location, after the tile has been changed on map. Category is resolved from
+     * the tile group, and objects ID are kept if tile already had path data.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     */
+    void updateTile(int tx, int ty);
+
     /**
      * Add object ID at this location.
      * 
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+/**
+ * Notify {@link MapTilePath} events.
+ */
+public interface MapTilePathListener
+{
+    /**
+     * Notify when pathfinding has been loaded. All tiles path data have been replaced.
+     */
+    void notifyPathfindingLoaded();
+
+    /**
+     * Notify when a tile path data has been updated, after the tile has been changed on map.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     */
+    void notifyTilePathUpdated(int tx, int ty);
+
+    /**
+     * Notify when an object id has been added or removed at location.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @param id The object id.
+     */
+    void notifyObjectIdChanged(int tx, int ty, Integer id);
+}
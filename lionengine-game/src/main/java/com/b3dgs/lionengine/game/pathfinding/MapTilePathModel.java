@@ -17,6 +17,7 @@
  */
 package com.b3dgs.lionengine.game.pathfinding;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -24,10 +25,13 @@ import java.util.Map;
 
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.game.feature.FeatureId;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.FeatureProvider;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileChunkListener;
+import com.b3dgs.lionengine.game.map.MapTileChunked;
 import com.b3dgs.lionengine.game.map.feature.group.MapTileGroup;
 import com.b3dgs.lionengine.game.map.feature.group.MapTileGroupModel;
 import com.b3dgs.lionengine.game.tile.Tile;
@@ -36,15 +40,26 @@ import com.b3dgs.lionengine.util.UtilMath;
 
 /**
  * Map tile path model implementation.
+ * <p>
+ * With a {@link MapTileChunked}, tiles path are added to each chunk on loading, and chunks with tiles used by objects
+ * are held, to keep their objects id.
+ * </p>
  */
-public class MapTilePathModel extends FeatureModel implements MapTilePath
+public class MapTilePathModel extends FeatureModel implements MapTilePath, MapTileChunkListener
 {
+    /** Tile path feature identifier. */
+    private static final FeatureId<TilePath> TILE_PATH = FeatureId.get(TilePath.class);
+
+    /** Listeners. */
+    private final Collection<MapTilePathListener> listeners = new ArrayList<MapTilePathListener>();
     /** Categories list. */
     private final Map<String, PathCategory> categories = new HashMap<String, PathCategory>();
     /** Map reference. */
     private MapTile map;
     /** Map group reference. */
     private MapTileGroup mapGroup;
+    /** Chunked map reference (<code>null</code> if not chunked). */
+    private MapTileChunked chunked;
 
     /**
      * Create a map tile path.
@@ -139,6 +154,19 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
         return null;
     }
 
+    /**
+     * Add the tile path, with the category of the tile group.
+     * 
+     * @param tile The tile reference.
+     */
+    private void addTilePath(Tile tile)
+    {
+        final String group = mapGroup.getGroup(tile);
+        final String category = getCategory(group);
+        final TilePath tilePath = new TilePathModel(category);
+        tile.addFeature(tilePath);
+    }
+
     /*
      * MapTilePath
      */
@@ -150,6 +178,23 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
 
         map = services.get(MapTile.class);
         mapGroup = map.getFeature(MapTileGroupModel.class);
+        if (map instanceof MapTileChunked)
+        {
+            chunked = (MapTileChunked) map;
+            chunked.addListener(this);
+        }
+    }
+
+    @Override
+    public void addListener(MapTilePathListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(MapTilePathListener listener)
+    {
+        listeners.remove(listener);
     }
 
     @Override
@@ -168,12 +213,36 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
                 final Tile tile = map.getTile(tx, ty);
                 if (tile != null)
                 {
-                    final String group = mapGroup.getGroup(tile);
-                    final String category = getCategory(group);
-                    final TilePath tilePath = new TilePathModel(category);
-                    tile.addFeature(tilePath);
+                    addTilePath(tile);
+                }
+            }
+        }
+        for (final MapTilePathListener listener : listeners)
+        {
+            listener.notifyPathfindingLoaded();
+        }
+    }
+
+    @Override
+    public void updateTile(int tx, int ty)
+    {
+        final Tile tile = map.getTile(tx, ty);
+        if (tile != null)
+        {
+            final String category = getCategory(mapGroup.getGroup(tile));
+            final TilePath tilePath = new TilePathModel(category);
+            if (tile.hasFeature(TILE_PATH))
+            {
+                for (final Integer id : tile.getFeature(TILE_PATH).getObjectsId())
+                {
+                    tilePath.addObjectId(id);
                 }
             }
+            tile.addFeature(tilePath);
+        }
+        for (final MapTilePathListener listener : listeners)
+        {
+            listener.notifyTilePathUpdated(tx, ty);
         }
     }
 
@@ -183,8 +252,16 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
         final Tile tile = map.getTile(tx, ty);
         if (tile != null)
         {
-            final TilePath tilePath = tile.getFeature(TilePath.class);
+            final TilePath tilePath = tile.getFeature(TILE_PATH);
+            if (chunked != null && tilePath.getObjectsId().isEmpty())
+            {
+                chunked.hold(tx, ty);
+            }
             tilePath.addObjectId(id);
+            for (final MapTilePathListener listener : listeners)
+            {
+                listener.notifyObjectIdChanged(tx, ty, id);
+            }
         }
     }
 
@@ -194,8 +271,17 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
         final Tile tile = map.getTile(tx, ty);
         if (tile != null)
         {
-            final TilePath tilePath = tile.getFeature(TilePath.class);
+            final TilePath tilePath = tile.getFeature(TILE_PATH);
+            final boolean used = !tilePath.getObjectsId().isEmpty();
             tilePath.removeObjectId(id);
+            if (chunked != null && used && tilePath.getObjectsId().isEmpty())
+            {
+                chunked.release(tx, ty);
+            }
+            for (final MapTilePathListener listener : listeners)
+            {
+                listener.notifyObjectIdChanged(tx, ty, id);
+            }
         }
     }
 
@@ -205,7 +291,7 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
         final Tile tile = map.getTile(tx, ty);
         if (tile != null)
         {
-            final TilePath tilePath = tile.getFeature(TilePath.class);
+            final TilePath tilePath = tile.getFeature(TILE_PATH);
             return tilePath.getObjectsId();
         }
         return Collections.emptyList();
@@ -244,7 +330,7 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
             final Tile tile = map.getTile(tx, ty);
             if (tile != null)
             {
-                final TilePath tilePath = tile.getFeature(TilePath.class);
+                final TilePath tilePath = tile.getFeature(TILE_PATH);
                 return mover.isBlocking(tilePath.getCategory());
             }
         }
@@ -257,7 +343,7 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
         final Tile tile = map.getTile(tx, ty);
         if (tile != null)
         {
-            final TilePath tilePath = tile.getFeature(TilePath.class);
+            final TilePath tilePath = tile.getFeature(TILE_PATH);
             return mover.getCost(tilePath.getCategory());
         }
         return 0.0;
@@ -338,7 +424,7 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
                 final Tile tile = map.getTile(ctx, cty);
                 if (tile != null)
                 {
-                    final TilePath tilePath = tile.getFeature(TilePath.class);
+                    final TilePath tilePath = tile.getFeature(TILE_PATH);
                     if (mover.isBlocking(tilePath.getCategory())
                         || ignoreObjectId != null && !ids.isEmpty() && !ids.contains(ignoreObjectId))
                     {
@@ -349,4 +435,33 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
         }
         return true;
     }
+
+    /*
+     * MapTileChunkListener
+     */
+
+    @Override
+    public void notifyChunkLoaded(int tx, int ty, int width, int height)
+    {
+        if (!categories.isEmpty())
+        {
+            for (int y = ty; y < ty + height; y++)
+            {
+                for (int x = tx; x < tx + width; x++)
+                {
+                    final Tile tile = map.getTile(x, y);
+                    if (tile != null)
+                    {
+                        addTilePath(tile);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void notifyChunkUnloaded(int tx, int ty, int width, int height)
+    {
+        // Nothing to do, tiles path are unloaded with their chunk, which is held while used by objects
+    }
 }
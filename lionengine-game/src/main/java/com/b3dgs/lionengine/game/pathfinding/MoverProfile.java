@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import com.b3dgs.lionengine.LionEngineException;
+
+/**
+ * Movers profile, movers with the same profile share the same pathfinding data on a map.
+ */
+final class MoverProfile
+{
+    /**
+     * Get the mover profile: blocking state, cost and allowed movements of each map category.
+     * 
+     * @param mapPath The map path reference.
+     * @param mover The mover reference.
+     * @return The mover profile.
+     */
+    static String get(MapTilePath mapPath, Pathfindable mover)
+    {
+        final StringBuilder profile = new StringBuilder();
+        for (final String category : mapPath.getCategories())
+        {
+            profile.append(category).append('=');
+            if (mover.isBlocking(category))
+            {
+                profile.append('-');
+            }
+            else
+            {
+                profile.append(mover.getCost(category));
+                for (final MovementTile movement : MovementTile.values())
+                {
+                    if (mover.isMovementAllowed(category, movement))
+                    {
+                        profile.append(movement.ordinal());
+                    }
+                }
+            }
+            profile.append(';');
+        }
+        return profile.toString();
+    }
+
+    /**
+     * Private constructor.
+     */
+    private MoverProfile()
+    {
+        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+    }
+}
@@ -34,6 +34,14 @@ public final class Node implements Comparable<Node>
     private double cost;
     /** Node heuristic value. */
     private double heuristic;
+    /** Search generation the node state belongs to. */
+    private int generation;
+    /** Index in the open heap (<code>-1</code> if not in open heap). */
+    private int heapIndex = -1;
+    /** Insertion order in the open heap, used to keep first inserted first when costs are equal. */
+    private long order;
+    /** Closed flag. */
+    private boolean closed;
 
     /**
      * Constructor.
@@ -173,6 +181,105 @@ public final class Node implements Comparable<Node>
         return depth;
     }
 
+    /**
+     * Mark the node as visited by the search generation. Reset open and closed state if the node was not yet visited
+     * by this generation.
+     * 
+     * @param generation The current search generation.
+     */
+    void visit(int generation)
+    {
+        if (this.generation != generation)
+        {
+            this.generation = generation;
+            heapIndex = -1;
+            closed = false;
+        }
+    }
+
+    /**
+     * Check if node has been visited by the search generation.
+     * 
+     * @param generation The current search generation.
+     * @return <code>true</code> if visited during this generation, <code>false</code> else.
+     */
+    boolean isVisited(int generation)
+    {
+        return this.generation == generation;
+    }
+
+    /**
+     * Check if node is in the open heap for the search generation.
+     * 
+     * @param generation The current search generation.
+     * @return <code>true</code> if opened during this generation, <code>false</code> else.
+     */
+    boolean isOpen(int generation)
+    {
+        return this.generation == generation && heapIndex > -1;
+    }
+
+    /**
+     * Check if node is closed for the search generation.
+     * 
+     * @param generation The current search generation.
+     * @return <code>true</code> if closed during this generation, <code>false</code> else.
+     */
+    boolean isClosed(int generation)
+    {
+        return this.generation == generation && closed;
+    }
+
+    /**
+     * Set the closed state.
+     * 
+     * @param closed <code>true</code> if closed, <code>false</code> else.
+     */
+    void setClosed(boolean closed)
+    {
+        this.closed = closed;
+    }
+
+    /**
+     * Set the open heap index.
+     * 
+     * @param heapIndex The open heap index (<code>-1</code> if not in heap).
+     */
+    void setHeapIndex(int heapIndex)
+    {
+        this.heapIndex = heapIndex;
+    }
+
+    /**
+     * Get the open heap index.
+     * 
+     * @return The open heap index (<code>-1</code> if not in heap).
+     */
+    int getHeapIndex()
+    {
+        return heapIndex;
+    }
+
+    /**
+     * Set the open heap insertion order.
+     * 
+     * @param order The insertion order.
+     */
+    void setOrder(long order)
+    {
+        this.order = order;
+    }
+
+    /**
+     * Get the open heap insertion order.
+     * 
+     * @return The insertion order.
+     */
+    long getOrder()
+    {
+        return order;
+    }
+
     /*
      * Comparable
      */
@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+/**
+ * Indexed binary heap of nodes, used as the open list by the path finder. Nodes are ordered by their total cost
+ * (cost plus heuristic), then by their insertion order, so equal nodes are retrieved in first inserted first out order.
+ * Each node stores its own heap index, allowing constant time membership checks and logarithmic cost updates.
+ */
+final class NodeHeap
+{
+    /** Heap elements. */
+    private final Node[] heap;
+    /** Current size. */
+    private int size;
+    /** Next insertion order. */
+    private long order;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param capacity The maximum number of nodes.
+     */
+    NodeHeap(int capacity)
+    {
+        heap = new Node[capacity];
+    }
+
+    /**
+     * Get first element, with the lowest total cost.
+     * 
+     * @return The first element.
+     */
+    public Node first()
+    {
+        return heap[0];
+    }
+
+    /**
+     * Remove and get the first element.
+     * 
+     * @return The removed first element.
+     */
+    public Node poll()
+    {
+        final Node first = heap[0];
+        remove(first);
+        return first;
+    }
+
+    /**
+     * Clear all elements. Elements heap index are not reset, as they are invalidated by the search generation.
+     */
+    public void clear()
+    {
+        size = 0;
+    }
+
+    /**
+     * Add an element to the heap.
+     * 
+     * @param node The node to add.
+     */
+    public void add(Node node)
+    {
+        node.setOrder(order++);
+        node.setHeapIndex(size);
+        heap[size] = node;
+        size++;
+        siftUp(node.getHeapIndex());
+    }
+
+    /**
+     * Update the element position after its cost has been decreased. Element is considered as newly inserted.
+     * 
+     * @param node The node with decreased cost.
+     */
+    public void decrease(Node node)
+    {
+        node.setOrder(order++);
+        siftUp(node.getHeapIndex());
+    }
+
+    /**
+     * Remove an element from the heap.
+     * 
+     * @param node The node to remove.
+     */
+    public void remove(Node node)
+    {
+        final int index = node.getHeapIndex();
+        size--;
+        final Node last = heap[size];
+        heap[size] = null;
+        node.setHeapIndex(-1);
+
+        if (index < size)
+        {
+            set(index, last);
+            siftDown(index);
+            siftUp(last.getHeapIndex());
+        }
+    }
+
+    /**
+     * Get the heap size.
+     * 
+     * @return The heap size.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Move element up until heap order is respected.
+     * 
+     * @param start The element index.
+     */
+    private void siftUp(int start)
+    {
+        int index = start;
+        final Node node = heap[index];
+        while (index > 0)
+        {
+            final int parent = (index - 1) >>> 1;
+            final Node other = heap[parent];
+            if (compare(node, other) >= 0)
+            {
+                break;
+            }
+            set(index, other);
+            index = parent;
+        }
+        set(index, node);
+    }
+
+    /**
+     * Move element down until heap order is respected.
+     * 
+     * @param start The element index.
+     */
+    private void siftDown(int start)
+    {
+        int index = start;
+        final Node node = heap[index];
+        final int half = size >>> 1;
+        while (index < half)
+        {
+            int child = (index << 1) + 1;
+            final int right = child + 1;
+            if (right < size && compare(heap[right], heap[child]) < 0)
+            {
+                child = right;
+            }
+            if (compare(node, heap[child]) <= 0)
+            {
+                break;
+            }
+            set(index, heap[child]);
+            index = child;
+        }
+        set(index, node);
+    }
+
+    /**
+     * Store element at index and update its heap index.
+     * 
+     * @param index The heap index.
+     * @param node The node to store.
+     */
+    private void set(int index, Node node)
+    {
+        heap[index] = node;
+        node.setHeapIndex(index);
+    }
+
+    /**
+     * Compare two nodes by total cost, then by insertion order.
+     * 
+     * @param node The first node.
+     * @param other The second node.
+     * @return A negative value if node is before other, a positive value if after.
+     */
+    private static int compare(Node node, Node other)
+    {
+        final int compare = node.compareTo(other);
+        if (compare != 0)
+        {
+            return compare;
+        }
+        if (node.getOrder() < other.getOrder())
+        {
+            return -1;
+        }
+        if (node.getOrder() > other.getOrder())
+        {
+            return 1;
+        }
+        return 0;
+    }
+}
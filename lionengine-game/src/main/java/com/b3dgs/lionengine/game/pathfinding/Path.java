@@ -23,11 +23,17 @@ import java.util.List;
 /**
  * A path determined by some path finding algorithm. A series of steps from the starting location to the target
  * location. This includes a step for the initial location.
+ * <p>
+ * A path may be partial, only its first steps being known, the next ones being appended on {@link #refine()} (see
+ * {@link PathFinderHierarchical}).
+ * </p>
  */
 public final class Path
 {
     /** List of steps. */
     private final List<Step> steps;
+    /** Path refiner (<code>null</code> if path is complete). */
+    private PathRefiner refiner;
 
     /**
      * Constructor.
@@ -103,6 +109,64 @@ public final class Path
         return steps.contains(new Step(x, y));
     }
 
+    /**
+     * Check if path steps are all known.
+     * 
+     * @return <code>true</code> if path is complete, <code>false</code> if next steps remain to be refined.
+     */
+    public boolean isComplete()
+    {
+        return refiner == null;
+    }
+
+    /**
+     * Append the next steps if path is not complete.
+     */
+    public void refine()
+    {
+        if (refiner != null && !refiner.refine(this))
+        {
+            refiner = null;
+        }
+    }
+
+    /**
+     * Copy the path, sharing its steps and refiner. Copy must be bound before being refined, so it gets its own
+     * refiner state.
+     * 
+     * @return The path copy.
+     */
+    Path copy()
+    {
+        final Path copy = new Path();
+        copy.steps.addAll(steps);
+        copy.refiner = refiner;
+        return copy;
+    }
+
+    /**
+     * Bind the path refinement to the path finder of the thread which will refine it, when found by another one.
+     * 
+     * @param searcher The path finder of the refining thread.
+     */
+    void bind(PathSearcher searcher)
+    {
+        if (refiner != null)
+        {
+            refiner = refiner.bind(searcher);
+        }
+    }
+
+    /**
+     * Set the path refiner, used to append next steps on demand.
+     * 
+     * @param refiner The path refiner (<code>null</code> if path is complete).
+     */
+    void setRefiner(PathRefiner refiner)
+    {
+        this.refiner = refiner;
+    }
+
     /**
      * Get the step at a given index in the path.
      * 
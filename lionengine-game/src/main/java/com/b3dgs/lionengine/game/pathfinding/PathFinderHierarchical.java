@@ -0,0 +1,698 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.util.UtilMath;
+
+/**
+ * Hierarchical path finder implementation (HPA*). Long searches are done on an abstract graph of map clusters, and
+ * only the next cluster segment is searched on tiles, when the mover needs it.
+ * <p>
+ * A {@link ClusterGraph} is built for each movers profile (blocking state, cost and allowed movements of each
+ * {@link PathCategory}), on its first search, and only for the clusters reached. A tile updated with
+ * {@link MapTilePath#updateTile(int, int)} only invalidates its cluster, rebuilt with its neighbors when reached
+ * again. Static objects, such as placed buildings, are part of the graph (see {@link StaticBlockers}), and invalidate
+ * their cluster when added or removed. Movers id change on each step, so they are only considered when searching
+ * segments on tiles, with {@link PathFinderImpl}. Segment searches are limited to a few clusters range: if a segment
+ * is blocked, the abstract route is searched again once from the blocked location, else the path ends there.
+ * </p>
+ * <p>
+ * Found {@link Path} is partial, next segments being appended on {@link Path#refine()}. Searches inside a cluster or
+ * between adjacent clusters are done directly on tiles, and return a complete path.
+ * </p>
+ * <p>
+ * Map notifications are queued without locking, and applied on the next abstract search, as a copy owned by a
+ * {@link PathQueryService} worker searches while the game loop thread moves objects. Paths found by a worker copy are
+ * bound to the game loop path finder before delivery (see {@link Path#bind(PathSearcher)}), so each path finder is only
+ * used by one thread.
+ * </p>
+ */
+final class PathFinderHierarchical implements PathSearcher, MapTilePathListener
+{
+    /** Segment search range, in cluster size. */
+    private static final int SEGMENT_RANGE = 4;
+    /** Abstract search heuristic weight, favoring fewer expanded nodes over an optimal abstract route. */
+    private static final double ABSTRACT_WEIGHT = 1.2;
+    /** Maximum queued changes, above which pathfinding is reloaded on next search instead. */
+    private static final int MAX_CHANGES = 8192;
+    /** Pathfinding loaded change. */
+    private static final Change LOADED = new Change(-1, -1, null);
+
+    /** Map changes notified, applied on next abstract search. */
+    private final Queue<Change> changes = new ConcurrentLinkedQueue<Change>();
+    /** Number of queued changes. */
+    private final AtomicInteger queued = new AtomicInteger();
+    /** Graphs by movers profile. */
+    private final Map<String, ClusterGraph> graphs = new HashMap<String, ClusterGraph>();
+    /** Abstract search open list. */
+    private final Queue<Entry> open = new PriorityQueue<Entry>();
+    /** Goal cluster nodes, with their cost to goal. */
+    private final Map<ClusterNode, Double> exits = new HashMap<ClusterNode, Double>();
+    /** Cluster nodes buffer. */
+    private final List<ClusterNode> nodes = new ArrayList<ClusterNode>();
+    /** Changed static blockers buffer. */
+    private final List<CoordTile> changed = new ArrayList<CoordTile>();
+    /** Static blockers. */
+    private final StaticBlockers blockers;
+    /** Tiles path finder, used on segments. */
+    private final PathFinderImpl pathfinder;
+    /** Map reference. */
+    private final MapTile map;
+    /** Map path reference. */
+    private final MapTilePath mapPath;
+    /** Heuristic used. */
+    private final Heuristic heuristic;
+    /** Cluster size in tile. */
+    private final int clusterSize;
+    /** Current abstract search generation. */
+    private int generation;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param map The map to be searched. Must have the {@link MapTilePath} feature.
+     * @param clusterSize The cluster size in tile (superior or equal to 2).
+     * @param heuristic The heuristic used to determine the search order of the map.
+     * @throws LionEngineException If invalid cluster size.
+     */
+    PathFinderHierarchical(MapTile map, int clusterSize, Heuristic heuristic)
+    {
+        Check.superiorOrEqual(clusterSize, 2);
+
+        this.map = map;
+        this.clusterSize = clusterSize;
+        this.heuristic = heuristic;
+        mapPath = map.getFeature(MapTilePath.class);
+        pathfinder = new PathFinderImpl(map, clusterSize * SEGMENT_RANGE, heuristic);
+        blockers = new StaticBlockers(map);
+        mapPath.addListener(this);
+    }
+
+    /**
+     * Search the abstract path on the mover profile clusters graph.
+     * 
+     * @param mover The mover reference.
+     * @param stx The x coordinate of the start location.
+     * @param sty The y coordinate of the start location.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @return The abstract path waypoints, ending with destination (<code>null</code> if none).
+     */
+    private List<CoordTile> search(Pathfindable mover, int stx, int sty, int dtx, int dty)
+    {
+        applyChanges();
+        final ClusterGraph graph = getGraph(mover);
+
+        final ClusterNode start = new ClusterNode(stx, sty, graph.getCluster(stx, sty));
+        final ClusterNode goal = new ClusterNode(dtx, dty, graph.getCluster(dtx, dty));
+
+        graph.getNodes(mover, start.getCluster(), nodes);
+        graph.explore(mover, stx, sty, false, nodes);
+        for (final ClusterNode node : nodes)
+        {
+            final double cost = graph.getExplored(node.getX(), node.getY());
+            if (cost >= 0.0)
+            {
+                start.link(node, cost);
+            }
+        }
+        exits.clear();
+        graph.getNodes(mover, goal.getCluster(), nodes);
+        graph.explore(mover, dtx, dty, true, nodes);
+        for (final ClusterNode node : nodes)
+        {
+            final double cost = graph.getExplored(node.getX(), node.getY());
+            if (cost >= 0.0)
+            {
+                exits.put(node, Double.valueOf(cost));
+            }
+        }
+
+        nextGeneration();
+        start.visit(generation);
+        goal.visit(generation);
+        update(start, null, 0.0, dtx, dty);
+        while (!open.isEmpty())
+        {
+            final ClusterNode current = open.poll().getNode();
+            if (current == goal)
+            {
+                break;
+            }
+            if (!current.isClosed())
+            {
+                current.setClosed(true);
+                if (current != start)
+                {
+                    graph.link(mover, current);
+                }
+                expand(current, goal, dtx, dty);
+            }
+        }
+        exits.clear();
+        nodes.clear();
+
+        if (goal.getParent() == null)
+        {
+            return null;
+        }
+        final List<CoordTile> waypoints = new ArrayList<CoordTile>();
+        ClusterNode node = goal;
+        while (node != start)
+        {
+            waypoints.add(0, new CoordTile(node.getX(), node.getY()));
+            node = node.getParent();
+        }
+        return waypoints;
+    }
+
+    /**
+     * Expand the current node neighbors.
+     * 
+     * @param current The current node.
+     * @param goal The goal node.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     */
+    private void expand(ClusterNode current, ClusterNode goal, int dtx, int dty)
+    {
+        final Double exit = exits.get(current);
+        if (exit != null)
+        {
+            update(goal, current, current.getCost() + exit.doubleValue(), dtx, dty);
+        }
+        for (int i = 0; i < current.getLinks(); i++)
+        {
+            update(current.getLink(i), current, current.getCost() + current.getLinkCost(i), dtx, dty);
+        }
+        final ClusterNode twin = current.getTwin();
+        if (twin != null)
+        {
+            update(twin, current, current.getCost() + current.getTwinCost(), dtx, dty);
+        }
+    }
+
+    /**
+     * Update node search state if reached with a lower cost, and open it.
+     * 
+     * @param node The reached node.
+     * @param parent The parent node (<code>null</code> if none).
+     * @param cost The cost to reach node.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     */
+    private void update(ClusterNode node, ClusterNode parent, double cost, int dtx, int dty)
+    {
+        node.visit(generation);
+        if (!node.isClosed() && (parent == null || cost < node.getCost()))
+        {
+            final double estimate = cost + ABSTRACT_WEIGHT * heuristic.getCost(node.getX(), node.getY(), dtx, dty);
+            node.setSearch(parent, cost, estimate);
+            open.add(new Entry(node, estimate));
+        }
+    }
+
+    /**
+     * Queue a map change, applied on next abstract search. Too many changes are replaced by a pathfinding reload.
+     * 
+     * @param change The change to queue.
+     */
+    private void queue(Change change)
+    {
+        if (queued.incrementAndGet() > MAX_CHANGES)
+        {
+            changes.clear();
+            queued.set(1);
+            changes.add(LOADED);
+        }
+        else
+        {
+            changes.add(change);
+        }
+    }
+
+    /**
+     * Apply the queued map changes to the graphs.
+     */
+    private void applyChanges()
+    {
+        Change change = changes.poll();
+        while (change != null)
+        {
+            queued.decrementAndGet();
+            if (change == LOADED)
+            {
+                graphs.clear();
+                blockers.load();
+            }
+            else if (change.getId() == null)
+            {
+                invalidate(change.getX(), change.getY());
+            }
+            else
+            {
+                blockers.update(change.getX(), change.getY(), change.getId(), changed);
+                for (final CoordTile tile : changed)
+                {
+                    invalidate(tile.getX(), tile.getY());
+                }
+                changed.clear();
+            }
+            change = changes.poll();
+        }
+    }
+
+    /**
+     * Invalidate the tile cluster in all graphs.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     */
+    private void invalidate(int tx, int ty)
+    {
+        for (final ClusterGraph graph : graphs.values())
+        {
+            graph.invalidate(tx, ty);
+        }
+    }
+
+    /**
+     * Create a refiner of waypoints, searching segments with this path finder.
+     * 
+     * @param mover The mover reference.
+     * @param waypoints The waypoints, ending with destination.
+     * @param next The next waypoint index.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return The created refiner.
+     */
+    private PathRefiner createRefiner(Pathfindable mover, List<CoordTile> waypoints, int next, boolean ignoreRef)
+    {
+        return new Refiner(mover, waypoints, next, ignoreRef);
+    }
+
+    /**
+     * Start a new abstract search generation.
+     */
+    private void nextGeneration()
+    {
+        if (generation == Integer.MAX_VALUE)
+        {
+            graphs.clear();
+            generation = 0;
+        }
+        generation++;
+        open.clear();
+    }
+
+    /**
+     * Get the graph of the mover profile, created if needed.
+     * 
+     * @param mover The mover reference.
+     * @return The mover profile graph.
+     */
+    private ClusterGraph getGraph(Pathfindable mover)
+    {
+        final String profile = MoverProfile.get(mapPath, mover);
+        ClusterGraph graph = graphs.get(profile);
+        if (graph == null)
+        {
+            graph = new ClusterGraph(map, clusterSize, blockers);
+            graphs.put(profile, graph);
+        }
+        return graph;
+    }
+
+    /**
+     * Check if locations are in the same cluster or in adjacent clusters.
+     * 
+     * @param stx The x coordinate of the start location.
+     * @param sty The y coordinate of the start location.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @return <code>true</code> if near, <code>false</code> else.
+     */
+    private boolean isNear(int stx, int sty, int dtx, int dty)
+    {
+        return Math.abs(stx / clusterSize - dtx / clusterSize) < 2
+               && Math.abs(sty / clusterSize - dty / clusterSize) < 2;
+    }
+
+    /*
+     * PathSearcher
+     */
+
+    @Override
+    public Path findPath(Pathfindable mover, int stx, int sty, int dtx, int dty, boolean ignoreRef)
+    {
+        if (isNear(stx, sty, dtx, dty))
+        {
+            final Path path = pathfinder.findPath(mover, stx, sty, dtx, dty, ignoreRef);
+            if (path != null)
+            {
+                return path;
+            }
+        }
+        if (mapPath.isBlocked(mover, dtx, dty, ignoreRef))
+        {
+            final CoordTile tile = mapPath.getClosestAvailableTile(mover, dtx, dty, stx, sty, map.getInTileRadius());
+            if (tile == null)
+            {
+                return null;
+            }
+            return findPath(mover, stx, sty, tile.getX(), tile.getY(), ignoreRef);
+        }
+
+        final List<CoordTile> waypoints = search(mover, stx, sty, dtx, dty);
+        if (waypoints == null)
+        {
+            return null;
+        }
+        final Path path = new Path();
+        path.appendStep(stx, sty);
+        path.setRefiner(createRefiner(mover, waypoints, 0, ignoreRef));
+        path.refine();
+        if (path.getLength() < 2)
+        {
+            return null;
+        }
+        return path;
+    }
+
+    @Override
+    public boolean fits(int width, int height)
+    {
+        return pathfinder.fits(width, height);
+    }
+
+    @Override
+    public PathSearcher copy()
+    {
+        return new PathFinderHierarchical(map, clusterSize, heuristic);
+    }
+
+    @Override
+    public void release()
+    {
+        mapPath.removeListener(this);
+    }
+
+    /*
+     * PathFinder
+     */
+
+    @Override
+    public Path findPath(Pathfindable mover, int dtx, int dty, boolean ignoreRef)
+    {
+        return findPath(mover, mover.getInTileX(), mover.getInTileY(), dtx, dty, ignoreRef);
+    }
+
+    /*
+     * MapTilePathListener
+     */
+
+    @Override
+    public void notifyPathfindingLoaded()
+    {
+        queue(LOADED);
+    }
+
+    @Override
+    public void notifyTilePathUpdated(int tx, int ty)
+    {
+        queue(new Change(tx, ty, null));
+    }
+
+    @Override
+    public void notifyObjectIdChanged(int tx, int ty, Integer id)
+    {
+        queue(new Change(tx, ty, id));
+    }
+
+    /**
+     * Map change notified, applied on next abstract search.
+     */
+    private static final class Change
+    {
+        /** Horizontal tile index. */
+        private final int tx;
+        /** Vertical tile index. */
+        private final int ty;
+        /** Object id changed (<code>null</code> if tile path updated). */
+        private final Integer id;
+
+        /**
+         * Create change.
+         * 
+         * @param tx The horizontal tile index.
+         * @param ty The vertical tile index.
+         * @param id The object id changed (<code>null</code> if tile path updated).
+         */
+        Change(int tx, int ty, Integer id)
+        {
+            this.tx = tx;
+            this.ty = ty;
+            this.id = id;
+        }
+
+        /**
+         * Get the horizontal tile index.
+         * 
+         * @return The horizontal tile index.
+         */
+        int getX()
+        {
+            return tx;
+        }
+
+        /**
+         * Get the vertical tile index.
+         * 
+         * @return The vertical tile index.
+         */
+        int getY()
+        {
+            return ty;
+        }
+
+        /**
+         * Get the object id changed.
+         * 
+         * @return The object id changed (<code>null</code> if tile path updated).
+         */
+        Integer getId()
+        {
+            return id;
+        }
+    }
+
+    /**
+     * Abstract search open list entry.
+     */
+    private static final class Entry implements Comparable<Entry>
+    {
+        /** Node reference. */
+        private final ClusterNode node;
+        /** Node estimated total cost when opened. */
+        private final double estimate;
+
+        /**
+         * Create entry.
+         * 
+         * @param node The node reference.
+         * @param estimate The node estimated total cost.
+         */
+        Entry(ClusterNode node, double estimate)
+        {
+            this.node = node;
+            this.estimate = estimate;
+        }
+
+        /**
+         * Get the node.
+         * 
+         * @return The node reference.
+         */
+        ClusterNode getNode()
+        {
+            return node;
+        }
+
+        /*
+         * Comparable
+         */
+
+        @Override
+        public int compareTo(Entry other)
+        {
+            return Double.compare(estimate, other.estimate);
+        }
+    }
+
+    /**
+     * Refine the abstract path waypoints on tiles, one cluster segment at a time.
+     */
+    private final class Refiner implements PathRefiner
+    {
+        /** Waypoints, ending with destination. */
+        private List<CoordTile> waypoints;
+        /** Mover reference. */
+        private final Pathfindable mover;
+        /** The ignore map array reference checking. */
+        private final boolean ignoreRef;
+        /** Next waypoint index. */
+        private int next;
+
+        /**
+         * Create refiner.
+         * 
+         * @param mover The mover reference.
+         * @param waypoints The waypoints, ending with destination.
+         * @param next The next waypoint index.
+         * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+         */
+        Refiner(Pathfindable mover, List<CoordTile> waypoints, int next, boolean ignoreRef)
+        {
+            this.mover = mover;
+            this.waypoints = waypoints;
+            this.next = next;
+            this.ignoreRef = ignoreRef;
+        }
+
+        /**
+         * Check if waypoint is at location.
+         * 
+         * @param index The waypoint index.
+         * @param tx The horizontal tile index.
+         * @param ty The vertical tile index.
+         * @return <code>true</code> if waypoint is at location, <code>false</code> else.
+         */
+        private boolean isAt(int index, int tx, int ty)
+        {
+            final CoordTile waypoint = waypoints.get(index);
+            return waypoint.getX() == tx && waypoint.getY() == ty;
+        }
+
+        /**
+         * Check if waypoint is adjacent to the next one, entrances on each side of a border.
+         * 
+         * @param route The waypoints reference.
+         * @param index The waypoint index.
+         * @return <code>true</code> if adjacent to next waypoint, <code>false</code> else.
+         */
+        private boolean isAdjacent(List<CoordTile> route, int index)
+        {
+            final CoordTile waypoint = route.get(index);
+            final CoordTile following = route.get(index + 1);
+            return UtilMath.getDistance(waypoint.getX(), waypoint.getY(), following.getX(), following.getY()) <= 1;
+        }
+
+        /*
+         * PathRefiner
+         */
+
+        @Override
+        public boolean refine(Path path)
+        {
+            final int tx = path.getX(path.getLength() - 1);
+            final int ty = path.getY(path.getLength() - 1);
+            while (next < waypoints.size() && isAt(next, tx, ty))
+            {
+                next++;
+            }
+            if (next < waypoints.size())
+            {
+                int target = next;
+                if (target + 1 < waypoints.size() && isAdjacent(waypoints, target))
+                {
+                    target++;
+                }
+                final CoordTile waypoint = waypoints.get(target);
+                Path segment = pathfinder.findPath(mover, tx, ty, waypoint.getX(), waypoint.getY(), ignoreRef);
+                if (segment == null)
+                {
+                    segment = findReplanned(tx, ty);
+                }
+                else
+                {
+                    next = target + 1;
+                }
+                if (segment != null)
+                {
+                    for (int i = 1; i < segment.getLength(); i++)
+                    {
+                        path.appendStep(segment.getX(i), segment.getY(i));
+                    }
+                }
+            }
+            return next < waypoints.size();
+        }
+
+        @Override
+        public PathRefiner bind(PathSearcher searcher)
+        {
+            if (searcher instanceof PathFinderHierarchical)
+            {
+                return ((PathFinderHierarchical) searcher).createRefiner(mover, waypoints, next, ignoreRef);
+            }
+            return this;
+        }
+
+        /**
+         * Search the abstract path again from the blocked location, and its first segment. Path ends if none found.
+         * 
+         * @param tx The horizontal blocked location.
+         * @param ty The vertical blocked location.
+         * @return The first segment found (<code>null</code> if none).
+         */
+        private Path findReplanned(int tx, int ty)
+        {
+            final CoordTile destination = waypoints.get(waypoints.size() - 1);
+            final List<CoordTile> replanned = search(mover, tx, ty, destination.getX(), destination.getY());
+            next = waypoints.size();
+            if (replanned != null)
+            {
+                int target = 0;
+                if (target + 1 < replanned.size() && isAdjacent(replanned, target))
+                {
+                    target++;
+                }
+                final CoordTile waypoint = replanned.get(target);
+                final Path segment = pathfinder.findPath(mover, tx, ty, waypoint.getX(), waypoint.getY(), ignoreRef);
+                if (segment != null)
+                {
+                    waypoints = replanned;
+                    next = target + 1;
+                }
+                return segment;
+            }
+            return null;
+        }
+    }
+}
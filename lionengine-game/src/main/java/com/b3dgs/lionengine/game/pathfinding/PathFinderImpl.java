@@ -17,22 +17,25 @@
  */
 package com.b3dgs.lionengine.game.pathfinding;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
+import com.b3dgs.lionengine.game.feature.FeatureId;
 import com.b3dgs.lionengine.game.map.MapTile;
 import com.b3dgs.lionengine.game.tile.Tile;
 import com.b3dgs.lionengine.util.UtilMath;
 
 /**
  * A path finder implementation that uses the AStar heuristic based algorithm to determine a path.
+ * <p>
+ * Open list is an indexed binary heap over the nodes grid, and nodes are stamped with a search generation, so open and
+ * closed states are reset in constant time for each new search, without clearing pass.
+ * </p>
  */
-final class PathFinderImpl implements PathFinder
+final class PathFinderImpl implements PathSearcher
 {
-    /** Closed list. */
-    private final Collection<Node> closed = new ArrayList<Node>(8);
+    /** Tile path feature identifier. */
+    private static final FeatureId<TilePath> TILE_PATH = FeatureId.get(TilePath.class);
+
     /** Open list. */
-    private final SortedList<Node> open = new SortedList<Node>();
+    private final NodeHeap open;
     /** Map reference. */
     private final MapTile map;
     /** Map path reference. */
@@ -43,6 +46,8 @@ final class PathFinderImpl implements PathFinder
     private final Node[][] nodes;
     /** Heuristic used. */
     private final Heuristic heuristic;
+    /** Current search generation. */
+    private int generation;
 
     /**
      * Internal constructor.
@@ -58,6 +63,7 @@ final class PathFinderImpl implements PathFinder
         this.maxSearchDistance = maxSearchDistance;
         mapPath = map.getFeature(MapTilePath.class);
         nodes = new Node[map.getInTileHeight()][map.getInTileWidth()];
+        open = new NodeHeap(map.getInTileWidth() * map.getInTileHeight());
 
         for (int ty = 0; ty < map.getInTileHeight(); ty++)
         {
@@ -118,6 +124,26 @@ final class PathFinderImpl implements PathFinder
         return !invalid;
     }
 
+    /**
+     * Start a new search generation. All nodes from previous generations are considered as not visited.
+     */
+    private void nextGeneration()
+    {
+        if (generation == Integer.MAX_VALUE)
+        {
+            for (final Node[] line : nodes)
+            {
+                for (final Node node : line)
+                {
+                    node.visit(0);
+                }
+            }
+            generation = 0;
+        }
+        generation++;
+        open.clear();
+    }
+
     /**
      * Get the first element from the open list. This is the next one to be searched.
      * 
@@ -146,7 +172,7 @@ final class PathFinderImpl implements PathFinder
      */
     private boolean inOpenList(Node node)
     {
-        return open.contains(node);
+        return node.isOpen(generation);
     }
 
     /**
@@ -166,18 +192,7 @@ final class PathFinderImpl implements PathFinder
      */
     private void addToClosed(Node node)
     {
-        closed.add(node);
-    }
-
-    /**
-     * Check if the node supplied is in the closed list.
-     * 
-     * @param node The node to search for.
-     * @return <code>true</code> if the node specified is in the closed list, <code>false</code> else.
-     */
-    private boolean inClosedList(Node node)
-    {
-        return closed.contains(node);
+        node.setClosed(true);
     }
 
     /**
@@ -187,7 +202,7 @@ final class PathFinderImpl implements PathFinder
      */
     private void removeFromClosed(Node node)
     {
-        closed.remove(node);
+        node.setClosed(false);
     }
 
     /**
@@ -214,7 +229,7 @@ final class PathFinderImpl implements PathFinder
     {
         int depth = maxDepth;
         final Tile tile = map.getTile(current.getX(), current.getY());
-        final TilePath tilePath = tile.getFeature(TilePath.class);
+        final TilePath tilePath = tile.getFeature(TILE_PATH);
         for (int y = -1; y < 2; y++)
         {
             for (int x = -1; x < 2; x++)
@@ -290,37 +305,39 @@ final class PathFinderImpl implements PathFinder
         final double nextStepCost = current.getCost() + getMovementCost(mover, current.getX(), current.getY());
         final Node neighbour = nodes[yp][xp];
 
-        if (nextStepCost < neighbour.getCost())
+        if (!neighbour.isVisited(generation))
         {
+            neighbour.visit(generation);
+            neighbour.setCost(nextStepCost);
+            neighbour.setHeuristic(getHeuristicCost(xp, yp, dtx, dty));
+            nextDepth = Math.max(maxDepth, neighbour.setParent(current));
+            addToOpen(neighbour);
+        }
+        else if (nextStepCost < neighbour.getCost())
+        {
+            neighbour.setCost(nextStepCost);
+            nextDepth = Math.max(maxDepth, neighbour.setParent(current));
             if (inOpenList(neighbour))
             {
-                removeFromOpen(neighbour);
+                open.decrease(neighbour);
             }
-            if (inClosedList(neighbour))
+            else
             {
                 removeFromClosed(neighbour);
+                neighbour.setHeuristic(getHeuristicCost(xp, yp, dtx, dty));
+                addToOpen(neighbour);
             }
         }
-        if (!inOpenList(neighbour) && !inClosedList(neighbour))
-        {
-            neighbour.setCost(nextStepCost);
-            neighbour.setHeuristic(getHeuristicCost(xp, yp, dtx, dty));
-            nextDepth = Math.max(maxDepth, neighbour.setParent(current));
-            addToOpen(neighbour);
-        }
         return nextDepth;
     }
 
     /*
-     * PathFinder
+     * PathSearcher
      */
 
     @Override
-    public Path findPath(Pathfindable mover, int dtx, int dty, boolean ignoreRef)
+    public Path findPath(Pathfindable mover, int stx, int sty, int dtx, int dty, boolean ignoreRef)
     {
-        final int stx = mover.getInTileX();
-        final int sty = mover.getInTileY();
-
         if (mapPath.isBlocked(mover, dtx, dty, false) && UtilMath.getDistance(stx, sty, dtx, dty) <= 1)
         {
             return null;
@@ -332,13 +349,13 @@ final class PathFinderImpl implements PathFinder
             {
                 return null;
             }
-            return findPath(mover, tile.getX(), tile.getY(), ignoreRef);
+            return findPath(mover, stx, sty, tile.getX(), tile.getY(), ignoreRef);
         }
 
+        nextGeneration();
+        nodes[sty][stx].visit(generation);
         nodes[sty][stx].setCost(0);
         nodes[sty][stx].setDepth(0);
-        closed.clear();
-        open.clear();
         open.add(nodes[sty][stx]);
         nodes[dty][dtx].setParent(null);
 
@@ -354,7 +371,7 @@ final class PathFinderImpl implements PathFinder
             addToClosed(current);
             maxDepth = updateList(mover, stx, sty, dtx, dty, ignoreRef, current, maxDepth);
         }
-        if (nodes[dty][dtx].getParent() == null)
+        if (!nodes[dty][dtx].isVisited(generation) || nodes[dty][dtx].getParent() == null)
         {
             return null;
         }
@@ -370,4 +387,32 @@ final class PathFinderImpl implements PathFinder
 
         return path;
     }
+
+    @Override
+    public boolean fits(int width, int height)
+    {
+        return nodes.length == height && (height == 0 || nodes[0].length == width);
+    }
+
+    @Override
+    public PathSearcher copy()
+    {
+        return new PathFinderImpl(map, maxSearchDistance, heuristic);
+    }
+
+    @Override
+    public void release()
+    {
+        // Nothing to release
+    }
+
+    /*
+     * PathFinder
+     */
+
+    @Override
+    public Path findPath(Pathfindable mover, int dtx, int dty, boolean ignoreRef)
+    {
+        return findPath(mover, mover.getInTileX(), mover.getInTileY(), dtx, dty, ignoreRef);
+    }
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+/**
+ * Represents a path query, solved by the {@link PathQueryService}.
+ */
+final class PathQuery
+{
+    /** The mover reference. */
+    private final Pathfindable mover;
+    /** The query listener. */
+    private final PathQueryListener listener;
+    /** Start horizontal tile. */
+    private final int stx;
+    /** Start vertical tile. */
+    private final int sty;
+    /** Destination horizontal tile. */
+    private final int dtx;
+    /** Destination vertical tile. */
+    private final int dty;
+    /** Ignore references flag. */
+    private final boolean ignoreRef;
+    /** Path found (<code>null</code> if none). */
+    private volatile Path path;
+    /** Error raised during search (<code>null</code> if none). */
+    private volatile RuntimeException error;
+
+    /**
+     * Create a path query.
+     * 
+     * @param mover The mover reference.
+     * @param listener The query listener.
+     * @param dtx The destination horizontal tile.
+     * @param dty The destination vertical tile.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     */
+    PathQuery(Pathfindable mover, PathQueryListener listener, int dtx, int dty, boolean ignoreRef)
+    {
+        this.mover = mover;
+        this.listener = listener;
+        stx = mover.getInTileX();
+        sty = mover.getInTileY();
+        this.dtx = dtx;
+        this.dty = dty;
+        this.ignoreRef = ignoreRef;
+    }
+
+    /**
+     * Solve the query with the path finder. Path or error is stored for the notification.
+     * 
+     * @param pathfinder The path finder to use.
+     */
+    void solve(PathSearcher pathfinder)
+    {
+        try
+        {
+            path = pathfinder.findPath(mover, stx, sty, dtx, dty, ignoreRef);
+        }
+        catch (final RuntimeException exception)
+        {
+            error = exception;
+        }
+    }
+
+    /**
+     * Share the path found by an equivalent query. Path is copied, so each mover refines its own one.
+     * 
+     * @param found The path found by the equivalent query (<code>null</code> if none).
+     */
+    void share(Path found)
+    {
+        if (found != null)
+        {
+            path = found.copy();
+        }
+    }
+
+    /**
+     * Get the key of the queries having the same result: same start, destination and mover profile. Only queries
+     * ignoring references have one, as else the result depends on the objects ids ignored by the mover.
+     * 
+     * @param mapPath The map path reference.
+     * @return The query result key, <code>null</code> if result depends on the mover itself.
+     */
+    String getKey(MapTilePath mapPath)
+    {
+        if (!ignoreRef)
+        {
+            return null;
+        }
+        return new StringBuilder(MoverProfile.get(mapPath, mover)).append(stx)
+                                                                  .append(':')
+                                                                  .append(sty)
+                                                                  .append(':')
+                                                                  .append(dtx)
+                                                                  .append(':')
+                                                                  .append(dty)
+                                                                  .toString();
+    }
+
+    /**
+     * Get the mover.
+     * 
+     * @return The mover reference.
+     */
+    Pathfindable getMover()
+    {
+        return mover;
+    }
+
+    /**
+     * Get the listener.
+     * 
+     * @return The listener reference.
+     */
+    PathQueryListener getListener()
+    {
+        return listener;
+    }
+
+    /**
+     * Get the destination horizontal tile.
+     * 
+     * @return The destination horizontal tile.
+     */
+    int getDestinationX()
+    {
+        return dtx;
+    }
+
+    /**
+     * Get the destination vertical tile.
+     * 
+     * @return The destination vertical tile.
+     */
+    int getDestinationY()
+    {
+        return dty;
+    }
+
+    /**
+     * Get the path found.
+     * 
+     * @return The path found, <code>null</code> if none.
+     */
+    Path getPath()
+    {
+        return path;
+    }
+
+    /**
+     * Get the error raised during search.
+     * 
+     * @return The error raised, <code>null</code> if none.
+     */
+    RuntimeException getError()
+    {
+        return error;
+    }
+}
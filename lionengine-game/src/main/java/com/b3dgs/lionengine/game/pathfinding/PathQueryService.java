@@ -0,0 +1,470 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.handler.ComponentTerminable;
+import com.b3dgs.lionengine.game.handler.ComponentUpdater;
+import com.b3dgs.lionengine.game.handler.Handlables;
+import com.b3dgs.lionengine.game.handler.HandlerListener;
+import com.b3dgs.lionengine.game.map.MapTile;
+
+/**
+ * Path query service, solving path requests asynchronously on a pool of workers, instead of the game loop thread.
+ * <p>
+ * Requests are queued with {@link #request(Pathfindable, int, int, boolean, PathQueryListener)}, and dispatched on
+ * {@link #update(double, Handlables)}, grouped by destination so the same worker solves them in a row. Queries of a
+ * group ignoring references, with the same start and mover profile, are solved once and share a copy of the path
+ * found. A new request from a mover replaces its previous pending one. Each worker owns its path finder nodes, and
+ * reads the shared {@link MapTilePath} data. Results are delivered to their {@link PathQueryListener} from the next
+ * update, within the integration budget, remaining results being delivered on the following updates. Partial paths
+ * are bound to the {@link PathFinder} found in {@link Services} on delivery, so they are refined on the game loop
+ * thread without sharing the worker path finder.
+ * </p>
+ * <p>
+ * Workers path finders are copies of the {@link PathFinder} found in {@link Services} when created (such as
+ * {@link Astar#createPathFinderHierarchical(MapTile, int, Heuristic)}). Else they are created with the
+ * {@link Heuristic} found in {@link Services}, {@link Astar#createHeuristicClosest()} if none. A custom
+ * {@link PathFinder} can not be copied, so {@link PathfindableModel} searches with it directly instead of using the
+ * service.
+ * </p>
+ * <p>
+ * The service must be added to the {@link com.b3dgs.lionengine.game.handler.Handler} after the components which may
+ * request paths, so it is updated and registered in {@link Services}:
+ * </p>
+ * 
+ * <pre>
+ * handler.addComponent(new ComponentRefreshable());
+ * handler.addComponent(new PathQueryService(services));
+ * </pre>
+ * <p>
+ * {@link PathfindableModel} automatically uses the service when available in {@link Services}. Workers are stopped on
+ * {@link com.b3dgs.lionengine.game.handler.Handler#terminate()}.
+ * </p>
+ */
+public class PathQueryService implements ComponentUpdater, ComponentTerminable, HandlerListener
+{
+    /** Default integration budget per update in nano seconds. */
+    public static final long DEFAULT_BUDGET = 1000000L;
+    /** Worker thread name. */
+    private static final String THREAD_NAME = "PathQuery-";
+
+    /**
+     * Get the default number of workers.
+     * 
+     * @return The default number of workers.
+     */
+    private static int getDefaultWorkers()
+    {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    /** Pending requests, by mover. */
+    private final Map<Pathfindable, PathQuery> pending = new LinkedHashMap<Pathfindable, PathQuery>();
+    /** Last requests by mover, only the last one is delivered. */
+    private final Map<Pathfindable, PathQuery> last = new HashMap<Pathfindable, PathQuery>();
+    /** Solved requests, waiting for delivery. */
+    private final Queue<PathQuery> solved = new ConcurrentLinkedQueue<PathQuery>();
+    /** Workers path finders, created on first dispatch. */
+    private final List<PathSearcher> searchers = new ArrayList<PathSearcher>();
+    /** Workers pool. */
+    private final ExecutorService executor;
+    /** Map reference. */
+    private final MapTile map;
+    /** Map path reference. */
+    private final MapTilePath mapPath;
+    /** Path finder found in services, copied by workers (<code>null</code> if none). */
+    private final PathFinder configured;
+    /** Heuristic used by workers when no path finder copied. */
+    private final Heuristic heuristic;
+    /** Number of workers. */
+    private final int workers;
+    /** Workers path finders available. */
+    private BlockingQueue<PathSearcher> available = new LinkedBlockingQueue<PathSearcher>();
+    /** Integration budget per update in nano seconds. */
+    private long budget = DEFAULT_BUDGET;
+
+    /**
+     * Create the service, with one worker less than the available processors.
+     * <p>
+     * The {@link Services} must provide the following services:
+     * </p>
+     * <ul>
+     * <li>{@link MapTile}</li>
+     * </ul>
+     * <p>
+     * The {@link Services} may provide the following services:
+     * </p>
+     * <ul>
+     * <li>{@link PathFinder}</li>
+     * <li>{@link Heuristic}</li>
+     * </ul>
+     * 
+     * @param services The services reference.
+     * @throws LionEngineException If services not found.
+     */
+    public PathQueryService(Services services)
+    {
+        this(services, getDefaultWorkers());
+    }
+
+    /**
+     * Create the service.
+     * <p>
+     * The {@link Services} must provide the following services:
+     * </p>
+     * <ul>
+     * <li>{@link MapTile}</li>
+     * </ul>
+     * <p>
+     * The {@link Services} may provide the following services:
+     * </p>
+     * <ul>
+     * <li>{@link PathFinder}</li>
+     * <li>{@link Heuristic}</li>
+     * </ul>
+     * 
+     * @param services The services reference.
+     * @param workers The number of workers (strictly positive).
+     * @throws LionEngineException If services not found or invalid workers number.
+     */
+    public PathQueryService(Services services, int workers)
+    {
+        super();
+
+        Check.superiorStrict(workers, 0);
+
+        this.workers = workers;
+        map = services.get(MapTile.class);
+        mapPath = map.getFeature(MapTilePath.class);
+        configured = services.getOptional(PathFinder.class);
+        final Heuristic found = services.getOptional(Heuristic.class);
+        if (found == null)
+        {
+            heuristic = Astar.createHeuristicClosest();
+        }
+        else
+        {
+            heuristic = found;
+        }
+        executor = Executors.newFixedThreadPool(workers, new ThreadFactory()
+        {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, THREAD_NAME + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Request a path. Starting location is the current mover location. Listener will be notified from an incoming
+     * {@link #update(double, Handlables)}. Any pending request of the mover is replaced.
+     * 
+     * @param mover The entity that will be moving along the path.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @param listener The listener notified with the path found.
+     */
+    public void request(Pathfindable mover, int dtx, int dty, boolean ignoreRef, PathQueryListener listener)
+    {
+        final PathQuery query = new PathQuery(mover, listener, dtx, dty, ignoreRef);
+        pending.remove(mover);
+        pending.put(mover, query);
+        last.put(mover, query);
+    }
+
+    /**
+     * Cancel any request of the mover. Its listener will not be notified.
+     * 
+     * @param mover The mover reference.
+     */
+    public void cancel(Pathfindable mover)
+    {
+        pending.remove(mover);
+        last.remove(mover);
+    }
+
+    /**
+     * Check if mover has a request not yet delivered.
+     * 
+     * @param mover The mover reference.
+     * @return <code>true</code> if a request is waiting for delivery, <code>false</code> else.
+     */
+    public boolean isRequested(Pathfindable mover)
+    {
+        return last.containsKey(mover);
+    }
+
+    /**
+     * Set the time budget allowed to deliver results on each update. At least one result is delivered per update.
+     * 
+     * @param budget The integration budget in nano seconds (positive).
+     * @throws LionEngineException If invalid budget.
+     */
+    public void setBudget(long budget)
+    {
+        Check.superiorOrEqual(budget, 0.0);
+
+        this.budget = budget;
+    }
+
+    /**
+     * Check if the path finder searches can be done by the service. Path finders not copyable by workers must be used
+     * directly.
+     * 
+     * @param pathfinder The path finder found in services (<code>null</code> if none).
+     * @return <code>true</code> if searches with this path finder can be requested, <code>false</code> else.
+     */
+    boolean isSupported(PathFinder pathfinder)
+    {
+        return pathfinder == configured && (configured == null || configured instanceof PathSearcher);
+    }
+
+    /**
+     * Deliver solved queries to their listener, until the budget is consumed.
+     */
+    private void deliver()
+    {
+        final long start = System.nanoTime();
+        boolean first = true;
+        while (!solved.isEmpty() && (first || System.nanoTime() - start < budget))
+        {
+            final PathQuery query = solved.poll();
+            final Pathfindable mover = query.getMover();
+            if (last.get(mover) == query)
+            {
+                last.remove(mover);
+                if (query.getError() != null)
+                {
+                    throw new LionEngineException(query.getError());
+                }
+                final Path path = query.getPath();
+                if (path != null && configured instanceof PathSearcher)
+                {
+                    path.bind((PathSearcher) configured);
+                }
+                query.getListener().notifyPathFound(path);
+            }
+            first = false;
+        }
+    }
+
+    /**
+     * Dispatch pending queries to workers, grouped by destination, equivalent queries being solved once.
+     */
+    private void dispatch()
+    {
+        final Map<Integer, List<PathQuery>> groups = new LinkedHashMap<Integer, List<PathQuery>>();
+        final int width = map.getInTileWidth();
+        for (final PathQuery query : pending.values())
+        {
+            final Integer key = Integer.valueOf(query.getDestinationY() * width + query.getDestinationX());
+            List<PathQuery> group = groups.get(key);
+            if (group == null)
+            {
+                group = new ArrayList<PathQuery>();
+                groups.put(key, group);
+            }
+            group.add(query);
+        }
+        pending.clear();
+
+        final BlockingQueue<PathSearcher> pathfinders = getPathFinders();
+        for (final Collection<PathQuery> group : groups.values())
+        {
+            executor.execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    final PathSearcher pathfinder;
+                    try
+                    {
+                        pathfinder = pathfinders.take();
+                    }
+                    catch (final InterruptedException exception)
+                    {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    try
+                    {
+                        final Map<String, Path> results = new HashMap<String, Path>();
+                        for (final PathQuery query : group)
+                        {
+                            solve(pathfinder, results, query);
+                            solved.add(query);
+                        }
+                    }
+                    finally
+                    {
+                        pathfinders.add(pathfinder);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Solve the query, or share the path found by an equivalent one already solved. Path found is kept as a copy, as
+     * the delivered one may be refined while solving the next queries.
+     * 
+     * @param pathfinder The worker path finder.
+     * @param results The paths found by key (<code>null</code> value if none).
+     * @param query The query to solve.
+     */
+    private void solve(PathSearcher pathfinder, Map<String, Path> results, PathQuery query)
+    {
+        final String key = query.getKey(mapPath);
+        if (key != null && results.containsKey(key))
+        {
+            query.share(results.get(key));
+        }
+        else
+        {
+            query.solve(pathfinder);
+            if (key != null && query.getError() == null)
+            {
+                final Path path = query.getPath();
+                results.put(key, path == null ? null : path.copy());
+            }
+        }
+    }
+
+    /**
+     * Get the workers path finders, created from the game loop thread on first use or if map size changed. Workers take
+     * one for each group, and give it back once solved.
+     * 
+     * @return The available workers path finders.
+     */
+    private BlockingQueue<PathSearcher> getPathFinders()
+    {
+        if (searchers.isEmpty() || !searchers.get(0).fits(map.getInTileWidth(), map.getInTileHeight()))
+        {
+            release();
+            available = new LinkedBlockingQueue<PathSearcher>();
+            for (int i = 0; i < workers; i++)
+            {
+                final PathSearcher searcher = createPathFinder();
+                searchers.add(searcher);
+                available.add(searcher);
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Create a worker path finder, copy of the configured one if possible.
+     * 
+     * @return The created path finder.
+     */
+    private PathSearcher createPathFinder()
+    {
+        if (configured instanceof PathSearcher)
+        {
+            return ((PathSearcher) configured).copy();
+        }
+        final int width = map.getInTileWidth();
+        final int height = map.getInTileHeight();
+        final int range = (int) Math.sqrt(width * width + height * (double) height);
+        return new PathFinderImpl(map, range, heuristic);
+    }
+
+    /**
+     * Release the workers path finders.
+     */
+    private void release()
+    {
+        for (final PathSearcher searcher : searchers)
+        {
+            searcher.release();
+        }
+        searchers.clear();
+    }
+
+    /*
+     * ComponentUpdater
+     */
+
+    @Override
+    public void update(double extrp, Handlables featurables)
+    {
+        deliver();
+        if (!pending.isEmpty())
+        {
+            dispatch();
+        }
+    }
+
+    /*
+     * ComponentTerminable
+     */
+
+    @Override
+    public void terminate()
+    {
+        executor.shutdownNow();
+        release();
+        pending.clear();
+        last.clear();
+        solved.clear();
+    }
+
+    /*
+     * HandlerListener
+     */
+
+    @Override
+    public void notifyHandlableAdded(Featurable featurable)
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void notifyHandlableRemoved(Featurable featurable)
+    {
+        if (featurable.hasFeature(Pathfindable.class))
+        {
+            cancel(featurable.getFeature(Pathfindable.class));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+/**
+ * Append the next steps of a partial {@link Path}.
+ */
+interface PathRefiner
+{
+    /**
+     * Append the next steps to the path, starting from its last step.
+     * 
+     * @param path The path to refine.
+     * @return <code>true</code> if steps remain to be refined, <code>false</code> if path is complete.
+     */
+    boolean refine(Path path);
+
+    /**
+     * Get a refiner searching the next steps with the path finder of the thread which will refine the path.
+     * 
+     * @param searcher The path finder of the refining thread.
+     * @return The refiner using this path finder, or this refiner if not searching with a path finder.
+     */
+    PathRefiner bind(PathSearcher searcher);
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+/**
+ * Path finder searching from a given start location, which can be copied so each {@link PathQueryService} worker owns
+ * its search state.
+ */
+interface PathSearcher extends PathFinder
+{
+    /**
+     * Find a path from the starting location provided to the destination location. Starting location is given instead
+     * of being read from the mover, allowing to search from another thread than the one moving the mover.
+     * 
+     * @param mover The entity that will be moving along the path.
+     * @param stx The x coordinate of the start location.
+     * @param sty The y coordinate of the start location.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return The path found from start to end, or null if no path can be found.
+     */
+    Path findPath(Pathfindable mover, int stx, int sty, int dtx, int dty, boolean ignoreRef);
+
+    /**
+     * Check if search state still fits the map size.
+     * 
+     * @param width The map width in tile.
+     * @param height The map height in tile.
+     * @return <code>true</code> if search state fits the map size, <code>false</code> else.
+     */
+    boolean fits(int width, int height);
+
+    /**
+     * Create a path finder with the same settings and its own search state, sized for the current map.
+     * 
+     * @return The path finder copy.
+     */
+    PathSearcher copy();
+
+    /**
+     * Release the path finder, not used anymore.
+     */
+    void release();
+}
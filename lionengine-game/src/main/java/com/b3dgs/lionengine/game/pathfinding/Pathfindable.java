@@ -111,6 +111,17 @@ public interface Pathfindable extends Feature, Tiled, Orientable, Updatable, Ren
      */
     boolean setDestination(int tx, int ty);
 
+    /**
+     * Assign a specified location, following the {@link FlowField} shared with the other movers going to the same
+     * location, instead of searching its own path. Same as {@link #setDestination(int, int)} if there is no
+     * {@link FlowFields} service.
+     * 
+     * @param tx The horizontal location in tile.
+     * @param ty The vertical location in tile.
+     * @return <code>true</code> if destination reachable, <code>false</code> else.
+     */
+    boolean setDestinationFlow(int tx, int ty);
+
     /**
      * Set specified location in tile.
      * 
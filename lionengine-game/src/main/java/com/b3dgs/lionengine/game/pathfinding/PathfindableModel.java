@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Localizable;
@@ -30,6 +31,7 @@ import com.b3dgs.lionengine.game.Orientation;
 import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.FeatureProvider;
+import com.b3dgs.lionengine.game.feature.Recyclable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
 import com.b3dgs.lionengine.game.feature.identifiable.Identifiable;
@@ -46,9 +48,10 @@ import com.b3dgs.lionengine.graphic.TextStyle;
 import com.b3dgs.lionengine.graphic.Viewer;
 
 /**
- * Pathfindable implementation.
+ * Pathfindable implementation. Recycling cancels the pending path query, releases the followed flow field, and
+ * resets the movement state, with the new {@link Identifiable} id.
  */
-public class PathfindableModel extends FeatureModel implements Pathfindable
+public class PathfindableModel extends FeatureModel implements Pathfindable, Recyclable
 {
     /** Category not found error. */
     private static final String ERROR_CATEGORY = "Category not found: ";
@@ -61,8 +64,8 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
     private final Collection<PathfindableListener> listeners = new ArrayList<PathfindableListener>();
     /** List of shared path id. */
     private final Collection<Integer> sharedPathIds = new HashSet<Integer>(0);
-    /** List of ignored id. */
-    private final Collection<Integer> ignoredIds = new HashSet<Integer>(0);
+    /** List of ignored id (can be read while updated, as path may be searched by {@link PathQueryService}). */
+    private final Collection<Integer> ignoredIds = new CopyOnWriteArraySet<Integer>();
     /** Object id. */
     private Integer id;
     /** Viewer reference. */
@@ -73,6 +76,33 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
     private MapTilePath mapPath;
     /** Pathfinder reference. */
     private PathFinder pathfinder;
+    /** Path query service reference (<code>null</code> if paths are searched synchronously). */
+    private PathQueryService queries;
+    /** Flow fields service reference (<code>null</code> if none). */
+    private FlowFields flows;
+    /** Followed flow field (<code>null</code> if none). */
+    private FlowField flowField;
+    /** First path query listener. */
+    private final PathQueryListener firstPathListener = new PathQueryListener()
+    {
+        @Override
+        public void notifyPathFound(Path found)
+        {
+            path = found;
+            currentStep = 0;
+        }
+    };
+    /** Changed path query listener. */
+    private final PathQueryListener changedPathListener = new PathQueryListener()
+    {
+        @Override
+        public void notifyPathFound(Path found)
+        {
+            pathQueried = false;
+            onPathChanged(found);
+            checkPathStopped();
+        }
+    };
     /** List of categories. */
     private final Map<String, PathData> categories;
     /** Transformable model. */
@@ -111,6 +141,8 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
     private boolean skip;
     /** Rechecks ref flag. */
     private boolean reCheckRef;
+    /** Changed path queried flag, waiting for path query result. */
+    private boolean pathQueried;
     /** Render debug (draw additional path information). */
     private boolean renderDebug;
 
@@ -134,6 +166,18 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
      * <li>{@link Viewer}</li>
      * </ul>
      * <p>
+     * If the {@link Services} provides a {@link PathQueryService}, paths are searched asynchronously with it, unless
+     * the provided {@link PathFinder} can not be copied by its workers.
+     * </p>
+     * <p>
+     * If the {@link Services} provides a {@link PathFinder}, it is used instead of creating a new one (see
+     * {@link Astar#createPathFinderHierarchical(MapTile, int, Heuristic)}). Else, if the {@link Services} provides a
+     * {@link Heuristic}, it is used by the created one.
+     * </p>
+     * <p>
+     * If the {@link Services} provides {@link FlowFields}, they are followed on {@link #setDestinationFlow(int, int)}.
+     * </p>
+     * <p>
      * If the {@link Featurable} is a {@link PathfindableListener}, it will automatically
      * {@link #addListener(PathfindableListener)} on it.
      * </p>
@@ -243,13 +287,13 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
         final Collection<Integer> cid = mapPath.getObjectsId(path.getX(nextStep), path.getY(nextStep));
         if (sharedPathIds.containsAll(cid))
         {
-            setDestination(destX, destY);
+            changeDestination(destX, destY);
         }
         else
         {
             if (!ignoredIds.containsAll(cid))
             {
-                setDestination(destX, destY);
+                changeDestination(destX, destY);
             }
         }
     }
@@ -324,6 +368,12 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
             // (to be sure object location is correct)
             setLocation(path.getX(currentStep), path.getY(currentStep));
 
+            // Refine partial path before reaching its last known step
+            if (currentStep >= path.getLength() - 2)
+            {
+                path.refine();
+            }
+
             // Go to next step
             final int next = currentStep + 1;
             if (currentStep < getMaxStep() - 1)
@@ -391,17 +441,50 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
             {
                 removeObjectId(path.getX(currentStep), path.getY(currentStep));
             }
-            path = pathfinder.findPath(this, destX, destY, false);
             pathFoundChanged = false;
-            currentStep = 0;
-            skip = false;
-            reCheckRef = false;
-
-            if (path == null)
+            if (flowField != null)
+            {
+                onPathChanged(flowField.createPath(this, getInTileX(), getInTileY()));
+            }
+            else if (queries == null)
+            {
+                onPathChanged(pathfinder.findPath(this, destX, destY, false));
+            }
+            else
             {
-                pathStoppedRequested = true;
+                pathQueried = true;
+                queries.request(this, destX, destY, false, changedPathListener);
             }
         }
+        if (!pathQueried)
+        {
+            checkPathStopped();
+        }
+    }
+
+    /**
+     * Called when a new path has been found after a destination change.
+     * 
+     * @param found The path found (<code>null</code> if none).
+     */
+    private void onPathChanged(Path found)
+    {
+        path = found;
+        currentStep = 0;
+        skip = false;
+        reCheckRef = false;
+
+        if (path == null)
+        {
+            pathStoppedRequested = true;
+        }
+    }
+
+    /**
+     * Check if path stop has been requested, and stop.
+     */
+    private void checkPathStopped()
+    {
         if (pathStoppedRequested)
         {
             pathStopped = true;
@@ -446,12 +529,67 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
         moveX = 0.0;
         moveY = 0.0;
         sharedPathIds.clear();
+        releaseFlowField();
         for (final PathfindableListener listener : listeners)
         {
             listener.notifyArrived();
         }
     }
 
+    /**
+     * Stop following the current flow field if any.
+     */
+    private void releaseFlowField()
+    {
+        if (flowField != null)
+        {
+            flows.release(this, id, flowField);
+            flowField = null;
+        }
+    }
+
+    /**
+     * Change the destination, keeping the followed flow field if any.
+     * 
+     * @param tx The horizontal location in tile.
+     * @param ty The vertical location in tile.
+     * @return <code>true</code> if destination reachable, <code>false</code> else.
+     */
+    private boolean changeDestination(int tx, int ty)
+    {
+        if (getInTileX() != tx || getInTileY() != ty)
+        {
+            // New first path, when object is not moving
+            if (path == null)
+            {
+                currentStep = 0;
+                if (flowField != null)
+                {
+                    path = flowField.createPath(this, getInTileX(), getInTileY());
+                }
+                else if (queries == null)
+                {
+                    path = pathfinder.findPath(this, tx, ty, true);
+                }
+                else
+                {
+                    queries.request(this, tx, ty, true, firstPathListener);
+                }
+                pathFoundChanged = false;
+                for (final PathfindableListener listener : listeners)
+                {
+                    listener.notifyStartMove();
+                }
+                prepareDestination(tx, ty);
+                return true;
+            }
+            // Next path, while object is moving, change takes effect when the object reached a step point
+            prepareDestination(tx, ty);
+            pathFoundChanged = true;
+        }
+        return false;
+    }
+
     /**
      * Get the movement force depending of the current location and the destination location.
      * 
@@ -530,9 +668,28 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
         viewer = services.get(Viewer.class);
         mapPath = map.getFeature(MapTilePath.class);
         id = provider.getFeature(Identifiable.class).getId();
-        final int range = (int) Math.sqrt(map.getInTileWidth() * map.getInTileWidth()
-                                          + map.getInTileHeight() * (double) map.getInTileHeight());
-        pathfinder = Astar.createPathFinder(map, range, Astar.createHeuristicClosest());
+        final PathFinder configured = services.getOptional(PathFinder.class);
+        if (configured == null)
+        {
+            final int range = (int) Math.sqrt(map.getInTileWidth() * map.getInTileWidth()
+                                              + map.getInTileHeight() * (double) map.getInTileHeight());
+            Heuristic heuristic = services.getOptional(Heuristic.class);
+            if (heuristic == null)
+            {
+                heuristic = Astar.createHeuristicClosest();
+            }
+            pathfinder = Astar.createPathFinder(map, range, heuristic);
+        }
+        else
+        {
+            pathfinder = configured;
+        }
+        queries = services.getOptional(PathQueryService.class);
+        if (queries != null && !queries.isSupported(configured))
+        {
+            queries = null;
+        }
+        flows = services.getOptional(FlowFields.class);
 
         transformable = provider.getFeature(Transformable.class);
         final OrientableModel orientableModel = new OrientableModel();
@@ -572,6 +729,10 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
     @Override
     public void update(double extrp)
     {
+        if (pathQueried)
+        {
+            return;
+        }
         if (reCheckRef)
         {
             updateObjectId(currentStep, currentStep + 1);
@@ -682,26 +843,29 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
     @Override
     public boolean setDestination(int tx, int ty)
     {
-        if (getInTileX() != tx || getInTileY() != ty)
+        releaseFlowField();
+        return changeDestination(tx, ty);
+    }
+
+    @Override
+    public boolean setDestinationFlow(int tx, int ty)
+    {
+        if (flows == null)
         {
-            // New first path, when object is not moving
-            if (path == null)
+            return setDestination(tx, ty);
+        }
+        if (flowField == null || flowField.getDestinationX() != tx || flowField.getDestinationY() != ty)
+        {
+            releaseFlowField();
+            final FlowField field = flows.acquire(this, id, tx, ty);
+            if (!field.isReachable(getInTileX(), getInTileY()))
             {
-                currentStep = 0;
-                path = pathfinder.findPath(this, tx, ty, true);
-                pathFoundChanged = false;
-                for (final PathfindableListener listener : listeners)
-                {
-                    listener.notifyStartMove();
-                }
-                prepareDestination(tx, ty);
-                return true;
+                flows.release(this, id, field);
+                return changeDestination(tx, ty);
             }
-            // Next path, while object is moving, change takes effect when the object reached a step point
-            prepareDestination(tx, ty);
-            pathFoundChanged = true;
+            flowField = field;
         }
-        return false;
+        return changeDestination(tx, ty);
     }
 
     @Override
@@ -839,4 +1003,39 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
     {
         return moving;
     }
+
+    /*
+     * Recyclable
+     */
+
+    @Override
+    public void recycle()
+    {
+        if (queries != null)
+        {
+            queries.cancel(this);
+        }
+        releaseFlowField();
+        id = getFeature(Identifiable.class).getId();
+        sharedPathIds.clear();
+        ignoredIds.clear();
+        orientable.setOrientation(Orientation.NORTH);
+        path = null;
+        currentStep = 0;
+        destX = 0;
+        destY = 0;
+        speedX = 1.0;
+        speedY = 1.0;
+        moveX = 0.0;
+        moveY = 0.0;
+        pathFoundChanged = false;
+        destinationReached = true;
+        pathStoppedRequested = false;
+        pathStopped = false;
+        moving = false;
+        skip = false;
+        reCheckRef = false;
+        pathQueried = false;
+        renderDebug = false;
+    }
 }
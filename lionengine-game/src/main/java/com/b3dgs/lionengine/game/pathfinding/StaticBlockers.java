@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import com.b3dgs.lionengine.game.map.MapTile;
+
+/**
+ * Tiles blocked by static objects, considered as blocking by the {@link ClusterGraph}.
+ * <p>
+ * An object id is static while it has only been added on map, such as a placed building. Once removed from a tile, it
+ * is known as moving, and all its tiles are released: movers ids change on each step, so they are only considered when
+ * searching segments on tiles.
+ * </p>
+ */
+final class StaticBlockers
+{
+    /** Tiles index by static object id. */
+    private final Map<Integer, List<Integer>> placed = new HashMap<Integer, List<Integer>>();
+    /** Objects id known as moving. */
+    private final Collection<Integer> moving = new HashSet<Integer>();
+    /** Map reference. */
+    private final MapTile map;
+    /** Map path reference. */
+    private final MapTilePath mapPath;
+    /** Static objects count by tile index. */
+    private int[] counts;
+    /** Map width in tile. */
+    private int width;
+
+    /**
+     * Create blockers, from the objects id already on map.
+     * 
+     * @param map The map reference. Must have the {@link MapTilePath} feature.
+     */
+    StaticBlockers(MapTile map)
+    {
+        this.map = map;
+        mapPath = map.getFeature(MapTilePath.class);
+        load();
+    }
+
+    /**
+     * Load the objects id on map as static, after map pathfinding has been loaded.
+     */
+    void load()
+    {
+        placed.clear();
+        moving.clear();
+        width = map.getInTileWidth();
+        counts = new int[width * map.getInTileHeight()];
+        for (int ty = 0; ty < map.getInTileHeight(); ty++)
+        {
+            for (int tx = 0; tx < width; tx++)
+            {
+                for (final Integer id : mapPath.getObjectsId(tx, ty))
+                {
+                    place(tx, ty, id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Update blockers after an object id has been added or removed at location.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @param id The object id.
+     * @param changed The tiles which changed from blocked to free or from free to blocked (previous content is
+     *            cleared).
+     */
+    void update(int tx, int ty, Integer id, Collection<CoordTile> changed)
+    {
+        changed.clear();
+        if (mapPath.getObjectsId(tx, ty).contains(id))
+        {
+            if (!moving.contains(id) && place(tx, ty, id))
+            {
+                changed.add(new CoordTile(tx, ty));
+            }
+        }
+        else
+        {
+            final List<Integer> tiles = placed.remove(id);
+            if (tiles != null)
+            {
+                for (final Integer index : tiles)
+                {
+                    final int i = index.intValue();
+                    counts[i]--;
+                    if (counts[i] == 0)
+                    {
+                        changed.add(new CoordTile(i % width, i / width));
+                    }
+                }
+            }
+            moving.add(id);
+        }
+    }
+
+    /**
+     * Check if tile is blocked by a static object.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return <code>true</code> if blocked by a static object, <code>false</code> else.
+     */
+    boolean isBlocked(int tx, int ty)
+    {
+        final int index = ty * width + tx;
+        return index >= 0 && index < counts.length && counts[index] > 0;
+    }
+
+    /**
+     * Place a static object id at location.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @param id The object id.
+     * @return <code>true</code> if tile was free, <code>false</code> else.
+     */
+    private boolean place(int tx, int ty, Integer id)
+    {
+        if (tx < 0 || ty < 0 || tx >= width || ty * width + tx >= counts.length)
+        {
+            return false;
+        }
+        List<Integer> tiles = placed.get(id);
+        if (tiles == null)
+        {
+            tiles = new ArrayList<Integer>();
+            placed.put(id, tiles);
+        }
+        final int index = ty * width + tx;
+        tiles.add(Integer.valueOf(index));
+        counts[index]++;
+        return counts[index] == 1;
+    }
+}
@@ -18,8 +18,9 @@
 package com.b3dgs.lionengine.game.pathfinding;
 
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 
@@ -28,8 +29,11 @@ import com.b3dgs.lionengine.game.feature.FeatureModel;
  */
 public class TilePathModel extends FeatureModel implements TilePath
 {
-    /** Object id reference. */
-    private final Set<Integer> objectsId = new HashSet<Integer>();
+    /**
+     * Object id reference (can be read while updated, as path may be searched by {@link PathQueryService}). Created on
+     * first add, as most tiles never have any object over them (<code>null</code> if none added yet).
+     */
+    private volatile Set<Integer> objectsId;
     /** Category name. */
     private final String category;
 
@@ -51,19 +55,31 @@ public class TilePathModel extends FeatureModel implements TilePath
     @Override
     public void addObjectId(Integer id)
     {
+        if (objectsId == null)
+        {
+            objectsId = new CopyOnWriteArraySet<Integer>();
+        }
         objectsId.add(id);
     }
 
     @Override
     public void removeObjectId(Integer id)
     {
-        objectsId.remove(id);
+        if (objectsId != null)
+        {
+            objectsId.remove(id);
+        }
     }
 
     @Override
     public Collection<Integer> getObjectsId()
     {
-        return objectsId;
+        final Set<Integer> current = objectsId;
+        if (current == null)
+        {
+            return Collections.emptySet();
+        }
+        return current;
     }
 
     @Override
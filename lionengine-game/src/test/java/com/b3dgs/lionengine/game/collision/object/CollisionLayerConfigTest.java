@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.collision.object;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.Configurer;
+import com.b3dgs.lionengine.stream.Xml;
+import com.b3dgs.lionengine.stream.XmlNode;
+
+/**
+ * Test the collision layer configuration.
+ */
+public class CollisionLayerConfigTest
+{
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setResourcesDirectory(System.getProperty("java.io.tmpdir"));
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setResourcesDirectory(Constant.EMPTY_STRING);
+    }
+
+    /**
+     * Test the configuration reader.
+     */
+    @Test
+    public void testConfig()
+    {
+        final CollisionLayerConfig config = new CollisionLayerConfig(2, 12);
+
+        final Media media = Medias.create("object.xml");
+        try
+        {
+            final XmlNode root = Xml.create("test");
+            root.add(CollisionLayerConfig.exports(config));
+            Xml.save(root, media);
+
+            final CollisionLayerConfig loaded = CollisionLayerConfig.imports(Xml.load(media));
+
+            Assert.assertEquals(config, loaded);
+            Assert.assertEquals(config, CollisionLayerConfig.imports(new Configurer(media)));
+        }
+        finally
+        {
+            Assert.assertTrue(media.getFile().delete());
+        }
+    }
+
+    /**
+     * Test the hash code.
+     */
+    @Test
+    public void testHashCode()
+    {
+        final int hash = new CollisionLayerConfig(2, 12).hashCode();
+
+        Assert.assertEquals(hash, new CollisionLayerConfig(2, 12).hashCode());
+        Assert.assertNotEquals(hash, new CollisionLayerConfig(0, 12).hashCode());
+        Assert.assertNotEquals(hash, new CollisionLayerConfig(2, 0).hashCode());
+    }
+
+    /**
+     * Test the equality.
+     */
+    @Test
+    public void testEquals()
+    {
+        final CollisionLayerConfig config = new CollisionLayerConfig(2, 12);
+
+        Assert.assertEquals(config, config);
+        Assert.assertNotEquals(config, null);
+        Assert.assertNotEquals(config, new Object());
+        Assert.assertEquals(config, new CollisionLayerConfig(2, 12));
+        Assert.assertNotEquals(config, new CollisionLayerConfig(0, 12));
+        Assert.assertNotEquals(config, new CollisionLayerConfig(2, 0));
+    }
+
+    /**
+     * Test the to string.
+     */
+    @Test
+    public void testToString()
+    {
+        final CollisionLayerConfig config = new CollisionLayerConfig(2, 12);
+
+        Assert.assertEquals("CollisionLayerConfig [group=2, mask=12]", config.toString());
+    }
+}
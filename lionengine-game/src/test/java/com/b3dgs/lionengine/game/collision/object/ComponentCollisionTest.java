@@ -17,6 +17,9 @@
  */
 package com.b3dgs.lionengine.game.collision.object;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.AfterClass;
@@ -25,6 +28,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.core.Graphics;
 import com.b3dgs.lionengine.core.Medias;
@@ -127,4 +131,105 @@ public class ComponentCollisionTest
 
         Assert.assertNull(collide.get());
     }
+
+    /**
+     * Test the grid checks the same pairs in the same order as a single cell.
+     */
+    @Test
+    public void testGrid()
+    {
+        final Services services = new Services();
+        services.add(new Camera());
+        final Handler handler = new Handler(services);
+        final List<String> collided = new ArrayList<String>();
+        final List<Collidable> collidables = new ArrayList<Collidable>();
+        final Random random = new Random(0L);
+        for (int i = 0; i < 60; i++)
+        {
+            final Featurable featurable = CollidableModelTest.createFeaturable(config, services);
+            final Transformable transformable = featurable.getFeature(Transformable.class);
+            transformable.teleport(random.nextInt(200), random.nextInt(200));
+            transformable.moveLocation(1.0, random.nextInt(41) - 20, random.nextInt(41) - 20);
+
+            final Collidable collidable = featurable.getFeature(Collidable.class);
+            collidable.addCollision(new Collision("test", 0, 0, 4 + random.nextInt(8), 4 + random.nextInt(8), false));
+            collidable.update(1.0);
+            collidable.addListener(new CollidableListener()
+            {
+                @Override
+                public void notifyCollided(Collidable other)
+                {
+                    collided.add(collidables.indexOf(other) + "->" + collidables.indexOf(collidable));
+                }
+            });
+            collidables.add(collidable);
+            handler.add(featurable);
+        }
+        handler.update(1.0);
+
+        new ComponentCollision(Integer.MAX_VALUE).update(1.0, handler);
+        final List<String> expected = new ArrayList<String>(collided);
+        Assert.assertFalse(expected.isEmpty());
+
+        collided.clear();
+        new ComponentCollision(4).update(1.0, handler);
+        Assert.assertEquals(expected, collided);
+
+        collided.clear();
+        new ComponentCollision().update(1.0, handler);
+        Assert.assertEquals(expected, collided);
+    }
+
+    /**
+     * Test invalid cell size.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testInvalidCellSize()
+    {
+        Assert.assertNotNull(new ComponentCollision(0));
+    }
+
+    /**
+     * Test collidables only check the layers matching their mask.
+     */
+    @Test
+    public void testLayers()
+    {
+        final Services services = new Services();
+        services.add(new Camera());
+        final Handler handler = new Handler(services);
+        handler.addComponent(new ComponentCollision());
+
+        final Featurable projectile = CollidableModelTest.createFeaturable(config, services);
+        final Featurable ally = CollidableModelTest.createFeaturable(config, services);
+        final Featurable enemy = CollidableModelTest.createFeaturable(config, services);
+        final List<Collidable> collided = new ArrayList<Collidable>();
+        for (final Featurable featurable : new Featurable[]
+        {
+            projectile, ally, enemy
+        })
+        {
+            final Collidable collidable = featurable.getFeature(Collidable.class);
+            collidable.addCollision(new Collision("test", 0, 0, 3, 3, false));
+            collidable.update(1.0);
+            collidable.addListener(new CollidableListener()
+            {
+                @Override
+                public void notifyCollided(Collidable other)
+                {
+                    collided.add(collidable);
+                }
+            });
+            handler.add(featurable);
+        }
+        projectile.getFeature(Collidable.class).setLayer(1, 4);
+        ally.getFeature(Collidable.class).setLayer(2, 0);
+        enemy.getFeature(Collidable.class).setLayer(4, 0);
+        handler.update(1.0);
+
+        Assert.assertEquals(1, collided.size());
+        Assert.assertEquals(enemy.getFeature(Collidable.class), collided.get(0));
+        Assert.assertEquals(1, projectile.getFeature(Collidable.class).getGroup());
+        Assert.assertEquals(4, projectile.getFeature(Collidable.class).getMask());
+    }
 }
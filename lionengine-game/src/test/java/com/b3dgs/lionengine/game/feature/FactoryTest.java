@@ -17,13 +17,27 @@
  */
 package com.b3dgs.lionengine.game.feature;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.Force;
+import com.b3dgs.lionengine.game.camera.Camera;
+import com.b3dgs.lionengine.game.collision.object.Collidable;
+import com.b3dgs.lionengine.game.collision.object.Collision;
+import com.b3dgs.lionengine.game.feature.identifiable.Identifiable;
+import com.b3dgs.lionengine.game.feature.launchable.Launchable;
+import com.b3dgs.lionengine.game.feature.transformable.Transformable;
 
 /**
  * Test the factory class.
@@ -51,6 +65,22 @@ public class FactoryTest
         Medias.setLoadFromJar(null);
     }
 
+    /**
+     * Get the collisions name.
+     * 
+     * @param collidable The collidable reference.
+     * @return The collisions name.
+     */
+    private static List<String> getCollisions(Collidable collidable)
+    {
+        final List<String> names = new ArrayList<String>();
+        for (final Collision collision : collidable.getCollisions())
+        {
+            names.add(collision.getName());
+        }
+        return names;
+    }
+
     private final Services services = new Services();
     private final Factory factory = new Factory(services);
 
@@ -165,4 +195,181 @@ public class FactoryTest
         Assert.assertEquals(setup, factory.getSetup(Medias.create(OBJECT_XML)));
         Assert.assertEquals(setup, factory.getSetup(Medias.create(OBJECT_XML)));
     }
+
+    /**
+     * Test the pooled object creation.
+     */
+    @Test
+    public void testPool()
+    {
+        final Media media = Medias.create(OBJECT_XML);
+        Assert.assertNull(factory.getPool(media));
+
+        factory.setPool(media, 1);
+        final FactoryPool pool = factory.getPool(media);
+
+        Assert.assertEquals(1, pool.getLimit());
+
+        final Featurable featurable1 = factory.create(media);
+        final Featurable featurable2 = factory.create(media);
+        final Identifiable identifiable1 = featurable1.getFeature(Identifiable.class);
+        final Identifiable identifiable2 = featurable2.getFeature(Identifiable.class);
+        identifiable1.destroy();
+        identifiable2.destroy();
+
+        Assert.assertEquals(0, pool.getSize());
+
+        identifiable1.notifyDestroyed();
+        identifiable2.notifyDestroyed();
+
+        Assert.assertEquals(1, pool.getSize());
+        Assert.assertNull(identifiable1.getId());
+
+        final Featurable recycled = factory.create(media);
+
+        Assert.assertEquals(featurable1, recycled);
+        Assert.assertNotNull(identifiable1.getId());
+        Assert.assertEquals(0, pool.getSize());
+        Assert.assertEquals(1, pool.getHits());
+        Assert.assertEquals(2, pool.getMisses());
+
+        identifiable1.destroy();
+        identifiable1.notifyDestroyed();
+
+        Assert.assertEquals(1, pool.getSize());
+
+        factory.setPool(media, 2);
+
+        Assert.assertEquals(pool, factory.getPool(media));
+        Assert.assertEquals(2, pool.getLimit());
+        Assert.assertEquals(1, pool.getSize());
+
+        factory.setPool(media, 0);
+
+        Assert.assertEquals(0, pool.getLimit());
+        Assert.assertEquals(0, pool.getSize());
+        Assert.assertNull(factory.getPool(media));
+        Assert.assertNotEquals(featurable1, factory.create(media));
+    }
+
+    /**
+     * Test the pooled object is recycled as a new one.
+     */
+    @Test
+    public void testPoolRecycle()
+    {
+        services.add(new Camera());
+        final Media media = Medias.create("object_pooled.xml");
+        factory.setPool(media, 1);
+
+        final Featurable created = factory.create(media);
+        final Featurable featurable = factory.create(media);
+
+        final Transformable transformable = featurable.getFeature(Transformable.class);
+        transformable.teleport(1.0, 2.0);
+        transformable.setSize(3, 4);
+        transformable.moveLocation(1.0, 1.0, 1.0);
+
+        final Collidable collidable = featurable.getFeature(Collidable.class);
+        collidable.addCollision(new Collision("other", 1, 1, 1, 1, false));
+        collidable.update(1.0);
+        collidable.setLayer(8, 16);
+        collidable.setEnabled(false);
+
+        final Launchable launchable = featurable.getFeature(Launchable.class);
+        launchable.setVector(new Force(1.0, 1.0));
+        launchable.launch();
+
+        final Identifiable identifiable = featurable.getFeature(Identifiable.class);
+        identifiable.destroy();
+        identifiable.notifyDestroyed();
+
+        final Featurable recycled = factory.create(media);
+
+        Assert.assertEquals(featurable, recycled);
+        Assert.assertNotNull(identifiable.getId());
+        Assert.assertNotEquals(created.getFeature(Identifiable.class).getId(), identifiable.getId());
+
+        final Transformable expected = created.getFeature(Transformable.class);
+        Assert.assertEquals(expected.getX(), transformable.getX(), 0.0);
+        Assert.assertEquals(expected.getY(), transformable.getY(), 0.0);
+        Assert.assertEquals(expected.getOldX(), transformable.getOldX(), 0.0);
+        Assert.assertEquals(expected.getOldY(), transformable.getOldY(), 0.0);
+        Assert.assertEquals(expected.getWidth(), transformable.getWidth());
+        Assert.assertEquals(expected.getHeight(), transformable.getHeight());
+        Assert.assertEquals(expected.getOldWidth(), transformable.getOldWidth());
+        Assert.assertEquals(expected.getOldHeight(), transformable.getOldHeight());
+
+        final Collidable expectedCollidable = created.getFeature(Collidable.class);
+        Assert.assertEquals(getCollisions(expectedCollidable), getCollisions(collidable));
+        Assert.assertEquals(expectedCollidable.getGroup(), collidable.getGroup());
+        Assert.assertEquals(expectedCollidable.getMask(), collidable.getMask());
+        Assert.assertFalse(collidable.getCollisionBounds().iterator().hasNext());
+
+        collidable.update(1.0);
+
+        Assert.assertTrue(collidable.getCollisionBounds().iterator().hasNext());
+
+        launchable.update(1.0);
+
+        Assert.assertEquals(expected.getX(), transformable.getX(), 0.0);
+        Assert.assertEquals(expected.getY(), transformable.getY(), 0.0);
+    }
+
+    /**
+     * Test the pool with invalid limit.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testPoolInvalidLimit()
+    {
+        factory.setPool(Medias.create(OBJECT_XML), -1);
+    }
+
+    /**
+     * Test the setups preload.
+     */
+    @Test
+    public void testPreload()
+    {
+        final Media object = Medias.create(OBJECT_XML);
+        final Media identifiable = Medias.create("object_identifiable.xml");
+        final Collection<Media> loaded = new ArrayList<Media>();
+        final AtomicInteger progress = new AtomicInteger();
+        factory.preload(Arrays.asList(object, identifiable, object), new FactoryListener()
+        {
+            @Override
+            public void notifySetupPreloaded(Media media, int count, int total)
+            {
+                loaded.add(media);
+                progress.set(count);
+                Assert.assertEquals(2, total);
+            }
+        });
+
+        Assert.assertEquals(2, progress.get());
+        Assert.assertTrue(loaded.containsAll(Arrays.asList(object, identifiable)));
+
+        final Setup setup = factory.getSetup(object);
+        factory.preload(Arrays.asList(object));
+
+        Assert.assertEquals(setup, factory.getSetup(object));
+        Assert.assertEquals(2, progress.get());
+    }
+
+    /**
+     * Test the setups preload with an invalid setup.
+     */
+    @Test
+    public void testPreloadError()
+    {
+        try
+        {
+            factory.preload(Arrays.asList(Medias.create(OBJECT_XML), Medias.create("no_setup.xml")));
+            Assert.fail();
+        }
+        catch (final LionEngineException exception)
+        {
+            Assert.assertEquals(exception.getMessage(), LionEngineException.class, exception.getCause().getClass());
+        }
+    }
 }
@@ -18,6 +18,8 @@
 package com.b3dgs.lionengine.game.feature;
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -98,6 +100,113 @@ public class FeaturesTest
         Assert.assertTrue(features.contains(Refreshable.class));
     }
 
+    /**
+     * Test the resolved types are reset when adding a feature.
+     */
+    @Test
+    public void testResolvedReset()
+    {
+        final Features features = new Features();
+        features.add(new FeatureNotCompatible());
+
+        Assert.assertFalse(features.contains(FeatureLevel1.class));
+        Assert.assertFalse(features.contains(FeatureLevel1.class));
+
+        final Feature feature = new FeatureLevel2();
+        features.add(feature);
+
+        Assert.assertTrue(features.contains(FeatureLevel1.class));
+        Assert.assertEquals(feature, features.get(FeatureLevel1.class));
+        Assert.assertEquals(feature, features.get(FeatureLevel1.class));
+    }
+
+    /**
+     * Test the features by identifier.
+     */
+    @Test
+    public void testFeatureId()
+    {
+        final FeatureId<FeatureLevel1> id = FeatureId.get(FeatureLevel1.class);
+
+        Assert.assertEquals(id, FeatureId.get(FeatureLevel1.class));
+        Assert.assertEquals(FeatureLevel1.class, id.getType());
+        Assert.assertNotEquals(id.getIndex(), FeatureId.get(FeatureLevel2.class).getIndex());
+        Assert.assertEquals(FeatureLevel1.class.getName() + " [" + id.getIndex() + "]", id.toString());
+
+        final Features features = new Features();
+        features.add(new FeatureNotCompatible());
+
+        Assert.assertFalse(features.contains(id));
+        try
+        {
+            Assert.assertNull(features.get(id));
+            Assert.fail();
+        }
+        catch (final LionEngineException exception)
+        {
+            // Success
+        }
+
+        final FeatureLevel1 feature = new FeatureLevel2();
+        features.add(feature);
+
+        Assert.assertTrue(features.contains(id));
+        Assert.assertEquals(feature, features.get(id));
+        Assert.assertEquals(feature, features.get(id));
+        Assert.assertTrue(features.contains(id));
+    }
+
+    /**
+     * Test the features read from another thread while replaced.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testConcurrentRead() throws InterruptedException
+    {
+        final FeatureId<FeatureLevel1> id = FeatureId.get(FeatureLevel1.class);
+        final Features features = new Features();
+        features.add(new FeatureLevel2());
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final Thread reader = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    while (running.get())
+                    {
+                        Assert.assertNotNull(features.get(id));
+                        Assert.assertNotNull(features.get(Refreshable.class));
+                        Assert.assertTrue(features.contains(FeatureModel.class));
+                    }
+                }
+                catch (final Throwable throwable)
+                {
+                    error.set(throwable);
+                }
+            }
+        });
+        reader.start();
+
+        FeatureLevel1 last = null;
+        for (int i = 0; i < 10000; i++)
+        {
+            last = new FeatureLevel2();
+            features.add(last);
+            features.add(new FeatureNotCompatible());
+        }
+        running.set(false);
+        reader.join();
+
+        Assert.assertNull(error.get());
+        Assert.assertEquals(last, features.get(id));
+        Assert.assertEquals(last, features.get(FeatureLevel2.class));
+    }
+
     /**
      * Mock feature.
      */
@@ -109,6 +109,38 @@ public class ServicesTest
         Assert.assertNotNull(services.get(Camera.class));
     }
 
+    /**
+     * Test the optional service.
+     */
+    @Test
+    public void testOptional()
+    {
+        final Services services = new Services();
+        Assert.assertNull(services.getOptional(Camera.class));
+
+        final Camera camera = services.add(new Camera());
+        Assert.assertEquals(camera, services.getOptional(Viewer.class));
+        Assert.assertEquals(services, services.getOptional(Services.class));
+    }
+
+    /**
+     * Test the found services are reset when adding a service, the first added being returned.
+     */
+    @Test
+    public void testFoundReset()
+    {
+        final Services services = new Services();
+        Assert.assertNull(services.getOptional(Viewer.class));
+        Assert.assertNull(services.getOptional(Viewer.class));
+
+        final Camera camera = services.add(new Camera());
+        Assert.assertEquals(camera, services.getOptional(Viewer.class));
+
+        services.add(new Camera());
+        Assert.assertEquals(camera, services.get(Viewer.class));
+        Assert.assertEquals(camera, services.get(Viewer.class));
+    }
+
     /**
      * Test the service <code>null</code>.
      */
@@ -103,4 +103,47 @@ public class IdentifiableModelTest
 
         Assert.assertFalse(destroyed.get());
     }
+
+    /**
+     * Test the recycle.
+     */
+    @Test
+    public void testRecycle()
+    {
+        final IdentifiableModel identifiable = new IdentifiableModel();
+        final Integer first = identifiable.getId();
+        identifiable.recycle();
+
+        Assert.assertEquals(first, identifiable.getId());
+
+        final AtomicBoolean recyclable = new AtomicBoolean();
+        identifiable.addListener(new IdentifiableRecycleListener()
+        {
+            @Override
+            public void notifyDestroyed(Integer id)
+            {
+                // Mock
+            }
+
+            @Override
+            public void notifyRecyclable(Integer id)
+            {
+                recyclable.set(true);
+            }
+        });
+        identifiable.destroy();
+
+        Assert.assertFalse(recyclable.get());
+
+        identifiable.notifyDestroyed();
+
+        Assert.assertTrue(recyclable.get());
+        Assert.assertNull(identifiable.getId());
+
+        identifiable.recycle();
+
+        Assert.assertNotNull(identifiable.getId());
+
+        identifiable.notifyDestroyed();
+    }
 }
@@ -88,6 +88,37 @@ public class LauncherModelTest
         Assert.assertEquals(2.0, launcher.getOffsetY(), UtilTests.PRECISION);
     }
 
+    /**
+     * Test the recycled launcher is as a new one.
+     * 
+     * @throws InterruptedException If error.
+     */
+    @Test
+    public void testRecycle() throws InterruptedException
+    {
+        final AtomicReference<Featurable> fired = new AtomicReference<Featurable>();
+        launcher.addListener(UtilLaunchable.createListener(fired));
+        final LauncherModel created = new LauncherModel(setup);
+
+        ((LauncherModel) launcher).recycle();
+
+        Assert.assertEquals(created.getOffsetX(), launcher.getOffsetX());
+        Assert.assertEquals(created.getOffsetY(), launcher.getOffsetY());
+
+        launcher.fire();
+
+        Assert.assertNull(fired.get());
+
+        Thread.sleep(11);
+        launcher.fire();
+
+        Assert.assertNotNull(fired.get());
+
+        final Handler handler = services.get(Handler.class);
+        handler.removeAll();
+        handler.update(1.0);
+    }
+
     /**
      * Test the launcher.
      * 
@@ -17,13 +17,18 @@
  */
 package com.b3dgs.lionengine.game.handler;
 
+import java.util.ArrayList;
+import java.util.Collection;
+
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.core.Medias;
 import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.ThreadSafe;
 
 /**
  * Test the component updatable.
@@ -70,4 +75,130 @@ public class ComponentUpdatableTest
         handler.removeAll();
         handler.update(1.0);
     }
+
+    /**
+     * Test the updater in parallel mode.
+     */
+    @Test
+    public void testParallel()
+    {
+        final Handler handler = new Handler(new Services());
+        handler.addComponent(new ComponentUpdatable(2));
+
+        final Collection<UpdaterSafe> safes = new ArrayList<UpdaterSafe>();
+        for (int i = 0; i < 1000; i++)
+        {
+            final UpdaterSafe object = new UpdaterSafe();
+            safes.add(object);
+            handler.add(object);
+        }
+        final Updater object = new Updater();
+        handler.add(object);
+
+        handler.update(1.0);
+        handler.update(1.0);
+
+        Assert.assertTrue(object.isUpdated());
+        for (final UpdaterSafe safe : safes)
+        {
+            Assert.assertEquals(2, safe.count);
+        }
+
+        handler.removeAll();
+        handler.update(1.0);
+        handler.terminate();
+    }
+
+    /**
+     * Test the updater in parallel mode with an update failure.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testParallelFail()
+    {
+        final Handler handler = new Handler(new Services());
+        handler.addComponent(new ComponentUpdatable(2));
+        for (int i = 0; i < 1000; i++)
+        {
+            handler.add(new UpdaterSafe());
+        }
+        try
+        {
+            handler.update(-1.0);
+        }
+        finally
+        {
+            handler.terminate();
+        }
+    }
+
+    /**
+     * Test the workers are stopped on handler termination.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testTerminate() throws InterruptedException
+    {
+        final Handler handler = new Handler(new Services());
+        handler.addComponent(new ComponentUpdatable(2));
+        for (int i = 0; i < 1000; i++)
+        {
+            handler.add(new UpdaterSafe());
+        }
+        handler.update(1.0);
+
+        final Collection<Thread> workers = new ArrayList<Thread>();
+        for (final Thread thread : Thread.getAllStackTraces().keySet())
+        {
+            if (thread.getName().startsWith("ComponentUpdatable-"))
+            {
+                workers.add(thread);
+            }
+        }
+        Assert.assertFalse(workers.isEmpty());
+
+        handler.terminate();
+        for (final Thread thread : workers)
+        {
+            thread.join(1000L);
+            Assert.assertFalse(thread.isAlive());
+        }
+    }
+
+    /**
+     * Test the updater with invalid workers.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testInvalidWorkers()
+    {
+        Assert.assertNotNull(new ComponentUpdatable(0));
+    }
+
+    /**
+     * Thread safe updatable object mock, failing on negative extrapolation.
+     */
+    @ThreadSafe
+    private static final class UpdaterSafe extends Updater
+    {
+        /** Updates count. */
+        private int count;
+
+        /**
+         * Constructor.
+         */
+        UpdaterSafe()
+        {
+            super();
+        }
+
+        @Override
+        public void update(double extrp)
+        {
+            if (extrp < 0.0)
+            {
+                throw new IllegalArgumentException();
+            }
+            count++;
+        }
+    }
 }
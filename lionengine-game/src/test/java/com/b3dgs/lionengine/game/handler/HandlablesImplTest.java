@@ -17,6 +17,9 @@
  */
 package com.b3dgs.lionengine.game.handler;
 
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -182,6 +185,50 @@ public class HandlablesImplTest
         Assert.assertEquals(1, i);
     }
 
+    /**
+     * Test removal keeps the remaining featurables packed, the last one taking the removed place.
+     */
+    @Test
+    public void testRemovePacked()
+    {
+        final Featurable first = new ObjectComplex();
+        final Featurable second = new ObjectComplex();
+        final Featurable third = new ObjectComplex();
+        featurables.add(first);
+        featurables.add(second);
+        featurables.add(third);
+        featurables.add(third);
+
+        Assert.assertEquals(3, featurables.size());
+
+        featurables.remove(first);
+
+        Assert.assertEquals(2, featurables.size());
+        final Iterator<Updatable> updatables = featurables.get(Updatable.class).iterator();
+        Assert.assertEquals(third, updatables.next());
+        Assert.assertEquals(second, updatables.next());
+        Assert.assertFalse(updatables.hasNext());
+        try
+        {
+            Assert.assertNull(updatables.next());
+            Assert.fail();
+        }
+        catch (final NoSuchElementException exception)
+        {
+            // Success
+        }
+
+        featurables.remove(second);
+        featurables.remove(third);
+
+        Assert.assertEquals(0, featurables.size());
+        Assert.assertFalse(featurables.get(Updatable.class).iterator().hasNext());
+
+        first.getFeature(Identifiable.class).notifyDestroyed();
+        second.getFeature(Identifiable.class).notifyDestroyed();
+        third.getFeature(Identifiable.class).notifyDestroyed();
+    }
+
     /**
      * Complex object with interface.
      */
@@ -17,6 +17,9 @@
  */
 package com.b3dgs.lionengine.game.handler;
 
+import java.util.ArrayList;
+import java.util.Collection;
+
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -30,7 +33,13 @@ import com.b3dgs.lionengine.core.Graphics;
 import com.b3dgs.lionengine.core.InputDevice;
 import com.b3dgs.lionengine.core.Medias;
 import com.b3dgs.lionengine.core.Resolution;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileGame;
+import com.b3dgs.lionengine.game.map.feature.persister.MapTileEncoding;
+import com.b3dgs.lionengine.game.map.feature.persister.MapTilePersister;
+import com.b3dgs.lionengine.game.map.feature.persister.MapTilePersisterModel;
 import com.b3dgs.lionengine.mock.FactoryGraphicMock;
+import com.b3dgs.lionengine.stream.FileWriting;
 
 /**
  * Test the world class.
@@ -95,6 +104,62 @@ public class WorldTest
         world.render(null);
     }
 
+    /**
+     * Test the world save with tiles encoding.
+     */
+    @Test
+    public void testWorldEncoding()
+    {
+        final Resolution output = new Resolution(640, 480, 60);
+        final Config config = new Config(output, 16, true);
+        config.setSource(output);
+        final Collection<MapTileEncoding> encodings = new ArrayList<MapTileEncoding>();
+        final World world = new World(new Context()
+        {
+            @Override
+            public <T extends InputDevice> T getInputDevice(Class<T> type)
+            {
+                return null;
+            }
+
+            @Override
+            public Config getConfig()
+            {
+                return config;
+            }
+        })
+        {
+            @Override
+            protected void saving(FileWriting file)
+            {
+                final MapTile map = services.getOptional(MapTile.class);
+                if (map != null)
+                {
+                    encodings.add(map.getFeature(MapTilePersister.class).getEncoding());
+                }
+            }
+        };
+
+        final Media media = Medias.create("test");
+        try
+        {
+            world.saveToFile(media, MapTileEncoding.RUN_LENGTH);
+            Assert.assertTrue(encodings.isEmpty());
+
+            final MapTile map = world.services.create(MapTileGame.class);
+            final MapTilePersister persister = map.addFeatureAndGet(new MapTilePersisterModel());
+            map.prepareFeatures(world.services);
+
+            world.saveToFile(media, MapTileEncoding.RUN_LENGTH_DEFLATE);
+            Assert.assertEquals(MapTileEncoding.RUN_LENGTH_DEFLATE, encodings.iterator().next());
+            Assert.assertEquals(MapTileEncoding.TILES, persister.getEncoding());
+        }
+        finally
+        {
+            Assert.assertTrue(media.getFile().delete());
+        }
+    }
+
     /**
      * Test the world.
      */
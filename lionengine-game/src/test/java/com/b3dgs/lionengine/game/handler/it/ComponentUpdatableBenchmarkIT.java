@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.handler.it;
+
+import java.util.Locale;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.ThreadSafe;
+import com.b3dgs.lionengine.game.handler.ComponentUpdatable;
+import com.b3dgs.lionengine.game.handler.Handler;
+
+/**
+ * Benchmark the updatable component in serial mode and in parallel mode with an increasing number of workers.
+ */
+public class ComponentUpdatableBenchmarkIT
+{
+    /** Number of featurables. */
+    private static final int FEATURABLES = 10000;
+    /** Number of measured updates. */
+    private static final int UPDATES = 50;
+    /** Number of warm up updates. */
+    private static final int WARMUP = 20;
+
+    /**
+     * Measure the updates.
+     * 
+     * @param component The component to use.
+     * @return The time per update in milli seconds.
+     */
+    private static double measure(ComponentUpdatable component)
+    {
+        final Handler handler = new Handler(new Services());
+        handler.addComponent(component);
+        for (int i = 0; i < FEATURABLES; i++)
+        {
+            handler.add(new Mover());
+        }
+        for (int i = 0; i < WARMUP; i++)
+        {
+            handler.update(1.0);
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++)
+        {
+            handler.update(1.0);
+        }
+        final double time = (System.nanoTime() - start) / 1E6 / UPDATES;
+
+        int updated = 0;
+        for (final Mover mover : handler.get(Mover.class))
+        {
+            Assert.assertEquals(WARMUP + UPDATES, mover.count);
+            updated++;
+        }
+        Assert.assertEquals(FEATURABLES, updated);
+        handler.terminate();
+        return time;
+    }
+
+    /**
+     * Benchmark the updates.
+     */
+    @Test
+    public void testBenchmark()
+    {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        final double serial = measure(new ComponentUpdatable());
+        final StringBuilder result = new StringBuilder(String.format(Locale.ENGLISH,
+                                                                     "%d featurables on %d processors: serial %.2f ms",
+                                                                     Integer.valueOf(FEATURABLES),
+                                                                     Integer.valueOf(processors),
+                                                                     Double.valueOf(serial)));
+        for (int workers = 1; workers <= Math.max(4, processors); workers *= 2)
+        {
+            final double time = measure(new ComponentUpdatable(workers));
+            result.append(String.format(Locale.ENGLISH,
+                                        ", %d workers %.2f ms (x%.2f)",
+                                        Integer.valueOf(workers),
+                                        Double.valueOf(time),
+                                        Double.valueOf(serial / time)));
+        }
+        Verbose.info(result.toString());
+    }
+
+    /**
+     * Thread safe featurable, integrating a movement.
+     */
+    @ThreadSafe
+    private static final class Mover extends FeaturableModel implements Updatable
+    {
+        /** Updates count. */
+        private int count;
+        /** Current location. */
+        private double x;
+        /** Current speed. */
+        private double speed = 1.0;
+
+        /**
+         * Create featurable.
+         */
+        Mover()
+        {
+            super();
+        }
+
+        @Override
+        public void update(double extrp)
+        {
+            for (int i = 0; i < 100; i++)
+            {
+                speed = Math.cos(x) * extrp + speed * 0.5;
+                x += Math.sqrt(Math.abs(speed)) * extrp;
+            }
+            count++;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.game.camera.Camera;
+import com.b3dgs.lionengine.game.feature.FeatureModel;
+import com.b3dgs.lionengine.game.tile.Tile;
+
+/**
+ * Test the chunked map tile implementation.
+ */
+public class MapTileChunkedTest
+{
+    /** Tile size. */
+    private static final int TILE = 16;
+    /** Chunk size in tile. */
+    private static final int CHUNK = 4;
+    /** Map size in tile. */
+    private static final int SIZE = 40;
+
+    /**
+     * Get the expected tile number.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return The tile number.
+     */
+    private static int getNumber(int tx, int ty)
+    {
+        return ty * SIZE + tx;
+    }
+
+    private final Camera camera = new Camera();
+    private final Source source = new Source();
+    private final Collection<String> loaded = new ArrayList<String>();
+    private final Collection<String> unloaded = new ArrayList<String>();
+    private MapTileChunked map;
+
+    /**
+     * Prepare test.
+     */
+    @Before
+    public void prepare()
+    {
+        camera.setView(0, 0, 2 * CHUNK * TILE, 2 * CHUNK * TILE, 2 * CHUNK * TILE);
+        camera.teleport(0.0, 0.0);
+        map = new MapTileChunked(camera, CHUNK, 4);
+        map.addListener(new MapTileChunkListener()
+        {
+            @Override
+            public void notifyChunkLoaded(int tx, int ty, int width, int height)
+            {
+                loaded.add(tx + "/" + ty + "/" + width + "/" + height);
+            }
+
+            @Override
+            public void notifyChunkUnloaded(int tx, int ty, int width, int height)
+            {
+                unloaded.add(tx + "/" + ty);
+            }
+        });
+        map.load(source);
+    }
+
+    /**
+     * Clean test.
+     */
+    @After
+    public void clean()
+    {
+        map.terminate();
+        Assert.assertTrue(source.closed);
+    }
+
+    /**
+     * Test the map is created from source without loading tiles.
+     */
+    @Test
+    public void testLoad()
+    {
+        Assert.assertTrue(map.isCreated());
+        Assert.assertEquals(TILE, map.getTileWidth());
+        Assert.assertEquals(SIZE, map.getInTileWidth());
+        Assert.assertEquals(SIZE, map.getInTileHeight());
+        Assert.assertEquals(CHUNK, map.getChunkSize());
+        Assert.assertEquals(0, map.getLoadedChunks());
+        Assert.assertNull(map.getTile(0, 0));
+        Assert.assertFalse(map.isLoaded(0, 0));
+    }
+
+    /**
+     * Test the visible chunks are loaded on update.
+     */
+    @Test
+    public void testUpdateVisible()
+    {
+        map.update(1.0);
+
+        Assert.assertEquals(9, map.getLoadedChunks());
+        Assert.assertEquals(9, loaded.size());
+        Assert.assertTrue(loaded.contains("0/0/4/4"));
+        Assert.assertTrue(map.isLoaded(11, 11));
+        Assert.assertFalse(map.isLoaded(12, 0));
+
+        final Tile tile = map.getTile(5, 7);
+        Assert.assertEquals(getNumber(5, 7), tile.getNumber());
+        Assert.assertEquals(1, tile.getSheet().intValue());
+        Assert.assertEquals(5 * TILE, tile.getX(), 0.0);
+        Assert.assertEquals(7 * TILE, tile.getY(), 0.0);
+        Assert.assertEquals(9 * CHUNK * CHUNK, map.getTilesNumber());
+    }
+
+    /**
+     * Test the least recently used chunks are unloaded, visible ones excepted.
+     */
+    @Test
+    public void testUnload()
+    {
+        map.update(1.0);
+        camera.teleport(8.0 * CHUNK * TILE, 8.0 * CHUNK * TILE);
+        map.update(1.0);
+
+        Assert.assertEquals(8, map.getLoadedChunks());
+        Assert.assertEquals(5, unloaded.size());
+        Assert.assertTrue(unloaded.contains("0/0"));
+        Assert.assertFalse(map.isLoaded(0, 0));
+        Assert.assertTrue(map.isLoaded(2 * CHUNK, 2 * CHUNK));
+        Assert.assertTrue(map.isLoaded(SIZE - 1, SIZE - 1));
+        Assert.assertTrue(loaded.contains("36/32/4/4"));
+    }
+
+    /**
+     * Test the chunks ahead of the viewer movement are read in background.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test(timeout = 5000)
+    public void testPrefetch() throws InterruptedException
+    {
+        map.update(1.0);
+        camera.teleport(1.0, 0.0);
+        map.update(1.0);
+
+        while (!map.isLoaded(3 * CHUNK, 0) || !map.isLoaded(3 * CHUNK, 2 * CHUNK))
+        {
+            Thread.sleep(1L);
+            map.update(1.0);
+        }
+        Assert.assertTrue(map.isLoaded(3 * CHUNK, CHUNK));
+        Assert.assertFalse(map.isLoaded(0, 3 * CHUNK));
+        Assert.assertEquals(getNumber(3 * CHUNK, 0), map.getTile(3 * CHUNK, 0).getNumber());
+    }
+
+    /**
+     * Test modified chunks are kept, with tiles features.
+     */
+    @Test
+    public void testSetTile()
+    {
+        map.setTile(map.createTile(Integer.valueOf(2), 3, 0.0, 0.0));
+        final FeatureModel feature = map.getTile(0, 0).addFeatureAndGet(new FeatureModel());
+
+        map.update(1.0);
+        camera.teleport(8.0 * CHUNK * TILE, 8.0 * CHUNK * TILE);
+        map.update(1.0);
+
+        Assert.assertTrue(map.isLoaded(0, 0));
+        Assert.assertFalse(map.isLoaded(CHUNK, 0));
+        Assert.assertEquals(2, map.getTile(0, 0).getSheet().intValue());
+        Assert.assertEquals(3, map.getTile(0, 0).getNumber());
+        Assert.assertEquals(feature, map.getTile(0, 0).getFeature(FeatureModel.class));
+        Assert.assertFalse(map.getTile(1, 0).hasFeature(FeatureModel.class));
+    }
+
+    /**
+     * Test held chunks are kept until released.
+     */
+    @Test
+    public void testHold()
+    {
+        map.hold(0, 0);
+        map.hold(1, 1);
+
+        map.update(1.0);
+        camera.teleport(8.0 * CHUNK * TILE, 8.0 * CHUNK * TILE);
+        map.update(1.0);
+        map.release(0, 0);
+        map.update(1.0);
+
+        Assert.assertTrue(map.isLoaded(0, 0));
+        Assert.assertFalse(map.isLoaded(CHUNK, 0));
+
+        map.release(1, 1);
+        map.update(1.0);
+
+        Assert.assertFalse(map.isLoaded(0, 0));
+        Assert.assertTrue(unloaded.contains("0/0"));
+    }
+
+    /**
+     * Test the chunks are unloaded from the least recently used.
+     */
+    @Test
+    public void testUnloadLeastUsed()
+    {
+        camera.teleport(8.0 * CHUNK * TILE, 8.0 * CHUNK * TILE);
+        for (int cx = 0; cx < 5; cx++)
+        {
+            map.loadChunk(cx * CHUNK, 0);
+            map.update(1.0);
+        }
+
+        Assert.assertEquals(8, map.getLoadedChunks());
+        Assert.assertEquals(1, unloaded.size());
+        Assert.assertFalse(map.isLoaded(0, 0));
+        for (int cx = 1; cx < 5; cx++)
+        {
+            Assert.assertTrue(map.isLoaded(cx * CHUNK, 0));
+        }
+    }
+
+    /**
+     * Test explicit chunk loading.
+     */
+    @Test
+    public void testLoadChunk()
+    {
+        map.loadChunk(SIZE - 1, 0);
+
+        Assert.assertTrue(map.isLoaded(SIZE - CHUNK, CHUNK - 1));
+        Assert.assertEquals(getNumber(SIZE - 1, 1), map.getTile(SIZE - 1, 1).getNumber());
+        Assert.assertEquals(1, loaded.size());
+    }
+
+    /**
+     * Memory source, tile number is its location index.
+     */
+    private static final class Source implements MapTileChunkSource
+    {
+        /** Closed flag. */
+        private boolean closed;
+
+        /**
+         * Create source.
+         */
+        Source()
+        {
+            super();
+        }
+
+        @Override
+        public int getTileWidth()
+        {
+            return TILE;
+        }
+
+        @Override
+        public int getTileHeight()
+        {
+            return TILE;
+        }
+
+        @Override
+        public int getInTileWidth()
+        {
+            return SIZE;
+        }
+
+        @Override
+        public int getInTileHeight()
+        {
+            return SIZE;
+        }
+
+        @Override
+        public Media getSheetsConfig()
+        {
+            return null;
+        }
+
+        @Override
+        public void load(int tx, int ty, int width, int height, int[] tiles) throws IOException
+        {
+            for (int y = 0; y < height; y++)
+            {
+                for (int x = 0; x < width; x++)
+                {
+                    if (tx + x < SIZE && ty + y < SIZE)
+                    {
+                        tiles[y * width + x] = MapTilePacked.pack(1, getNumber(tx + x, ty + y));
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+}
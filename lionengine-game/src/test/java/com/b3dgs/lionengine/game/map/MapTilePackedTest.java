@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.drawable.SpriteTiled;
+import com.b3dgs.lionengine.game.feature.FeatureModel;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.pathfinding.TilePath;
+import com.b3dgs.lionengine.game.pathfinding.TilePathModel;
+import com.b3dgs.lionengine.game.tile.Tile;
+import com.b3dgs.lionengine.test.UtilTests;
+
+/**
+ * Test the packed map tile implementation.
+ */
+public class MapTilePackedTest
+{
+    private final MapTilePacked map = new MapTilePacked();
+
+    /**
+     * Test map creation.
+     */
+    @Test
+    public void testCreate()
+    {
+        Assert.assertFalse(map.isCreated());
+        map.create(16, 32, 2, 3);
+        Assert.assertTrue(map.isCreated());
+
+        map.loadSheets(new ArrayList<SpriteTiled>());
+        Assert.assertEquals(2 * 16, map.getWidth());
+        Assert.assertEquals(3 * 32, map.getHeight());
+        Assert.assertEquals(0, map.getTilesNumber());
+    }
+
+    /**
+     * Test map set and get tile.
+     */
+    @Test
+    public void testSetGetTile()
+    {
+        map.create(16, 32, 3, 3);
+
+        Assert.assertNull(map.getTile(1, 2));
+        Assert.assertNull(map.getTile(-1, 0));
+        Assert.assertNull(map.getTile(0, 3));
+        Assert.assertEquals(0, map.getPacked(1, 2));
+
+        map.setTile(map.createTile(Integer.valueOf(2), 70000 - 65536, 16.0, 64.0));
+
+        final Tile tile = map.getTile(1, 2);
+        Assert.assertEquals(1, map.getTilesNumber());
+        Assert.assertEquals(2, tile.getSheet().intValue());
+        Assert.assertEquals(70000 - 65536, tile.getNumber());
+        Assert.assertEquals(16.0, tile.getX(), UtilTests.PRECISION);
+        Assert.assertEquals(64.0, tile.getY(), UtilTests.PRECISION);
+        Assert.assertEquals(1, tile.getInTileX());
+        Assert.assertEquals(2, tile.getInTileY());
+        Assert.assertEquals(16, tile.getWidth());
+        Assert.assertEquals(32, tile.getHeight());
+        Assert.assertEquals(tile, map.getTileAt(20.0, 70.0));
+        Assert.assertEquals(tile.hashCode(), map.getTileAt(20.0, 70.0).hashCode());
+        Assert.assertFalse(tile.getFeatures().iterator().hasNext());
+
+        map.clear();
+        Assert.assertEquals(0, map.getTilesNumber());
+        Assert.assertTrue(map.isCreated());
+    }
+
+    /**
+     * Test map set tile with a sheet which cannot be packed.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testSetTileWrongSheet()
+    {
+        map.create(16, 16, 1, 1);
+        map.setTile(map.createTile(Integer.valueOf(MapTilePacked.MAX_SHEET), 0, 0.0, 0.0));
+    }
+
+    /**
+     * Test map set tile with a number which cannot be packed.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testSetTileWrongNumber()
+    {
+        map.create(16, 16, 1, 1);
+        map.setTile(map.createTile(Integer.valueOf(0), MapTilePacked.MAX_NUMBER, 0.0, 0.0));
+    }
+
+    /**
+     * Test tile features stored by the map.
+     */
+    @Test
+    public void testFeatures()
+    {
+        map.create(16, 16, 2, 2);
+        map.setTile(map.createTile(Integer.valueOf(0), 1, 16.0, 16.0));
+
+        final FeatureModel feature = new FeatureModel();
+        map.getTile(1, 1).addFeature(feature);
+
+        Assert.assertTrue(map.getTile(1, 1).hasFeature(FeatureModel.class));
+        Assert.assertEquals(feature, map.getTile(1, 1).getFeature(FeatureModel.class));
+
+        map.setTile(map.getTile(1, 1));
+        Assert.assertEquals(feature, map.getTile(1, 1).getFeature(FeatureModel.class));
+
+        map.setTile(map.createTile(Integer.valueOf(0), 2, 16.0, 16.0));
+        Assert.assertFalse(map.getTile(1, 1).hasFeature(FeatureModel.class));
+    }
+
+    /**
+     * Test tile features replaced when added again, and found by their interface.
+     */
+    @Test
+    public void testFeaturesReplaced()
+    {
+        map.create(16, 16, 1, 1);
+        map.setTile(map.createTile(Integer.valueOf(0), 0, 0.0, 0.0));
+
+        final Tile tile = map.getTile(0, 0);
+        tile.addFeature(new TilePathModel("old"));
+        final TilePath path = tile.addFeatureAndGet(new TilePathModel("new"));
+        tile.addFeature(new FeatureModel());
+
+        Assert.assertFalse(tile.isPrepared());
+        tile.prepareFeatures(new Services());
+        Assert.assertTrue(map.getTile(0, 0).isPrepared());
+
+        Assert.assertEquals(path, map.getTile(0, 0).getFeature(TilePath.class));
+        Assert.assertEquals("new", map.getTile(0, 0).getFeature(TilePath.class).getCategory());
+        Assert.assertEquals(path, path.getFeature(TilePath.class));
+
+        final Collection<Object> features = new ArrayList<Object>();
+        for (final Object feature : map.getTile(0, 0).getFeatures())
+        {
+            features.add(feature);
+        }
+        Assert.assertEquals(2, features.size());
+
+        final Collection<Object> types = new ArrayList<Object>();
+        for (final Object type : map.getTile(0, 0).getFeaturesType())
+        {
+            types.add(type);
+        }
+        Assert.assertTrue(types.contains(TilePath.class));
+        Assert.assertTrue(types.contains(TilePathModel.class));
+        Assert.assertTrue(types.contains(FeatureModel.class));
+    }
+
+    /**
+     * Test tile feature not found.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testFeatureNotFound()
+    {
+        map.create(16, 16, 1, 1);
+        map.setTile(map.createTile(Integer.valueOf(0), 0, 0.0, 0.0));
+        Assert.assertNull(map.getTile(0, 0).getFeature(FeatureModel.class));
+    }
+
+    /**
+     * Test map append, keeping tiles and features location.
+     */
+    @Test
+    public void testAppend()
+    {
+        map.create(16, 16, 2, 2);
+        map.setTile(map.createTile(Integer.valueOf(0), 1, 16.0, 16.0));
+        final FeatureModel feature = map.getTile(1, 1).addFeatureAndGet(new FeatureModel());
+
+        final MapTilePacked other = new MapTilePacked();
+        other.create(16, 16, 2, 1);
+        other.setTile(other.createTile(Integer.valueOf(1), 3, 16.0, 0.0));
+
+        map.append(other, 2, 1);
+
+        Assert.assertEquals(4, map.getInTileWidth());
+        Assert.assertEquals(2, map.getInTileHeight());
+        Assert.assertEquals(2, map.getTilesNumber());
+        Assert.assertEquals(1, map.getTile(1, 1).getNumber());
+        Assert.assertEquals(feature, map.getTile(1, 1).getFeature(FeatureModel.class));
+        Assert.assertEquals(1, map.getTile(3, 1).getSheet().intValue());
+        Assert.assertEquals(3, map.getTile(3, 1).getNumber());
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map.feature.persister;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.drawable.SpriteTiled;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileGame;
+import com.b3dgs.lionengine.game.map.MapTilePacked;
+import com.b3dgs.lionengine.game.tile.Tile;
+import com.b3dgs.lionengine.test.UtilTests;
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Test the mapped map format.
+ */
+public class MapTileMappedTest
+{
+    /** Map width, with a partial chunk. */
+    private static final int WIDTH = 70;
+    /** Map height, with a partial chunk. */
+    private static final int HEIGHT = 21;
+    /** Chunk size. */
+    private static final int CHUNK = 8;
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setResourcesDirectory(null);
+    }
+
+    /**
+     * Check if a tile is defined at location (holes in every fifth column, and an empty chunk).
+     * 
+     * @param tx The horizontal location.
+     * @param ty The vertical location.
+     * @return <code>true</code> if defined, <code>false</code> else.
+     */
+    private static boolean isDefined(int tx, int ty)
+    {
+        return tx % 5 != 0 && (tx / CHUNK != 1 || ty / CHUNK != 1);
+    }
+
+    /**
+     * Create a map.
+     * 
+     * @param type The map type.
+     * @return The created map.
+     */
+    private static MapTile createMap(Class<? extends MapTile> type)
+    {
+        final Services services = new Services();
+        final MapTile map = services.create(type);
+        map.addFeature(new MapTilePersisterModel());
+        map.prepareFeatures(services);
+        return map;
+    }
+
+    /**
+     * Check the map content.
+     * 
+     * @param map The map to check.
+     */
+    private static void assertMap(MapTile map)
+    {
+        Assert.assertEquals(16, map.getTileWidth());
+        Assert.assertEquals(8, map.getTileHeight());
+        Assert.assertEquals(WIDTH, map.getInTileWidth());
+        Assert.assertEquals(HEIGHT, map.getInTileHeight());
+        for (int tx = 0; tx < WIDTH; tx++)
+        {
+            for (int ty = 0; ty < HEIGHT; ty++)
+            {
+                final Tile tile = map.getTile(tx, ty);
+                if (isDefined(tx, ty))
+                {
+                    Assert.assertEquals(0, tile.getSheet().intValue());
+                    Assert.assertEquals(ty * WIDTH + tx, tile.getNumber());
+                    Assert.assertEquals(tx * 16.0, tile.getX(), UtilTests.PRECISION);
+                    Assert.assertEquals(ty * 8.0, tile.getY(), UtilTests.PRECISION);
+                }
+                else
+                {
+                    Assert.assertNull(tile);
+                }
+            }
+        }
+    }
+
+    /** Temp folder. */
+    @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+    private MapTile map;
+
+    /**
+     * Prepare test.
+     */
+    @Before
+    public void prepare()
+    {
+        Medias.setResourcesDirectory(folder.getRoot().getAbsolutePath());
+
+        map = createMap(MapTileGame.class);
+        map.create(16, 8, WIDTH, HEIGHT);
+        map.loadSheets(new ArrayList<SpriteTiled>());
+        for (int tx = 0; tx < WIDTH; tx++)
+        {
+            for (int ty = 0; ty < HEIGHT; ty++)
+            {
+                if (isDefined(tx, ty))
+                {
+                    map.setTile(map.createTile(Integer.valueOf(0), ty * WIDTH + tx, tx * 16.0, ty * 8.0));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test the save and load with the persister, in a tiles map and a packed map.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testSaveLoad() throws IOException
+    {
+        final Media level = Medias.get(folder.newFile());
+        map.getFeature(MapTilePersister.class).save(level);
+
+        Assert.assertTrue(MapTileMapped.isMapped(level));
+
+        final MapTile loaded = createMap(MapTileGame.class);
+        loaded.getFeature(MapTilePersister.class).load(level);
+        assertMap(loaded);
+
+        final MapTile packed = createMap(MapTilePacked.class);
+        packed.getFeature(MapTilePersister.class).load(level);
+        assertMap(packed);
+    }
+
+    /**
+     * Test the load of a stream level with the persister.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testLoadLegacy() throws IOException
+    {
+        final Media level = Medias.get(folder.newFile());
+        UtilMapTilePersister.saveMap(map, level);
+
+        Assert.assertFalse(MapTileMapped.isMapped(level));
+
+        final MapTile loaded = createMap(MapTileGame.class);
+        loaded.getFeature(MapTilePersister.class).load(level);
+        assertMap(loaded);
+    }
+
+    /**
+     * Test the conversion from a stream level, and the source areas reading.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testConvert() throws IOException
+    {
+        final Media legacy = Medias.get(folder.newFile());
+        final Media level = Medias.get(folder.newFile());
+        UtilMapTilePersister.saveMap(map, legacy);
+        MapTileMapped.convert(legacy, level, CHUNK);
+
+        final MapTileMappedSource source = new MapTileMappedSource(level);
+        try
+        {
+            Assert.assertEquals(16, source.getTileWidth());
+            Assert.assertEquals(8, source.getTileHeight());
+            Assert.assertEquals(WIDTH, source.getInTileWidth());
+            Assert.assertEquals(HEIGHT, source.getInTileHeight());
+            Assert.assertEquals(CHUNK, source.getChunkSize());
+            Assert.assertNull(source.getSheetsConfig());
+
+            for (int ty = -2; ty < HEIGHT; ty += 5)
+            {
+                for (int tx = -3; tx < WIDTH; tx += 7)
+                {
+                    final int[] tiles = new int[11 * 6];
+                    source.load(tx, ty, 11, 6, tiles);
+                    for (int y = 0; y < 6; y++)
+                    {
+                        for (int x = 0; x < 11; x++)
+                        {
+                            final int packed = tiles[y * 11 + x];
+                            final int cx = tx + x;
+                            final int cy = ty + y;
+                            if (cx < 0 || cy < 0 || cx >= WIDTH || cy >= HEIGHT || !isDefined(cx, cy))
+                            {
+                                Assert.assertEquals(0, packed);
+                            }
+                            else
+                            {
+                                Assert.assertEquals(0, MapTilePacked.unpackSheet(packed));
+                                Assert.assertEquals(cy * WIDTH + cx, MapTilePacked.unpackNumber(packed));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        finally
+        {
+            source.close();
+        }
+    }
+
+    /**
+     * Test the empty chunks are not stored.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testEmptyChunks() throws IOException
+    {
+        final File file = folder.newFile();
+        MapTileMapped.save(map, Medias.get(file), CHUNK);
+
+        final int chunks = 9 * 3;
+        final int header = MapTileMapped.HEADER_SIZE + chunks * MapTileMapped.INT_SIZE;
+        Assert.assertEquals(header + (chunks - 1) * CHUNK * CHUNK * MapTileMapped.INT_SIZE, file.length());
+    }
+
+    /**
+     * Test the save and load with sheets configuration.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testConfig() throws IOException
+    {
+        final Media config = Medias.create("sheets.xml");
+
+        final Media level = Medias.get(folder.newFile());
+        final MapTile configured = new MapTileGame()
+        {
+            @Override
+            public Media getSheetsConfig()
+            {
+                return config;
+            }
+        };
+        configured.create(16, 8, 3, 3);
+        MapTileMapped.save(configured, level, CHUNK);
+
+        final MapTileMappedSource mapped = new MapTileMappedSource(level);
+        Assert.assertEquals(config, mapped.getSheetsConfig());
+        Assert.assertEquals(3, mapped.getInTileWidth());
+        mapped.close();
+    }
+
+    /**
+     * Test the source with an invalid level.
+     * 
+     * @throws IOException If error.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testInvalidLevel() throws IOException
+    {
+        final File file = folder.newFile();
+        final FileOutputStream output = new FileOutputStream(file);
+        try
+        {
+            output.write(new byte[MapTileMapped.HEADER_SIZE]);
+        }
+        finally
+        {
+            UtilStream.safeClose(output);
+        }
+        Assert.assertNull(new MapTileMappedSource(Medias.get(file)));
+    }
+
+    /**
+     * Test the source with a missing level.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testMissingLevel()
+    {
+        Assert.assertNull(new MapTileMappedSource(Medias.create("void")));
+    }
+
+    /**
+     * Test the constructor.
+     * 
+     * @throws Exception If error.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testConstructor() throws Exception
+    {
+        UtilTests.testPrivateConstructor(MapTileMapped.class);
+    }
+}
@@ -28,14 +28,19 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.drawable.SpriteTiled;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.map.MapTile;
 import com.b3dgs.lionengine.game.map.MapTileGame;
 import com.b3dgs.lionengine.game.map.TileSheetsConfig;
 import com.b3dgs.lionengine.game.tile.Tile;
+import com.b3dgs.lionengine.stream.FileWriting;
+import com.b3dgs.lionengine.stream.Stream;
 import com.b3dgs.lionengine.test.UtilTests;
+import com.b3dgs.lionengine.util.UtilStream;
 
 /**
  * Test the map tile default implementation.
@@ -109,6 +114,113 @@ public class MapTilePersisterModelTest
         Assert.assertTrue(file.delete());
     }
 
+    /**
+     * Test the save and load map from file with each encoding.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testSaveLoadEncoding() throws IOException
+    {
+        final MapTile map = UtilMapTilePersister.createMap();
+        final MapTilePersister persister = map.getFeature(MapTilePersister.class);
+        Assert.assertEquals(MapTileEncoding.TILES, persister.getEncoding());
+
+        for (final MapTileEncoding encoding : MapTileEncoding.values())
+        {
+            final Media level = Medias.get(folder.newFile());
+            persister.setEncoding(encoding);
+            UtilMapTilePersister.saveMap(map, level);
+            final MapTile mapLoaded = UtilMapTilePersister.loadMap(level);
+
+            Assert.assertEquals(map.getTileWidth(), mapLoaded.getTileWidth());
+            Assert.assertEquals(map.getTileHeight(), mapLoaded.getTileHeight());
+            Assert.assertEquals(map.getInTileWidth(), mapLoaded.getInTileWidth());
+            Assert.assertEquals(map.getInTileHeight(), mapLoaded.getInTileHeight());
+            Assert.assertEquals(map.getTilesNumber(), mapLoaded.getTilesNumber());
+            for (int x = 0; x < mapLoaded.getInTileWidth(); x++)
+            {
+                for (int y = 0; y < mapLoaded.getInTileHeight(); y++)
+                {
+                    Assert.assertEquals(map.getTile(x, y), mapLoaded.getTile(x, y));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test the run length encoding with long runs and many distinct tiles.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testRunLength() throws IOException
+    {
+        final Services services = new Services();
+        final MapTile map = services.create(MapTileGame.class);
+        map.addFeature(new MapTilePersisterModel());
+        map.prepareFeatures(services);
+        map.create(1, 1, 70000, 3);
+        map.loadSheets(new ArrayList<SpriteTiled>());
+
+        final Integer sheet = Integer.valueOf(0);
+        for (int x = 0; x < map.getInTileWidth(); x++)
+        {
+            map.setTile(map.createTile(sheet, 1, x, 0));
+            if (x % 2 == 0)
+            {
+                map.setTile(map.createTile(sheet, x % 300, x, 1));
+            }
+            map.setTile(map.createTile(sheet, x, x, 2));
+        }
+
+        final File file = folder.newFile();
+        final Media level = Medias.get(file);
+        map.getFeature(MapTilePersister.class).setEncoding(MapTileEncoding.RUN_LENGTH);
+        UtilMapTilePersister.saveMap(map, level);
+        final MapTile mapLoaded = UtilMapTilePersister.loadMap(level);
+
+        Assert.assertEquals(map.getTilesNumber(), mapLoaded.getTilesNumber());
+        for (int x = 0; x < map.getInTileWidth(); x++)
+        {
+            for (int y = 0; y < map.getInTileHeight(); y++)
+            {
+                Assert.assertEquals(map.getTile(x, y), mapLoaded.getTile(x, y));
+            }
+        }
+    }
+
+    /**
+     * Test the load with an unsupported encoding.
+     * 
+     * @throws IOException If error.
+     */
+    @Test(expected = IOException.class)
+    public void testInvalidEncoding() throws IOException
+    {
+        final Media level = Medias.get(folder.newFile());
+        final FileWriting output = Stream.createFileWriting(level);
+        try
+        {
+            output.writeInteger(-1);
+            output.writeByte((byte) MapTileEncoding.values().length);
+        }
+        finally
+        {
+            UtilStream.safeClose(output);
+        }
+        Assert.assertNull(UtilMapTilePersister.loadMap(level));
+    }
+
+    /**
+     * Test the encoding with <code>null</code> argument.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testEncodingNull()
+    {
+        UtilMapTilePersister.createMap().getFeature(MapTilePersister.class).setEncoding(null);
+    }
+
     /**
      * Test the save and load map from file with sheet config.
      * 
@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map.feature.persister;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.drawable.SpriteTiled;
+import com.b3dgs.lionengine.game.camera.Camera;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileChunked;
+import com.b3dgs.lionengine.game.map.MapTileGame;
+import com.b3dgs.lionengine.game.map.MapTilePacked;
+import com.b3dgs.lionengine.stream.FileWriting;
+import com.b3dgs.lionengine.stream.Stream;
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Test the map tile persister source.
+ */
+public class MapTilePersisterSourceTest
+{
+    /** Map width, on two blocs. */
+    private static final int WIDTH = MapTilePersisterModel.BLOC_SIZE + 44;
+    /** Map height. */
+    private static final int HEIGHT = 10;
+    /** Chunk size. */
+    private static final int CHUNK = 4;
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setResourcesDirectory(null);
+    }
+
+    /**
+     * Check if a tile is defined at location (holes in every fifth column, and at the top of even columns).
+     * 
+     * @param tx The horizontal location.
+     * @param ty The vertical location.
+     * @return <code>true</code> if defined, <code>false</code> else.
+     */
+    private static boolean isDefined(int tx, int ty)
+    {
+        return tx % 5 != 0 && (tx % 2 != 0 || ty < HEIGHT - 3);
+    }
+
+    /** Temp folder. */
+    @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+    private MapTile map;
+    private Media level;
+
+    /**
+     * Prepare test.
+     * 
+     * @throws IOException If error.
+     */
+    @Before
+    public void prepare() throws IOException
+    {
+        Medias.setResourcesDirectory(folder.getRoot().getAbsolutePath());
+
+        final Services services = new Services();
+        map = services.create(MapTileGame.class);
+        map.addFeature(new MapTilePersisterModel());
+        map.prepareFeatures(services);
+        map.create(16, 16, WIDTH, HEIGHT);
+        map.loadSheets(new ArrayList<SpriteTiled>());
+        for (int tx = 0; tx < WIDTH; tx++)
+        {
+            for (int ty = 0; ty < HEIGHT; ty++)
+            {
+                if (isDefined(tx, ty))
+                {
+                    map.setTile(map.createTile(Integer.valueOf(tx % 3), ty * WIDTH + tx, tx * 16.0, ty * 16.0));
+                }
+            }
+        }
+        level = Medias.get(folder.newFile());
+        UtilMapTilePersister.saveMap(map, level);
+    }
+
+    /**
+     * Save the map with an encoding.
+     * 
+     * @param encoding The tiles encoding.
+     * @return The saved level.
+     * @throws IOException If error.
+     */
+    private Media save(MapTileEncoding encoding) throws IOException
+    {
+        final Media encoded = Medias.get(folder.newFile());
+        map.getFeature(MapTilePersister.class).setEncoding(encoding);
+        UtilMapTilePersister.saveMap(map, encoded);
+        return encoded;
+    }
+
+    /**
+     * Test the source header and areas reading.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testLoad() throws IOException
+    {
+        checkLoad(level);
+    }
+
+    /**
+     * Test the source with the run length encodings.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testLoadRunLength() throws IOException
+    {
+        checkLoad(save(MapTileEncoding.RUN_LENGTH));
+        checkLoad(save(MapTileEncoding.RUN_LENGTH_DEFLATE));
+    }
+
+    /**
+     * Test the source with an unsupported encoding.
+     * 
+     * @throws IOException If error.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testUnsupportedEncoding() throws IOException
+    {
+        final Media encoded = Medias.get(folder.newFile());
+        FileWriting output = null;
+        try
+        {
+            output = Stream.createFileWriting(encoded);
+            output.writeInteger(MapTilePersisterModel.ENCODED);
+            output.writeByte((byte) MapTileEncoding.values().length);
+        }
+        finally
+        {
+            UtilStream.safeClose(output);
+        }
+        Assert.assertNull(new MapTilePersisterSource(encoded, CHUNK));
+    }
+
+    /**
+     * Check the source header and areas reading.
+     * 
+     * @param saved The level to read.
+     * @throws IOException If error.
+     */
+    private void checkLoad(Media saved) throws IOException
+    {
+        final MapTilePersisterSource source = new MapTilePersisterSource(saved, CHUNK);
+        try
+        {
+            Assert.assertEquals(16, source.getTileWidth());
+            Assert.assertEquals(16, source.getTileHeight());
+            Assert.assertEquals(WIDTH, source.getInTileWidth());
+            Assert.assertEquals(HEIGHT, source.getInTileHeight());
+            Assert.assertNull(source.getSheetsConfig());
+
+            for (int ty = -1; ty < HEIGHT; ty += 3)
+            {
+                for (int tx = -2; tx < WIDTH; tx += 7)
+                {
+                    final int[] tiles = new int[5 * 6];
+                    source.load(tx, ty, 5, 6, tiles);
+                    for (int y = 0; y < 6; y++)
+                    {
+                        for (int x = 0; x < 5; x++)
+                        {
+                            final int packed = tiles[y * 5 + x];
+                            final int cx = tx + x;
+                            final int cy = ty + y;
+                            if (cx < 0 || cy < 0 || cx >= WIDTH || cy >= HEIGHT || !isDefined(cx, cy))
+                            {
+                                Assert.assertEquals(0, packed);
+                            }
+                            else
+                            {
+                                Assert.assertEquals(cx % 3, MapTilePacked.unpackSheet(packed));
+                                Assert.assertEquals(cy * WIDTH + cx, MapTilePacked.unpackNumber(packed));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        finally
+        {
+            source.close();
+        }
+    }
+
+    /**
+     * Test the chunked map streaming from the source.
+     */
+    @Test
+    public void testChunked()
+    {
+        final Camera camera = new Camera();
+        camera.setView(0, 0, 64, 64, 64);
+        camera.teleport(MapTilePersisterModel.BLOC_SIZE * 16.0 - 32.0, 0.0);
+
+        final MapTileChunked chunked = new MapTileChunked(camera, CHUNK, 16);
+        chunked.load(new MapTilePersisterSource(level, CHUNK));
+        try
+        {
+            chunked.update(1.0);
+
+            final int tx = MapTilePersisterModel.BLOC_SIZE + 1;
+            Assert.assertTrue(chunked.isLoaded(tx, 2));
+            Assert.assertEquals(2 * WIDTH + tx, chunked.getTile(tx, 2).getNumber());
+            Assert.assertNull(chunked.getTile(tx + 1, HEIGHT - 1));
+            Assert.assertEquals(tx - 3, chunked.getTile(tx - 3, 0).getNumber());
+        }
+        finally
+        {
+            chunked.terminate();
+        }
+    }
+
+    /**
+     * Test the source with a missing level.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testMissingLevel()
+    {
+        Assert.assertNull(new MapTilePersisterSource(Medias.create("void"), CHUNK));
+    }
+}
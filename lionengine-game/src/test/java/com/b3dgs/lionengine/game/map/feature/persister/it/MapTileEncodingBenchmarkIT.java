@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map.feature.persister.it;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.drawable.SpriteTiled;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileGame;
+import com.b3dgs.lionengine.game.map.feature.persister.MapTileEncoding;
+import com.b3dgs.lionengine.game.map.feature.persister.MapTilePersister;
+import com.b3dgs.lionengine.game.map.feature.persister.MapTilePersisterModel;
+import com.b3dgs.lionengine.stream.FileReading;
+import com.b3dgs.lionengine.stream.FileWriting;
+import com.b3dgs.lionengine.stream.Stream;
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Benchmark the level size, save and load time, for each tiles encoding.
+ * <p>
+ * Maps are 2048x255, the largest full map height supported by {@link MapTileEncoding#TILES}: a uniform map, a mostly
+ * uniform map (5% of random tiles among 64), and a random map (4096 distinct tiles).
+ * </p>
+ */
+public class MapTileEncodingBenchmarkIT
+{
+    /** Map width in tile. */
+    private static final int WIDTH = 2048;
+    /** Map height in tile. */
+    private static final int HEIGHT = 255;
+    /** Number of runs. */
+    private static final int RUNS = 3;
+
+    /**
+     * Clean up benchmark.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setResourcesDirectory(null);
+    }
+
+    /**
+     * Create a map with persister.
+     * 
+     * @return The created map.
+     */
+    private static MapTile createMap()
+    {
+        final Services services = new Services();
+        final MapTile map = services.create(MapTileGame.class);
+        map.addFeature(new MapTilePersisterModel());
+        map.prepareFeatures(services);
+        return map;
+    }
+
+    /**
+     * Create a full map.
+     * 
+     * @param ratio The random tiles ratio.
+     * @param distinct The number of random distinct tiles.
+     * @return The created map.
+     */
+    private static MapTile createMap(double ratio, int distinct)
+    {
+        final MapTile map = createMap();
+        map.create(16, 16, WIDTH, HEIGHT);
+        map.loadSheets(new ArrayList<SpriteTiled>());
+        final Integer sheet = Integer.valueOf(0);
+        final Random random = new Random(1L);
+        for (int tx = 0; tx < WIDTH; tx++)
+        {
+            for (int ty = 0; ty < HEIGHT; ty++)
+            {
+                int number = 0;
+                if (random.nextDouble() < ratio)
+                {
+                    number = random.nextInt(distinct);
+                }
+                map.setTile(map.createTile(sheet, number, tx * 16.0, ty * 16.0));
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Save the map, and return the time.
+     * 
+     * @param map The map to save.
+     * @param level The output level.
+     * @return The time in milli seconds.
+     * @throws IOException If error.
+     */
+    private static double save(MapTile map, Media level) throws IOException
+    {
+        final long start = System.nanoTime();
+        final FileWriting output = Stream.createFileWriting(level);
+        try
+        {
+            map.getFeature(MapTilePersister.class).save(output);
+        }
+        finally
+        {
+            UtilStream.safeClose(output);
+        }
+        return (System.nanoTime() - start) / 1E6;
+    }
+
+    /**
+     * Load the level, and return the average time.
+     * 
+     * @param level The level to load.
+     * @return The average time in milli seconds.
+     * @throws IOException If error.
+     */
+    private static double load(Media level) throws IOException
+    {
+        long time = 0L;
+        for (int i = 0; i < RUNS; i++)
+        {
+            final MapTile map = createMap();
+            final long start = System.nanoTime();
+            final FileReading input = Stream.createFileReading(level);
+            try
+            {
+                map.getFeature(MapTilePersister.class).load(input);
+            }
+            finally
+            {
+                UtilStream.safeClose(input);
+            }
+            time += System.nanoTime() - start;
+            Assert.assertEquals(WIDTH * HEIGHT, map.getTilesNumber());
+        }
+        return time / 1E6 / RUNS;
+    }
+
+    /** Temp folder. */
+    @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Benchmark the encodings.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testBenchmark() throws IOException
+    {
+        Medias.setResourcesDirectory(folder.getRoot().getAbsolutePath());
+
+        final String[] names =
+        {
+            "uniform", "mostly uniform", "random"
+        };
+        final MapTile[] maps =
+        {
+            createMap(0.0, 1), createMap(0.05, 64), createMap(1.0, 4096)
+        };
+        for (int i = 0; i < maps.length; i++)
+        {
+            final MapTilePersister persister = maps[i].getFeature(MapTilePersister.class);
+            for (final MapTileEncoding encoding : MapTileEncoding.values())
+            {
+                final File file = folder.newFile();
+                final Media level = Medias.get(file);
+                persister.setEncoding(encoding);
+
+                // Warm up
+                save(maps[i], level);
+                load(level);
+
+                Verbose.info(String.format(Locale.ENGLISH,
+                                           "Level %dx%d %s, %s: %d bytes, saved in %.1f ms, loaded in %.1f ms",
+                                           Integer.valueOf(WIDTH),
+                                           Integer.valueOf(HEIGHT),
+                                           names[i],
+                                           encoding.name(),
+                                           Long.valueOf(file.length()),
+                                           Double.valueOf(save(maps[i], level)),
+                                           Double.valueOf(load(level))));
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map.feature.persister.it;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Locale;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.drawable.SpriteTiled;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileGame;
+import com.b3dgs.lionengine.game.map.MapTilePacked;
+import com.b3dgs.lionengine.game.map.feature.persister.MapTileMapped;
+import com.b3dgs.lionengine.game.map.feature.persister.MapTileMappedSource;
+import com.b3dgs.lionengine.game.map.feature.persister.MapTilePersister;
+import com.b3dgs.lionengine.game.map.feature.persister.MapTilePersisterModel;
+import com.b3dgs.lionengine.stream.FileReading;
+import com.b3dgs.lionengine.stream.FileWriting;
+import com.b3dgs.lionengine.stream.Stream;
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Benchmark the level loading, between the stream format and the mapped format.
+ * <p>
+ * The stream format counts tiles by 256 columns blocs on a short, so it can store a full map up to 255 tiles high
+ * only: formats are compared on a 2048x255 map, then the mapped format is measured alone on a 2048x2048 map.
+ * </p>
+ */
+public class MapTilePersisterBenchmarkIT
+{
+    /** Map width in tile. */
+    private static final int WIDTH = 2048;
+    /** Map height in tile for formats comparison. */
+    private static final int HEIGHT_STREAM = 255;
+    /** Map height in tile for mapped format. */
+    private static final int HEIGHT_MAPPED = 2048;
+    /** Area size in tile, for area reading. */
+    private static final int AREA = 64;
+    /** Number of runs. */
+    private static final int RUNS = 3;
+
+    /**
+     * Clean up benchmark.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setResourcesDirectory(null);
+    }
+
+    /**
+     * Create a map with persister.
+     * 
+     * @param type The map type.
+     * @return The created map.
+     */
+    private static MapTile createMap(Class<? extends MapTile> type)
+    {
+        final Services services = new Services();
+        final MapTile map = services.create(type);
+        map.addFeature(new MapTilePersisterModel());
+        map.prepareFeatures(services);
+        return map;
+    }
+
+    /**
+     * Create a full map.
+     * 
+     * @param type The map type.
+     * @param height The map height in tile.
+     * @return The created map.
+     */
+    private static MapTile createMap(Class<? extends MapTile> type, int height)
+    {
+        final MapTile map = createMap(type);
+        map.create(16, 16, WIDTH, height);
+        map.loadSheets(new ArrayList<SpriteTiled>());
+        final Integer sheet = Integer.valueOf(0);
+        for (int tx = 0; tx < WIDTH; tx++)
+        {
+            for (int ty = 0; ty < height; ty++)
+            {
+                map.setTile(map.createTile(sheet, (tx * 31 + ty * 17) % 256, tx * 16.0, ty * 16.0));
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Save the map with the stream format.
+     * 
+     * @param map The map to save.
+     * @param level The output level.
+     * @throws IOException If error.
+     */
+    private static void saveStream(MapTile map, Media level) throws IOException
+    {
+        final FileWriting output = Stream.createFileWriting(level);
+        try
+        {
+            map.getFeature(MapTilePersister.class).save(output);
+        }
+        finally
+        {
+            UtilStream.safeClose(output);
+        }
+    }
+
+    /**
+     * Load the level with the stream format, and return the average time.
+     * 
+     * @param level The level to load.
+     * @return The average time in milli seconds.
+     * @throws IOException If error.
+     */
+    private static double loadStream(Media level) throws IOException
+    {
+        long time = 0L;
+        for (int i = 0; i < RUNS; i++)
+        {
+            final MapTile map = createMap(MapTileGame.class);
+            final long start = System.nanoTime();
+            final FileReading input = Stream.createFileReading(level);
+            try
+            {
+                map.getFeature(MapTilePersister.class).load(input);
+            }
+            finally
+            {
+                UtilStream.safeClose(input);
+            }
+            time += System.nanoTime() - start;
+            Assert.assertEquals(map.getInTileWidth() * map.getInTileHeight(), map.getTilesNumber());
+        }
+        return time / 1E6 / RUNS;
+    }
+
+    /**
+     * Load the level with the mapped format, and return the average time.
+     * 
+     * @param type The loaded map type.
+     * @param level The level to load.
+     * @return The average time in milli seconds.
+     * @throws IOException If error.
+     */
+    private static double loadMapped(Class<? extends MapTile> type, Media level) throws IOException
+    {
+        long time = 0L;
+        for (int i = 0; i < RUNS; i++)
+        {
+            final MapTile map = createMap(type);
+            final long start = System.nanoTime();
+            map.getFeature(MapTilePersister.class).load(level);
+            time += System.nanoTime() - start;
+            Assert.assertEquals(map.getInTileWidth() * map.getInTileHeight(), map.getTilesNumber());
+        }
+        return time / 1E6 / RUNS;
+    }
+
+    /**
+     * Read areas across the mapped level, as done when streaming chunks, and return the average time.
+     * 
+     * @param level The level to read.
+     * @return The average time in micro seconds per area.
+     * @throws IOException If error.
+     */
+    private static double readAreas(Media level) throws IOException
+    {
+        final MapTileMappedSource source = new MapTileMappedSource(level);
+        final int[] tiles = new int[AREA * AREA];
+        int count = 0;
+        final long start = System.nanoTime();
+        for (int ty = 0; ty < source.getInTileHeight(); ty += AREA)
+        {
+            for (int tx = 0; tx < source.getInTileWidth(); tx += AREA)
+            {
+                source.load(tx, ty, AREA, AREA, tiles);
+                count++;
+            }
+        }
+        final long time = System.nanoTime() - start;
+        source.close();
+        return time / 1E3 / count;
+    }
+
+    /** Temp folder. */
+    @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Benchmark the formats.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testBenchmark() throws IOException
+    {
+        Medias.setResourcesDirectory(folder.getRoot().getAbsolutePath());
+
+        final File streamFile = folder.newFile();
+        final File convertedFile = folder.newFile();
+        final Media stream = Medias.get(streamFile);
+        final Media converted = Medias.get(convertedFile);
+        saveStream(createMap(MapTileGame.class, HEIGHT_STREAM), stream);
+
+        long start = System.nanoTime();
+        MapTileMapped.convert(stream, converted, MapTileMapped.DEFAULT_CHUNK_SIZE);
+        final double convertTime = (System.nanoTime() - start) / 1E6;
+
+        // Warm up
+        loadStream(stream);
+        loadMapped(MapTileGame.class, converted);
+        loadMapped(MapTilePacked.class, converted);
+
+        Verbose.info(String.format(Locale.ENGLISH,
+                                   "Level %dx%d: stream %d KB loaded in %.1f ms, converted in %.1f ms to mapped %d KB "
+                                                   + "loaded in %.1f ms (tiles map) and %.1f ms (packed map)",
+                                   Integer.valueOf(WIDTH),
+                                   Integer.valueOf(HEIGHT_STREAM),
+                                   Long.valueOf(streamFile.length() / 1024L),
+                                   Double.valueOf(loadStream(stream)),
+                                   Double.valueOf(convertTime),
+                                   Long.valueOf(convertedFile.length() / 1024L),
+                                   Double.valueOf(loadMapped(MapTileGame.class, converted)),
+                                   Double.valueOf(loadMapped(MapTilePacked.class, converted))));
+
+        final File mappedFile = folder.newFile();
+        final Media mapped = Medias.get(mappedFile);
+        start = System.nanoTime();
+        createMap(MapTilePacked.class, HEIGHT_MAPPED).getFeature(MapTilePersister.class).save(mapped);
+        final double saveTime = (System.nanoTime() - start) / 1E6;
+
+        loadMapped(MapTilePacked.class, mapped);
+        readAreas(mapped);
+
+        Verbose.info(String.format(Locale.ENGLISH,
+                                   "Level %dx%d: created and saved mapped %d KB in %.1f ms, loaded in %.1f ms (packed "
+                                                   + "map), %dx%d areas read in %.1f us/area",
+                                   Integer.valueOf(WIDTH),
+                                   Integer.valueOf(HEIGHT_MAPPED),
+                                   Long.valueOf(mappedFile.length() / 1024L),
+                                   Double.valueOf(saveTime),
+                                   Double.valueOf(loadMapped(MapTilePacked.class, mapped)),
+                                   Integer.valueOf(AREA),
+                                   Integer.valueOf(AREA),
+                                   Double.valueOf(readAreas(mapped))));
+    }
+}
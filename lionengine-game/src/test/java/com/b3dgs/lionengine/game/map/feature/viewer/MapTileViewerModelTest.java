@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map.feature.viewer;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.core.Graphics;
+import com.b3dgs.lionengine.game.camera.Camera;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileGame;
+import com.b3dgs.lionengine.game.map.MapTileRenderer;
+import com.b3dgs.lionengine.game.tile.Tile;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.ImageSurface;
+import com.b3dgs.lionengine.mock.FactoryGraphicMock;
+import com.b3dgs.lionengine.mock.GraphicMock;
+
+/**
+ * Test the map tile viewer model.
+ */
+public class MapTileViewerModelTest
+{
+    /** Tile size. */
+    private static final int TILE = 16;
+    /** Chunk size in tile. */
+    private static final int CHUNK = 8;
+    /** Map size in tile. */
+    private static final int SIZE = 64;
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Graphics.setFactoryGraphic(new FactoryGraphicMock());
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Graphics.setFactoryGraphic(null);
+    }
+
+    private final Services services = new Services();
+    private final Camera camera = services.add(new Camera());
+    private final MapTileGame map = services.add(new MapTileGame());
+    private final Graphic g = new Output();
+    private final Renderer renderer = new Renderer();
+    private int blits;
+
+    /**
+     * Prepare test.
+     */
+    @Before
+    public void prepare()
+    {
+        map.create(TILE, TILE, SIZE, SIZE);
+        for (int tx = 0; tx < SIZE; tx++)
+        {
+            for (int ty = 0; ty < SIZE; ty++)
+            {
+                map.setTile(map.createTile(Integer.valueOf(0), 0, tx * TILE, ty * TILE));
+            }
+        }
+        camera.setView(0, 0, CHUNK * TILE, CHUNK * TILE, CHUNK * TILE);
+        camera.teleport(0.0, 0.0);
+    }
+
+    /**
+     * Create a prepared viewer.
+     * 
+     * @param viewer The viewer to prepare.
+     * @return The prepared viewer.
+     */
+    private MapTileViewerModel create(MapTileViewerModel viewer)
+    {
+        viewer.addRenderer(renderer);
+        viewer.prepare(map, services);
+        return viewer;
+    }
+
+    /**
+     * Test the default viewer renders visible tiles on each frame.
+     */
+    @Test
+    public void testRenderTiles()
+    {
+        final MapTileViewerModel viewer = create(new MapTileViewerModel());
+        viewer.render(g);
+        final int rendered = renderer.count;
+        Assert.assertTrue(rendered > 0);
+
+        viewer.render(g);
+        Assert.assertEquals(rendered * 2, renderer.count);
+        Assert.assertEquals(0, viewer.getCachedChunks());
+        Assert.assertEquals(0, blits);
+    }
+
+    /**
+     * Test the cached viewer renders chunks once.
+     */
+    @Test
+    public void testRenderChunks()
+    {
+        final MapTileViewerModel viewer = create(new MapTileViewerModel(CHUNK));
+        viewer.render(g);
+
+        final int cached = viewer.getCachedChunks();
+        Assert.assertTrue(cached > 0);
+        Assert.assertEquals(cached * CHUNK * CHUNK, renderer.count);
+        Assert.assertEquals(cached, blits);
+
+        viewer.render(g);
+        Assert.assertEquals(cached * CHUNK * CHUNK, renderer.count);
+        Assert.assertEquals(cached * 2, blits);
+    }
+
+    /**
+     * Test the cached chunk is rendered again only when one of its tiles is set.
+     */
+    @Test
+    public void testSetTile()
+    {
+        final MapTileViewerModel viewer = create(new MapTileViewerModel(CHUNK));
+        viewer.render(g);
+        final int cached = viewer.getCachedChunks();
+        renderer.count = 0;
+
+        map.setTile(map.createTile(Integer.valueOf(0), 1, TILE, TILE));
+        Assert.assertEquals(cached - 1, viewer.getCachedChunks());
+
+        map.setTile(map.createTile(Integer.valueOf(0), 1, (SIZE - 1) * TILE, (SIZE - 1) * TILE));
+        Assert.assertEquals(cached - 1, viewer.getCachedChunks());
+
+        viewer.render(g);
+        Assert.assertEquals(cached, viewer.getCachedChunks());
+        Assert.assertEquals(CHUNK * CHUNK, renderer.count);
+
+        map.clear();
+        Assert.assertEquals(0, viewer.getCachedChunks());
+    }
+
+    /**
+     * Test the cached chunks are released when not visible anymore.
+     */
+    @Test
+    public void testRelease()
+    {
+        final MapTileViewerModel viewer = create(new MapTileViewerModel(CHUNK));
+        for (int i = 0; i < SIZE / CHUNK; i++)
+        {
+            camera.teleport(i * CHUNK * TILE, i * CHUNK * TILE);
+            viewer.render(g);
+        }
+        Assert.assertTrue(viewer.getCachedChunks() <= 2 * 4);
+
+        viewer.addRenderer(new Renderer());
+        Assert.assertEquals(0, viewer.getCachedChunks());
+    }
+
+    /**
+     * Test the viewer with a wrong chunk size.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testWrongChunkSize()
+    {
+        Assert.assertNotNull(new MapTileViewerModel(-1));
+    }
+
+    /**
+     * Counting renderer.
+     */
+    private static final class Renderer implements MapTileRenderer
+    {
+        /** Rendered tiles. */
+        private int count;
+
+        @Override
+        public void renderTile(Graphic g, MapTile map, Tile tile, int x, int y)
+        {
+            count++;
+        }
+    }
+
+    /**
+     * Graphic counting images drawing.
+     */
+    private final class Output extends GraphicMock
+    {
+        @Override
+        public void drawImage(ImageSurface image,
+                              int dx1,
+                              int dy1,
+                              int dx2,
+                              int dy2,
+                              int sx1,
+                              int sy1,
+                              int sx2,
+                              int sy2)
+        {
+            blits++;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.Collection;
+import java.util.HashSet;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.camera.Camera;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.map.MapTile;
+
+/**
+ * Test the flow fields.
+ */
+public class FlowFieldsTest
+{
+    /** Map size. */
+    private static final int SIZE = 32;
+    /** Destination horizontal tile. */
+    private static final int DTX = 20;
+    /** Destination vertical tile. */
+    private static final int DTY = 24;
+    /** Foreign object id. */
+    private static final Integer OBJECT = Integer.valueOf(-1);
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setLoadFromJar(UtilPathfinding.class);
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setLoadFromJar(null);
+    }
+
+    /** Services reference. */
+    private final Services services = new Services();
+    /** Map reference. */
+    private MapTile map;
+    /** Map path reference. */
+    private MapTilePath mapPath;
+    /** Mover reference. */
+    private Pathfindable mover;
+    /** Flow fields reference. */
+    private FlowFields flows;
+
+    /**
+     * Prepare test.
+     */
+    @Before
+    public void prepare()
+    {
+        services.add(new Camera());
+        map = UtilPathfinding.createMap(services, SIZE, 0.2, 0L);
+        mapPath = map.getFeature(MapTilePath.class);
+        flows = services.add(new FlowFields(services));
+        mover = UtilPathfinding.createMover(services).getFeature(Pathfindable.class);
+        setTile(DTX, DTY, UtilPathfinding.GROUND);
+    }
+
+    /**
+     * Set a tile and update its path data.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @param number The tile number.
+     */
+    private void setTile(int tx, int ty, int number)
+    {
+        final double x = tx * (double) UtilPathfinding.TILE;
+        final double y = ty * (double) UtilPathfinding.TILE;
+        map.setTile(map.createTile(Integer.valueOf(0), number, x, y));
+        mapPath.updateTile(tx, ty);
+    }
+
+    /**
+     * Check the field has the same costs as a newly computed one.
+     * 
+     * @param field The field to check.
+     */
+    private void assertCosts(FlowField field)
+    {
+        final Collection<Integer> followers = new HashSet<Integer>();
+        final FlowField expected = new FlowField(map, mover, followers, DTX, DTY);
+        for (int tx = 0; tx < SIZE; tx++)
+        {
+            for (int ty = 0; ty < SIZE; ty++)
+            {
+                Assert.assertEquals(expected.getCost(tx, ty), field.getCost(tx, ty), 0.0);
+            }
+        }
+    }
+
+    /**
+     * Test the field is reachable where the path finder finds a path, not longer, and its direction leads to
+     * destination.
+     */
+    @Test
+    public void testField()
+    {
+        final FlowField field = flows.getField(mover, DTX, DTY);
+        final Heuristic heuristic = Astar.createHeuristicClosest();
+        final PathFinderImpl pathfinder = new PathFinderImpl(map, map.getInTileRadius(), heuristic);
+        Assert.assertSame(field, flows.getField(mover, DTX, DTY));
+        Assert.assertEquals(1, flows.getFieldsCount());
+        Assert.assertEquals(0.0, field.getCost(DTX, DTY), 0.0);
+        Assert.assertNull(field.getNext(DTX, DTY));
+
+        int reachable = 0;
+        for (int tx = 0; tx < SIZE; tx++)
+        {
+            for (int ty = 0; ty < SIZE; ty++)
+            {
+                if (!mapPath.isBlocked(mover, tx, ty, true) && (tx != DTX || ty != DTY))
+                {
+                    final Path path = pathfinder.findPath(mover, tx, ty, DTX, DTY, true);
+                    Assert.assertEquals(path != null, field.isReachable(tx, ty));
+                    if (path != null)
+                    {
+                        Assert.assertTrue(field.getCost(tx, ty) <= path.getLength() - 1);
+
+                        final CoordTile next = field.getNext(tx, ty);
+                        Assert.assertTrue(Math.abs(next.getX() - tx) <= 1 && Math.abs(next.getY() - ty) <= 1);
+                        Assert.assertTrue(field.getCost(next.getX(), next.getY()) < field.getCost(tx, ty));
+                        reachable++;
+                    }
+                }
+            }
+        }
+        Assert.assertTrue(reachable > 0);
+
+        flows.clear();
+        Assert.assertEquals(0, flows.getFieldsCount());
+    }
+
+    /**
+     * Test the field is repaired when objects and tiles change.
+     */
+    @Test
+    public void testRepair()
+    {
+        final FlowField field = flows.getField(mover, DTX, DTY);
+        for (int tx = DTX - 6; tx < DTX + 6; tx++)
+        {
+            mapPath.addObjectId(tx, DTY - 2, OBJECT);
+        }
+        assertCosts(field);
+
+        setTile(DTX - 3, DTY + 2, UtilPathfinding.TREE);
+        setTile(DTX + 1, DTY - 6, UtilPathfinding.GROUND);
+        assertCosts(field);
+
+        for (int tx = DTX - 6; tx < DTX + 6; tx++)
+        {
+            mapPath.removeObjectId(tx, DTY - 2, OBJECT);
+        }
+        assertCosts(field);
+    }
+
+    /**
+     * Test the mover follows the field until destination, and releases it.
+     */
+    @Test
+    public void testFollow()
+    {
+        final FlowField field = flows.getField(mover, DTX, DTY);
+        int stx = 0;
+        int sty = 0;
+        while (!field.isReachable(stx, sty) || stx == DTX && sty == DTY)
+        {
+            stx++;
+        }
+        mover.setLocation(stx, sty);
+        flows.clear();
+
+        Assert.assertTrue(mover.setDestinationFlow(DTX, DTY));
+        Assert.assertEquals(1, flows.getFieldsCount());
+
+        for (int i = 0; i < 10000 && !mover.isDestinationReached(); i++)
+        {
+            mover.update(1.0);
+        }
+        Assert.assertTrue(mover.isDestinationReached());
+        Assert.assertEquals(DTX, mover.getInTileX());
+        Assert.assertEquals(DTY, mover.getInTileY());
+        Assert.assertEquals(0, flows.getFieldsCount());
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.io.IOException;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.camera.Camera;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.map.MapTileChunkSource;
+import com.b3dgs.lionengine.game.map.MapTileChunked;
+import com.b3dgs.lionengine.game.map.MapTilePacked;
+import com.b3dgs.lionengine.game.map.feature.group.MapTileGroup;
+import com.b3dgs.lionengine.game.map.feature.group.MapTileGroupModel;
+
+/**
+ * Test the map tile path model.
+ */
+public class MapTilePathModelTest
+{
+    /** Chunk size in tile. */
+    private static final int CHUNK = 4;
+    /** Map size in tile. */
+    private static final int SIZE = 16;
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setLoadFromJar(UtilPathfinding.class);
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setLoadFromJar(null);
+    }
+
+    /**
+     * Test the chunk holding an object id is kept loaded, and is unloaded and reloaded once the object id removed.
+     */
+    @Test
+    public void testChunkedObjectId()
+    {
+        final Camera camera = new Camera();
+        camera.setView(0, 0, CHUNK * UtilPathfinding.TILE, CHUNK * UtilPathfinding.TILE, CHUNK * UtilPathfinding.TILE);
+        camera.teleport(0.0, 0.0);
+
+        final Services services = new Services();
+        final MapTileChunked map = services.add(new MapTileChunked(camera, CHUNK, 1));
+        final MapTileGroup mapGroup = map.addFeatureAndGet(new MapTileGroupModel());
+        final MapTilePath mapPath = map.addFeatureAndGet(new MapTilePathModel());
+        map.prepareFeatures(services);
+        map.load(new Source());
+        mapGroup.loadGroups(Medias.create("it", "groups.xml"));
+        mapPath.loadPathfinding(Medias.create("it", "pathfinding.xml"));
+        try
+        {
+            map.update(1.0);
+            final Integer id = Integer.valueOf(1);
+            mapPath.addObjectId(1, 1, id);
+
+            camera.teleport(SIZE * UtilPathfinding.TILE, SIZE * UtilPathfinding.TILE);
+            map.update(1.0);
+
+            Assert.assertTrue(map.isLoaded(1, 1));
+            Assert.assertFalse(map.isLoaded(CHUNK, 0));
+            Assert.assertTrue(mapPath.getObjectsId(1, 1).contains(id));
+
+            mapPath.removeObjectId(1, 1, id);
+            map.update(1.0);
+
+            Assert.assertFalse(map.isLoaded(1, 1));
+            Assert.assertNull(map.getTile(1, 1));
+
+            map.loadChunk(1, 1);
+
+            Assert.assertTrue(map.getTile(1, 1).hasFeature(TilePath.class));
+            Assert.assertTrue(mapPath.getObjectsId(1, 1).isEmpty());
+            mapPath.addObjectId(1, 1, id);
+            Assert.assertTrue(mapPath.getObjectsId(1, 1).contains(id));
+        }
+        finally
+        {
+            map.terminate();
+        }
+    }
+
+    /**
+     * Memory source, made of ground tiles.
+     */
+    private static final class Source implements MapTileChunkSource
+    {
+        /**
+         * Create source.
+         */
+        Source()
+        {
+            super();
+        }
+
+        @Override
+        public int getTileWidth()
+        {
+            return UtilPathfinding.TILE;
+        }
+
+        @Override
+        public int getTileHeight()
+        {
+            return UtilPathfinding.TILE;
+        }
+
+        @Override
+        public int getInTileWidth()
+        {
+            return SIZE;
+        }
+
+        @Override
+        public int getInTileHeight()
+        {
+            return SIZE;
+        }
+
+        @Override
+        public Media getSheetsConfig()
+        {
+            return null;
+        }
+
+        @Override
+        public void load(int tx, int ty, int width, int height, int[] tiles) throws IOException
+        {
+            for (int y = 0; y < height; y++)
+            {
+                for (int x = 0; x < width; x++)
+                {
+                    if (tx + x < SIZE && ty + y < SIZE)
+                    {
+                        tiles[y * width + x] = MapTilePacked.pack(0, UtilPathfinding.GROUND);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            // Nothing to do
+        }
+    }
+}
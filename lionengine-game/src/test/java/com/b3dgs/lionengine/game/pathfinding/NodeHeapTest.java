@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the node heap class.
+ */
+public class NodeHeapTest
+{
+    /**
+     * Create a node with cost.
+     * 
+     * @param x The location x.
+     * @param cost The node cost.
+     * @return The created node.
+     */
+    private static Node create(int x, double cost)
+    {
+        final Node node = new Node(x, 0);
+        node.setCost(cost);
+        node.visit(1);
+        return node;
+    }
+
+    /**
+     * Test the heap ordering.
+     */
+    @Test
+    public void testOrder()
+    {
+        final NodeHeap heap = new NodeHeap(4);
+        final Node node1 = create(1, 3.0);
+        final Node node2 = create(2, 1.0);
+        final Node node3 = create(3, 2.0);
+        final Node node4 = create(4, 1.0);
+
+        heap.add(node1);
+        heap.add(node2);
+        heap.add(node3);
+        heap.add(node4);
+
+        Assert.assertEquals(4, heap.size());
+        Assert.assertTrue(node1.isOpen(1));
+        Assert.assertFalse(node1.isOpen(2));
+
+        Assert.assertEquals(node2, heap.first());
+        Assert.assertEquals(node2, heap.poll());
+        Assert.assertFalse(node2.isOpen(1));
+        Assert.assertEquals(node4, heap.poll());
+        Assert.assertEquals(node3, heap.poll());
+        Assert.assertEquals(node1, heap.poll());
+        Assert.assertEquals(0, heap.size());
+    }
+
+    /**
+     * Test the heap decrease key.
+     */
+    @Test
+    public void testDecrease()
+    {
+        final NodeHeap heap = new NodeHeap(3);
+        final Node node1 = create(1, 1.0);
+        final Node node2 = create(2, 2.0);
+        final Node node3 = create(3, 3.0);
+
+        heap.add(node1);
+        heap.add(node2);
+        heap.add(node3);
+
+        node3.setCost(1.0);
+        heap.decrease(node3);
+
+        Assert.assertEquals(node1, heap.poll());
+        Assert.assertEquals(node3, heap.poll());
+        Assert.assertEquals(node2, heap.poll());
+    }
+
+    /**
+     * Test the heap remove and clear.
+     */
+    @Test
+    public void testRemove()
+    {
+        final NodeHeap heap = new NodeHeap(3);
+        final Node node1 = create(1, 1.0);
+        final Node node2 = create(2, 2.0);
+        final Node node3 = create(3, 3.0);
+
+        heap.add(node1);
+        heap.add(node2);
+        heap.add(node3);
+        heap.remove(node2);
+
+        Assert.assertFalse(node2.isOpen(1));
+        Assert.assertEquals(2, heap.size());
+        Assert.assertEquals(node1, heap.poll());
+        Assert.assertEquals(node3, heap.poll());
+
+        heap.add(node2);
+        heap.clear();
+
+        Assert.assertEquals(0, heap.size());
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.camera.Camera;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.map.MapTile;
+
+/**
+ * Test the hierarchical path finder.
+ */
+public class PathFinderHierarchicalTest
+{
+    /** Map size. */
+    private static final int SIZE = 64;
+    /** Cluster size. */
+    private static final int CLUSTER = 8;
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setLoadFromJar(UtilPathfinding.class);
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setLoadFromJar(null);
+    }
+
+    /**
+     * Refine the path until complete.
+     * 
+     * @param path The path to refine.
+     * @return The complete path.
+     */
+    private static Path complete(Path path)
+    {
+        while (!path.isComplete())
+        {
+            path.refine();
+        }
+        return path;
+    }
+
+    /** Services reference. */
+    private final Services services = new Services();
+    /** Map reference. */
+    private MapTile map;
+    /** Map path reference. */
+    private MapTilePath mapPath;
+    /** Mover reference. */
+    private Pathfindable mover;
+
+    /**
+     * Prepare test.
+     */
+    @Before
+    public void prepare()
+    {
+        services.add(new Camera());
+        map = UtilPathfinding.createMap(services, SIZE, 0.2, 0L);
+        mapPath = map.getFeature(MapTilePath.class);
+        mover = UtilPathfinding.createMover(services).getFeature(Pathfindable.class);
+    }
+
+    /**
+     * Set a tile and update its path data.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @param number The tile number.
+     */
+    private void setTile(int tx, int ty, int number)
+    {
+        final double x = tx * (double) UtilPathfinding.TILE;
+        final double y = ty * (double) UtilPathfinding.TILE;
+        map.setTile(map.createTile(Integer.valueOf(0), number, x, y));
+        mapPath.updateTile(tx, ty);
+    }
+
+    /**
+     * Check path steps are adjacent and free, from start to destination.
+     * 
+     * @param path The path to check.
+     * @param stx The x coordinate of the start location.
+     * @param sty The y coordinate of the start location.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     */
+    private void assertPath(Path path, int stx, int sty, int dtx, int dty)
+    {
+        Assert.assertEquals(stx, path.getX(0));
+        Assert.assertEquals(sty, path.getY(0));
+        Assert.assertEquals(dtx, path.getX(path.getLength() - 1));
+        Assert.assertEquals(dty, path.getY(path.getLength() - 1));
+        for (int i = 1; i < path.getLength(); i++)
+        {
+            Assert.assertTrue(Math.abs(path.getX(i) - path.getX(i - 1)) <= 1);
+            Assert.assertTrue(Math.abs(path.getY(i) - path.getY(i - 1)) <= 1);
+            Assert.assertFalse(mapPath.isBlocked(mover, path.getX(i), path.getY(i), true));
+        }
+    }
+
+    /**
+     * Test the constructor with invalid cluster size.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testInvalidCluster()
+    {
+        Assert.assertNotNull(Astar.createPathFinderHierarchical(map, 1, Astar.createHeuristicClosest()));
+    }
+
+    /**
+     * Test paths are found when the tiles path finder finds one, and are valid.
+     */
+    @Test
+    public void testFindPath()
+    {
+        final Heuristic heuristic = Astar.createHeuristicClosest();
+        final PathFinderHierarchical hierarchical = new PathFinderHierarchical(map, CLUSTER, heuristic);
+        final PathFinderImpl pathfinder = new PathFinderImpl(map, map.getInTileRadius(), heuristic);
+        final Random random = new Random(1L);
+
+        int found = 0;
+        for (int i = 0; i < 50; i++)
+        {
+            final int stx = random.nextInt(SIZE);
+            final int sty = random.nextInt(SIZE);
+            final int dtx = random.nextInt(SIZE);
+            final int dty = random.nextInt(SIZE);
+            if (!mapPath.isBlocked(mover, stx, sty, true) && !mapPath.isBlocked(mover, dtx, dty, true))
+            {
+                final Path expected = pathfinder.findPath(mover, stx, sty, dtx, dty, true);
+                final Path path = hierarchical.findPath(mover, stx, sty, dtx, dty, true);
+                if (expected == null)
+                {
+                    Assert.assertNull(path);
+                }
+                else
+                {
+                    assertPath(complete(path), stx, sty, dtx, dty);
+                    Assert.assertTrue(path.getLength() <= expected.getLength() * 1.5);
+                    found++;
+                }
+            }
+        }
+        Assert.assertTrue(found > 0);
+    }
+
+    /**
+     * Test long path is partial, and short path is complete.
+     */
+    @Test
+    public void testPartial()
+    {
+        for (int tx = 0; tx < SIZE; tx++)
+        {
+            for (int ty = 0; ty < SIZE; ty++)
+            {
+                setTile(tx, ty, UtilPathfinding.GROUND);
+            }
+        }
+        final PathFinder hierarchical;
+        hierarchical = Astar.createPathFinderHierarchical(map, CLUSTER, Astar.createHeuristicClosest());
+
+        final Path near = hierarchical.findPath(mover, CLUSTER, CLUSTER, true);
+        Assert.assertTrue(near.isComplete());
+        Assert.assertEquals(CLUSTER + 1, near.getLength());
+
+        final Path far = hierarchical.findPath(mover, SIZE - 1, SIZE - 1, true);
+        Assert.assertFalse(far.isComplete());
+        Assert.assertTrue(far.getLength() < SIZE);
+
+        // Abstract path goes through entrances, near the diagonal
+        assertPath(complete(far), 0, 0, SIZE - 1, SIZE - 1);
+        Assert.assertTrue(far.getLength() <= SIZE * 1.2);
+    }
+
+    /**
+     * Test updated tiles invalidate the graph.
+     */
+    @Test
+    public void testUpdateTile()
+    {
+        for (int tx = 0; tx < SIZE; tx++)
+        {
+            for (int ty = 0; ty < SIZE; ty++)
+            {
+                setTile(tx, ty, UtilPathfinding.GROUND);
+            }
+        }
+        final PathFinder hierarchical;
+        hierarchical = Astar.createPathFinderHierarchical(map, CLUSTER, Astar.createHeuristicClosest());
+        Assert.assertNotNull(hierarchical.findPath(mover, SIZE - 1, SIZE - 1, true));
+
+        // Wall across the map
+        for (int ty = 0; ty < SIZE; ty++)
+        {
+            setTile(SIZE / 2 + 3, ty, UtilPathfinding.TREE);
+        }
+        Assert.assertNull(hierarchical.findPath(mover, SIZE - 1, SIZE - 1, true));
+
+        // Hole in the wall
+        setTile(SIZE / 2 + 3, SIZE - 5, UtilPathfinding.GROUND);
+        final Path path = hierarchical.findPath(mover, SIZE - 1, SIZE - 1, true);
+        assertPath(complete(path), 0, 0, SIZE - 1, SIZE - 1);
+        Assert.assertTrue(path.contains(SIZE / 2 + 3, SIZE - 5));
+    }
+
+    /**
+     * Test static objects block the graph, and are released once removed.
+     */
+    @Test
+    public void testStaticBlockers()
+    {
+        for (int tx = 0; tx < SIZE; tx++)
+        {
+            for (int ty = 0; ty < SIZE; ty++)
+            {
+                setTile(tx, ty, UtilPathfinding.GROUND);
+            }
+        }
+        // Wall across the map, with a hole
+        for (int ty = 0; ty < SIZE; ty++)
+        {
+            setTile(SIZE / 2 + 3, ty, UtilPathfinding.TREE);
+        }
+        setTile(SIZE / 2 + 3, SIZE - 5, UtilPathfinding.GROUND);
+
+        final PathFinder hierarchical;
+        hierarchical = Astar.createPathFinderHierarchical(map, CLUSTER, Astar.createHeuristicClosest());
+        Assert.assertNotNull(hierarchical.findPath(mover, SIZE - 1, SIZE - 1, false));
+
+        // Building placed in the hole
+        final Integer id = Integer.valueOf(1);
+        mapPath.addObjectId(SIZE / 2 + 3, SIZE - 5, id);
+        Assert.assertNull(hierarchical.findPath(mover, SIZE - 1, SIZE - 1, false));
+
+        mapPath.removeObjectId(SIZE / 2 + 3, SIZE - 5, id);
+        final Path path = hierarchical.findPath(mover, SIZE - 1, SIZE - 1, false);
+        assertPath(complete(path), 0, 0, SIZE - 1, SIZE - 1);
+        Assert.assertTrue(path.contains(SIZE / 2 + 3, SIZE - 5));
+
+        // Removed id is moving, only considered on tiles
+        mapPath.addObjectId(SIZE / 2 + 3, SIZE - 5, id);
+        Assert.assertNotNull(hierarchical.findPath(mover, SIZE - 1, SIZE - 1, false));
+        mapPath.removeObjectId(SIZE / 2 + 3, SIZE - 5, id);
+    }
+
+    /**
+     * Test path found by a copy is refined by the path finder it is bound to.
+     */
+    @Test
+    public void testBind()
+    {
+        for (int tx = 0; tx < SIZE; tx++)
+        {
+            for (int ty = 0; ty < SIZE; ty++)
+            {
+                setTile(tx, ty, UtilPathfinding.GROUND);
+            }
+        }
+        final PathFinderHierarchical hierarchical;
+        hierarchical = new PathFinderHierarchical(map, CLUSTER, Astar.createHeuristicClosest());
+        final PathSearcher copy = hierarchical.copy();
+
+        final Path path = copy.findPath(mover, 0, 0, SIZE - 1, SIZE - 1, true);
+        Assert.assertFalse(path.isComplete());
+        copy.release();
+
+        path.bind(hierarchical);
+        assertPath(complete(path), 0, 0, SIZE - 1, SIZE - 1);
+    }
+
+    /**
+     * Test too many queued changes reload the pathfinding on next search.
+     */
+    @Test
+    public void testManyChanges()
+    {
+        for (int tx = 0; tx < SIZE; tx++)
+        {
+            for (int ty = 0; ty < SIZE; ty++)
+            {
+                setTile(tx, ty, UtilPathfinding.GROUND);
+            }
+        }
+        final PathFinder hierarchical;
+        hierarchical = Astar.createPathFinderHierarchical(map, CLUSTER, Astar.createHeuristicClosest());
+        Assert.assertNotNull(hierarchical.findPath(mover, SIZE - 1, SIZE - 1, true));
+
+        for (int i = 0; i < 10000; i++)
+        {
+            setTile(SIZE / 2 + 3, i % SIZE, UtilPathfinding.TREE);
+        }
+        Assert.assertNull(hierarchical.findPath(mover, SIZE - 1, SIZE - 1, true));
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.camera.Camera;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.handler.Handler;
+import com.b3dgs.lionengine.game.map.MapTile;
+
+/**
+ * Test the path query service.
+ */
+public class PathQueryServiceTest
+{
+    /** Map size. */
+    private static final int SIZE = 16;
+    /** Delivery timeout in milli seconds. */
+    private static final long TIMEOUT = 5000L;
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setLoadFromJar(UtilPathfinding.class);
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setLoadFromJar(null);
+    }
+
+    /**
+     * Create a listener storing the path found.
+     * 
+     * @param found The path found reference.
+     * @return The created listener.
+     */
+    private static PathQueryListener createListener(final AtomicReference<Path> found)
+    {
+        return new PathQueryListener()
+        {
+            @Override
+            public void notifyPathFound(Path path)
+            {
+                found.set(path);
+            }
+        };
+    }
+
+    /** Services reference. */
+    private final Services services = new Services();
+    /** Map reference. */
+    private MapTile map;
+    /** Service reference. */
+    private PathQueryService service;
+
+    /**
+     * Prepare test.
+     */
+    @Before
+    public void prepare()
+    {
+        services.add(new Camera());
+        map = UtilPathfinding.createMap(services, SIZE, 0.0, 0L);
+        service = services.add(new PathQueryService(services, 1));
+    }
+
+    /**
+     * Clean test.
+     */
+    @After
+    public void clean()
+    {
+        service.terminate();
+    }
+
+    /**
+     * Replace the service by a new one, created with the current services.
+     */
+    private void recreate()
+    {
+        service.terminate();
+        service = new PathQueryService(services, 1);
+    }
+
+    /**
+     * Update service until mover request is delivered.
+     * 
+     * @param mover The mover reference.
+     * @throws InterruptedException If interrupted.
+     */
+    private void waitDelivery(Pathfindable mover) throws InterruptedException
+    {
+        final long start = System.currentTimeMillis();
+        service.update(1.0, null);
+        while (service.isRequested(mover))
+        {
+            Assert.assertTrue(System.currentTimeMillis() - start < TIMEOUT);
+            Thread.sleep(1L);
+            service.update(1.0, null);
+        }
+    }
+
+    /**
+     * Test the request delivery, same as direct path finder.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testRequest() throws InterruptedException
+    {
+        final Pathfindable mover = UtilPathfinding.createMover(services).getFeature(Pathfindable.class);
+        final AtomicReference<Path> found = new AtomicReference<Path>();
+
+        service.request(mover, 5, 8, false, createListener(found));
+        Assert.assertTrue(service.isRequested(mover));
+        Assert.assertNull(found.get());
+
+        waitDelivery(mover);
+
+        final PathFinder pathfinder = Astar.createPathFinder(map, SIZE * 2, Astar.createHeuristicClosest());
+        final Path expected = pathfinder.findPath(mover, 5, 8, false);
+
+        Assert.assertNotNull(found.get());
+        Assert.assertEquals(expected.getLength(), found.get().getLength());
+        Assert.assertEquals(5, found.get().getX(found.get().getLength() - 1));
+        Assert.assertEquals(8, found.get().getY(found.get().getLength() - 1));
+    }
+
+    /**
+     * Test only the last request of a mover is delivered.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testReplace() throws InterruptedException
+    {
+        final Pathfindable mover = UtilPathfinding.createMover(services).getFeature(Pathfindable.class);
+        final AtomicReference<Path> first = new AtomicReference<Path>();
+        final AtomicReference<Path> second = new AtomicReference<Path>();
+
+        service.request(mover, 5, 5, false, createListener(first));
+        service.update(1.0, null);
+        service.request(mover, 3, 2, false, createListener(second));
+
+        waitDelivery(mover);
+
+        Assert.assertNull(first.get());
+        Assert.assertNotNull(second.get());
+        Assert.assertEquals(3, second.get().getX(second.get().getLength() - 1));
+    }
+
+    /**
+     * Test cancelled request is not delivered.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testCancel() throws InterruptedException
+    {
+        final Pathfindable mover = UtilPathfinding.createMover(services).getFeature(Pathfindable.class);
+        final AtomicReference<Path> found = new AtomicReference<Path>();
+
+        service.request(mover, 5, 5, false, createListener(found));
+        service.update(1.0, null);
+        service.cancel(mover);
+
+        Assert.assertFalse(service.isRequested(mover));
+
+        Thread.sleep(50L);
+        service.update(1.0, null);
+
+        Assert.assertNull(found.get());
+    }
+
+    /**
+     * Test the pathfindable uses the service when available.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testPathfindable() throws InterruptedException
+    {
+        final Pathfindable mover = UtilPathfinding.createMover(services).getFeature(Pathfindable.class);
+
+        Assert.assertTrue(mover.setDestination(4, 4));
+        Assert.assertTrue(service.isRequested(mover));
+        Assert.assertFalse(mover.isMoving());
+
+        waitDelivery(mover);
+        mover.update(1.0);
+
+        Assert.assertTrue(mover.isMoving());
+    }
+
+    /**
+     * Test the workers use the heuristic found in services.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testServicesHeuristic() throws InterruptedException
+    {
+        final AtomicInteger count = new AtomicInteger();
+        services.add(new Heuristic()
+        {
+            @Override
+            public double getCost(int stx, int sty, int dtx, int dty)
+            {
+                count.incrementAndGet();
+                return 0.0;
+            }
+        });
+        recreate();
+
+        final Pathfindable mover = UtilPathfinding.createMover(services).getFeature(Pathfindable.class);
+        final AtomicReference<Path> found = new AtomicReference<Path>();
+        service.request(mover, 5, 8, false, createListener(found));
+        waitDelivery(mover);
+
+        Assert.assertNotNull(found.get());
+        Assert.assertTrue(count.get() > 0);
+    }
+
+    /**
+     * Test the workers use a copy of the path finder found in services.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testServicesPathFinder() throws InterruptedException
+    {
+        final Heuristic heuristic = Astar.createHeuristicClosest();
+        final PathFinder hierarchical = services.add(Astar.createPathFinderHierarchical(map, 4, heuristic));
+        recreate();
+
+        final Pathfindable mover = UtilPathfinding.createMover(services).getFeature(Pathfindable.class);
+        final AtomicReference<Path> found = new AtomicReference<Path>();
+        service.request(mover, 15, 15, false, createListener(found));
+        waitDelivery(mover);
+
+        final Path expected = hierarchical.findPath(mover, 15, 15, false);
+
+        Assert.assertNotNull(found.get());
+        Assert.assertFalse(expected.isComplete());
+        Assert.assertFalse(found.get().isComplete());
+        Assert.assertEquals(expected.getLength(), found.get().getLength());
+        while (!found.get().isComplete())
+        {
+            found.get().refine();
+        }
+        Assert.assertEquals(15, found.get().getX(found.get().getLength() - 1));
+        Assert.assertEquals(15, found.get().getY(found.get().getLength() - 1));
+    }
+
+    /**
+     * Test the equivalent queries share the path found, each mover refining its own copy.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testShared() throws InterruptedException
+    {
+        services.add(Astar.createPathFinderHierarchical(map, 4, Astar.createHeuristicClosest()));
+        recreate();
+
+        final Pathfindable mover1 = UtilPathfinding.createMover(services).getFeature(Pathfindable.class);
+        final Pathfindable mover2 = UtilPathfinding.createMover(services).getFeature(Pathfindable.class);
+        final AtomicReference<Path> found1 = new AtomicReference<Path>();
+        final AtomicReference<Path> found2 = new AtomicReference<Path>();
+        service.request(mover1, 15, 15, true, createListener(found1));
+        service.request(mover2, 15, 15, true, createListener(found2));
+        waitDelivery(mover1);
+        waitDelivery(mover2);
+
+        final Path path1 = found1.get();
+        final Path path2 = found2.get();
+        Assert.assertNotNull(path1);
+        Assert.assertNotNull(path2);
+        Assert.assertNotSame(path1, path2);
+        Assert.assertEquals(path1.getLength(), path2.getLength());
+
+        final int length = path2.getLength();
+        while (!path1.isComplete())
+        {
+            path1.refine();
+        }
+        Assert.assertEquals(length, path2.getLength());
+        Assert.assertFalse(path2.isComplete());
+
+        while (!path2.isComplete())
+        {
+            path2.refine();
+        }
+        Assert.assertEquals(path1.getLength(), path2.getLength());
+        Assert.assertEquals(15, path2.getX(path2.getLength() - 1));
+        Assert.assertEquals(15, path2.getY(path2.getLength() - 1));
+    }
+
+    /**
+     * Test the pathfindable searches directly with a path finder which can not be copied by workers.
+     */
+    @Test
+    public void testServicesPathFinderCustom()
+    {
+        final AtomicInteger count = new AtomicInteger();
+        services.add(new PathFinder()
+        {
+            @Override
+            public Path findPath(Pathfindable mover, int dtx, int dty, boolean ignoreRef)
+            {
+                count.incrementAndGet();
+                return null;
+            }
+        });
+        recreate();
+
+        final Pathfindable mover = UtilPathfinding.createMover(services).getFeature(Pathfindable.class);
+
+        Assert.assertTrue(mover.setDestination(4, 4));
+        Assert.assertFalse(service.isRequested(mover));
+        Assert.assertEquals(1, count.get());
+    }
+
+    /**
+     * Test the service is terminated with its handler.
+     */
+    @Test
+    public void testHandlerTerminate()
+    {
+        final Handler handler = new Handler(services);
+        handler.addComponent(service);
+
+        final Pathfindable mover = UtilPathfinding.createMover(services).getFeature(Pathfindable.class);
+        service.request(mover, 5, 5, false, createListener(new AtomicReference<Path>()));
+        handler.terminate();
+
+        Assert.assertFalse(service.isRequested(mover));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.camera.Camera;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.identifiable.Identifiable;
+import com.b3dgs.lionengine.game.feature.identifiable.IdentifiableModel;
+
+/**
+ * Test the pathfindable model.
+ */
+public class PathfindableModelTest
+{
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setLoadFromJar(UtilPathfinding.class);
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setLoadFromJar(null);
+    }
+
+    /**
+     * Test the recycled pathfindable is as a new one, with the new id.
+     */
+    @Test
+    public void testRecycle()
+    {
+        final Services services = new Services();
+        services.add(new Camera());
+        UtilPathfinding.createMap(services, 16, 0.0, 0L);
+
+        final FeaturableModel created = UtilPathfinding.createMover(services);
+        final Pathfindable expected = created.getFeature(Pathfindable.class);
+        final FeaturableModel featurable = UtilPathfinding.createMover(services);
+        final Pathfindable pathfindable = featurable.getFeature(Pathfindable.class);
+
+        pathfindable.setSpeed(2.0, 2.0);
+        pathfindable.setIgnoreId(Integer.valueOf(1), true);
+        Assert.assertTrue(pathfindable.setDestination(8, 8));
+        pathfindable.update(1.0);
+
+        Assert.assertTrue(pathfindable.isMoving());
+        Assert.assertFalse(pathfindable.isDestinationReached());
+
+        final IdentifiableModel identifiable = (IdentifiableModel) featurable.getFeature(Identifiable.class);
+        identifiable.destroy();
+        identifiable.notifyDestroyed();
+        identifiable.recycle();
+        ((PathfindableModel) pathfindable).recycle();
+
+        Assert.assertEquals(expected.isMoving(), pathfindable.isMoving());
+        Assert.assertEquals(expected.isDestinationReached(), pathfindable.isDestinationReached());
+        Assert.assertEquals(expected.getSpeedX(), pathfindable.getSpeedX(), 0.0);
+        Assert.assertEquals(expected.getSpeedY(), pathfindable.getSpeedY(), 0.0);
+        Assert.assertEquals(expected.getMoveX(), pathfindable.getMoveX(), 0.0);
+        Assert.assertEquals(expected.getMoveY(), pathfindable.getMoveY(), 0.0);
+        Assert.assertEquals(expected.getOrientation(), pathfindable.getOrientation());
+        Assert.assertFalse(pathfindable.isIgnoredId(Integer.valueOf(1)));
+
+        pathfindable.update(1.0);
+
+        Assert.assertFalse(pathfindable.isMoving());
+        Assert.assertTrue(pathfindable.setDestination(8, 8));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.Random;
+
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Setup;
+import com.b3dgs.lionengine.game.feature.identifiable.IdentifiableModel;
+import com.b3dgs.lionengine.game.feature.transformable.TransformableModel;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileGame;
+import com.b3dgs.lionengine.game.map.feature.group.MapTileGroup;
+import com.b3dgs.lionengine.game.map.feature.group.MapTileGroupModel;
+
+/**
+ * Utility related to pathfinding tests, using the pathfinding integration test resources.
+ * {@link Medias#setLoadFromJar(Class)} must be called with this class before use.
+ */
+public class UtilPathfinding
+{
+    /** Tile size. */
+    public static final int TILE = 16;
+    /** Ground tile number. */
+    public static final int GROUND = 0;
+    /** Tree tile number (blocking). */
+    public static final int TREE = 141;
+    /** Resources folder. */
+    private static final String FOLDER = "it";
+
+    /**
+     * Create a map filled with ground and randomly placed trees.
+     * 
+     * @param services The services reference.
+     * @param size The map size in tile.
+     * @param obstacles The trees ratio.
+     * @param seed The trees random seed.
+     * @return The created map, with {@link MapTilePath} feature.
+     */
+    public static MapTile createMap(Services services, int size, double obstacles, long seed)
+    {
+        final MapTileGame map = services.add(new MapTileGame());
+        final MapTileGroup mapGroup = map.addFeatureAndGet(new MapTileGroupModel());
+        final MapTilePath mapPath = map.addFeatureAndGet(new MapTilePathModel());
+        map.prepareFeatures(services);
+        map.create(TILE, TILE, size, size);
+
+        final Random random = new Random(seed);
+        final Integer sheet = Integer.valueOf(0);
+        for (int ty = 0; ty < size; ty++)
+        {
+            for (int tx = 0; tx < size; tx++)
+            {
+                final int number;
+                if (random.nextDouble() < obstacles)
+                {
+                    number = TREE;
+                }
+                else
+                {
+                    number = GROUND;
+                }
+                map.setTile(map.createTile(sheet, number, tx * (double) TILE, ty * (double) TILE));
+            }
+        }
+        mapGroup.loadGroups(Medias.create(FOLDER, "groups.xml"));
+        mapPath.loadPathfinding(Medias.create(FOLDER, "pathfinding.xml"));
+
+        return map;
+    }
+
+    /**
+     * Create a pathfindable mover, located at first tile.
+     * 
+     * @param services The services reference.
+     * @return The created mover.
+     */
+    public static FeaturableModel createMover(Services services)
+    {
+        final Setup setup = new Setup(Medias.create(FOLDER, "Peon.xml"));
+        final FeaturableModel featurable = new FeaturableModel();
+        featurable.addFeature(new IdentifiableModel());
+        featurable.addFeature(new TransformableModel());
+        featurable.addFeature(new PathfindableModel(setup));
+        featurable.prepareFeatures(services);
+
+        return featurable;
+    }
+}
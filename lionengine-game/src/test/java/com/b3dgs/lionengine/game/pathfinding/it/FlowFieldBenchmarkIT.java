@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding.it;
+
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.camera.Camera;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.transformable.Transformable;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.pathfinding.Astar;
+import com.b3dgs.lionengine.game.pathfinding.CoordTile;
+import com.b3dgs.lionengine.game.pathfinding.FlowField;
+import com.b3dgs.lionengine.game.pathfinding.FlowFields;
+import com.b3dgs.lionengine.game.pathfinding.Heuristic;
+import com.b3dgs.lionengine.game.pathfinding.MapTilePath;
+import com.b3dgs.lionengine.game.pathfinding.Path;
+import com.b3dgs.lionengine.game.pathfinding.PathFinder;
+import com.b3dgs.lionengine.game.pathfinding.Pathfindable;
+import com.b3dgs.lionengine.game.pathfinding.UtilPathfinding;
+
+/**
+ * Benchmark many units going to a common target, between one path search per unit and a shared flow field.
+ */
+public class FlowFieldBenchmarkIT
+{
+    /** Map size in tile. */
+    private static final int SIZE = 256;
+    /** Obstacle ratio. */
+    private static final double OBSTACLES = 0.2;
+    /** Number of units. */
+    private static final int UNITS = 500;
+    /** Number of blocking objects added for the repair measure. */
+    private static final int OBJECTS = 20;
+
+    /**
+     * Prepare benchmark.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setLoadFromJar(UtilPathfinding.class);
+    }
+
+    /**
+     * Clean up benchmark.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setLoadFromJar(null);
+    }
+
+    /**
+     * Get a random free tile in area.
+     * 
+     * @param random The random generator.
+     * @param mapPath The map path reference.
+     * @param mover The mover reference.
+     * @param offset The area offset in tile.
+     * @param size The area size in tile.
+     * @return The free tile.
+     */
+    private static CoordTile getFreeTile(Random random, MapTilePath mapPath, Pathfindable mover, int offset, int size)
+    {
+        while (true)
+        {
+            final int tx = offset + random.nextInt(size);
+            final int ty = offset + random.nextInt(size);
+            if (!mapPath.isBlocked(mover, tx, ty, false))
+            {
+                return new CoordTile(tx, ty);
+            }
+        }
+    }
+
+    /**
+     * Follow the field from location until destination.
+     * 
+     * @param field The field to follow.
+     * @param start The starting location.
+     * @return The number of steps.
+     */
+    private static int follow(FlowField field, CoordTile start)
+    {
+        int steps = 0;
+        CoordTile current = field.getNext(start.getX(), start.getY());
+        while (current != null)
+        {
+            steps++;
+            current = field.getNext(current.getX(), current.getY());
+        }
+        return steps;
+    }
+
+    /**
+     * Benchmark the path searches and the flow field.
+     */
+    @Test
+    public void testBenchmark()
+    {
+        final Services services = new Services();
+        services.add(new Camera());
+        final MapTile map = UtilPathfinding.createMap(services, SIZE, OBSTACLES, 0L);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        final FlowFields flows = services.add(new FlowFields(services));
+        final FeaturableModel featurable = UtilPathfinding.createMover(services);
+        final Pathfindable mover = featurable.getFeature(Pathfindable.class);
+        final Transformable transformable = featurable.getFeature(Transformable.class);
+
+        final Random random = new Random(1L);
+        final CoordTile target = getFreeTile(random, mapPath, mover, SIZE * 3 / 4, SIZE / 4);
+        final CoordTile[] units = new CoordTile[UNITS];
+        for (int i = 0; i < UNITS; i++)
+        {
+            units[i] = getFreeTile(random, mapPath, mover, 0, SIZE / 4);
+        }
+
+        final Heuristic heuristic = Astar.createHeuristicClosest();
+        final PathFinder pathfinder = Astar.createPathFinder(map, map.getInTileRadius(), heuristic);
+        long start = System.nanoTime();
+        int searched = 0;
+        long pathSteps = 0L;
+        for (final CoordTile unit : units)
+        {
+            transformable.teleport(unit.getX() * (double) UtilPathfinding.TILE,
+                                   unit.getY() * (double) UtilPathfinding.TILE);
+            final Path path = pathfinder.findPath(mover, target.getX(), target.getY(), false);
+            if (path != null)
+            {
+                pathSteps += path.getLength() - 1;
+                searched++;
+            }
+        }
+        final long searchTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        final FlowField field = flows.getField(mover, target.getX(), target.getY());
+        final long computeTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int followed = 0;
+        long fieldSteps = 0L;
+        for (final CoordTile unit : units)
+        {
+            if (field.isReachable(unit.getX(), unit.getY()))
+            {
+                fieldSteps += follow(field, unit);
+                followed++;
+            }
+        }
+        final long followTime = System.nanoTime() - start;
+        Assert.assertEquals(searched, followed);
+
+        start = System.nanoTime();
+        for (int i = 0; i < OBJECTS; i++)
+        {
+            final CoordTile tile = getFreeTile(random, mapPath, mover, 0, SIZE);
+            mapPath.addObjectId(tile.getX(), tile.getY(), Integer.valueOf(-1 - i));
+            field.getCost(target.getX(), target.getY());
+        }
+        final long repairTime = System.nanoTime() - start;
+
+        Verbose.info(String.format(Locale.ENGLISH,
+                                   "Flow field %dx%d, %d units to a common target: path searches %.2f ms (%.1f "
+                                                   + "steps/unit), shared field %.2f ms + following %.2f ms (%.1f "
+                                                   + "steps/unit), repair %.2f ms/object",
+                                   Integer.valueOf(SIZE),
+                                   Integer.valueOf(SIZE),
+                                   Integer.valueOf(UNITS),
+                                   Double.valueOf(searchTime / 1E6),
+                                   Double.valueOf(pathSteps / (double) searched),
+                                   Double.valueOf(computeTime / 1E6),
+                                   Double.valueOf(followTime / 1E6),
+                                   Double.valueOf(fieldSteps / (double) followed),
+                                   Double.valueOf(repairTime / 1E6 / OBJECTS)));
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding.it;
+
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.camera.Camera;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.transformable.Transformable;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.pathfinding.Astar;
+import com.b3dgs.lionengine.game.pathfinding.MapTilePath;
+import com.b3dgs.lionengine.game.pathfinding.Path;
+import com.b3dgs.lionengine.game.pathfinding.PathFinder;
+import com.b3dgs.lionengine.game.pathfinding.Pathfindable;
+import com.b3dgs.lionengine.game.pathfinding.UtilPathfinding;
+
+/**
+ * Benchmark path finder query throughput, between the heap based path finder and the sorted list reference.
+ */
+public class PathFinderBenchmarkIT
+{
+    /** Map size in tile. */
+    private static final int SIZE = 256;
+    /** Obstacle ratio. */
+    private static final double OBSTACLES = 0.35;
+    /** Number of queries. */
+    private static final int QUERIES = 200;
+    /** Warm up queries. */
+    private static final int WARMUP = 20;
+
+    /**
+     * Prepare benchmark.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setLoadFromJar(UtilPathfinding.class);
+    }
+
+    /**
+     * Clean up benchmark.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setLoadFromJar(null);
+    }
+
+    /**
+     * Run queries on path finder.
+     * 
+     * @param pathfinder The path finder to use.
+     * @param mover The mover reference.
+     * @param queries The queries as start and destination tiles.
+     * @param lengths The found paths length (<code>-1</code> for no path).
+     * @param count The number of queries to run.
+     * @return The elapsed time in nano seconds.
+     */
+    private static long run(PathFinder pathfinder, FeaturableModel mover, int[][] queries, int[] lengths, int count)
+    {
+        final Transformable transformable = mover.getFeature(Transformable.class);
+        final Pathfindable pathfindable = mover.getFeature(Pathfindable.class);
+        final long start = System.nanoTime();
+        for (int i = 0; i < count; i++)
+        {
+            final int[] query = queries[i];
+            transformable.teleport(query[0] * (double) UtilPathfinding.TILE, query[1] * (double) UtilPathfinding.TILE);
+            final Path path = pathfinder.findPath(pathfindable, query[2], query[3], false);
+            if (path == null)
+            {
+                lengths[i] = -1;
+            }
+            else
+            {
+                lengths[i] = path.getLength();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Create random queries on free tiles.
+     * 
+     * @param map The map reference.
+     * @param mover The mover reference.
+     * @param seed The random seed.
+     * @return The queries as start and destination tiles.
+     */
+    private static int[][] createQueries(MapTile map, Pathfindable mover, long seed)
+    {
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        final Random random = new Random(seed);
+        final int[][] queries = new int[QUERIES][];
+        int i = 0;
+        while (i < QUERIES)
+        {
+            final int stx = random.nextInt(map.getInTileWidth());
+            final int sty = random.nextInt(map.getInTileHeight());
+            final int dtx = random.nextInt(map.getInTileWidth());
+            final int dty = random.nextInt(map.getInTileHeight());
+            if (!mapPath.isBlocked(mover, stx, sty, false) && !mapPath.isBlocked(mover, dtx, dty, false))
+            {
+                queries[i] = new int[]
+                {
+                    stx, sty, dtx, dty
+                };
+                i++;
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * Benchmark the path finders.
+     */
+    @Test
+    public void testBenchmark()
+    {
+        final Services services = new Services();
+        services.add(new Camera());
+        final MapTile map = UtilPathfinding.createMap(services, SIZE, OBSTACLES, 0L);
+        final FeaturableModel mover = UtilPathfinding.createMover(services);
+        final Pathfindable pathfindable = mover.getFeature(Pathfindable.class);
+        final int[][] queries = createQueries(map, pathfindable, 1L);
+
+        final int range = (int) Math.sqrt(SIZE * SIZE * 2.0);
+        final PathFinder heap = Astar.createPathFinder(map, range, Astar.createHeuristicClosest());
+        final PathFinder sorted = new PathFinderSortedList(map, range, Astar.createHeuristicClosest());
+
+        final int[] heapLengths = new int[QUERIES];
+        final int[] sortedLengths = new int[QUERIES];
+        run(heap, mover, queries, heapLengths, WARMUP);
+        run(sorted, mover, queries, sortedLengths, WARMUP);
+
+        final long heapTime = run(heap, mover, queries, heapLengths, QUERIES);
+        final long sortedTime = run(sorted, mover, queries, sortedLengths, QUERIES);
+
+        Assert.assertArrayEquals(toObjects(sortedLengths), toObjects(heapLengths));
+
+        Verbose.info(String.format(Locale.ENGLISH,
+                                   "Path finder %dx%d, %d queries: heap %.1f queries/s, sorted list %.1f queries/s",
+                                   Integer.valueOf(SIZE),
+                                   Integer.valueOf(SIZE),
+                                   Integer.valueOf(QUERIES),
+                                   Double.valueOf(QUERIES / (heapTime / 1E9)),
+                                   Double.valueOf(QUERIES / (sortedTime / 1E9))));
+    }
+
+    /**
+     * Convert lengths to objects for comparison.
+     * 
+     * @param lengths The lengths.
+     * @return The boxed lengths.
+     */
+    private static Integer[] toObjects(int[] lengths)
+    {
+        final Integer[] objects = new Integer[lengths.length];
+        for (int i = 0; i < lengths.length; i++)
+        {
+            objects[i] = Integer.valueOf(lengths[i]);
+        }
+        return objects;
+    }
+}
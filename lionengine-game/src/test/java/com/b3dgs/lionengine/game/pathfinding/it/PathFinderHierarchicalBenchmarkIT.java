@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding.it;
+
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.camera.Camera;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.transformable.Transformable;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.pathfinding.Astar;
+import com.b3dgs.lionengine.game.pathfinding.MapTilePath;
+import com.b3dgs.lionengine.game.pathfinding.Path;
+import com.b3dgs.lionengine.game.pathfinding.PathFinder;
+import com.b3dgs.lionengine.game.pathfinding.Pathfindable;
+import com.b3dgs.lionengine.game.pathfinding.UtilPathfinding;
+
+/**
+ * Benchmark cross map queries, between the hierarchical path finder and the tiles path finder. Hierarchical queries are
+ * measured cold (graph built while searching) and warm (graph already built). On a warm graph, the first segment,
+ * which the mover waits for, must not be slower than the tiles path.
+ */
+public class PathFinderHierarchicalBenchmarkIT
+{
+    /** Map size in tile. */
+    private static final int SIZE = 512;
+    /** Warm up map size in tile. */
+    private static final int WARMUP_SIZE = 128;
+    /** Warm up rounds, each on a new graph. */
+    private static final int WARMUP = 5;
+    /** Obstacle ratio. */
+    private static final double OBSTACLES = 0.2;
+    /** Cluster size in tile. */
+    private static final int CLUSTER = 16;
+    /** Number of queries. */
+    private static final int QUERIES = 40;
+
+    /**
+     * Prepare benchmark.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setLoadFromJar(UtilPathfinding.class);
+    }
+
+    /**
+     * Clean up benchmark.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Medias.setLoadFromJar(null);
+    }
+
+    /**
+     * Create random cross map queries on free tiles.
+     * 
+     * @param mapPath The map path reference.
+     * @param mover The mover reference.
+     * @param size The map size in tile.
+     * @return The queries as start and destination tiles.
+     */
+    private static int[][] createQueries(MapTilePath mapPath, Pathfindable mover, int size)
+    {
+        final Random random = new Random(1L);
+        final int[][] queries = new int[QUERIES][];
+        int i = 0;
+        while (i < QUERIES)
+        {
+            final int stx = random.nextInt(size / 4);
+            final int sty = random.nextInt(size);
+            final int dtx = size - 1 - random.nextInt(size / 4);
+            final int dty = random.nextInt(size);
+            if (!mapPath.isBlocked(mover, stx, sty, false) && !mapPath.isBlocked(mover, dtx, dty, false))
+            {
+                queries[i] = new int[]
+                {
+                    stx, sty, dtx, dty
+                };
+                i++;
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * Run query.
+     * 
+     * @param pathfinder The path finder to use.
+     * @param mover The mover reference.
+     * @param query The query as start and destination tiles.
+     * @return The path found.
+     */
+    private static Path run(PathFinder pathfinder, FeaturableModel mover, int[] query)
+    {
+        mover.getFeature(Transformable.class).teleport(query[0] * (double) UtilPathfinding.TILE,
+                                                       query[1] * (double) UtilPathfinding.TILE);
+        return pathfinder.findPath(mover.getFeature(Pathfindable.class), query[2], query[3], false);
+    }
+
+    /**
+     * Refine path until complete.
+     * 
+     * @param path The path to refine (can be <code>null</code>).
+     */
+    private static void refine(Path path)
+    {
+        if (path != null)
+        {
+            while (!path.isComplete())
+            {
+                path.refine();
+            }
+        }
+    }
+
+    /**
+     * Warm up the path finders code, on new graphs of smaller maps.
+     */
+    private static void warmUp()
+    {
+        for (int i = 0; i < WARMUP; i++)
+        {
+            final Services services = new Services();
+            services.add(new Camera());
+            final MapTile map = UtilPathfinding.createMap(services, WARMUP_SIZE, OBSTACLES, i + 1L);
+            final FeaturableModel mover = UtilPathfinding.createMover(services);
+            final int[][] queries = createQueries(map.getFeature(MapTilePath.class),
+                                                  mover.getFeature(Pathfindable.class),
+                                                  WARMUP_SIZE);
+            final PathFinder tiles = Astar.createPathFinder(map, map.getInTileRadius(), Astar.createHeuristicClosest());
+            final PathFinder hierarchical = Astar.createPathFinderHierarchical(map,
+                                                                               CLUSTER,
+                                                                               Astar.createHeuristicClosest());
+            for (final int[] query : queries)
+            {
+                run(tiles, mover, query);
+                refine(run(hierarchical, mover, query));
+            }
+        }
+    }
+
+    /**
+     * Benchmark the path finders.
+     */
+    @Test
+    public void testBenchmark()
+    {
+        warmUp();
+
+        final Services services = new Services();
+        services.add(new Camera());
+        final MapTile map = UtilPathfinding.createMap(services, SIZE, OBSTACLES, 0L);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        final FeaturableModel mover = UtilPathfinding.createMover(services);
+        final int[][] queries = createQueries(mapPath, mover.getFeature(Pathfindable.class), SIZE);
+
+        final PathFinder tiles = Astar.createPathFinder(map, map.getInTileRadius(), Astar.createHeuristicClosest());
+        final PathFinder hierarchical = Astar.createPathFinderHierarchical(map,
+                                                                           CLUSTER,
+                                                                           Astar.createHeuristicClosest());
+        long tilesTime = 0L;
+        long start;
+        final Path[] expected = new Path[QUERIES];
+        for (int i = 0; i < QUERIES; i++)
+        {
+            start = System.nanoTime();
+            expected[i] = run(tiles, mover, queries[i]);
+            tilesTime += System.nanoTime() - start;
+        }
+
+        // Cold queries, building borders and linking reached clusters
+        start = System.nanoTime();
+        for (final int[] query : queries)
+        {
+            run(hierarchical, mover, query);
+        }
+        final long coldTime = System.nanoTime() - start;
+
+        long firstTime = 0L;
+        long refineTime = 0L;
+        double ratio = 0.0;
+        int found = 0;
+        for (int i = 0; i < QUERIES; i++)
+        {
+            start = System.nanoTime();
+            final Path path = run(hierarchical, mover, queries[i]);
+            firstTime += System.nanoTime() - start;
+
+            Assert.assertEquals(Boolean.valueOf(expected[i] == null), Boolean.valueOf(path == null));
+            if (path != null)
+            {
+                start = System.nanoTime();
+                refine(path);
+                refineTime += System.nanoTime() - start;
+                ratio += path.getLength() / (double) expected[i].getLength();
+                found++;
+            }
+        }
+
+        // Incremental update of one cluster before each query
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++)
+        {
+            final int tx = i * CLUSTER % SIZE;
+            mapPath.updateTile(tx, tx);
+            run(hierarchical, mover, queries[i]);
+        }
+        final long updateTime = System.nanoTime() - start;
+
+        Verbose.info(String.format(Locale.ENGLISH,
+                                   "Path finder %dx%d, %d cross map queries: tiles %.2f ms/query, hierarchical "
+                                                   + "cold %.2f ms/query, first segment %.2f ms/query, full refine "
+                                                   + "%.2f ms/query, with cluster update %.2f ms/query, length ratio "
+                                                   + "%.3f",
+                                   Integer.valueOf(SIZE),
+                                   Integer.valueOf(SIZE),
+                                   Integer.valueOf(QUERIES),
+                                   Double.valueOf(tilesTime / 1E6 / QUERIES),
+                                   Double.valueOf(coldTime / 1E6 / QUERIES),
+                                   Double.valueOf(firstTime / 1E6 / QUERIES),
+                                   Double.valueOf(refineTime / 1E6 / found),
+                                   Double.valueOf(updateTime / 1E6 / QUERIES),
+                                   Double.valueOf(ratio / found)));
+
+        Assert.assertTrue(firstTime <= tilesTime);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+
+/**
+ * Read values written by a {@link BitWriter}.
+ */
+final class BitReader
+{
+    /** Data underflow error. */
+    private static final String ERROR_UNDERFLOW = "Not enough bits to read !";
+
+    /**
+     * Decode a zig zag encoded value.
+     * 
+     * @param value The encoded value.
+     * @return The signed value.
+     */
+    static int unZigZag(int value)
+    {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    /** Data to read. */
+    private final byte[] data;
+    /** Number of bits available. */
+    private final int size;
+    /** Number of read bits. */
+    private int bits;
+
+    /**
+     * Create reader.
+     * 
+     * @param data The data to read.
+     * @param length The number of relevant bytes.
+     */
+    BitReader(byte[] data, int length)
+    {
+        this.data = data;
+        size = length * BitWriter.BYTE_BITS;
+    }
+
+    /**
+     * Read an unsigned value.
+     * 
+     * @param count The number of bits to read (between 0 and 32).
+     * @return The read value.
+     * @throws IOException If not enough data.
+     */
+    public int read(int count) throws IOException
+    {
+        if (bits + count > size)
+        {
+            throw new IOException(ERROR_UNDERFLOW);
+        }
+        int value = 0;
+        for (int i = 0; i < count; i++)
+        {
+            final int bit = data[bits / BitWriter.BYTE_BITS] >> BitWriter.BYTE_BITS - 1 - bits % BitWriter.BYTE_BITS;
+            value = value << 1 | bit & 1;
+            bits++;
+        }
+        return value;
+    }
+
+    /**
+     * Read a flag on a single bit.
+     * 
+     * @return The read flag.
+     * @throws IOException If not enough data.
+     */
+    public boolean readBoolean() throws IOException
+    {
+        return read(1) != 0;
+    }
+
+    /**
+     * Read a signed value written by {@link BitWriter#writeVariable(int)}.
+     * 
+     * @return The read value.
+     * @throws IOException If not enough data.
+     */
+    public int readVariable() throws IOException
+    {
+        final int length = read(BitWriter.LENGTH_BITS);
+        return unZigZag(read(length));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.util.Arrays;
+
+/**
+ * Write values with a variable number of bits, most significant bit first.
+ */
+final class BitWriter
+{
+    /** Bits per byte. */
+    static final int BYTE_BITS = 8;
+    /** Bits used to store a variable value length. */
+    static final int LENGTH_BITS = 6;
+    /** Integer bits. */
+    static final int INT_BITS = 32;
+
+    /**
+     * Encode a signed value so small magnitudes use few bits.
+     * 
+     * @param value The signed value.
+     * @return The zig zag encoded value.
+     */
+    static int zigZag(int value)
+    {
+        return value << 1 ^ value >> INT_BITS - 1;
+    }
+
+    /** Written data. */
+    private byte[] data = new byte[64];
+    /** Number of written bits. */
+    private int bits;
+
+    /**
+     * Create writer.
+     */
+    BitWriter()
+    {
+        super();
+    }
+
+    /**
+     * Write the lowest bits of a value.
+     * 
+     * @param value The value to write.
+     * @param count The number of bits to write (between 0 and 32).
+     */
+    public void write(int value, int count)
+    {
+        ensure(count);
+        for (int i = count - 1; i >= 0; i--)
+        {
+            if ((value >>> i & 1) != 0)
+            {
+                data[bits / BYTE_BITS] |= 1 << BYTE_BITS - 1 - bits % BYTE_BITS;
+            }
+            bits++;
+        }
+    }
+
+    /**
+     * Write a flag on a single bit.
+     * 
+     * @param value The flag to write.
+     */
+    public void writeBoolean(boolean value)
+    {
+        write(value ? 1 : 0, 1);
+    }
+
+    /**
+     * Write a signed value with the number of bits required by its magnitude, prefixed by this number.
+     * 
+     * @param value The value to write.
+     */
+    public void writeVariable(int value)
+    {
+        final int encoded = zigZag(value);
+        final int length = INT_BITS - Integer.numberOfLeadingZeros(encoded);
+        write(length, LENGTH_BITS);
+        write(encoded, length);
+    }
+
+    /**
+     * Get the written data. Only the first {@link #getSize()} bytes are relevant.
+     * 
+     * @return The written data.
+     */
+    public byte[] getData()
+    {
+        return data;
+    }
+
+    /**
+     * Get the number of written bytes, last one being padded.
+     * 
+     * @return The number of written bytes.
+     */
+    public int getSize()
+    {
+        return (bits + BYTE_BITS - 1) / BYTE_BITS;
+    }
+
+    /**
+     * Clear written data.
+     */
+    public void clear()
+    {
+        Arrays.fill(data, 0, getSize(), (byte) 0);
+        bits = 0;
+    }
+
+    /**
+     * Ensure data can store the required bits.
+     * 
+     * @param count The number of bits to store.
+     */
+    private void ensure(int count)
+    {
+        final int required = (bits + count + BYTE_BITS - 1) / BYTE_BITS;
+        if (required > data.length)
+        {
+            data = Arrays.copyOf(data, Math.max(required, data.length * 2));
+        }
+    }
+}
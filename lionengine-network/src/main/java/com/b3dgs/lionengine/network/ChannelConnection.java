@@ -0,0 +1,480 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+
+/**
+ * Non-blocking connection, exchanging length-prefixed frames over a socket channel.
+ * <p>
+ * Each frame is made of its length (int, excluding itself), the {@link NetworkMessageSystemId}, the client id and the
+ * message content. Data are read and written through direct buffers, compacted after each exchange, and grown when a
+ * frame does not fit.
+ * </p>
+ */
+final class ChannelConnection
+{
+    /** Frame length size. */
+    static final int LENGTH_SIZE = 4;
+    /** Frame header size (system id and client id). */
+    static final int HEADER_SIZE = 2;
+    /** Maximum frame length. */
+    static final int MAX_FRAME = 1 << 20;
+    /** Default buffer capacity. */
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+    /** Maximum buffer capacity. */
+    private static final int MAX_CAPACITY = 1 << 22;
+    /** Invalid frame error. */
+    private static final String ERROR_FRAME = "Invalid frame length: ";
+    /** Buffer overflow error. */
+    private static final String ERROR_OVERFLOW = "Connection buffer overflow !";
+
+    /**
+     * Read a string prefixed by its length (byte).
+     * 
+     * @param frame The frame to read.
+     * @return The read string, <code>null</code> if empty.
+     */
+    static String getString(ByteBuffer frame)
+    {
+        final int size = frame.get();
+        if (size > 0)
+        {
+            final byte[] data = new byte[size];
+            frame.get(data);
+            return new String(data, NetworkMessage.CHARSET);
+        }
+        return null;
+    }
+
+    /**
+     * Create a buffer with a larger capacity, containing the source data.
+     * 
+     * @param buffer The source buffer (in write mode).
+     * @param required The required remaining space.
+     * @return The grown buffer (in write mode).
+     * @throws IOException If maximum capacity reached.
+     */
+    private static ByteBuffer grow(ByteBuffer buffer, int required) throws IOException
+    {
+        int capacity = buffer.capacity();
+        while (capacity - buffer.position() < required)
+        {
+            capacity *= 2;
+        }
+        if (capacity > MAX_CAPACITY)
+        {
+            throw new IOException(ERROR_OVERFLOW);
+        }
+        final ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    /** Socket channel. */
+    private final SocketChannel channel;
+    /** Client id. */
+    private final byte id;
+    /** Input buffer (write mode, except when reading frames). */
+    private ByteBuffer in = ByteBuffer.allocateDirect(DEFAULT_CAPACITY);
+    /** Output buffer (write mode). */
+    private ByteBuffer out = ByteBuffer.allocateDirect(DEFAULT_CAPACITY);
+    /** Selection key (<code>null</code> if not registered). */
+    private SelectionKey key;
+    /** Current frame start position. */
+    private int frameStart;
+    /** State. */
+    private StateConnection state;
+    /** Name. */
+    private String name;
+    /** Datagram peer (<code>null</code> if none). */
+    private DatagramPeer datagram;
+
+    /**
+     * Create connection.
+     * 
+     * @param id The client id.
+     * @param channel The connected channel (non-blocking).
+     */
+    ChannelConnection(byte id, SocketChannel channel)
+    {
+        this.id = id;
+        this.channel = channel;
+    }
+
+    /**
+     * Read available data.
+     * 
+     * @return The number of read bytes, <code>-1</code> if end of stream reached.
+     * @throws IOException If error when reading.
+     */
+    public int read() throws IOException
+    {
+        int total = 0;
+        while (true)
+        {
+            if (!in.hasRemaining())
+            {
+                in = grow(in, in.capacity());
+            }
+            final int read = channel.read(in);
+            if (read < 0)
+            {
+                return -1;
+            }
+            if (read == 0)
+            {
+                return total;
+            }
+            total += read;
+        }
+    }
+
+    /**
+     * Prepare frames reading. Must be followed by {@link #nextFrame()} calls, and {@link #endFrames()}.
+     */
+    public void beginFrames()
+    {
+        in.flip();
+    }
+
+    /**
+     * Get the next complete received frame.
+     * 
+     * @return The frame content (system id, client id, and message), <code>null</code> if no complete frame.
+     * @throws IOException If invalid frame.
+     */
+    public ByteBuffer nextFrame() throws IOException
+    {
+        if (in.remaining() < LENGTH_SIZE)
+        {
+            return null;
+        }
+        final int length = in.getInt(in.position());
+        if (length < HEADER_SIZE || length > MAX_FRAME)
+        {
+            throw new IOException(ERROR_FRAME + length);
+        }
+        if (in.remaining() < LENGTH_SIZE + length)
+        {
+            return null;
+        }
+        in.position(in.position() + LENGTH_SIZE);
+        final ByteBuffer frame = in.slice();
+        frame.limit(length);
+        in.position(in.position() + length);
+        return frame;
+    }
+
+    /**
+     * Terminate frames reading, keeping incomplete frame data.
+     */
+    public void endFrames()
+    {
+        in.compact();
+    }
+
+    /**
+     * Start a frame. Must be terminated with {@link #endFrame()}.
+     * 
+     * @param systemId The system id.
+     * @param from The client id source.
+     * @throws IOException If buffer overflow.
+     */
+    public void startFrame(byte systemId, byte from) throws IOException
+    {
+        ensure(LENGTH_SIZE + HEADER_SIZE);
+        frameStart = out.position();
+        out.putInt(0);
+        out.put(systemId);
+        out.put(from);
+    }
+
+    /**
+     * Write a byte in current frame.
+     * 
+     * @param value The value to write.
+     * @throws IOException If buffer overflow.
+     */
+    public void putByte(int value) throws IOException
+    {
+        ensure(1);
+        out.put((byte) value);
+    }
+
+    /**
+     * Write an int in current frame.
+     * 
+     * @param value The value to write.
+     * @throws IOException If buffer overflow.
+     */
+    public void putInt(int value) throws IOException
+    {
+        ensure(Integer.SIZE / Byte.SIZE);
+        out.putInt(value);
+    }
+
+    /**
+     * Write data in current frame.
+     * 
+     * @param data The data to write.
+     * @throws IOException If buffer overflow.
+     */
+    public void putBytes(byte[] data) throws IOException
+    {
+        ensure(data.length);
+        out.put(data);
+    }
+
+    /**
+     * Write buffer content in current frame.
+     * 
+     * @param data The data to write, from its position to its limit.
+     * @throws IOException If buffer overflow.
+     */
+    public void putBytes(ByteBuffer data) throws IOException
+    {
+        ensure(data.remaining());
+        out.put(data);
+    }
+
+    /**
+     * Write a string prefixed by its length (byte) in current frame.
+     * 
+     * @param value The string to write.
+     * @throws IOException If buffer overflow.
+     */
+    public void putString(String value) throws IOException
+    {
+        final byte[] data = value.getBytes(NetworkMessage.CHARSET);
+        putByte(data.length);
+        putBytes(data);
+    }
+
+    /**
+     * Terminate the current frame by writing its length.
+     * 
+     * @return The frame size, including its length.
+     * @throws IOException If frame too large.
+     */
+    public int endFrame() throws IOException
+    {
+        final int length = out.position() - frameStart - LENGTH_SIZE;
+        if (length > MAX_FRAME)
+        {
+            throw new IOException(ERROR_FRAME + length);
+        }
+        out.putInt(frameStart, length);
+        return LENGTH_SIZE + length;
+    }
+
+    /**
+     * Write frame without content.
+     * 
+     * @param systemId The system id.
+     * @param from The client id source.
+     * @return The frame size, including its length.
+     * @throws IOException If buffer overflow.
+     */
+    public int writeFrame(byte systemId, byte from) throws IOException
+    {
+        startFrame(systemId, from);
+        return endFrame();
+    }
+
+    /**
+     * Write pending frames as much as possible.
+     * 
+     * @return The number of written bytes.
+     * @throws IOException If error when writing.
+     */
+    public int flush() throws IOException
+    {
+        out.flip();
+        int written = 0;
+        try
+        {
+            while (out.hasRemaining())
+            {
+                final int count = channel.write(out);
+                if (count == 0)
+                {
+                    break;
+                }
+                written += count;
+            }
+            return written;
+        }
+        finally
+        {
+            out.compact();
+        }
+    }
+
+    /**
+     * Check if all pending frames have been written.
+     * 
+     * @return <code>true</code> if all frames written, <code>false</code> if remaining.
+     */
+    public boolean isFlushed()
+    {
+        return out.position() == 0;
+    }
+
+    /**
+     * Write all pending frames, waiting for the channel. Channel must not be registered to a selector.
+     * 
+     * @throws IOException If error when writing.
+     */
+    public void flushBlocking() throws IOException
+    {
+        channel.configureBlocking(true);
+        flush();
+    }
+
+    /**
+     * Close the connection.
+     */
+    public void close()
+    {
+        if (key != null)
+        {
+            key.cancel();
+        }
+        try
+        {
+            channel.close();
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception);
+        }
+        state = StateConnection.DISCONNECTED;
+    }
+
+    /**
+     * Set the selection key.
+     * 
+     * @param key The selection key.
+     */
+    public void setKey(SelectionKey key)
+    {
+        this.key = key;
+    }
+
+    /**
+     * Get the selection key.
+     * 
+     * @return The selection key, <code>null</code> if not registered.
+     */
+    public SelectionKey getKey()
+    {
+        return key;
+    }
+
+    /**
+     * Set the state.
+     * 
+     * @param state The state.
+     */
+    public void setState(StateConnection state)
+    {
+        this.state = state;
+    }
+
+    /**
+     * Get the state.
+     * 
+     * @return The state.
+     */
+    public StateConnection getState()
+    {
+        return state;
+    }
+
+    /**
+     * Set the name.
+     * 
+     * @param name The name.
+     */
+    public void setName(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Get the name.
+     * 
+     * @return The name.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Set the datagram peer.
+     * 
+     * @param datagram The datagram peer.
+     */
+    public void setDatagram(DatagramPeer datagram)
+    {
+        this.datagram = datagram;
+    }
+
+    /**
+     * Get the datagram peer.
+     * 
+     * @return The datagram peer, <code>null</code> if none.
+     */
+    public DatagramPeer getDatagram()
+    {
+        return datagram;
+    }
+
+    /**
+     * Get the client id.
+     * 
+     * @return The client id.
+     */
+    public byte getId()
+    {
+        return id;
+    }
+
+    /**
+     * Ensure output buffer can store the required size.
+     * 
+     * @param required The required size.
+     * @throws IOException If buffer overflow.
+     */
+    private void ensure(int required) throws IOException
+    {
+        if (out.remaining() < required)
+        {
+            out = grow(out, required);
+        }
+    }
+}
@@ -17,15 +17,13 @@
  */
 package com.b3dgs.lionengine.network;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.ByteBuffer;
 
 import com.b3dgs.lionengine.Check;
 import com.b3dgs.lionengine.Constant;
@@ -64,6 +62,8 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
     private int bandwidth;
     /** Bandwidth per second. */
     private int bandwidthPerSecond;
+    /** Bytes written and not flushed. */
+    private int pending;
 
     /**
      * Internal constructor.
@@ -91,7 +91,7 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
         {
             return;
         }
-        messagesIn.clear();
+        clearMessagesIn();
         messagesOut.clear();
         try
         {
@@ -309,26 +309,7 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
         final int size = in.readInt();
         if (size > 0)
         {
-            final byte[] data = new byte[size];
-            if (in.read(data) != -1)
-            {
-                final DataInputStream buffer = new DataInputStream(new ByteArrayInputStream(data));
-                try
-                {
-                    decodeMessage(type, from, dest, buffer);
-                }
-                finally
-                {
-                    try
-                    {
-                        buffer.close();
-                    }
-                    catch (final IOException exception)
-                    {
-                        Verbose.exception(exception);
-                    }
-                }
-            }
+            decodeMessage(type, from, dest, in, size);
         }
         final int headerSize = 4;
         bandwidth += headerSize + size;
@@ -341,42 +322,27 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
      */
     private void sendMessage(NetworkMessage message)
     {
-        ByteArrayOutputStream encode = null;
         try
         {
-            encode = message.encode();
-            final byte[] encoded = encode.toByteArray();
+            final ByteBuffer encoded = encodeMessage(message);
+            final int length = encoded.limit();
             // Message header
             out.writeByte(NetworkMessageSystemId.USER_MESSAGE);
             out.writeByte(message.getClientId());
             out.writeByte(message.getClientDestId());
             out.writeByte(message.getType());
             // Message content
-            out.writeInt(encoded.length);
-            out.write(encoded);
-            out.flush();
+            out.writeInt(length);
+            out.write(encoded.array(), 0, length);
 
             final int headerSize = 8;
-            bandwidth += headerSize + encoded.length;
+            bandwidth += headerSize + length;
+            pending += headerSize + length;
         }
         catch (final IOException exception)
         {
             Verbose.exception(exception, "Unable to send the message for client: ", String.valueOf(clientId));
         }
-        finally
-        {
-            try
-            {
-                if (encode != null)
-                {
-                    encode.close();
-                }
-            }
-            catch (final IOException exception)
-            {
-                Verbose.exception(exception);
-            }
-        }
     }
 
     /*
@@ -500,10 +466,10 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
             {
                 out.writeByte(NetworkMessageSystemId.PING);
                 out.writeByte(clientId);
-                out.flush();
                 pingTimer.restart();
                 pingRequestTimer.restart();
                 bandwidth += 2;
+                pending += 2;
             }
             catch (final IOException exception)
             {
@@ -515,6 +481,21 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
         {
             sendMessage(message);
         }
+        // Flush once per tick
+        if (pending > 0)
+        {
+            try
+            {
+                out.flush();
+                countPacket(pending);
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, "Unable to send the messages for client: ", String.valueOf(clientId));
+            }
+            pending = 0;
+        }
+        endTick();
         final long bandwidthMilli = 1000L;
         if (bandwidthTimer.elapsed(bandwidthMilli))
         {
@@ -533,15 +514,15 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
         {
             return;
         }
-        messagesIn.clear();
+        clearMessagesIn();
         try
         {
-            if (in.available() == 0)
+            // Read all messages of the received packets
+            while (connected && in.available() > 0)
             {
-                return;
+                final byte messageSystemId = in.readByte();
+                updateMessage(messageSystemId);
             }
-            final byte messageSystemId = in.readByte();
-            updateMessage(messageSystemId);
         }
         catch (final IOException exception)
         {
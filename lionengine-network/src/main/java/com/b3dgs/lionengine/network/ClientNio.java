@@ -0,0 +1,597 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Timing;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+
+/**
+ * Client implementation based on a non-blocking channel, exchanging length-prefixed frames (see
+ * {@link ChannelConnection}) with {@link ServerNio}.
+ * <p>
+ * When datagrams are enabled and the server provides a token on {@link NetworkMessageSystemId#CONNECTING}, the token
+ * is sent by datagram on each {@link #sendMessages()} until the server answers, unreliable messages being then
+ * exchanged by datagrams (see {@link DatagramPeer}).
+ * </p>
+ */
+final class ClientNio extends NetworkModel<ConnectionListener> implements Client
+{
+    /** Connection error. */
+    private static final String ERROR_CONNECT = "Cannot connect to the server !";
+    /** Ping delay. */
+    private static final long PING_MILLI = 1000L;
+    /** Bandwidth refresh delay. */
+    private static final long BANDWIDTH_MILLI = 1000L;
+
+    /** Ping timer. */
+    private final Timing pingTimer;
+    /** Ping request timer. */
+    private final Timing pingRequestTimer;
+    /** Average bandwidth. */
+    private final Timing bandwidthTimer;
+    /** Datagram enabled flag. */
+    private final boolean datagramEnabled;
+    /** Connection. */
+    private ChannelConnection connection;
+    /** Server address. */
+    private SocketAddress address;
+    /** Datagram connection (<code>null</code> if not negotiated). */
+    private DatagramConnection datagram;
+    /** Server datagram peer (<code>null</code> if not negotiated). */
+    private DatagramPeer peer;
+    /** Client id. */
+    private byte clientId;
+    /** Client name. */
+    private String clientName;
+    /** Connected flag. */
+    private boolean connected;
+    /** Ping. */
+    private int ping;
+    /** Bandwidth size. */
+    private int bandwidth;
+    /** Bandwidth per second. */
+    private int bandwidthPerSecond;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param decoder The message decoder.
+     */
+    ClientNio(NetworkMessageDecoder decoder)
+    {
+        this(decoder, false);
+    }
+
+    /**
+     * Internal constructor.
+     * 
+     * @param decoder The message decoder.
+     * @param datagramEnabled <code>true</code> to exchange unreliable messages by datagrams, <code>false</code> else.
+     */
+    ClientNio(NetworkMessageDecoder decoder, boolean datagramEnabled)
+    {
+        super(decoder);
+        this.datagramEnabled = datagramEnabled;
+        pingTimer = new Timing();
+        pingRequestTimer = new Timing();
+        bandwidthTimer = new Timing();
+        clientId = -1;
+    }
+
+    /**
+     * Terminate connection.
+     */
+    private void kick()
+    {
+        if (!connected)
+        {
+            return;
+        }
+        clearMessagesIn();
+        messagesOut.clear();
+        connection.close();
+        if (datagram != null)
+        {
+            datagram.close();
+            datagram = null;
+            peer = null;
+        }
+        for (final ConnectionListener listener : listeners)
+        {
+            listener.notifyConnectionTerminated(Byte.valueOf(getId()));
+        }
+        listeners.clear();
+        connected = false;
+        Verbose.info("Disconnected from the server !");
+    }
+
+    /**
+     * Update the message from its id.
+     * 
+     * @param frame The frame content.
+     * @param messageSystemId The message system ID.
+     * @param from The source ID.
+     * @throws IOException If error when writing data.
+     */
+    private void updateMessage(ByteBuffer frame, byte messageSystemId, byte from) throws IOException
+    {
+        switch (messageSystemId)
+        {
+            case NetworkMessageSystemId.CONNECTING:
+                updateConnecting(frame, from);
+                break;
+            case NetworkMessageSystemId.CONNECTED:
+                updateConnected(frame, from);
+                break;
+            case NetworkMessageSystemId.PING:
+                ping = (int) pingTimer.elapsed();
+                break;
+            case NetworkMessageSystemId.KICKED:
+                kick();
+                break;
+            case NetworkMessageSystemId.OTHER_CLIENT_CONNECTED:
+                updateOtherClientConnected(frame, from);
+                break;
+            case NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED:
+                updateOtherClientDisconnected(frame, from);
+                break;
+            case NetworkMessageSystemId.OTHER_CLIENT_RENAMED:
+                updateOtherClientRenamed(frame, from);
+                break;
+            case NetworkMessageSystemId.USER_MESSAGE:
+                updateUserMessage(frame, from);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Update the connecting case.
+     * 
+     * @param frame The frame content.
+     * @param from The received client id.
+     * @throws IOException If error when writing data.
+     */
+    private void updateConnecting(ByteBuffer frame, byte from) throws IOException
+    {
+        if (clientId == -1)
+        {
+            clientId = from;
+            if (datagramEnabled && frame.remaining() >= Integer.SIZE / Byte.SIZE)
+            {
+                datagram = DatagramConnection.open(0);
+                peer = new DatagramPeer(clientId, frame.getInt());
+                peer.setAddress(address);
+            }
+            connection.startFrame(NetworkMessageSystemId.CONNECTING, clientId);
+            connection.putString(clientName);
+            bandwidth += connection.endFrame();
+            Verbose.info("Client: Performing connection to the server...");
+        }
+    }
+
+    /**
+     * Update the connected case.
+     * 
+     * @param frame The frame content.
+     * @param from The received client id.
+     * @throws IOException If error when writing data.
+     */
+    private void updateConnected(ByteBuffer frame, byte from) throws IOException
+    {
+        if (from != clientId)
+        {
+            return;
+        }
+        for (final ConnectionListener listener : listeners)
+        {
+            listener.notifyConnectionEstablished(Byte.valueOf(clientId), clientName);
+        }
+        final int clientsNumber = frame.get();
+        for (int i = 0; i < clientsNumber; i++)
+        {
+            final byte cid = frame.get();
+            final String cname = ChannelConnection.getString(frame);
+            for (final ConnectionListener listener : listeners)
+            {
+                listener.notifyClientConnected(Byte.valueOf(cid), cname);
+            }
+        }
+        if (frame.hasRemaining())
+        {
+            final String motd = ChannelConnection.getString(frame);
+            for (final ConnectionListener listener : listeners)
+            {
+                listener.notifyMessageOfTheDay(motd);
+            }
+        }
+        bandwidth += connection.writeFrame(NetworkMessageSystemId.CONNECTED, clientId);
+        Verbose.info("Client: Connected to the server !");
+    }
+
+    /**
+     * Update the other client connected case.
+     * 
+     * @param frame The frame content.
+     * @param from The other client id.
+     */
+    private void updateOtherClientConnected(ByteBuffer frame, byte from)
+    {
+        final String name = ChannelConnection.getString(frame);
+        for (final ConnectionListener listener : listeners)
+        {
+            listener.notifyClientConnected(Byte.valueOf(from), name);
+        }
+    }
+
+    /**
+     * Update the other client disconnected case.
+     * 
+     * @param frame The frame content.
+     * @param from The other client id.
+     */
+    private void updateOtherClientDisconnected(ByteBuffer frame, byte from)
+    {
+        final String name = ChannelConnection.getString(frame);
+        for (final ConnectionListener listener : listeners)
+        {
+            listener.notifyClientDisconnected(Byte.valueOf(from), name);
+        }
+    }
+
+    /**
+     * Update the other client renamed case.
+     * 
+     * @param frame The frame content.
+     * @param from The other client id.
+     */
+    private void updateOtherClientRenamed(ByteBuffer frame, byte from)
+    {
+        final String name = ChannelConnection.getString(frame);
+        for (final ConnectionListener listener : listeners)
+        {
+            listener.notifyClientNameChanged(Byte.valueOf(from), name);
+        }
+    }
+
+    /**
+     * Update the user message case.
+     * 
+     * @param frame The frame content.
+     * @param from The source client id.
+     * @throws IOException If error when reading data.
+     */
+    private void updateUserMessage(ByteBuffer frame, byte from) throws IOException
+    {
+        final byte dest = frame.get();
+        final byte type = frame.get();
+        if (frame.hasRemaining())
+        {
+            decodeMessage(type, from, dest, frame);
+        }
+    }
+
+    /**
+     * Handle all received datagrams.
+     * 
+     * @throws IOException If error when reading data.
+     */
+    private void receiveDatagrams() throws IOException
+    {
+        SocketAddress source = datagram.receive();
+        while (source != null)
+        {
+            final ByteBuffer data = datagram.getData();
+            bandwidth += data.remaining();
+            if (source.equals(address) && data.remaining() >= DatagramConnection.HEADER_SIZE)
+            {
+                final byte messageSystemId = data.get();
+                data.get();
+                final int sequence = data.getInt();
+                if (NetworkMessageSystemId.CONNECTING == messageSystemId && sequence == peer.getToken())
+                {
+                    peer.setEstablished();
+                }
+                else if (NetworkMessageSystemId.USER_MESSAGE == messageSystemId && peer.accept(sequence))
+                {
+                    decodeDatagram(data, (byte) -1);
+                }
+            }
+            source = datagram.receive();
+        }
+    }
+
+    /**
+     * Count a sent datagram.
+     * 
+     * @param size The datagram size, <code>0</code> if none sent.
+     */
+    private void countDatagram(int size)
+    {
+        if (size > 0)
+        {
+            countPacket(size);
+            bandwidth += size;
+        }
+    }
+
+    /**
+     * Write message frame, or add it to the pending datagram if unreliable and datagram established.
+     * 
+     * @param message The message to send.
+     * @throws IOException If error when writing data.
+     */
+    private void writeMessage(NetworkMessage message) throws IOException
+    {
+        final ByteBuffer encoded = encodeMessage(message);
+        if (message.isUnreliable()
+            && peer != null
+            && peer.isEstablished()
+            && encoded.limit() <= DatagramPeer.MAX_MESSAGE)
+        {
+            countDatagram(peer.put(encoded, datagram));
+            return;
+        }
+        connection.startFrame(NetworkMessageSystemId.USER_MESSAGE, message.getClientId());
+        connection.putByte(message.getClientDestId());
+        connection.putByte(message.getType());
+        connection.putBytes(encoded);
+        bandwidth += connection.endFrame();
+    }
+
+    /**
+     * Write pending frames.
+     */
+    private void flush()
+    {
+        try
+        {
+            final int written = connection.flush();
+            if (written > 0)
+            {
+                countPacket(written);
+            }
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Unable to send the messages for client: ", String.valueOf(clientId));
+            kick();
+        }
+    }
+
+    /**
+     * Simulate datagrams loss and reordering on sending. Datagram must have been negotiated.
+     * 
+     * @param loss The loss ratio (from 0.0 to 1.0).
+     * @param reorder The ratio of datagrams sent after the next one (from 0.0 to 1.0).
+     */
+    void simulateDatagrams(double loss, double reorder)
+    {
+        datagram.simulate(loss, reorder);
+    }
+
+    /*
+     * Client
+     */
+
+    @Override
+    public void connect(String ip, int port)
+    {
+        Check.notNull(ip);
+        Check.superiorOrEqual(port, 0);
+        Check.inferiorOrEqual(port, Constant.MAX_PORT);
+
+        try
+        {
+            final SocketChannel channel = SocketChannel.open(new InetSocketAddress(InetAddress.getByName(ip), port));
+            channel.socket().setTcpNoDelay(true);
+            channel.configureBlocking(false);
+            connection = new ChannelConnection((byte) -1, channel);
+            address = channel.socket().getRemoteSocketAddress();
+            connected = true;
+            clientId = -1;
+            pingRequestTimer.start();
+            bandwidthTimer.start();
+        }
+        catch (final IOException exception)
+        {
+            throw new LionEngineException(exception, ERROR_CONNECT);
+        }
+    }
+
+    @Override
+    public boolean isConnected()
+    {
+        return connected;
+    }
+
+    @Override
+    public void setName(String name)
+    {
+        clientName = name;
+        if (!connected || clientId == -1)
+        {
+            return;
+        }
+        try
+        {
+            connection.startFrame(NetworkMessageSystemId.OTHER_CLIENT_RENAMED, clientId);
+            connection.putString(clientName);
+            bandwidth += connection.endFrame();
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Unable to set a new client name !");
+        }
+        flush();
+    }
+
+    @Override
+    public String getName()
+    {
+        return clientName;
+    }
+
+    @Override
+    public int getPing()
+    {
+        return ping;
+    }
+
+    @Override
+    public int getBandwidth()
+    {
+        return bandwidthPerSecond;
+    }
+
+    @Override
+    public byte getId()
+    {
+        return clientId;
+    }
+
+    /*
+     * Networker
+     */
+
+    @Override
+    public void disconnect()
+    {
+        if (!connected)
+        {
+            return;
+        }
+        try
+        {
+            connection.writeFrame(NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED, clientId);
+            connection.flushBlocking();
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception);
+        }
+        kick();
+    }
+
+    @Override
+    public void sendMessages()
+    {
+        if (!connected)
+        {
+            return;
+        }
+        try
+        {
+            if (pingRequestTimer.elapsed(PING_MILLI) && clientId != -1)
+            {
+                bandwidth += connection.writeFrame(NetworkMessageSystemId.PING, clientId);
+                pingTimer.restart();
+                pingRequestTimer.restart();
+            }
+            for (final NetworkMessage message : messagesOut)
+            {
+                writeMessage(message);
+            }
+            if (peer != null)
+            {
+                if (peer.isEstablished())
+                {
+                    countDatagram(peer.flush(datagram));
+                }
+                else
+                {
+                    countDatagram(peer.sendHello(datagram));
+                }
+            }
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Unable to send the messages for client: ", String.valueOf(clientId));
+        }
+        messagesOut.clear();
+        flush();
+        endTick();
+        if (bandwidthTimer.elapsed(BANDWIDTH_MILLI))
+        {
+            bandwidthPerSecond = bandwidth;
+            bandwidth = 0;
+            bandwidthTimer.restart();
+        }
+    }
+
+    @Override
+    public void receiveMessages()
+    {
+        if (!connected)
+        {
+            return;
+        }
+        clearMessagesIn();
+        try
+        {
+            if (connection.read() < 0)
+            {
+                kick();
+                return;
+            }
+            connection.beginFrames();
+            try
+            {
+                ByteBuffer frame = connection.nextFrame();
+                while (frame != null && connected)
+                {
+                    bandwidth += ChannelConnection.LENGTH_SIZE + frame.remaining();
+                    final byte messageSystemId = frame.get();
+                    final byte from = frame.get();
+                    updateMessage(frame, messageSystemId, from);
+                    frame = connection.nextFrame();
+                }
+            }
+            finally
+            {
+                connection.endFrames();
+            }
+            if (datagram != null)
+            {
+                receiveDatagrams();
+            }
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Unable to receive the messages for client: ", String.valueOf(clientId));
+            kick();
+        }
+        if (connected)
+        {
+            flush();
+        }
+    }
+}
@@ -42,6 +42,8 @@ final class ClientSocket
     private StateConnection state;
     /** Name. */
     private String name;
+    /** Bytes written and not flushed. */
+    private int pending;
 
     /**
      * Internal constructor.
@@ -203,6 +205,33 @@ final class ClientSocket
         }
     }
 
+    /**
+     * Add bytes written to output stream, waiting for {@link #flushPending()}.
+     * 
+     * @param size The written bytes.
+     */
+    public void addPending(int size)
+    {
+        pending += size;
+    }
+
+    /**
+     * Flush the output stream if data is pending.
+     * 
+     * @return The flushed bytes.
+     * @throws IOException If error when flushing.
+     */
+    public int flushPending() throws IOException
+    {
+        final int flushed = pending;
+        if (flushed > 0)
+        {
+            pending = 0;
+            out.flush();
+        }
+        return flushed;
+    }
+
     /**
      * Get the output stream.
      * 
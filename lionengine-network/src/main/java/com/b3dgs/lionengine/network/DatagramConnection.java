@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Random;
+
+import com.b3dgs.lionengine.Verbose;
+
+/**
+ * Non-blocking datagram channel, exchanging unreliable messages alongside a {@link ChannelConnection}.
+ * <p>
+ * Each datagram is made of the {@link NetworkMessageSystemId}, the sender id, a sequence number (int), and the
+ * messages, each prefixed by its length (short). Loss and reordering can be simulated on sending for testing purpose.
+ * </p>
+ * 
+ * @see DatagramPeer
+ */
+final class DatagramConnection
+{
+    /** Maximum datagram size, below common path MTU. */
+    static final int MAX_SIZE = 1200;
+    /** Datagram header size (system id, sender id, sequence). */
+    static final int HEADER_SIZE = 6;
+    /** Message length size. */
+    static final int LENGTH_SIZE = 2;
+
+    /**
+     * Open a datagram channel.
+     * 
+     * @param port The local port, <code>0</code> for any.
+     * @return The opened connection.
+     * @throws IOException If unable to open channel.
+     */
+    static DatagramConnection open(int port) throws IOException
+    {
+        final DatagramChannel channel = DatagramChannel.open();
+        try
+        {
+            channel.configureBlocking(false);
+            channel.socket().bind(new InetSocketAddress(port));
+            return new DatagramConnection(channel);
+        }
+        catch (final IOException exception)
+        {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    /** Datagram channel. */
+    private final DatagramChannel channel;
+    /** Received datagram (read mode after a reception). */
+    private final ByteBuffer in = ByteBuffer.allocateDirect(MAX_SIZE);
+    /** Simulation random. */
+    private final Random random = new Random();
+    /** Delayed datagram, sent after the next one (<code>null</code> if none). */
+    private ByteBuffer delayed;
+    /** Delayed datagram address. */
+    private SocketAddress delayedAddress;
+    /** Simulated loss ratio. */
+    private double loss;
+    /** Simulated reordering ratio. */
+    private double reorder;
+
+    /**
+     * Create connection.
+     * 
+     * @param channel The bound channel (non-blocking).
+     */
+    private DatagramConnection(DatagramChannel channel)
+    {
+        this.channel = channel;
+    }
+
+    /**
+     * Receive the next available datagram, accessible with {@link #getData()}.
+     * 
+     * @return The sender address, <code>null</code> if no datagram available.
+     * @throws IOException If error when receiving.
+     */
+    public SocketAddress receive() throws IOException
+    {
+        in.clear();
+        final SocketAddress address = channel.receive(in);
+        in.flip();
+        return address;
+    }
+
+    /**
+     * Get the last received datagram.
+     * 
+     * @return The received datagram (ready to be read).
+     */
+    public ByteBuffer getData()
+    {
+        return in;
+    }
+
+    /**
+     * Send a datagram, dropped if the channel cannot send it immediately.
+     * 
+     * @param data The datagram, from its position to its limit.
+     * @param address The recipient address.
+     * @return The datagram size.
+     * @throws IOException If error when sending.
+     */
+    public int send(ByteBuffer data, SocketAddress address) throws IOException
+    {
+        final int size = data.remaining();
+        if (loss > 0.0 && random.nextDouble() < loss)
+        {
+            return size;
+        }
+        if (reorder > 0.0 && delayed == null && random.nextDouble() < reorder)
+        {
+            delayed = ByteBuffer.allocate(size);
+            delayed.put(data);
+            delayed.flip();
+            delayedAddress = address;
+            return size;
+        }
+        channel.send(data, address);
+        if (delayed != null)
+        {
+            channel.send(delayed, delayedAddress);
+            delayed = null;
+        }
+        return size;
+    }
+
+    /**
+     * Simulate datagrams loss and reordering on sending.
+     * 
+     * @param loss The loss ratio (from 0.0 to 1.0).
+     * @param reorder The ratio of datagrams sent after the next one (from 0.0 to 1.0).
+     */
+    void simulate(double loss, double reorder)
+    {
+        this.loss = loss;
+        this.reorder = reorder;
+    }
+
+    /**
+     * Get the local port.
+     * 
+     * @return The local port.
+     */
+    public int getPort()
+    {
+        return channel.socket().getLocalPort();
+    }
+
+    /**
+     * Close the channel.
+     */
+    public void close()
+    {
+        try
+        {
+            channel.close();
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Datagram exchange state with a remote peer: its address, the batch of messages to send, and the sequence numbers.
+ * <p>
+ * Each sent datagram has a new sequence number. A received datagram is accepted only if its sequence is newer than
+ * the last accepted one, stale and duplicated datagrams being dropped.
+ * </p>
+ */
+final class DatagramPeer
+{
+    /** Maximum message size. */
+    static final int MAX_MESSAGE = DatagramConnection.MAX_SIZE
+                                   - DatagramConnection.HEADER_SIZE
+                                   - DatagramConnection.LENGTH_SIZE;
+
+    /** Pending datagram (write mode). */
+    private final ByteBuffer out = ByteBuffer.allocate(DatagramConnection.MAX_SIZE);
+    /** Local sender id. */
+    private final byte id;
+    /** Negotiation token. */
+    private final int token;
+    /** Remote address (<code>null</code> if unknown). */
+    private SocketAddress address;
+    /** Established flag. */
+    private boolean established;
+    /** Next sent sequence. */
+    private int sequenceOut;
+    /** Last accepted sequence. */
+    private int sequenceIn;
+    /** Received flag. */
+    private boolean received;
+
+    /**
+     * Create peer.
+     * 
+     * @param id The local sender id.
+     * @param token The negotiation token.
+     */
+    DatagramPeer(byte id, int token)
+    {
+        this.id = id;
+        this.token = token;
+    }
+
+    /**
+     * Send a negotiation datagram, containing the token.
+     * 
+     * @param connection The datagram connection.
+     * @return The datagram size.
+     * @throws IOException If error when sending.
+     */
+    public int sendHello(DatagramConnection connection) throws IOException
+    {
+        final ByteBuffer hello = ByteBuffer.allocate(DatagramConnection.HEADER_SIZE);
+        hello.put(NetworkMessageSystemId.CONNECTING);
+        hello.put(id);
+        hello.putInt(token);
+        hello.flip();
+        return connection.send(hello, address);
+    }
+
+    /**
+     * Add an encoded message to the pending datagram, sending it first if full.
+     * 
+     * @param encoded The encoded message, of {@link #MAX_MESSAGE} size at most.
+     * @param connection The datagram connection.
+     * @return The sent datagram size, <code>0</code> if none sent.
+     * @throws IOException If error when sending.
+     */
+    public int put(ByteBuffer encoded, DatagramConnection connection) throws IOException
+    {
+        int sent = 0;
+        if (out.remaining() < DatagramConnection.LENGTH_SIZE + encoded.remaining())
+        {
+            sent = flush(connection);
+        }
+        if (out.position() == 0)
+        {
+            out.put(NetworkMessageSystemId.USER_MESSAGE);
+            out.put(id);
+            out.putInt(sequenceOut);
+            sequenceOut++;
+        }
+        out.putShort((short) encoded.remaining());
+        out.put(encoded);
+        return sent;
+    }
+
+    /**
+     * Send the pending datagram.
+     * 
+     * @param connection The datagram connection.
+     * @return The sent datagram size, <code>0</code> if none pending.
+     * @throws IOException If error when sending.
+     */
+    public int flush(DatagramConnection connection) throws IOException
+    {
+        if (out.position() == 0)
+        {
+            return 0;
+        }
+        out.flip();
+        try
+        {
+            return connection.send(out, address);
+        }
+        finally
+        {
+            out.clear();
+        }
+    }
+
+    /**
+     * Accept a received datagram sequence if newer than the last accepted one.
+     * 
+     * @param sequence The received sequence.
+     * @return <code>true</code> if accepted, <code>false</code> if stale or duplicated.
+     */
+    public boolean accept(int sequence)
+    {
+        if (!received || sequence - sequenceIn > 0)
+        {
+            sequenceIn = sequence;
+            received = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Set the remote address.
+     * 
+     * @param address The remote address.
+     */
+    public void setAddress(SocketAddress address)
+    {
+        this.address = address;
+    }
+
+    /**
+     * Get the remote address.
+     * 
+     * @return The remote address, <code>null</code> if unknown.
+     */
+    public SocketAddress getAddress()
+    {
+        return address;
+    }
+
+    /**
+     * Set as established, allowing to send messages.
+     */
+    public void setEstablished()
+    {
+        established = true;
+    }
+
+    /**
+     * Check if established.
+     * 
+     * @return <code>true</code> if established, <code>false</code> if still negotiating.
+     */
+    public boolean isEstablished()
+    {
+        return established;
+    }
+
+    /**
+     * Get the negotiation token.
+     * 
+     * @return The negotiation token.
+     */
+    public int getToken()
+    {
+        return token;
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.game.feature.transformable.Transformable;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageEntity;
+import com.b3dgs.lionengine.network.purview.NetworkableEntity;
+import com.b3dgs.lionengine.network.purview.Perceptible;
+
+/**
+ * Area of interest filter, sending the {@link Perceptible} entity messages only to the clients viewing them.
+ * <p>
+ * Client views are indexed in a grid: each cell stores the clients whose view, enlarged by a margin, overlaps it. The
+ * recipients of a message are found from the cell containing the entity, then checked against their view, so routing
+ * cost depends on the number of viewers, not on the number of entities. Clients without view receive all messages.
+ * </p>
+ * <p>
+ * Views are capped to a maximum size, as they may be sent by clients, bounding the number of indexed cells.
+ * </p>
+ */
+final class InterestManager implements MessageFilter
+{
+    /** Client bits per word. */
+    private static final int WORD_BITS = Long.SIZE;
+    /** Number of words for all clients. */
+    private static final int WORDS = (Byte.MAX_VALUE + 1) / WORD_BITS;
+    /** Integer mask. */
+    private static final long INT_MASK = 0xFFFFFFFFL;
+
+    /**
+     * Get the cell key.
+     * 
+     * @param cx The cell horizontal index.
+     * @param cy The cell vertical index.
+     * @return The cell key.
+     */
+    private static long getKey(int cx, int cy)
+    {
+        return (long) cx << Integer.SIZE | cy & INT_MASK;
+    }
+
+    /**
+     * Check if client bit is set.
+     * 
+     * @param bits The clients bits.
+     * @param clientId The client id.
+     * @return <code>true</code> if set, <code>false</code> else.
+     */
+    private static boolean isSet(long[] bits, int clientId)
+    {
+        return (bits[clientId / WORD_BITS] >>> clientId % WORD_BITS & 1L) != 0L;
+    }
+
+    /** Clients by cell key. */
+    private final Map<Long, long[]> cells = new HashMap<Long, long[]>();
+    /** Views by client id (x, y, width, height). */
+    private final Map<Byte, int[]> views = new HashMap<Byte, int[]>();
+    /** Entities by id. */
+    private final Map<Short, NetworkableEntity> entities;
+    /** Current message recipients. */
+    private final long[] recipients = new long[WORDS];
+    /** Cell size. */
+    private final int cellSize;
+    /** View margin, as the maximum entity half size. */
+    private final int margin;
+    /** Maximum view width and height. */
+    private final int maxView;
+    /** Current message. */
+    private NetworkMessage current;
+    /** Current message is filtered. */
+    private boolean filtered;
+
+    /**
+     * Create manager.
+     * 
+     * @param entities The entities by id.
+     * @param cellSize The grid cell size (strictly positive).
+     * @param margin The view margin, as the maximum entity half size (positive).
+     * @param maxView The maximum view width and height (strictly positive).
+     * @throws com.b3dgs.lionengine.LionEngineException If invalid arguments.
+     */
+    InterestManager(Map<Short, NetworkableEntity> entities, int cellSize, int margin, int maxView)
+    {
+        Check.superiorStrict(cellSize, 0);
+        Check.superiorOrEqual(margin, 0);
+        Check.superiorStrict(maxView, 0);
+
+        this.entities = entities;
+        this.cellSize = cellSize;
+        this.margin = margin;
+        this.maxView = maxView;
+    }
+
+    /**
+     * Set a client view. Its size is capped to the maximum view size.
+     * 
+     * @param clientId The client id (positive).
+     * @param x The view horizontal location.
+     * @param y The view vertical location.
+     * @param width The view width (strictly positive).
+     * @param height The view height (strictly positive).
+     * @throws com.b3dgs.lionengine.LionEngineException If invalid arguments.
+     */
+    public void setView(byte clientId, int x, int y, int width, int height)
+    {
+        Check.superiorOrEqual(clientId, 0);
+        Check.superiorStrict(width, 0);
+        Check.superiorStrict(height, 0);
+
+        removeView(clientId);
+        final int[] view = new int[]
+        {
+            x, y, Math.min(width, maxView), Math.min(height, maxView)
+        };
+        views.put(Byte.valueOf(clientId), view);
+        update(view, clientId, true);
+        current = null;
+    }
+
+    /**
+     * Remove a client view. Client will receive all messages.
+     * 
+     * @param clientId The client id.
+     */
+    public void removeView(byte clientId)
+    {
+        final int[] view = views.remove(Byte.valueOf(clientId));
+        if (view != null)
+        {
+            update(view, clientId, false);
+            current = null;
+        }
+    }
+
+    /**
+     * Reset the computed recipients. Must be called when entities moved.
+     */
+    public void reset()
+    {
+        current = null;
+    }
+
+    /**
+     * Set or clear the client in the cells overlapped by its view.
+     * 
+     * @param view The client view.
+     * @param clientId The client id.
+     * @param set <code>true</code> to set, <code>false</code> to clear.
+     */
+    private void update(int[] view, byte clientId, boolean set)
+    {
+        final int minX = (int) Math.floor((view[0] - (double) margin) / cellSize);
+        final int maxX = (int) Math.floor((view[0] + (double) view[2] + margin) / cellSize);
+        final int minY = (int) Math.floor((view[1] - (double) margin) / cellSize);
+        final int maxY = (int) Math.floor((view[1] + (double) view[3] + margin) / cellSize);
+        final int word = clientId / WORD_BITS;
+        final long bit = 1L << clientId % WORD_BITS;
+        for (int cx = minX; cx <= maxX; cx++)
+        {
+            for (int cy = minY; cy <= maxY; cy++)
+            {
+                final Long key = Long.valueOf(getKey(cx, cy));
+                long[] bits = cells.get(key);
+                if (set)
+                {
+                    if (bits == null)
+                    {
+                        bits = new long[WORDS];
+                        cells.put(key, bits);
+                    }
+                    bits[word] |= bit;
+                }
+                else if (bits != null)
+                {
+                    bits[word] &= ~bit;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compute the recipients of an entity message.
+     * 
+     * @param message The message to send.
+     * @return <code>true</code> if message is filtered, <code>false</code> if sent to all.
+     */
+    private boolean computeRecipients(NetworkMessage message)
+    {
+        if (!(message instanceof NetworkMessageEntity<?>))
+        {
+            return false;
+        }
+        final short id = ((NetworkMessageEntity<?>) message).getEntityId();
+        final NetworkableEntity entity = entities.get(Short.valueOf(id));
+        if (!(entity instanceof Perceptible))
+        {
+            return false;
+        }
+        final Transformable transformable = ((Perceptible) entity).getTransformable();
+        final double x = transformable.getX();
+        final double y = transformable.getY();
+        final long[] bits = cells.get(Long.valueOf(getKey((int) Math.floor(x / cellSize),
+                                                          (int) Math.floor(y / cellSize))));
+        for (int word = 0; word < WORDS; word++)
+        {
+            recipients[word] = 0L;
+            long candidates = bits == null ? 0L : bits[word];
+            while (candidates != 0L)
+            {
+                final int clientId = word * WORD_BITS + Long.numberOfTrailingZeros(candidates);
+                final int[] view = views.get(Byte.valueOf((byte) clientId));
+                if (isViewable(view, x, y, transformable.getWidth(), transformable.getHeight()))
+                {
+                    recipients[word] |= 1L << clientId % WORD_BITS;
+                }
+                candidates &= candidates - 1L;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if entity is inside the view.
+     * 
+     * @param view The client view.
+     * @param x The entity horizontal location.
+     * @param y The entity vertical location.
+     * @param width The entity width.
+     * @param height The entity height.
+     * @return <code>true</code> if viewable, <code>false</code> else.
+     */
+    private boolean isViewable(int[] view, double x, double y, int width, int height)
+    {
+        return x + width >= view[0]
+               && x - width <= view[0] + view[2]
+               && y + height >= view[1]
+               && y - height <= view[1] + view[3];
+    }
+
+    /*
+     * MessageFilter
+     */
+
+    @Override
+    public boolean isRecipient(NetworkMessage message, byte clientId)
+    {
+        if (message != current)
+        {
+            current = message;
+            filtered = computeRecipients(message);
+        }
+        return !filtered || isSet(recipients, clientId) || !views.containsKey(Byte.valueOf(clientId));
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import com.b3dgs.lionengine.Check;
+
+/**
+ * Timestamped locations of a remote entity, sampled in the past to render smooth movements whatever the network
+ * timing.
+ * <p>
+ * A location sampled between two received states is linearly interpolated. When no newer state has been received,
+ * the last one is extrapolated with its velocity (expressed per tick) during a limited time, then kept.
+ * </p>
+ * <p>
+ * Usage:
+ * </p>
+ * 
+ * <pre>
+ * buffer.add(time, x, y, vx, vy); // On reception
+ * buffer.sample(time - delay); // On rendering
+ * transformable.teleport(buffer.getX(), buffer.getY());
+ * </pre>
+ */
+public final class InterpolationBuffer
+{
+    /** Default states capacity. */
+    public static final int DEFAULT_CAPACITY = 32;
+    /** Milliseconds per second. */
+    private static final double MILLI = 1000.0;
+
+    /** States time. */
+    private final long[] times;
+    /** States horizontal location. */
+    private final double[] xs;
+    /** States vertical location. */
+    private final double[] ys;
+    /** States horizontal velocity. */
+    private final double[] vxs;
+    /** States vertical velocity. */
+    private final double[] vys;
+    /** Ticks per second, to convert velocities. */
+    private final int rate;
+    /** Maximum extrapolation time. */
+    private final int extrapolation;
+    /** Oldest state index. */
+    private int first;
+    /** Number of states. */
+    private int count;
+    /** Sampled horizontal location. */
+    private double x;
+    /** Sampled vertical location. */
+    private double y;
+
+    /**
+     * Create buffer with {@link #DEFAULT_CAPACITY}.
+     * 
+     * @param rate The ticks per second, unit of the velocities (strictly positive).
+     * @param extrapolation The maximum extrapolation time in milliseconds (positive).
+     * @throws com.b3dgs.lionengine.LionEngineException If invalid arguments.
+     */
+    public InterpolationBuffer(int rate, int extrapolation)
+    {
+        this(DEFAULT_CAPACITY, rate, extrapolation);
+    }
+
+    /**
+     * Create buffer.
+     * 
+     * @param capacity The maximum number of states (superior or equal to 2).
+     * @param rate The ticks per second, unit of the velocities (strictly positive).
+     * @param extrapolation The maximum extrapolation time in milliseconds (positive).
+     * @throws com.b3dgs.lionengine.LionEngineException If invalid arguments.
+     */
+    public InterpolationBuffer(int capacity, int rate, int extrapolation)
+    {
+        Check.superiorOrEqual(capacity, 2);
+        Check.superiorStrict(rate, 0);
+        Check.superiorOrEqual(extrapolation, 0);
+
+        times = new long[capacity];
+        xs = new double[capacity];
+        ys = new double[capacity];
+        vxs = new double[capacity];
+        vys = new double[capacity];
+        this.rate = rate;
+        this.extrapolation = extrapolation;
+    }
+
+    /**
+     * Add a received state. Older states than the last one are ignored, a state at the same time replaces it. The
+     * oldest state is discarded if full.
+     * 
+     * @param time The reception time in milliseconds.
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @param vx The horizontal velocity per tick.
+     * @param vy The vertical velocity per tick.
+     */
+    public void add(long time, double x, double y, double vx, double vy)
+    {
+        final int index;
+        if (count > 0 && time <= times[getIndex(count - 1)])
+        {
+            if (time < times[getIndex(count - 1)])
+            {
+                return;
+            }
+            index = getIndex(count - 1);
+        }
+        else
+        {
+            if (count == times.length)
+            {
+                first = getIndex(1);
+                count--;
+            }
+            index = getIndex(count);
+            count++;
+        }
+        times[index] = time;
+        xs[index] = x;
+        ys[index] = y;
+        vxs[index] = vx;
+        vys[index] = vy;
+    }
+
+    /**
+     * Sample the location at the specified time, accessible with {@link #getX()} and {@link #getY()}. States older
+     * than the sampled interval are discarded.
+     * 
+     * @param time The time in milliseconds.
+     * @return <code>true</code> if sampled, <code>false</code> if no state.
+     */
+    public boolean sample(long time)
+    {
+        if (count == 0)
+        {
+            return false;
+        }
+        while (count > 1 && times[getIndex(1)] <= time)
+        {
+            first = getIndex(1);
+            count--;
+        }
+        final int oldest = getIndex(0);
+        if (time <= times[oldest])
+        {
+            x = xs[oldest];
+            y = ys[oldest];
+        }
+        else if (count == 1)
+        {
+            final double elapsed = Math.min(time - times[oldest], extrapolation) * rate / MILLI;
+            x = xs[oldest] + vxs[oldest] * elapsed;
+            y = ys[oldest] + vys[oldest] * elapsed;
+        }
+        else
+        {
+            final int next = getIndex(1);
+            final double alpha = (time - times[oldest]) / (double) (times[next] - times[oldest]);
+            x = xs[oldest] + (xs[next] - xs[oldest]) * alpha;
+            y = ys[oldest] + (ys[next] - ys[oldest]) * alpha;
+        }
+        return true;
+    }
+
+    /**
+     * Remove all states.
+     */
+    public void clear()
+    {
+        first = 0;
+        count = 0;
+    }
+
+    /**
+     * Get the number of states.
+     * 
+     * @return The number of states.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Get the last sampled horizontal location.
+     * 
+     * @return The sampled horizontal location.
+     */
+    public double getX()
+    {
+        return x;
+    }
+
+    /**
+     * Get the last sampled vertical location.
+     * 
+     * @return The sampled vertical location.
+     */
+    public double getY()
+    {
+        return y;
+    }
+
+    /**
+     * Get the array index of a state.
+     * 
+     * @param i The state index from the oldest.
+     * @return The array index.
+     */
+    private int getIndex(int i)
+    {
+        return (first + i) % times.length;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageEntity;
+
+/**
+ * Collect the messages of a tick, coalescing the identified entities updates of the enabled types.
+ * <p>
+ * Entity messages of an enabled type sharing the same source, destination and entity id are merged into the first
+ * one, the latest value of each action winning. A merged message is unreliable only if all its parts are. Coalescing
+ * is disabled by default, as it is only valid for state messages (an event message would lose its actions).
+ * </p>
+ * <p>
+ * Messages order is kept: any other message ends the current merge, so an update is never merged before a message
+ * added ahead of it.
+ * </p>
+ */
+final class NetworkMessageCoalescer
+{
+    /**
+     * Get the coalescing key of an entity message.
+     * 
+     * @param message The entity message.
+     * @return The message key.
+     */
+    private static long getKey(NetworkMessageEntity<?> message)
+    {
+        final int byteMask = 0xFF;
+        final int shortMask = 0xFFFF;
+        final int typeShift = 32;
+        final int clientShift = 24;
+        final int destShift = 16;
+        return (long) (message.getType() & byteMask) << typeShift
+               | (long) (message.getClientId() & byteMask) << clientShift
+               | (long) (message.getClientDestId() & byteMask) << destShift
+               | message.getEntityId() & shortMask;
+    }
+
+    /**
+     * Merge a message into another of the same class.
+     * 
+     * @param <M> The message entity element enum.
+     * @param target The message to merge into.
+     * @param source The message to merge, of the same class as target.
+     */
+    @SuppressWarnings("unchecked")
+    private static <M extends Enum<M>> void merge(NetworkMessageEntity<M> target, NetworkMessageEntity<?> source)
+    {
+        target.addActions((NetworkMessageEntity<M>) source);
+    }
+
+    /** Collected messages. */
+    private final List<NetworkMessage> messages = new ArrayList<NetworkMessage>();
+    /** Entity messages by key. */
+    private final Map<Long, NetworkMessageEntity<?>> entities = new HashMap<Long, NetworkMessageEntity<?>>();
+    /** Coalesced message types. */
+    private final Collection<Byte> types = new HashSet<Byte>();
+
+    /**
+     * Create coalescer.
+     */
+    NetworkMessageCoalescer()
+    {
+        super();
+    }
+
+    /**
+     * Check if message can be coalesced.
+     * 
+     * @param message The message to check.
+     * @return <code>true</code> if identified entity message of a coalesced type, <code>false</code> else.
+     */
+    private boolean isCoalescing(NetworkMessage message)
+    {
+        return !types.isEmpty()
+               && message instanceof NetworkMessageEntity<?>
+               && ((NetworkMessageEntity<?>) message).getEntityId() >= 0
+               && types.contains(Byte.valueOf(message.getType()));
+    }
+
+    /**
+     * Enable or disable the coalescing of a message type.
+     * 
+     * @param type The message type.
+     * @param enabled <code>true</code> to enable, <code>false</code> to disable.
+     */
+    public void setCoalescing(byte type, boolean enabled)
+    {
+        if (enabled)
+        {
+            types.add(Byte.valueOf(type));
+        }
+        else
+        {
+            types.remove(Byte.valueOf(type));
+        }
+    }
+
+    /**
+     * Add a message, merging it with a previous one if possible.
+     * 
+     * @param message The message to add.
+     */
+    public void add(NetworkMessage message)
+    {
+        if (isCoalescing(message))
+        {
+            final NetworkMessageEntity<?> entity = (NetworkMessageEntity<?>) message;
+            final Long key = Long.valueOf(getKey(entity));
+            final NetworkMessageEntity<?> previous = entities.get(key);
+            if (previous != null && previous.getClass() == entity.getClass())
+            {
+                merge(previous, entity);
+                if (!entity.isUnreliable())
+                {
+                    previous.setUnreliable(false);
+                }
+                return;
+            }
+            entities.put(key, entity);
+        }
+        else
+        {
+            entities.clear();
+        }
+        messages.add(message);
+    }
+
+    /**
+     * Add messages, merging them with previous ones if possible.
+     * 
+     * @param messages The messages to add.
+     */
+    public void addAll(Collection<NetworkMessage> messages)
+    {
+        for (final NetworkMessage message : messages)
+        {
+            add(message);
+        }
+    }
+
+    /**
+     * Get the collected messages.
+     * 
+     * @return The collected messages.
+     */
+    public Collection<NetworkMessage> getMessages()
+    {
+        return messages;
+    }
+
+    /**
+     * Clear the collected messages.
+     */
+    public void clear()
+    {
+        messages.clear();
+        entities.clear();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.util.UtilConversion;
+
+/**
+ * Snapshot delta message, sent by the server to a client.
+ */
+final class NetworkMessageSnapshot extends NetworkMessage
+{
+    /** Snapshot sequence. */
+    private int sequence;
+    /** Baseline sequence (-1 if none). */
+    private int baseline;
+    /** Bit packed delta. */
+    private byte[] data;
+
+    /**
+     * Create message for decoding.
+     */
+    NetworkMessageSnapshot()
+    {
+        super();
+    }
+
+    /**
+     * Create message.
+     * 
+     * @param clientDestId The client destination.
+     * @param sequence The snapshot sequence.
+     * @param baseline The baseline sequence (-1 if none).
+     * @param writer The delta writer.
+     */
+    NetworkMessageSnapshot(byte clientDestId, int sequence, int baseline, BitWriter writer)
+    {
+        super(WorldMessageDecoder.TYPE_SNAPSHOT, (byte) -1, clientDestId);
+        this.sequence = sequence;
+        this.baseline = baseline;
+        data = Arrays.copyOf(writer.getData(), writer.getSize());
+    }
+
+    /**
+     * Get the snapshot sequence.
+     * 
+     * @return The snapshot sequence.
+     */
+    public int getSequence()
+    {
+        return sequence;
+    }
+
+    /**
+     * Get the baseline sequence.
+     * 
+     * @return The baseline sequence (-1 if none).
+     */
+    public int getBaseline()
+    {
+        return baseline;
+    }
+
+    /**
+     * Create a reader of the delta.
+     * 
+     * @return The delta reader.
+     */
+    public BitReader createReader()
+    {
+        return new BitReader(data, data.length);
+    }
+
+    /*
+     * NetworkMessage
+     */
+
+    @Override
+    protected void encode(ByteArrayOutputStream buffer) throws IOException
+    {
+        buffer.write(UtilConversion.intToByteArray(sequence));
+        buffer.write(UtilConversion.intToByteArray(baseline));
+        buffer.write(data);
+    }
+
+    @Override
+    protected void decode(DataInputStream buffer) throws IOException
+    {
+        sequence = buffer.readInt();
+        baseline = buffer.readInt();
+        data = new byte[buffer.available()];
+        buffer.readFully(data);
+    }
+
+    @Override
+    protected void encode(ByteBuffer buffer)
+    {
+        buffer.putInt(sequence);
+        buffer.putInt(baseline);
+        buffer.put(data);
+    }
+
+    @Override
+    protected void decode(ByteBuffer buffer)
+    {
+        sequence = buffer.getInt();
+        baseline = buffer.getInt();
+        data = new byte[buffer.remaining()];
+        buffer.get(data);
+    }
+}
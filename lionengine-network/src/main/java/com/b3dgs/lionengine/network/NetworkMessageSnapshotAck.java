@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.util.UtilConversion;
+
+/**
+ * Snapshot acknowledge message, sent by a client to the server.
+ */
+final class NetworkMessageSnapshotAck extends NetworkMessage
+{
+    /** Acknowledged snapshot sequence. */
+    private int sequence;
+
+    /**
+     * Create message for decoding.
+     */
+    NetworkMessageSnapshotAck()
+    {
+        super();
+    }
+
+    /**
+     * Create message.
+     * 
+     * @param clientId The client id.
+     * @param sequence The acknowledged snapshot sequence.
+     */
+    NetworkMessageSnapshotAck(byte clientId, int sequence)
+    {
+        super(WorldMessageDecoder.TYPE_SNAPSHOT_ACK, clientId);
+        this.sequence = sequence;
+    }
+
+    /**
+     * Get the acknowledged snapshot sequence.
+     * 
+     * @return The acknowledged snapshot sequence.
+     */
+    public int getSequence()
+    {
+        return sequence;
+    }
+
+    /*
+     * NetworkMessage
+     */
+
+    @Override
+    protected void encode(ByteArrayOutputStream buffer) throws IOException
+    {
+        buffer.write(UtilConversion.intToByteArray(sequence));
+    }
+
+    @Override
+    protected void decode(DataInputStream buffer) throws IOException
+    {
+        sequence = buffer.readInt();
+    }
+
+    @Override
+    protected void encode(ByteBuffer buffer)
+    {
+        buffer.putInt(sequence);
+    }
+
+    @Override
+    protected void decode(ByteBuffer buffer)
+    {
+        sequence = buffer.getInt();
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.util.UtilConversion;
+
+/**
+ * Client view message, sent by a client to the server for interest management.
+ */
+final class NetworkMessageView extends NetworkMessage
+{
+    /** View horizontal location. */
+    private int x;
+    /** View vertical location. */
+    private int y;
+    /** View width. */
+    private int width;
+    /** View height. */
+    private int height;
+
+    /**
+     * Create message for decoding.
+     */
+    NetworkMessageView()
+    {
+        super();
+    }
+
+    /**
+     * Create message.
+     * 
+     * @param clientId The client id.
+     * @param x The view horizontal location.
+     * @param y The view vertical location.
+     * @param width The view width.
+     * @param height The view height.
+     */
+    NetworkMessageView(byte clientId, int x, int y, int width, int height)
+    {
+        super(WorldMessageDecoder.TYPE_VIEW, clientId);
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Get the view horizontal location.
+     * 
+     * @return The view horizontal location.
+     */
+    public int getX()
+    {
+        return x;
+    }
+
+    /**
+     * Get the view vertical location.
+     * 
+     * @return The view vertical location.
+     */
+    public int getY()
+    {
+        return y;
+    }
+
+    /**
+     * Get the view width.
+     * 
+     * @return The view width.
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Get the view height.
+     * 
+     * @return The view height.
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /*
+     * NetworkMessage
+     */
+
+    @Override
+    protected void encode(ByteArrayOutputStream buffer) throws IOException
+    {
+        buffer.write(UtilConversion.intToByteArray(x));
+        buffer.write(UtilConversion.intToByteArray(y));
+        buffer.write(UtilConversion.intToByteArray(width));
+        buffer.write(UtilConversion.intToByteArray(height));
+    }
+
+    @Override
+    protected void decode(DataInputStream buffer) throws IOException
+    {
+        x = buffer.readInt();
+        y = buffer.readInt();
+        width = buffer.readInt();
+        height = buffer.readInt();
+    }
+
+    @Override
+    protected void encode(ByteBuffer buffer)
+    {
+        buffer.putInt(x);
+        buffer.putInt(y);
+        buffer.putInt(width);
+        buffer.putInt(height);
+    }
+
+    @Override
+    protected void decode(ByteBuffer buffer)
+    {
+        x = buffer.getInt();
+        y = buffer.getInt();
+        width = buffer.getInt();
+        height = buffer.getInt();
+    }
+}
@@ -17,21 +17,60 @@
  */
 package com.b3dgs.lionengine.network;
 
-import java.io.DataInputStream;
+import java.io.DataInput;
 import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 
 import com.b3dgs.lionengine.network.message.NetworkMessage;
 import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+import com.b3dgs.lionengine.network.message.NetworkMessagePool;
 
 /**
  * Network base implementation.
+ * <p>
+ * Messages are encoded and decoded with reused buffers. Received messages are released to the decoder on each
+ * reception if it is a {@link NetworkMessagePool}.
+ * </p>
  * 
  * @param <L> Client listener type used.
  */
 abstract class NetworkModel<L extends ClientListener> implements Networker<L>
 {
+    /** Message header size (type, client id, client destination id). */
+    private static final int HEADER_SIZE = 3;
+    /** Default buffer capacity. */
+    private static final int DEFAULT_CAPACITY = 1 << 10;
+    /** Maximum buffer capacity. */
+    private static final int MAX_CAPACITY = 1 << 20;
+    /** Message too large error. */
+    private static final String ERROR_SIZE = "Message too large: ";
+    /** Invalid datagram error. */
+    private static final String ERROR_DATAGRAM = "Invalid datagram message length: ";
+    /** Short mask. */
+    private static final int SHORT_MASK = 0xFFFF;
+
+    /**
+     * Get the pool used by the decoder.
+     * 
+     * @param decoder The message decoder.
+     * @return The pool, <code>null</code> if none.
+     */
+    private static NetworkMessagePool getPool(NetworkMessageDecoder decoder)
+    {
+        if (decoder instanceof NetworkMessagePool)
+        {
+            return (NetworkMessagePool) decoder;
+        }
+        if (decoder instanceof WorldMessageDecoder)
+        {
+            return getPool(((WorldMessageDecoder) decoder).getDecoder());
+        }
+        return null;
+    }
+
     /** Messages list. */
     protected final Collection<NetworkMessage> messagesOut;
     /** Messages list. */
@@ -40,6 +79,20 @@ abstract class NetworkModel<L extends ClientListener> implements Networker<L>
     protected final NetworkMessageDecoder decoder;
     /** The client connection listener. */
     protected final Collection<L> listeners;
+    /** Messages pool (<code>null</code> if none). */
+    private final NetworkMessagePool pool;
+    /** Encoding buffer. */
+    private ByteBuffer encoded = ByteBuffer.allocate(DEFAULT_CAPACITY);
+    /** Decoding buffer. */
+    private ByteBuffer decoded = ByteBuffer.allocate(DEFAULT_CAPACITY);
+    /** Bytes sent during current tick. */
+    private int bytes;
+    /** Packets sent during current tick. */
+    private int packets;
+    /** Bytes sent during last tick. */
+    private int tickBytes;
+    /** Packets sent during last tick. */
+    private int tickPackets;
 
     /**
      * Internal constructor.
@@ -49,32 +102,160 @@ abstract class NetworkModel<L extends ClientListener> implements Networker<L>
     NetworkModel(NetworkMessageDecoder decoder)
     {
         this.decoder = decoder;
+        pool = getPool(decoder);
         messagesOut = new ArrayList<NetworkMessage>();
         messagesIn = new ArrayList<NetworkMessage>();
         listeners = new ArrayList<L>(1);
     }
 
+    /**
+     * Encode a message in the reused encoding buffer, valid until next call.
+     * 
+     * @param message The message to encode.
+     * @return The encoded message (ready to be read).
+     * @throws IOException Error on writing, or message too large.
+     */
+    protected ByteBuffer encodeMessage(NetworkMessage message) throws IOException
+    {
+        while (true)
+        {
+            encoded.clear();
+            try
+            {
+                message.write(encoded);
+                encoded.flip();
+                return encoded;
+            }
+            catch (final BufferOverflowException exception)
+            {
+                if (encoded.capacity() >= MAX_CAPACITY)
+                {
+                    throw new IOException(ERROR_SIZE + message.getClass().getName(), exception);
+                }
+                encoded = ByteBuffer.allocate(encoded.capacity() * 2);
+            }
+        }
+    }
+
     /**
      * Decode a message from its type.
      * 
      * @param type The message type.
      * @param from The client id source.
      * @param dest The client id destination (-1 if all).
-     * @param buffer The data.
+     * @param buffer The data, read from its current position to its limit.
+     * @return The decoded message, <code>null</code> if none.
      * @throws IOException Error on reading.
      */
-    protected void decodeMessage(byte type, byte from, byte dest, DataInputStream buffer) throws IOException
+    protected NetworkMessage decodeMessage(byte type, byte from, byte dest, ByteBuffer buffer) throws IOException
     {
         final NetworkMessage message = decoder.getNetworkMessageFromType(type);
-        if (message != null)
+        if (message != null && buffer.remaining() >= HEADER_SIZE)
+        {
+            buffer.position(buffer.position() + HEADER_SIZE);
+            message.read(type, from, dest, buffer);
+            messagesIn.add(message);
+            return message;
+        }
+        return null;
+    }
+
+    /**
+     * Decode the messages of a datagram, each prefixed by its length, as unreliable messages.
+     * 
+     * @param datagram The datagram messages, read from its current position to its limit.
+     * @param source The required messages source, <code>-1</code> to accept any source.
+     * @throws IOException Error on reading.
+     */
+    protected void decodeDatagram(ByteBuffer datagram, byte source) throws IOException
+    {
+        final int limit = datagram.limit();
+        while (datagram.remaining() >= DatagramConnection.LENGTH_SIZE)
+        {
+            final int length = datagram.getShort() & SHORT_MASK;
+            final int start = datagram.position();
+            if (length < HEADER_SIZE || length > datagram.remaining())
+            {
+                throw new IOException(ERROR_DATAGRAM + length);
+            }
+            final byte type = datagram.get(start);
+            final byte from = datagram.get(start + 1);
+            final byte dest = datagram.get(start + 2);
+            if (source < 0 || from == source)
+            {
+                datagram.limit(start + length);
+                final NetworkMessage message = decodeMessage(type, from, dest, datagram);
+                if (message != null)
+                {
+                    message.setUnreliable(true);
+                }
+                datagram.limit(limit);
+            }
+            datagram.position(start + length);
+        }
+    }
+
+    /**
+     * Read message data in the reused decoding buffer, and decode it.
+     * 
+     * @param type The message type.
+     * @param from The client id source.
+     * @param dest The client id destination (-1 if all).
+     * @param input The input to read.
+     * @param size The data size.
+     * @throws IOException Error on reading, or message too large.
+     */
+    protected void decodeMessage(byte type, byte from, byte dest, DataInput input, int size) throws IOException
+    {
+        if (size > MAX_CAPACITY)
+        {
+            throw new IOException(ERROR_SIZE + size);
+        }
+        if (decoded.capacity() < size)
+        {
+            decoded = ByteBuffer.allocate(Math.max(size, decoded.capacity() * 2));
+        }
+        input.readFully(decoded.array(), 0, size);
+        decoded.clear();
+        decoded.limit(size);
+        decodeMessage(type, from, dest, decoded);
+    }
+
+    /**
+     * Count a packet sent during current tick.
+     * 
+     * @param size The packet size in bytes.
+     */
+    protected void countPacket(int size)
+    {
+        bytes += size;
+        packets++;
+    }
+
+    /**
+     * Terminate the current tick, storing its bytes and packets count.
+     */
+    protected void endTick()
+    {
+        tickBytes = bytes;
+        tickPackets = packets;
+        bytes = 0;
+        packets = 0;
+    }
+
+    /**
+     * Clear the received messages, releasing them to the decoder if it uses a pool.
+     */
+    protected void clearMessagesIn()
+    {
+        if (pool != null)
         {
-            final int skip = 3;
-            if (buffer.skipBytes(skip) == skip)
+            for (final NetworkMessage message : messagesIn)
             {
-                message.decode(type, from, dest, buffer);
-                messagesIn.add(message);
+                pool.release(message);
             }
         }
+        messagesIn.clear();
     }
 
     /*
@@ -110,4 +291,16 @@ abstract class NetworkModel<L extends ClientListener> implements Networker<L>
     {
         return messagesIn;
     }
+
+    @Override
+    public int getTickBytes()
+    {
+        return tickBytes;
+    }
+
+    @Override
+    public int getTickPackets()
+    {
+        return tickPackets;
+    }
 }
@@ -60,6 +60,17 @@ public interface NetworkedWorld extends ClientListener
      */
     void addMessages(Collection<NetworkMessage> messages);
 
+    /**
+     * Enable or disable the coalescing of the entity messages of a type added during a tick. When enabled, the
+     * messages of this type sharing the same source, destination and entity id are merged before being sent, the
+     * latest value of each action winning. Only suited to state messages, as an event message would lose its actions.
+     * Disabled by default.
+     * 
+     * @param type The message type.
+     * @param enabled <code>true</code> to enable, <code>false</code> to disable.
+     */
+    void setCoalescing(byte type, boolean enabled);
+
     /**
      * Send all messages to the network.
      */
@@ -76,4 +87,18 @@ public interface NetworkedWorld extends ClientListener
      * @return The number of bytes sent per second.
      */
     int getBandwidth();
+
+    /**
+     * Get the amount of bytes sent during the last tick, a tick ending on {@link #sendMessages()}.
+     * 
+     * @return The number of bytes sent during the last tick.
+     */
+    int getTickBytes();
+
+    /**
+     * Get the number of packets sent during the last tick, a tick ending on {@link #sendMessages()}.
+     * 
+     * @return The number of packets sent during the last tick.
+     */
+    int getTickPackets();
 }
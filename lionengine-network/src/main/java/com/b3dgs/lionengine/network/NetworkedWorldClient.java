@@ -60,4 +60,33 @@ public interface NetworkedWorldClient extends NetworkedWorld, ConnectionListener
      * @return The network id.
      */
     byte getId();
+
+    /**
+     * Send the client view to the server, used by its area of interest management
+     * (see {@link NetworkedWorldServer#setInterestManagement(int, int, int)}). Sent on next {@link #sendMessages()}.
+     * 
+     * @param x The view horizontal location.
+     * @param y The view vertical location.
+     * @param width The view width (strictly positive).
+     * @param height The view height (strictly positive).
+     * @throws LionEngineException If invalid arguments.
+     */
+    void setView(int x, int y, int width, int height);
+
+    /**
+     * Enable or disable the interpolation of {@link com.b3dgs.lionengine.network.purview.Interpolable} entities. When
+     * enabled, their received locations are buffered and rendered with a delay on {@link #interpolate()}.
+     * 
+     * @param delay The interpolation delay in milliseconds, <code>0</code> to disable.
+     * @param extrapolation The maximum extrapolation time in milliseconds when updates are late (positive).
+     * @param rate The ticks per second, unit of the entities velocity (strictly positive).
+     * @throws LionEngineException If invalid arguments.
+     */
+    void setInterpolation(int delay, int extrapolation, int rate);
+
+    /**
+     * Set the interpolated location of each {@link com.b3dgs.lionengine.network.purview.Interpolable} entity, sampled
+     * with the interpolation delay. Should be called before each rendering. Does nothing if interpolation is disabled.
+     */
+    void interpolate();
 }
@@ -19,27 +19,48 @@ package com.b3dgs.lionengine.network;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
 
 import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageEntity;
 import com.b3dgs.lionengine.network.purview.Networkable;
+import com.b3dgs.lionengine.network.purview.NetworkableEntity;
 
 /**
  * Networked world base implementation.
+ * <p>
+ * Messages added during a tick are sent on {@link #sendMessages()}, after having coalesced the identified entities
+ * updates of the enabled types (see {@link #setCoalescing(byte, boolean)}), each networker then writing all messages
+ * of a destination at once.
+ * </p>
+ * <p>
+ * Received {@link NetworkMessageEntity} are dispatched to the {@link NetworkableEntity} of their entity id, other
+ * messages being applied to all networkables. Networkables which are not {@link NetworkableEntity} receive all
+ * messages.
+ * </p>
  * 
  * @param <L> Listener type.
  * @param <N> Network implementation.
  */
-abstract class NetworkedWorldModel<L extends ClientListener, N extends NetworkModel<L>> implements NetworkedWorld
+abstract class NetworkedWorldModel<L extends ClientListener, N extends Networker<L>> implements NetworkedWorld
 {
     /** List of networkable objects. */
     protected final Collection<Networkable> networkables;
     /** List of networkable objects. */
     protected final Collection<Networkable> toAdd;
+    /** Identified networkable objects by entity id. */
+    protected final Map<Short, NetworkableEntity> entities;
+    /** Networkable objects without entity id, receiving all messages. */
+    private final Collection<Networkable> others;
     /** The client connection listener. */
     protected final Collection<L> listeners;
     /** The network. */
     protected final N network;
+    /** Messages of current tick. */
+    private final NetworkMessageCoalescer coalescer;
     /** Will add. */
     private boolean willAdd;
 
@@ -53,10 +74,69 @@ abstract class NetworkedWorldModel<L extends ClientListener, N extends NetworkMo
         this.network = network;
         networkables = new HashSet<Networkable>(1);
         toAdd = new ArrayList<Networkable>(1);
+        entities = new HashMap<Short, NetworkableEntity>();
+        others = new ArrayList<Networkable>();
         listeners = new ArrayList<L>(1);
+        coalescer = new NetworkMessageCoalescer();
         willAdd = false;
     }
 
+    /**
+     * Apply a networked world message (see {@link WorldMessageDecoder}), which is not relayed nor applied to
+     * networkables.
+     * 
+     * @param message The world message.
+     */
+    protected abstract void applyWorldMessage(NetworkMessage message);
+
+    /**
+     * Notify that a received message has been applied to its entity.
+     * 
+     * @param entity The updated entity.
+     */
+    protected void notifyApplied(NetworkableEntity entity)
+    {
+        // Nothing to do
+    }
+
+    /**
+     * Apply a received message to its entity if identified, to all networkables else.
+     * 
+     * @param message The received message.
+     */
+    private void dispatch(NetworkMessage message)
+    {
+        final short id;
+        if (message instanceof NetworkMessageEntity<?>)
+        {
+            id = ((NetworkMessageEntity<?>) message).getEntityId();
+        }
+        else
+        {
+            id = -1;
+        }
+        if (id >= 0)
+        {
+            final NetworkableEntity entity = entities.get(Short.valueOf(id));
+            if (entity != null)
+            {
+                entity.applyMessage(message);
+                notifyApplied(entity);
+            }
+            for (final Networkable networkable : others)
+            {
+                networkable.applyMessage(message);
+            }
+        }
+        else
+        {
+            for (final Networkable networkable : networkables)
+            {
+                networkable.applyMessage(message);
+            }
+        }
+    }
+
     /**
      * Add a client connection listener.
      * 
@@ -103,18 +183,32 @@ abstract class NetworkedWorldModel<L extends ClientListener, N extends NetworkMo
     public void removeNetworkable(Networkable networkable)
     {
         networkables.remove(networkable);
+        if (networkable instanceof NetworkableEntity)
+        {
+            entities.remove(Short.valueOf(((NetworkableEntity) networkable).getEntityId()));
+        }
+        else
+        {
+            others.remove(networkable);
+        }
     }
 
     @Override
     public void addMessage(NetworkMessage message)
     {
-        network.addMessage(message);
+        coalescer.add(message);
     }
 
     @Override
     public void addMessages(Collection<NetworkMessage> messages)
     {
-        network.addMessages(messages);
+        coalescer.addAll(messages);
+    }
+
+    @Override
+    public void setCoalescing(byte type, boolean enabled)
+    {
+        coalescer.setCoalescing(type, enabled);
     }
 
     @Override
@@ -122,9 +216,11 @@ abstract class NetworkedWorldModel<L extends ClientListener, N extends NetworkMo
     {
         for (final Networkable networkable : networkables)
         {
-            network.addMessages(networkable.getNetworkMessages());
+            coalescer.addAll(networkable.getNetworkMessages());
             networkable.clearNetworkMessages();
         }
+        network.addMessages(coalescer.getMessages());
+        coalescer.clear();
         network.sendMessages();
     }
 
@@ -136,16 +232,32 @@ abstract class NetworkedWorldModel<L extends ClientListener, N extends NetworkMo
             for (final Networkable networkable : toAdd)
             {
                 networkables.add(networkable);
+                if (networkable instanceof NetworkableEntity)
+                {
+                    final NetworkableEntity entity = (NetworkableEntity) networkable;
+                    entities.put(Short.valueOf(entity.getEntityId()), entity);
+                }
+                else
+                {
+                    others.add(networkable);
+                }
             }
             toAdd.clear();
             willAdd = false;
         }
         network.receiveMessages();
-        for (final NetworkMessage message : network.getMessages())
+        final Iterator<NetworkMessage> iterator = network.getMessages().iterator();
+        while (iterator.hasNext())
         {
-            for (final Networkable networkable : networkables)
+            final NetworkMessage message = iterator.next();
+            if (WorldMessageDecoder.isWorldMessage(message))
             {
-                networkable.applyMessage(message);
+                applyWorldMessage(message);
+                iterator.remove();
+            }
+            else
+            {
+                dispatch(message);
             }
         }
     }
@@ -156,6 +268,18 @@ abstract class NetworkedWorldModel<L extends ClientListener, N extends NetworkMo
         return network.getBandwidth();
     }
 
+    @Override
+    public int getTickBytes()
+    {
+        return network.getTickBytes();
+    }
+
+    @Override
+    public int getTickPackets()
+    {
+        return network.getTickPackets();
+    }
+
     @Override
     public void notifyClientConnected(Byte id, String name)
     {
@@ -17,22 +17,182 @@
  */
 package com.b3dgs.lionengine.network;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Timing;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.game.Direction;
+import com.b3dgs.lionengine.game.feature.transformable.Transformable;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
 import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+import com.b3dgs.lionengine.network.purview.Interpolable;
+import com.b3dgs.lionengine.network.purview.Networkable;
+import com.b3dgs.lionengine.network.purview.NetworkableEntity;
+import com.b3dgs.lionengine.network.purview.Replicable;
 
 /**
  * Networkable world implementation client side.
+ * <p>
+ * Received snapshots are reconstructed from their baseline, applied to the {@link Replicable} with the same id, then
+ * acknowledged to the server.
+ * </p>
+ * <p>
+ * When interpolation is enabled, the received locations of {@link Interpolable} entities are stored in their
+ * {@link InterpolationBuffer}, and replaced on {@link #interpolate()} by the location sampled with the interpolation
+ * delay, decoupling rendering from network timing.
+ * </p>
  */
-public class NetworkedWorldModelClient extends NetworkedWorldModel<ConnectionListener, ClientImpl>
+public class NetworkedWorldModelClient extends NetworkedWorldModel<ConnectionListener, Client>
                                        implements NetworkedWorldClient
 {
     /**
-     * Constructor.
+     * Create the client.
+     * 
+     * @param decoder The decoder reference.
+     * @param transport The network transport.
+     * @return The client instance.
+     */
+    private static Client create(NetworkMessageDecoder decoder, NetworkTransport transport)
+    {
+        if (NetworkTransport.FRAMED == transport || NetworkTransport.DATAGRAM == transport)
+        {
+            return new ClientNio(new WorldMessageDecoder(decoder), NetworkTransport.DATAGRAM == transport);
+        }
+        return new ClientImpl(new WorldMessageDecoder(decoder));
+    }
+
+    /** Received snapshots. */
+    private final SnapshotHistory history = new SnapshotHistory();
+    /** Last applied snapshot sequence. */
+    private int applied = -1;
+    /** Interpolation buffers by entity id. */
+    private final Map<Short, InterpolationBuffer> buffers = new HashMap<Short, InterpolationBuffer>();
+    /** Interpolation clock. */
+    private final Timing clock = new Timing();
+    /** Interpolation delay in milliseconds (0 if disabled). */
+    private int delay;
+    /** Maximum extrapolation time in milliseconds. */
+    private int extrapolation;
+    /** Ticks per second. */
+    private int rate;
+
+    /**
+     * Constructor, using {@link NetworkTransport#STREAM}.
      * 
      * @param decoder The decoder reference.
      */
     public NetworkedWorldModelClient(NetworkMessageDecoder decoder)
     {
-        super(new ClientImpl(decoder));
+        this(decoder, NetworkTransport.STREAM);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param decoder The decoder reference.
+     * @param transport The network transport.
+     */
+    public NetworkedWorldModelClient(NetworkMessageDecoder decoder, NetworkTransport transport)
+    {
+        super(create(decoder, transport));
+        clock.start();
+    }
+
+    /**
+     * Store the received location of an interpolated entity.
+     * 
+     * @param entity The updated entity.
+     */
+    private void store(Interpolable entity)
+    {
+        final Short id = Short.valueOf(entity.getEntityId());
+        InterpolationBuffer buffer = buffers.get(id);
+        if (buffer == null)
+        {
+            buffer = new InterpolationBuffer(rate, extrapolation);
+            buffers.put(id, buffer);
+        }
+        final Transformable transformable = entity.getTransformable();
+        final Direction velocity = entity.getVelocity();
+        if (velocity == null)
+        {
+            buffer.add(clock.elapsed(), transformable.getX(), transformable.getY(), 0.0, 0.0);
+        }
+        else
+        {
+            buffer.add(clock.elapsed(),
+                       transformable.getX(),
+                       transformable.getY(),
+                       velocity.getDirectionHorizontal(),
+                       velocity.getDirectionVertical());
+        }
+    }
+
+    /**
+     * Apply the snapshot states to the replicables.
+     * 
+     * @param snapshot The snapshot to apply.
+     */
+    private void apply(Snapshot snapshot)
+    {
+        for (final Networkable networkable : networkables)
+        {
+            if (networkable instanceof Replicable)
+            {
+                final Replicable replicable = (Replicable) networkable;
+                final int[] state = snapshot.getState(replicable.getReplicationId());
+                if (state != null)
+                {
+                    replicable.readState(state);
+                    if (delay > 0 && replicable instanceof Interpolable)
+                    {
+                        store((Interpolable) replicable);
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * NetworkedWorldModel
+     */
+
+    @Override
+    protected void notifyApplied(NetworkableEntity entity)
+    {
+        if (delay > 0 && entity instanceof Interpolable)
+        {
+            store((Interpolable) entity);
+        }
+    }
+
+    @Override
+    protected void applyWorldMessage(NetworkMessage message)
+    {
+        if (message instanceof NetworkMessageSnapshot)
+        {
+            final NetworkMessageSnapshot delta = (NetworkMessageSnapshot) message;
+            final Snapshot baseline = history.get(delta.getBaseline());
+            if (delta.getSequence() <= applied || baseline == null)
+            {
+                return;
+            }
+            try
+            {
+                final Snapshot snapshot = Snapshot.read(delta.getSequence(), baseline, delta.createReader());
+                history.add(snapshot);
+                applied = snapshot.getSequence();
+                apply(snapshot);
+                addMessage(new NetworkMessageSnapshotAck(network.getId(), applied));
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, "Invalid snapshot: ", String.valueOf(delta.getSequence()));
+            }
+        }
     }
 
     /*
@@ -55,6 +215,19 @@ public class NetworkedWorldModelClient extends NetworkedWorldModel<ConnectionLis
     {
         super.disconnect();
         network.removeListener(this);
+        history.clear();
+        applied = -1;
+        buffers.clear();
+    }
+
+    @Override
+    public void removeNetworkable(Networkable networkable)
+    {
+        super.removeNetworkable(networkable);
+        if (networkable instanceof NetworkableEntity)
+        {
+            buffers.remove(Short.valueOf(((NetworkableEntity) networkable).getEntityId()));
+        }
     }
 
     @Override
@@ -81,6 +254,46 @@ public class NetworkedWorldModelClient extends NetworkedWorldModel<ConnectionLis
         return network.getId();
     }
 
+    @Override
+    public void setView(int x, int y, int width, int height)
+    {
+        Check.superiorStrict(width, 0);
+        Check.superiorStrict(height, 0);
+
+        addMessage(new NetworkMessageView(network.getId(), x, y, width, height));
+    }
+
+    @Override
+    public void setInterpolation(int delay, int extrapolation, int rate)
+    {
+        Check.superiorOrEqual(delay, 0);
+        Check.superiorOrEqual(extrapolation, 0);
+        Check.superiorStrict(rate, 0);
+
+        this.delay = delay;
+        this.extrapolation = extrapolation;
+        this.rate = rate;
+        buffers.clear();
+    }
+
+    @Override
+    public void interpolate()
+    {
+        if (delay == 0)
+        {
+            return;
+        }
+        final long time = clock.elapsed() - delay;
+        for (final NetworkableEntity entity : entities.values())
+        {
+            final InterpolationBuffer buffer = buffers.get(Short.valueOf(entity.getEntityId()));
+            if (buffer != null && buffer.sample(time))
+            {
+                ((Interpolable) entity).getTransformable().teleport(buffer.getX(), buffer.getY());
+            }
+        }
+    }
+
     /*
      * ConnectionListener
      */
@@ -17,28 +17,188 @@
  */
 package com.b3dgs.lionengine.network;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
 import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+import com.b3dgs.lionengine.network.purview.Replicable;
 
 /**
  * Networkable world implementation server side.
+ * <p>
+ * When snapshot replication is enabled, the state of all {@link Replicable} is captured on each
+ * {@link #sendMessages()}, and each client receives its delta against the last snapshot it acknowledged.
+ * </p>
+ * <p>
+ * When interest management is enabled, messages of {@link com.b3dgs.lionengine.network.purview.Perceptible} entities
+ * are only sent to the clients viewing them (see {@link InterestManager}). A received view is ignored if its source is
+ * not a connected client (the source being the id of the sending connection) or if its size is not strictly positive.
+ * </p>
  */
-public class NetworkedWorldModelServer extends NetworkedWorldModel<ClientListener, ServerImpl>
+public class NetworkedWorldModelServer extends NetworkedWorldModel<ClientListener, Server>
                                        implements NetworkedWorldServer
 {
+    /** Interest management disabled error. */
+    private static final String ERROR_INTEREST = "Interest management not enabled !";
+    /** Invalid view warning. */
+    private static final String WARNING_VIEW = "Invalid view ignored from client: ";
+
     /**
-     * Constructor.
+     * Create the server.
+     * 
+     * @param decoder The decoder reference.
+     * @param transport The network transport.
+     * @return The server instance.
+     */
+    private static Server create(NetworkMessageDecoder decoder, NetworkTransport transport)
+    {
+        if (NetworkTransport.FRAMED == transport || NetworkTransport.DATAGRAM == transport)
+        {
+            return new ServerNio(new WorldMessageDecoder(decoder), NetworkTransport.DATAGRAM == transport);
+        }
+        return new ServerImpl(new WorldMessageDecoder(decoder));
+    }
+
+    /** Connected clients id. */
+    private final Collection<Byte> clients = new HashSet<Byte>();
+    /** Acknowledged snapshot sequence by client id (-1 if none). */
+    private final Map<Byte, Integer> acknowledged = new HashMap<Byte, Integer>();
+    /** Sent snapshots. */
+    private final SnapshotHistory history = new SnapshotHistory();
+    /** Delta writer. */
+    private final BitWriter writer = new BitWriter();
+    /** Interest manager (<code>null</code> if disabled). */
+    private InterestManager interest;
+    /** Snapshot replication enabled flag. */
+    private boolean replication;
+    /** Next snapshot sequence. */
+    private int sequence;
+
+    /**
+     * Constructor, using {@link NetworkTransport#STREAM}.
      * 
      * @param decoder The decoder reference.
      */
     public NetworkedWorldModelServer(NetworkMessageDecoder decoder)
     {
-        super(new ServerImpl(decoder));
+        this(decoder, NetworkTransport.STREAM);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param decoder The decoder reference.
+     * @param transport The network transport.
+     */
+    public NetworkedWorldModelServer(NetworkMessageDecoder decoder, NetworkTransport transport)
+    {
+        super(create(decoder, transport));
+    }
+
+    /**
+     * Capture the current snapshot, and send to each client its delta.
+     */
+    private void replicate()
+    {
+        final Snapshot snapshot = Snapshot.create(sequence, networkables);
+        history.add(snapshot);
+        for (final Map.Entry<Byte, Integer> entry : acknowledged.entrySet())
+        {
+            Snapshot baseline = history.get(entry.getValue().intValue());
+            if (baseline == null)
+            {
+                baseline = Snapshot.EMPTY;
+            }
+            writer.clear();
+            snapshot.write(baseline, writer);
+            addMessage(new NetworkMessageSnapshot(entry.getKey().byteValue(),
+                                                  sequence,
+                                                  baseline.getSequence(),
+                                                  writer));
+        }
+        sequence++;
+    }
+
+    /**
+     * Apply a received client view, ignored if invalid.
+     * 
+     * @param view The received view.
+     */
+    private void applyView(NetworkMessageView view)
+    {
+        final Byte client = Byte.valueOf(view.getClientId());
+        if (clients.contains(client) && view.getWidth() > 0 && view.getHeight() > 0)
+        {
+            interest.setView(client.byteValue(), view.getX(), view.getY(), view.getWidth(), view.getHeight());
+        }
+        else
+        {
+            Verbose.warning(NetworkedWorldModelServer.class, "applyView", WARNING_VIEW, String.valueOf(client));
+        }
+    }
+
+    /*
+     * NetworkedWorldModel
+     */
+
+    @Override
+    protected void applyWorldMessage(NetworkMessage message)
+    {
+        if (message instanceof NetworkMessageSnapshotAck)
+        {
+            final Byte client = Byte.valueOf(message.getClientId());
+            final Integer previous = acknowledged.get(client);
+            final int ack = ((NetworkMessageSnapshotAck) message).getSequence();
+            if (previous != null && ack > previous.intValue())
+            {
+                acknowledged.put(client, Integer.valueOf(ack));
+            }
+        }
+        else if (message instanceof NetworkMessageView && interest != null)
+        {
+            applyView((NetworkMessageView) message);
+        }
     }
 
     /*
      * NetworkedWorld
      */
 
+    @Override
+    public void setSnapshotReplication(boolean enabled)
+    {
+        replication = enabled;
+    }
+
+    @Override
+    public void setInterestManagement(int cellSize, int margin, int maxView)
+    {
+        if (cellSize == 0)
+        {
+            interest = null;
+        }
+        else
+        {
+            interest = new InterestManager(entities, cellSize, margin, maxView);
+        }
+        network.setFilter(interest);
+    }
+
+    @Override
+    public void setClientView(byte clientId, int x, int y, int width, int height)
+    {
+        if (interest == null)
+        {
+            throw new LionEngineException(ERROR_INTEREST);
+        }
+        interest.setView(clientId, x, y, width, height);
+    }
+
     @Override
     public void startServer(String name, int port, String messageOfTheDay)
     {
@@ -56,5 +216,40 @@ public class NetworkedWorldModelServer extends NetworkedWorldModel<ClientListene
     {
         super.disconnect();
         network.removeListener(this);
+        clients.clear();
+        acknowledged.clear();
+        history.clear();
+    }
+
+    @Override
+    public void sendMessages()
+    {
+        if (replication)
+        {
+            replicate();
+        }
+        if (interest != null)
+        {
+            interest.reset();
+        }
+        super.sendMessages();
+    }
+
+    @Override
+    public void notifyClientConnected(Byte id, String name)
+    {
+        clients.add(id);
+        acknowledged.put(id, Integer.valueOf(-1));
+    }
+
+    @Override
+    public void notifyClientDisconnected(Byte id, String name)
+    {
+        clients.remove(id);
+        acknowledged.remove(id);
+        if (interest != null)
+        {
+            interest.removeView(id.byteValue());
+        }
     }
 }
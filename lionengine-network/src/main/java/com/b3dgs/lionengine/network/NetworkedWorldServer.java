@@ -33,4 +33,36 @@ public interface NetworkedWorldServer extends NetworkedWorld
      * @throws LionEngineException If unable to start server.
      */
     void startServer(String name, int port, String messageOfTheDay);
+
+    /**
+     * Enable or disable the snapshot replication of {@link com.b3dgs.lionengine.network.purview.Replicable}. When
+     * enabled, each {@link #sendMessages()} sends to each client the delta against the last snapshot it acknowledged.
+     * 
+     * @param enabled <code>true</code> to enable, <code>false</code> to disable.
+     */
+    void setSnapshotReplication(boolean enabled);
+
+    /**
+     * Enable or disable the area of interest management. When enabled, messages of a
+     * {@link com.b3dgs.lionengine.network.purview.Perceptible} entity are only sent to the clients viewing it, other
+     * messages and clients without view being unchanged. Views sent by clients are capped to the maximum view size.
+     * 
+     * @param cellSize The grid cell size, <code>0</code> to disable.
+     * @param margin The view margin, as the maximum entity half size (positive).
+     * @param maxView The maximum view width and height, such as the map size (strictly positive).
+     * @throws LionEngineException If invalid arguments.
+     */
+    void setInterestManagement(int cellSize, int margin, int maxView);
+
+    /**
+     * Set a client view, as if sent by the client (see {@link NetworkedWorldClient#setView(int, int, int, int)}).
+     * 
+     * @param clientId The client id.
+     * @param x The view horizontal location.
+     * @param y The view vertical location.
+     * @param width The view width (strictly positive).
+     * @param height The view height (strictly positive).
+     * @throws LionEngineException If interest management is not enabled or invalid arguments.
+     */
+    void setClientView(byte clientId, int x, int y, int width, int height);
 }
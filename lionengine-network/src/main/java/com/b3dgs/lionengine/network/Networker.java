@@ -84,4 +84,19 @@ interface Networker<L extends ClientListener>
      * @return The number of bytes sent per second.
      */
     int getBandwidth();
+
+    /**
+     * Get the amount of bytes sent during the last tick, a tick ending on {@link #sendMessages()}.
+     * 
+     * @return The number of bytes sent during the last tick.
+     */
+    int getTickBytes();
+
+    /**
+     * Get the number of packets sent during the last tick, a tick ending on {@link #sendMessages()}. A packet is a
+     * single write of buffered data.
+     * 
+     * @return The number of packets sent during the last tick.
+     */
+    int getTickPackets();
 }
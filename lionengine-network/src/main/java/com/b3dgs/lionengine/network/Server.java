@@ -31,6 +31,13 @@ interface Server extends Networker<ClientListener>
      */
     void setMessageOfTheDay(String message);
 
+    /**
+     * Set the messages recipients filter, checked after the message destination.
+     * 
+     * @param filter The filter, <code>null</code> to send messages to all their destinations.
+     */
+    void setFilter(MessageFilter filter);
+
     /**
      * Start the server and listen to client connection.
      * 
@@ -18,11 +18,11 @@
 package com.b3dgs.lionengine.network;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -86,6 +86,8 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
     private int port;
     /** Message of the day. */
     private String messageOfTheDay;
+    /** Messages filter (<code>null</code> if none). */
+    private MessageFilter filter;
     /** Number of clients. */
     private int clientsNumber;
     /** Started flag. */
@@ -364,12 +366,7 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
             final int size = buffer.readInt();
             if (size > 0)
             {
-                final byte[] clientData = new byte[size];
-                if (buffer.read(clientData) != -1)
-                {
-                    final DataInputStream clientBuffer = new DataInputStream(new ByteArrayInputStream(clientData));
-                    decodeMessage(type, from, dest, clientBuffer);
-                }
+                decodeMessage(type, from, dest, buffer, size);
             }
             final int headerSize = 4;
             bandwidth += headerSize + size;
@@ -425,6 +422,12 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
         messageOfTheDay = message;
     }
 
+    @Override
+    public void setFilter(MessageFilter filter)
+    {
+        this.filter = filter;
+    }
+
     @Override
     public void start(String name, int port)
     {
@@ -528,24 +531,32 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
     @Override
     public void receiveMessages()
     {
-        messagesIn.clear();
+        clearMessagesIn();
         for (final ClientSocket client : clients.values())
         {
             // Get client data from socket
             final byte[] data = client.receiveMessages();
+            if (data == null)
+            {
+                continue;
+            }
             final DataInputStream buffer = new DataInputStream(new ByteArrayInputStream(data));
             try
             {
-                final byte messageSystemId = buffer.readByte();
-                final byte from = buffer.readByte();
-
-                // Check id
-                if (from != client.getId())
+                // Read all messages of the received packets
+                while (buffer.available() > 0)
                 {
-                    continue;
+                    final byte messageSystemId = buffer.readByte();
+                    final byte from = buffer.readByte();
+
+                    // Check id
+                    if (from != client.getId())
+                    {
+                        break;
+                    }
+                    // Check message header type
+                    updateMessage(client, buffer, messageSystemId, from);
                 }
-                // Check message header type
-                updateMessage(client, buffer, messageSystemId, from);
             }
             catch (final IOException exception)
             {
@@ -575,29 +586,38 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
         messagesOut.addAll(messagesIn);
         for (final NetworkMessage message : messagesOut)
         {
+            final ByteBuffer encoded;
+            try
+            {
+                encoded = encodeMessage(message);
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, "Unable to encode message");
+                continue;
+            }
+            final int length = encoded.limit();
             for (final ClientSocket client : clients.values())
             {
-                if (!(message.getClientDestId() == client.getId() || message.getClientDestId() == -1))
+                if (!(message.getClientDestId() == client.getId() || message.getClientDestId() == -1)
+                    || filter != null && !filter.isRecipient(message, client.getId()))
                 {
                     continue;
                 }
-                ByteArrayOutputStream encode = null;
                 try
                 {
-                    encode = message.encode();
-                    final byte[] encoded = encode.toByteArray();
                     // Message header
                     client.getOut().writeByte(NetworkMessageSystemId.USER_MESSAGE);
                     client.getOut().writeByte(message.getClientId());
                     client.getOut().writeByte(message.getClientDestId());
                     client.getOut().writeByte(message.getType());
                     // Message content
-                    client.getOut().writeInt(encoded.length);
-                    client.getOut().write(encoded);
-                    client.getOut().flush();
+                    client.getOut().writeInt(length);
+                    client.getOut().write(encoded.array(), 0, length);
 
                     final int headerSize = 4;
-                    bandwidth += headerSize + encoded.length;
+                    bandwidth += headerSize + length;
+                    client.addPending(headerSize * 2 + length);
                 }
                 catch (final IOException exception)
                 {
@@ -605,12 +625,27 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
                                       "Unable to send the messages for client: ",
                                       String.valueOf(client.getId()));
                 }
-                finally
+            }
+        }
+        // Flush once per client
+        for (final ClientSocket client : clients.values())
+        {
+            try
+            {
+                final int flushed = client.flushPending();
+                if (flushed > 0)
                 {
-                    UtilStream.safeClose(encode);
+                    countPacket(flushed);
                 }
             }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception,
+                                  "Unable to send the messages for client: ",
+                                  String.valueOf(client.getId()));
+            }
         }
+        endTick();
         final long bandwidthMilli = 1000L;
         if (bandwidthTimer.elapsed(bandwidthMilli))
         {
@@ -0,0 +1,886 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Timing;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+
+/**
+ * Server implementation based on a non-blocking server channel and a selector. All connections are served by the
+ * thread calling {@link #receiveMessages()} and {@link #sendMessages()}, exchanging length-prefixed frames (see
+ * {@link ChannelConnection}) with {@link ClientNio}.
+ * <p>
+ * As client ids are positive bytes, at most {@link #MAX_CLIENTS} clients can be connected at the same time. Other
+ * connections are kicked.
+ * </p>
+ * <p>
+ * When datagrams are enabled, a datagram channel is bound to the server port, and each client receives a token on
+ * {@link NetworkMessageSystemId#CONNECTING}. The client datagram address is registered when receiving this token by
+ * datagram (see {@link DatagramPeer}), unreliable messages being then exchanged by datagrams.
+ * </p>
+ */
+final class ServerNio extends NetworkModel<ClientListener> implements Server
+{
+    /** Maximum number of clients. */
+    static final int MAX_CLIENTS = Byte.MAX_VALUE + 1;
+    /** Server creation error. */
+    private static final String ERROR_SERVER = "Cannot create the server !";
+    /** Bandwidth refresh delay. */
+    private static final long BANDWIDTH_MILLI = 1000L;
+
+    /**
+     * Check if the client is in a valid state.
+     * 
+     * @param client The client to test.
+     * @param from The client id.
+     * @param expected The expected client state.
+     * @return <code>true</code> if valid, <code>false</code> else.
+     */
+    private static boolean checkValidity(ChannelConnection client, byte from, StateConnection expected)
+    {
+        return from >= 0 && client.getState() == expected;
+    }
+
+    /**
+     * Write a frame with the id and the name of a client.
+     * 
+     * @param client The client to send to.
+     * @param systemId The system id.
+     * @param other The client to describe.
+     * @return The frame size.
+     * @throws IOException If error.
+     */
+    private static int writeIdAndName(ChannelConnection client, byte systemId, ChannelConnection other)
+            throws IOException
+    {
+        client.startFrame(systemId, other.getId());
+        client.putString(other.getName());
+        return client.endFrame();
+    }
+
+    /** Client list. */
+    private final Map<Byte, ChannelConnection> clients;
+    /** Remove list. */
+    private final Collection<ChannelConnection> toRemove;
+    /** Average bandwidth. */
+    private final Timing bandwidthTimer;
+    /** Datagram tokens generator. */
+    private final Random random = new Random();
+    /** Datagram enabled flag. */
+    private final boolean datagramEnabled;
+    /** Datagram connection (<code>null</code> if disabled or not started). */
+    private DatagramConnection datagram;
+    /** Server channel. */
+    private ServerSocketChannel serverChannel;
+    /** Selector. */
+    private Selector selector;
+    /** Current port. */
+    private int port;
+    /** Message of the day. */
+    private String messageOfTheDay;
+    /** Messages filter (<code>null</code> if none). */
+    private MessageFilter filter;
+    /** Started flag. */
+    private boolean started;
+    /** Last id. */
+    private int lastId;
+    /** Bandwidth size. */
+    private int bandwidth;
+    /** Bandwidth per second. */
+    private int bandwidthPerSecond;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param decoder The message decoder.
+     */
+    ServerNio(NetworkMessageDecoder decoder)
+    {
+        this(decoder, false);
+    }
+
+    /**
+     * Internal constructor.
+     * 
+     * @param decoder The message decoder.
+     * @param datagramEnabled <code>true</code> to exchange unreliable messages by datagrams, <code>false</code> else.
+     */
+    ServerNio(NetworkMessageDecoder decoder, boolean datagramEnabled)
+    {
+        super(decoder);
+        this.datagramEnabled = datagramEnabled;
+        clients = new HashMap<Byte, ChannelConnection>();
+        toRemove = new HashSet<ChannelConnection>();
+        bandwidthTimer = new Timing();
+        port = -1;
+    }
+
+    /**
+     * Accept all pending connections.
+     * 
+     * @throws IOException If error when accepting.
+     */
+    private void accept() throws IOException
+    {
+        SocketChannel channel = serverChannel.accept();
+        while (channel != null)
+        {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+
+            final int id = getFreeId();
+            final ChannelConnection client = new ChannelConnection((byte) id, channel);
+            if (id < 0)
+            {
+                Verbose.warning(Server.class, "accept", "Too many clients, connection refused");
+                client.writeFrame(NetworkMessageSystemId.KICKED, client.getId());
+                client.flush();
+                client.close();
+            }
+            else
+            {
+                client.setKey(channel.register(selector, SelectionKey.OP_READ, client));
+                client.setState(StateConnection.CONNECTING);
+                client.startFrame(NetworkMessageSystemId.CONNECTING, client.getId());
+                if (datagram != null)
+                {
+                    final DatagramPeer peer = new DatagramPeer((byte) -1, random.nextInt());
+                    client.setDatagram(peer);
+                    client.putInt(peer.getToken());
+                }
+                bandwidth += client.endFrame();
+                clients.put(Byte.valueOf(client.getId()), client);
+            }
+            channel = serverChannel.accept();
+        }
+    }
+
+    /**
+     * Get a free client id.
+     * 
+     * @return The free client id, <code>-1</code> if none.
+     */
+    private int getFreeId()
+    {
+        for (int i = 0; i < MAX_CLIENTS; i++)
+        {
+            final int id = (lastId + i) % MAX_CLIENTS;
+            if (!clients.containsKey(Byte.valueOf((byte) id)))
+            {
+                lastId = id;
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Read the available data of the selected clients.
+     * 
+     * @throws IOException If error on selector.
+     */
+    private void select() throws IOException
+    {
+        selector.selectNow();
+        final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext())
+        {
+            final SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid())
+            {
+                continue;
+            }
+            if (key.isAcceptable())
+            {
+                accept();
+            }
+            else
+            {
+                final ChannelConnection client = (ChannelConnection) key.attachment();
+                if (key.isReadable())
+                {
+                    read(client);
+                }
+                if (key.isValid() && key.isWritable())
+                {
+                    flush(client);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read client data.
+     * 
+     * @param client The client to read.
+     */
+    private void read(ChannelConnection client)
+    {
+        try
+        {
+            if (client.read() < 0)
+            {
+                removeClient(client);
+            }
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Error on reading client: ", String.valueOf(client.getId()));
+            removeClient(client);
+        }
+    }
+
+    /**
+     * Handle all received frames of a client.
+     * 
+     * @param client The client reference.
+     */
+    private void receiveFrames(ChannelConnection client)
+    {
+        client.beginFrames();
+        try
+        {
+            ByteBuffer frame = client.nextFrame();
+            while (frame != null && client.getState() != StateConnection.DISCONNECTED)
+            {
+                bandwidth += ChannelConnection.LENGTH_SIZE + frame.remaining();
+                final byte messageSystemId = frame.get();
+                final byte from = frame.get();
+                if (from == client.getId())
+                {
+                    updateMessage(client, frame, messageSystemId, from);
+                }
+                frame = client.nextFrame();
+            }
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Error on updating server");
+            removeClient(client);
+        }
+        finally
+        {
+            client.endFrames();
+        }
+    }
+
+    /**
+     * Handle all received datagrams.
+     */
+    private void receiveDatagrams()
+    {
+        try
+        {
+            SocketAddress address = datagram.receive();
+            while (address != null)
+            {
+                final ByteBuffer data = datagram.getData();
+                bandwidth += data.remaining();
+                if (data.remaining() >= DatagramConnection.HEADER_SIZE)
+                {
+                    final byte messageSystemId = data.get();
+                    final byte from = data.get();
+                    final int sequence = data.getInt();
+                    final ChannelConnection client = clients.get(Byte.valueOf(from));
+                    if (client != null && client.getDatagram() != null)
+                    {
+                        receiveDatagram(client, data, address, messageSystemId, sequence);
+                    }
+                }
+                address = datagram.receive();
+            }
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Error on receiving datagrams");
+        }
+    }
+
+    /**
+     * Handle a client datagram.
+     * 
+     * @param client The client reference.
+     * @param data The datagram messages.
+     * @param address The datagram source address.
+     * @param messageSystemId The message system ID.
+     * @param sequence The datagram sequence (the token on negotiation).
+     * @throws IOException If error.
+     */
+    private void receiveDatagram(ChannelConnection client,
+                                 ByteBuffer data,
+                                 SocketAddress address,
+                                 byte messageSystemId,
+                                 int sequence)
+            throws IOException
+    {
+        final DatagramPeer peer = client.getDatagram();
+        if (NetworkMessageSystemId.CONNECTING == messageSystemId && sequence == peer.getToken())
+        {
+            peer.setAddress(address);
+            peer.setEstablished();
+            bandwidth += peer.sendHello(datagram);
+        }
+        else if (NetworkMessageSystemId.USER_MESSAGE == messageSystemId
+                 && client.getState() == StateConnection.CONNECTED
+                 && address.equals(peer.getAddress())
+                 && peer.accept(sequence))
+        {
+            decodeDatagram(data, client.getId());
+        }
+    }
+
+    /**
+     * Send the pending datagram of a client.
+     * 
+     * @param client The client reference.
+     */
+    private void flushDatagram(ChannelConnection client)
+    {
+        final DatagramPeer peer = client.getDatagram();
+        if (peer != null && peer.isEstablished())
+        {
+            try
+            {
+                countDatagram(peer.flush(datagram));
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, "Error on sending datagram to client: ", String.valueOf(client.getId()));
+            }
+        }
+    }
+
+    /**
+     * Count a sent datagram.
+     * 
+     * @param size The datagram size, <code>0</code> if none sent.
+     */
+    private void countDatagram(int size)
+    {
+        if (size > 0)
+        {
+            countPacket(size);
+            bandwidth += size;
+        }
+    }
+
+    /**
+     * Write the pending frames of a client, and listen to write availability if remaining.
+     * 
+     * @param client The client reference.
+     */
+    private void flush(ChannelConnection client)
+    {
+        if (client.getState() == StateConnection.DISCONNECTED)
+        {
+            return;
+        }
+        try
+        {
+            final int written = client.flush();
+            if (written > 0)
+            {
+                countPacket(written);
+            }
+            if (client.isFlushed())
+            {
+                client.getKey().interestOps(SelectionKey.OP_READ);
+            }
+            else
+            {
+                client.getKey().interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Error on writing client: ", String.valueOf(client.getId()));
+            removeClient(client);
+        }
+    }
+
+    /**
+     * Simulate datagrams loss and reordering on sending. Server must be started with datagrams enabled.
+     * 
+     * @param loss The loss ratio (from 0.0 to 1.0).
+     * @param reorder The ratio of datagrams sent after the next one (from 0.0 to 1.0).
+     */
+    void simulateDatagrams(double loss, double reorder)
+    {
+        datagram.simulate(loss, reorder);
+    }
+
+    /**
+     * Remove a client from the server.
+     * 
+     * @param client The client to remove.
+     */
+    private void removeClient(ChannelConnection client)
+    {
+        if (client != null && toRemove.add(client))
+        {
+            client.close();
+            Verbose.info("Server: ", client.getName(), " disconnected");
+        }
+    }
+
+    /**
+     * Remove the clients marked as removed.
+     */
+    private void updateRemove()
+    {
+        if (!toRemove.isEmpty())
+        {
+            for (final ChannelConnection client : toRemove)
+            {
+                clients.remove(Byte.valueOf(client.getId()));
+            }
+            toRemove.clear();
+        }
+    }
+
+    /**
+     * Update the message depending of its ID.
+     * 
+     * @param client The client connection.
+     * @param frame The frame content.
+     * @param messageSystemId The message system ID.
+     * @param from The source ID.
+     * @throws IOException If error when reading.
+     */
+    private void updateMessage(ChannelConnection client, ByteBuffer frame, byte messageSystemId, byte from)
+            throws IOException
+    {
+        switch (messageSystemId)
+        {
+            case NetworkMessageSystemId.CONNECTING:
+                receiveConnecting(client, frame, from, StateConnection.CONNECTING);
+                break;
+            case NetworkMessageSystemId.CONNECTED:
+                receiveConnected(client, from, StateConnection.CONNECTED);
+                break;
+            case NetworkMessageSystemId.PING:
+                bandwidth += client.writeFrame(NetworkMessageSystemId.PING, from);
+                break;
+            case NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED:
+                receiveDisconnected(client, from, StateConnection.CONNECTED);
+                break;
+            case NetworkMessageSystemId.OTHER_CLIENT_RENAMED:
+                receiveRenamed(client, frame, from, StateConnection.CONNECTED);
+                break;
+            case NetworkMessageSystemId.USER_MESSAGE:
+                receiveMessage(client, frame, from, StateConnection.CONNECTED);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Update the receive connecting state.
+     * 
+     * @param client The current client.
+     * @param frame The frame content.
+     * @param from The id from.
+     * @param expected The expected client state.
+     * @throws IOException If error.
+     */
+    private void receiveConnecting(ChannelConnection client, ByteBuffer frame, byte from, StateConnection expected)
+            throws IOException
+    {
+        if (checkValidity(client, from, expected))
+        {
+            client.setName(ChannelConnection.getString(frame));
+            client.setState(StateConnection.CONNECTED);
+
+            final Collection<ChannelConnection> others = new ArrayList<ChannelConnection>();
+            for (final ChannelConnection other : clients.values())
+            {
+                if (other.getId() != from && other.getName() != null)
+                {
+                    others.add(other);
+                }
+            }
+            client.startFrame(NetworkMessageSystemId.CONNECTED, from);
+            client.putByte(others.size());
+            for (final ChannelConnection other : others)
+            {
+                client.putByte(other.getId());
+                client.putString(other.getName());
+            }
+            if (messageOfTheDay != null)
+            {
+                client.putString(messageOfTheDay);
+            }
+            bandwidth += client.endFrame();
+        }
+    }
+
+    /**
+     * Update the receive connected state.
+     * 
+     * @param client The current client.
+     * @param from The id from.
+     * @param expected The expected client state.
+     * @throws IOException If error.
+     */
+    private void receiveConnected(ChannelConnection client, byte from, StateConnection expected) throws IOException
+    {
+        if (checkValidity(client, from, expected))
+        {
+            Verbose.info("Server: ", client.getName(), " connected");
+            for (final ClientListener listener : listeners)
+            {
+                listener.notifyClientConnected(Byte.valueOf(client.getId()), client.getName());
+            }
+            for (final ChannelConnection other : clients.values())
+            {
+                if (other.getId() != from && other.getState() == StateConnection.CONNECTED)
+                {
+                    bandwidth += writeIdAndName(other, NetworkMessageSystemId.OTHER_CLIENT_CONNECTED, client);
+                }
+            }
+        }
+    }
+
+    /**
+     * Update the receive disconnected state.
+     * 
+     * @param client The current client.
+     * @param from The id from.
+     * @param expected The expected client state.
+     * @throws IOException If error.
+     */
+    private void receiveDisconnected(ChannelConnection client, byte from, StateConnection expected)
+            throws IOException
+    {
+        if (checkValidity(client, from, expected))
+        {
+            client.setState(StateConnection.DISCONNECTED);
+            for (final ClientListener listener : listeners)
+            {
+                listener.notifyClientDisconnected(Byte.valueOf(client.getId()), client.getName());
+            }
+            for (final ChannelConnection other : clients.values())
+            {
+                if (other.getId() != from && other.getState() == StateConnection.CONNECTED)
+                {
+                    bandwidth += writeIdAndName(other, NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED, client);
+                }
+            }
+            removeClient(client);
+        }
+    }
+
+    /**
+     * Update the receive renamed state.
+     * 
+     * @param client The current client.
+     * @param frame The frame content.
+     * @param from The id from.
+     * @param expected The expected client state.
+     * @throws IOException If error.
+     */
+    private void receiveRenamed(ChannelConnection client, ByteBuffer frame, byte from, StateConnection expected)
+            throws IOException
+    {
+        if (checkValidity(client, from, expected))
+        {
+            final String newName = ChannelConnection.getString(frame);
+            Verbose.info("Server: ", client.getName(), " renamed to ", newName);
+            client.setName(newName);
+
+            for (final ClientListener listener : listeners)
+            {
+                listener.notifyClientNameChanged(Byte.valueOf(client.getId()), client.getName());
+            }
+            for (final ChannelConnection other : clients.values())
+            {
+                if (other.getState() == StateConnection.CONNECTED)
+                {
+                    bandwidth += writeIdAndName(other, NetworkMessageSystemId.OTHER_CLIENT_RENAMED, client);
+                }
+            }
+        }
+    }
+
+    /**
+     * Update the receive standard message state.
+     * 
+     * @param client The client to test.
+     * @param frame The frame content.
+     * @param from The id from.
+     * @param expected The expected client state.
+     * @throws IOException If error.
+     */
+    private void receiveMessage(ChannelConnection client, ByteBuffer frame, byte from, StateConnection expected)
+            throws IOException
+    {
+        if (checkValidity(client, from, expected))
+        {
+            final byte dest = frame.get();
+            final byte type = frame.get();
+            if (frame.hasRemaining())
+            {
+                decodeMessage(type, from, dest, frame);
+            }
+        }
+    }
+
+    /**
+     * Write a message to all its recipients.
+     * 
+     * @param message The message to write.
+     * @throws IOException If unable to encode message.
+     */
+    private void writeMessage(NetworkMessage message) throws IOException
+    {
+        final ByteBuffer encoded = encodeMessage(message);
+        final byte dest = message.getClientDestId();
+        final boolean unreliable = message.isUnreliable() && encoded.limit() <= DatagramPeer.MAX_MESSAGE;
+        for (final ChannelConnection client : clients.values())
+        {
+            if ((dest == client.getId() || dest == -1)
+                && client.getState() == StateConnection.CONNECTED
+                && (filter == null || filter.isRecipient(message, client.getId())))
+            {
+                final DatagramPeer peer = client.getDatagram();
+                try
+                {
+                    encoded.rewind();
+                    if (unreliable && peer != null && peer.isEstablished())
+                    {
+                        countDatagram(peer.put(encoded, datagram));
+                    }
+                    else
+                    {
+                        client.startFrame(NetworkMessageSystemId.USER_MESSAGE, message.getClientId());
+                        client.putByte(dest);
+                        client.putByte(message.getType());
+                        client.putBytes(encoded);
+                        bandwidth += client.endFrame();
+                    }
+                }
+                catch (final IOException exception)
+                {
+                    Verbose.exception(exception, "Unable to send the messages for client: ", String.valueOf(dest));
+                    removeClient(client);
+                }
+            }
+        }
+    }
+
+    /*
+     * Server
+     */
+
+    @Override
+    public void setMessageOfTheDay(String message)
+    {
+        messageOfTheDay = message;
+    }
+
+    @Override
+    public void setFilter(MessageFilter filter)
+    {
+        this.filter = filter;
+    }
+
+    @Override
+    public void start(String name, int port)
+    {
+        if (!started)
+        {
+            try
+            {
+                selector = Selector.open();
+                serverChannel = ServerSocketChannel.open();
+                serverChannel.configureBlocking(false);
+                serverChannel.socket().setReuseAddress(true);
+                serverChannel.socket().bind(new InetSocketAddress(port), MAX_CLIENTS);
+                serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+                this.port = serverChannel.socket().getLocalPort();
+                if (datagramEnabled)
+                {
+                    datagram = DatagramConnection.open(this.port);
+                }
+                bandwidthTimer.start();
+                started = true;
+            }
+            catch (final IOException exception)
+            {
+                throw new LionEngineException(exception, ERROR_SERVER);
+            }
+        }
+    }
+
+    @Override
+    public void removeClient(Byte clientId)
+    {
+        removeClient(clients.get(clientId));
+    }
+
+    @Override
+    public int getNumberOfClients()
+    {
+        return clients.size() - toRemove.size();
+    }
+
+    @Override
+    public int getBandwidth()
+    {
+        return bandwidthPerSecond;
+    }
+
+    @Override
+    public int getPort()
+    {
+        return port;
+    }
+
+    /*
+     * Networker
+     */
+
+    @Override
+    public void disconnect()
+    {
+        if (!started)
+        {
+            return;
+        }
+        receiveMessages();
+        try
+        {
+            selector.close();
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Error on closing selector");
+        }
+        for (final ChannelConnection client : clients.values())
+        {
+            try
+            {
+                client.writeFrame(NetworkMessageSystemId.KICKED, client.getId());
+                client.flushBlocking();
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception);
+            }
+            removeClient(client);
+        }
+        updateRemove();
+        try
+        {
+            serverChannel.close();
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Error on closing server");
+        }
+        if (datagram != null)
+        {
+            datagram.close();
+            datagram = null;
+        }
+        started = false;
+    }
+
+    @Override
+    public void receiveMessages()
+    {
+        clearMessagesIn();
+        if (!started)
+        {
+            return;
+        }
+        try
+        {
+            select();
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Error on selecting clients");
+        }
+        for (final ChannelConnection client : clients.values())
+        {
+            if (client.getState() != StateConnection.DISCONNECTED)
+            {
+                receiveFrames(client);
+                flush(client);
+            }
+        }
+        if (datagram != null)
+        {
+            receiveDatagrams();
+        }
+        updateRemove();
+    }
+
+    @Override
+    public void sendMessages()
+    {
+        messagesOut.addAll(messagesIn);
+        for (final NetworkMessage message : messagesOut)
+        {
+            try
+            {
+                writeMessage(message);
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, "Unable to encode message");
+            }
+        }
+        messagesOut.clear();
+        for (final ChannelConnection client : clients.values())
+        {
+            flushDatagram(client);
+            flush(client);
+        }
+        updateRemove();
+        endTick();
+        if (bandwidthTimer.elapsed(BANDWIDTH_MILLI))
+        {
+            bandwidthPerSecond = bandwidth;
+            bandwidth = 0;
+            bandwidthTimer.restart();
+        }
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.network.purview.Networkable;
+import com.b3dgs.lionengine.network.purview.Replicable;
+
+/**
+ * State of all replicables at a sequence, sorted by replication id.
+ * <p>
+ * A snapshot is encoded as a delta against a baseline snapshot, only the changed fields of the changed entities being
+ * written as bit packed differences, followed by the removed entities.
+ * </p>
+ */
+final class Snapshot
+{
+    /** Empty snapshot, used as baseline when none acknowledged. */
+    static final Snapshot EMPTY = new Snapshot(-1, new short[0], new int[0][]);
+    /** Bits used to store an id or a count. */
+    private static final int SHORT_BITS = 16;
+    /** Bits used to store a state size. */
+    private static final int SIZE_BITS = 5;
+    /** Replicables sorter. */
+    private static final Comparator<Replicable> SORTER = new Comparator<Replicable>()
+    {
+        @Override
+        public int compare(Replicable a, Replicable b)
+        {
+            return a.getReplicationId() - b.getReplicationId();
+        }
+    };
+
+    /**
+     * Create the snapshot of the replicables current state.
+     * 
+     * @param sequence The snapshot sequence.
+     * @param networkables The networkables, only the {@link Replicable} being stored.
+     * @return The created snapshot.
+     */
+    static Snapshot create(int sequence, Collection<Networkable> networkables)
+    {
+        final List<Replicable> replicables = new ArrayList<Replicable>(networkables.size());
+        for (final Networkable networkable : networkables)
+        {
+            if (networkable instanceof Replicable)
+            {
+                replicables.add((Replicable) networkable);
+            }
+        }
+        Collections.sort(replicables, SORTER);
+
+        final int count = replicables.size();
+        final short[] ids = new short[count];
+        final int[][] states = new int[count][];
+        for (int i = 0; i < count; i++)
+        {
+            final Replicable replicable = replicables.get(i);
+            final int size = replicable.getStateSize();
+            Check.superiorStrict(size, 0);
+            Check.inferiorOrEqual(size, Replicable.MAX_STATE_SIZE);
+
+            ids[i] = replicable.getReplicationId();
+            states[i] = new int[size];
+            replicable.writeState(states[i]);
+        }
+        return new Snapshot(sequence, ids, states);
+    }
+
+    /**
+     * Read a snapshot delta.
+     * 
+     * @param sequence The snapshot sequence.
+     * @param baseline The baseline snapshot.
+     * @param reader The delta reader.
+     * @return The reconstructed snapshot.
+     * @throws IOException If invalid delta.
+     */
+    static Snapshot read(int sequence, Snapshot baseline, BitReader reader) throws IOException
+    {
+        final int changed = reader.read(SHORT_BITS);
+        final short[] changedIds = new short[changed];
+        final int[][] changedStates = new int[changed][];
+        for (int i = 0; i < changed; i++)
+        {
+            changedIds[i] = (short) reader.read(SHORT_BITS);
+            final int size = reader.read(SIZE_BITS) + 1;
+            final int[] base = baseline.getState(changedIds[i]);
+            final int[] state;
+            if (base != null && base.length == size)
+            {
+                state = base.clone();
+            }
+            else
+            {
+                state = new int[size];
+            }
+            final int mask = reader.read(size);
+            for (int field = 0; field < size; field++)
+            {
+                if ((mask >>> field & 1) != 0)
+                {
+                    state[field] += reader.readVariable();
+                }
+            }
+            changedStates[i] = state;
+        }
+        final int removed = reader.read(SHORT_BITS);
+        final short[] removedIds = new short[removed];
+        for (int i = 0; i < removed; i++)
+        {
+            removedIds[i] = (short) reader.read(SHORT_BITS);
+        }
+        return baseline.merge(sequence, changedIds, changedStates, removedIds);
+    }
+
+    /**
+     * Get the mask of fields which differ from baseline.
+     * 
+     * @param state The current state.
+     * @param base The baseline state (<code>null</code> if none).
+     * @return The changed fields mask, bit 0 for first field.
+     */
+    private static int getMask(int[] state, int[] base)
+    {
+        int mask = 0;
+        for (int field = 0; field < state.length; field++)
+        {
+            final int previous = getBase(base, state.length, field);
+            if (state[field] != previous)
+            {
+                mask |= 1 << field;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Get the baseline field value.
+     * 
+     * @param base The baseline state (<code>null</code> if none).
+     * @param size The current state size.
+     * @param field The field index.
+     * @return The baseline value, 0 if none or size changed.
+     */
+    private static int getBase(int[] base, int size, int field)
+    {
+        if (base != null && base.length == size)
+        {
+            return base[field];
+        }
+        return 0;
+    }
+
+    /**
+     * Check if id is contained.
+     * 
+     * @param array The ids.
+     * @param id The id to find.
+     * @return <code>true</code> if contained, <code>false</code> else.
+     */
+    private static boolean contains(short[] array, short id)
+    {
+        for (final short current : array)
+        {
+            if (current == id)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Snapshot sequence. */
+    private final int sequence;
+    /** Replication ids, sorted. */
+    private final short[] ids;
+    /** States by id index. */
+    private final int[][] states;
+
+    /**
+     * Create snapshot.
+     * 
+     * @param sequence The snapshot sequence.
+     * @param ids The sorted replication ids.
+     * @param states The states by id index.
+     */
+    private Snapshot(int sequence, short[] ids, int[][] states)
+    {
+        this.sequence = sequence;
+        this.ids = ids;
+        this.states = states;
+    }
+
+    /**
+     * Write the delta against a baseline.
+     * 
+     * @param baseline The baseline snapshot.
+     * @param writer The delta writer.
+     */
+    public void write(Snapshot baseline, BitWriter writer)
+    {
+        int changed = 0;
+        for (int i = 0; i < ids.length; i++)
+        {
+            if (getMask(states[i], baseline.getState(ids[i])) != 0)
+            {
+                changed++;
+            }
+        }
+        writer.write(changed, SHORT_BITS);
+        for (int i = 0; i < ids.length; i++)
+        {
+            final int[] state = states[i];
+            final int[] base = baseline.getState(ids[i]);
+            final int mask = getMask(state, base);
+            if (mask != 0)
+            {
+                writer.write(ids[i], SHORT_BITS);
+                writer.write(state.length - 1, SIZE_BITS);
+                writer.write(mask, state.length);
+                for (int field = 0; field < state.length; field++)
+                {
+                    if ((mask >>> field & 1) != 0)
+                    {
+                        writer.writeVariable(state[field] - getBase(base, state.length, field));
+                    }
+                }
+            }
+        }
+
+        int removed = 0;
+        for (final short id : baseline.ids)
+        {
+            if (getState(id) == null)
+            {
+                removed++;
+            }
+        }
+        writer.write(removed, SHORT_BITS);
+        for (final short id : baseline.ids)
+        {
+            if (getState(id) == null)
+            {
+                writer.write(id, SHORT_BITS);
+            }
+        }
+    }
+
+    /**
+     * Get the snapshot sequence.
+     * 
+     * @return The snapshot sequence (-1 for empty snapshot).
+     */
+    public int getSequence()
+    {
+        return sequence;
+    }
+
+    /**
+     * Get the number of stored states.
+     * 
+     * @return The number of states.
+     */
+    public int size()
+    {
+        return ids.length;
+    }
+
+    /**
+     * Get the replication id at index.
+     * 
+     * @param index The state index.
+     * @return The replication id.
+     */
+    public short getId(int index)
+    {
+        return ids[index];
+    }
+
+    /**
+     * Get the state at index.
+     * 
+     * @param index The state index.
+     * @return The state, must not be modified.
+     */
+    public int[] getStateAt(int index)
+    {
+        return states[index];
+    }
+
+    /**
+     * Get the state of a replication id.
+     * 
+     * @param id The replication id.
+     * @return The state (must not be modified), <code>null</code> if none.
+     */
+    public int[] getState(short id)
+    {
+        final int index = Arrays.binarySearch(ids, id);
+        if (index < 0)
+        {
+            return null;
+        }
+        return states[index];
+    }
+
+    /**
+     * Create a snapshot from this one as baseline, with changed and removed states.
+     * 
+     * @param sequence The new sequence.
+     * @param changedIds The changed ids, sorted.
+     * @param changedStates The changed states.
+     * @param removedIds The removed ids.
+     * @return The merged snapshot.
+     */
+    private Snapshot merge(int sequence, short[] changedIds, int[][] changedStates, short[] removedIds)
+    {
+        final short[] mergedIds = new short[ids.length + changedIds.length];
+        final int[][] mergedStates = new int[mergedIds.length][];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < ids.length || j < changedIds.length)
+        {
+            if (j >= changedIds.length || i < ids.length && ids[i] < changedIds[j])
+            {
+                if (!contains(removedIds, ids[i]))
+                {
+                    mergedIds[count] = ids[i];
+                    mergedStates[count] = states[i];
+                    count++;
+                }
+                i++;
+            }
+            else
+            {
+                if (i < ids.length && ids[i] == changedIds[j])
+                {
+                    i++;
+                }
+                mergedIds[count] = changedIds[j];
+                mergedStates[count] = changedStates[j];
+                count++;
+                j++;
+            }
+        }
+        return new Snapshot(sequence, Arrays.copyOf(mergedIds, count), Arrays.copyOf(mergedStates, count));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+/**
+ * Keep the last snapshots by sequence, older ones being overwritten.
+ */
+final class SnapshotHistory
+{
+    /** Number of kept snapshots. */
+    static final int SIZE = 32;
+
+    /** Snapshots by sequence modulo size. */
+    private final Snapshot[] snapshots = new Snapshot[SIZE];
+
+    /**
+     * Create history.
+     */
+    SnapshotHistory()
+    {
+        super();
+    }
+
+    /**
+     * Store a snapshot, replacing the one stored {@link #SIZE} sequences before.
+     * 
+     * @param snapshot The snapshot to store.
+     */
+    public void add(Snapshot snapshot)
+    {
+        snapshots[snapshot.getSequence() % SIZE] = snapshot;
+    }
+
+    /**
+     * Get a snapshot by sequence.
+     * 
+     * @param sequence The snapshot sequence (-1 for {@link Snapshot#EMPTY}).
+     * @return The snapshot, <code>null</code> if not stored anymore.
+     */
+    public Snapshot get(int sequence)
+    {
+        if (sequence < 0)
+        {
+            return Snapshot.EMPTY;
+        }
+        final Snapshot snapshot = snapshots[sequence % SIZE];
+        if (snapshot != null && snapshot.getSequence() == sequence)
+        {
+            return snapshot;
+        }
+        return null;
+    }
+
+    /**
+     * Remove all snapshots.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < SIZE; i++)
+        {
+            snapshots[i] = null;
+        }
+    }
+}
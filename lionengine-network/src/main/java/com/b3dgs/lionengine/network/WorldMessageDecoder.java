@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+
+/**
+ * Decoder handling the networked world messages (snapshot replication and client view), delegating other types to
+ * the user decoder.
+ * <p>
+ * Types {@link #TYPE_SNAPSHOT}, {@link #TYPE_SNAPSHOT_ACK} and {@link #TYPE_VIEW} are reserved.
+ * </p>
+ */
+final class WorldMessageDecoder implements NetworkMessageDecoder
+{
+    /** Snapshot message type. */
+    static final byte TYPE_SNAPSHOT = Byte.MIN_VALUE;
+    /** Snapshot acknowledge message type. */
+    static final byte TYPE_SNAPSHOT_ACK = Byte.MIN_VALUE + 1;
+    /** Client view message type. */
+    static final byte TYPE_VIEW = Byte.MIN_VALUE + 2;
+
+    /**
+     * Check if message is a networked world message.
+     * 
+     * @param message The message to check.
+     * @return <code>true</code> if world message, <code>false</code> else.
+     */
+    static boolean isWorldMessage(NetworkMessage message)
+    {
+        return message instanceof NetworkMessageSnapshot
+               || message instanceof NetworkMessageSnapshotAck
+               || message instanceof NetworkMessageView;
+    }
+
+    /** User decoder. */
+    private final NetworkMessageDecoder decoder;
+
+    /**
+     * Create decoder.
+     * 
+     * @param decoder The user decoder.
+     */
+    WorldMessageDecoder(NetworkMessageDecoder decoder)
+    {
+        this.decoder = decoder;
+    }
+
+    /**
+     * Get the user decoder.
+     * 
+     * @return The user decoder.
+     */
+    public NetworkMessageDecoder getDecoder()
+    {
+        return decoder;
+    }
+
+    /*
+     * NetworkMessageDecoder
+     */
+
+    @Override
+    public NetworkMessage getNetworkMessageFromType(int type)
+    {
+        if (TYPE_SNAPSHOT == type)
+        {
+            return new NetworkMessageSnapshot();
+        }
+        if (TYPE_SNAPSHOT_ACK == type)
+        {
+            return new NetworkMessageSnapshotAck();
+        }
+        if (TYPE_VIEW == type)
+        {
+            return new NetworkMessageView();
+        }
+        return decoder.getNetworkMessageFromType(type);
+    }
+}
@@ -20,6 +20,7 @@ package com.b3dgs.lionengine.network.message;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
 
@@ -27,6 +28,16 @@ import com.b3dgs.lionengine.Verbose;
 
 /**
  * Network message description.
+ * <p>
+ * Messages can be encoded to a stream with {@link #encode()}, or directly into a reusable buffer with
+ * {@link #write(ByteBuffer)}. The buffer path falls back on the stream hooks by default, and can be overridden with
+ * {@link #encode(ByteBuffer)} and {@link #decode(ByteBuffer)} to avoid any allocation.
+ * </p>
+ * <p>
+ * Messages are reliable by default. Frequent state updates can be marked as unreliable with
+ * {@link #setUnreliable(boolean)}, to be sent over a datagram channel when available: they may then be lost, and are
+ * dropped if received after a newer one.
+ * </p>
  */
 public abstract class NetworkMessage
 {
@@ -58,6 +69,8 @@ public abstract class NetworkMessage
     private byte clientId;
     /** Id of the client to sent this message. */
     private byte clientDestId;
+    /** Unreliable delivery flag. */
+    private boolean unreliable;
 
     /**
      * Constructor base.
@@ -108,6 +121,31 @@ public abstract class NetworkMessage
      */
     protected abstract void decode(DataInputStream buffer) throws IOException;
 
+    /**
+     * Encode the message into the buffer. Uses {@link #encode(ByteArrayOutputStream)} by default.
+     * 
+     * @param buffer The current buffer.
+     * @throws IOException Error on writing.
+     * @throws java.nio.BufferOverflowException If buffer is too small.
+     */
+    protected void encode(ByteBuffer buffer) throws IOException
+    {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        encode(stream);
+        buffer.put(stream.toByteArray());
+    }
+
+    /**
+     * Decode the message from the buffer, until its limit. Uses {@link #decode(DataInputStream)} by default.
+     * 
+     * @param buffer The data reference.
+     * @throws IOException Error on reading.
+     */
+    protected void decode(ByteBuffer buffer) throws IOException
+    {
+        decode(new DataInputStream(new ByteBufferInputStream(buffer)));
+    }
+
     /**
      * Get the message type.
      * 
@@ -138,6 +176,27 @@ public abstract class NetworkMessage
         return clientDestId;
     }
 
+    /**
+     * Set the delivery mode. Unreliable messages are sent over the datagram channel when available (see
+     * {@link com.b3dgs.lionengine.network.NetworkTransport#DATAGRAM}), and over the reliable connection else.
+     * 
+     * @param unreliable <code>true</code> if message can be lost, <code>false</code> if it must be delivered.
+     */
+    public final void setUnreliable(boolean unreliable)
+    {
+        this.unreliable = unreliable;
+    }
+
+    /**
+     * Check if message is unreliable. Received messages are unreliable if they were received over a datagram channel.
+     * 
+     * @return <code>true</code> if message can be lost, <code>false</code> if it must be delivered.
+     */
+    public final boolean isUnreliable()
+    {
+        return unreliable;
+    }
+
     /**
      * Encode the message.
      * 
@@ -170,6 +229,40 @@ public abstract class NetworkMessage
         this.type = type;
         clientId = from;
         clientDestId = dest;
+        unreliable = false;
+        decode(buffer);
+    }
+
+    /**
+     * Write the message into the buffer, with the same layout as {@link #encode()}.
+     * 
+     * @param buffer The buffer to write to, from its current position.
+     * @throws IOException Error on writing.
+     * @throws java.nio.BufferOverflowException If buffer is too small.
+     */
+    public final void write(ByteBuffer buffer) throws IOException
+    {
+        buffer.put(type);
+        buffer.put(clientId);
+        buffer.put(clientDestId);
+        encode(buffer);
+    }
+
+    /**
+     * Read the message from the buffer content.
+     * 
+     * @param type The message type.
+     * @param from The client id from.
+     * @param dest The client id destination.
+     * @param buffer The data reference, read from its current position to its limit.
+     * @throws IOException Error on reading.
+     */
+    public final void read(byte type, byte from, byte dest, ByteBuffer buffer) throws IOException
+    {
+        this.type = type;
+        clientId = from;
+        clientDestId = dest;
+        unreliable = false;
         decode(buffer);
     }
 }
@@ -20,6 +20,7 @@ package com.b3dgs.lionengine.network.message;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * Message chat implementation.
@@ -90,4 +91,16 @@ public class NetworkMessageChat extends NetworkMessage
         buffer.readFully(msg);
         message = new String(msg, NetworkMessage.CHARSET);
     }
+
+    @Override
+    protected void encode(ByteBuffer buffer)
+    {
+        buffer.put(message.getBytes(NetworkMessage.CHARSET));
+    }
+
+    @Override
+    protected void decode(ByteBuffer buffer)
+    {
+        message = NetworkMessage.CHARSET.decode(buffer).toString();
+    }
 }
@@ -20,21 +20,31 @@ package com.b3dgs.lionengine.network.message;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
+import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.util.UtilConversion;
 
 /**
  * Standard entity message.
+ * <p>
+ * Actions are stored as primitive values in slots indexed by their enum ordinal, and are encoded by ordinal order.
+ * </p>
  * 
  * @param <M> The message entity element enum.
  */
 public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMessage
 {
-    /** List of actions. */
-    private final Map<M, Object> actions = new HashMap<M, Object>(1);
+    /** Action not found error. */
+    private static final String ERROR_ACTION = "Action not found: ";
+
+    /** Actions keys by ordinal (<code>null</code> if not defined). */
+    private Object[] keys = new Object[0];
+    /** Actions values by ordinal (floating values stored as raw bits). */
+    private long[] values = new long[0];
+    /** Number of defined actions. */
+    private int count;
     /** Entity number. */
     private short entityId;
 
@@ -102,6 +112,35 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
      */
     protected abstract void decode(DataInputStream buffer, int i) throws IOException;
 
+    /**
+     * Encode function for the current key into the buffer. Uses {@link #encode(ByteArrayOutputStream, Enum)} by
+     * default.
+     * 
+     * @param buffer The current buffer to write.
+     * @param key The current key.
+     * @throws IOException Exception in case of error.
+     * @throws java.nio.BufferOverflowException If buffer is too small.
+     */
+    protected void encode(ByteBuffer buffer, M key) throws IOException
+    {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        encode(stream, key);
+        buffer.put(stream.toByteArray());
+    }
+
+    /**
+     * Decode function for the current key number from the buffer. Uses {@link #decode(DataInputStream, int)} by
+     * default.
+     * 
+     * @param buffer The current buffer to read.
+     * @param i The current key number.
+     * @throws IOException Exception in case of error.
+     */
+    protected void decode(ByteBuffer buffer, int i) throws IOException
+    {
+        decode(new DataInputStream(new ByteBufferInputStream(buffer)), i);
+    }
+
     /**
      * Add an action.
      * 
@@ -110,7 +149,7 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
      */
     public void addAction(M element, boolean value)
     {
-        actions.put(element, Boolean.valueOf(value));
+        setAction(element, value ? 1L : 0L);
     }
 
     /**
@@ -121,7 +160,7 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
      */
     public void addAction(M element, char value)
     {
-        actions.put(element, Character.valueOf(value));
+        setAction(element, value);
     }
 
     /**
@@ -132,7 +171,7 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
      */
     public void addAction(M element, byte value)
     {
-        actions.put(element, Byte.valueOf(value));
+        setAction(element, value);
     }
 
     /**
@@ -143,7 +182,7 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
      */
     public void addAction(M element, short value)
     {
-        actions.put(element, Short.valueOf(value));
+        setAction(element, value);
     }
 
     /**
@@ -154,7 +193,7 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
      */
     public void addAction(M element, int value)
     {
-        actions.put(element, Integer.valueOf(value));
+        setAction(element, value);
     }
 
     /**
@@ -165,7 +204,7 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
      */
     public void addAction(M element, double value)
     {
-        actions.put(element, Double.valueOf(value));
+        setAction(element, Double.doubleToRawLongBits(value));
     }
 
     /**
@@ -176,7 +215,7 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
      */
     public boolean getActionBoolean(M element)
     {
-        return ((Boolean) actions.get(element)).booleanValue();
+        return getAction(element) != 0L;
     }
 
     /**
@@ -187,7 +226,7 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
      */
     public byte getActionByte(M element)
     {
-        return ((Byte) actions.get(element)).byteValue();
+        return (byte) getAction(element);
     }
 
     /**
@@ -198,7 +237,7 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
      */
     public char getActionChar(M element)
     {
-        return ((Character) actions.get(element)).charValue();
+        return (char) getAction(element);
     }
 
     /**
@@ -209,7 +248,7 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
      */
     public short getActionShort(M element)
     {
-        return ((Short) actions.get(element)).shortValue();
+        return (short) getAction(element);
     }
 
     /**
@@ -220,7 +259,7 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
      */
     public int getActionInteger(M element)
     {
-        return ((Integer) actions.get(element)).intValue();
+        return (int) getAction(element);
     }
 
     /**
@@ -231,7 +270,7 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
      */
     public double getActionDouble(M element)
     {
-        return ((Double) actions.get(element)).doubleValue();
+        return Double.longBitsToDouble(getAction(element));
     }
 
     /**
@@ -242,7 +281,44 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
      */
     public boolean hasAction(M element)
     {
-        return actions.containsKey(element);
+        final int ordinal = element.ordinal();
+        return ordinal < keys.length && keys[ordinal] != null;
+    }
+
+    /**
+     * Add all actions defined by another message, replacing the current values of the same actions.
+     * 
+     * @param other The message to merge.
+     */
+    public void addActions(NetworkMessageEntity<M> other)
+    {
+        for (int i = 0; i < other.keys.length; i++)
+        {
+            final M key = other.getKey(i);
+            if (key != null)
+            {
+                setAction(key, other.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Get the number of defined actions.
+     * 
+     * @return The number of actions.
+     */
+    public int getActionsNumber()
+    {
+        return count;
+    }
+
+    /**
+     * Remove all actions, allowing to reuse the message.
+     */
+    public void clearActions()
+    {
+        Arrays.fill(keys, null);
+        count = 0;
     }
 
     /**
@@ -255,6 +331,57 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
         return entityId;
     }
 
+    /**
+     * Store the action value in its slot.
+     * 
+     * @param element The action type.
+     * @param value The action value.
+     */
+    private void setAction(M element, long value)
+    {
+        final int ordinal = element.ordinal();
+        if (ordinal >= keys.length)
+        {
+            final int length = Math.max(ordinal + 1, element.getDeclaringClass().getEnumConstants().length);
+            keys = Arrays.copyOf(keys, length);
+            values = Arrays.copyOf(values, length);
+        }
+        if (keys[ordinal] == null)
+        {
+            keys[ordinal] = element;
+            count++;
+        }
+        values[ordinal] = value;
+    }
+
+    /**
+     * Get the action value from its slot.
+     * 
+     * @param element The action type.
+     * @return The action value.
+     * @throws LionEngineException If action not defined.
+     */
+    private long getAction(M element)
+    {
+        if (!hasAction(element))
+        {
+            throw new LionEngineException(ERROR_ACTION, element.name());
+        }
+        return values[element.ordinal()];
+    }
+
+    /**
+     * Get the action key stored in slot.
+     * 
+     * @param ordinal The slot ordinal.
+     * @return The action key, <code>null</code> if none.
+     */
+    @SuppressWarnings("unchecked")
+    private M getKey(int ordinal)
+    {
+        return (M) keys[ordinal];
+    }
+
     /*
      * NetworkMessage
      */
@@ -270,13 +397,16 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
     protected void encode(ByteArrayOutputStream buffer) throws IOException
     {
         buffer.write(UtilConversion.shortToByteArray(entityId));
-        final Collection<M> keys = actions.keySet();
 
         // Fill the data
-        buffer.write((byte) keys.size());
-        for (final M key : keys)
+        buffer.write((byte) count);
+        for (int i = 0; i < keys.length; i++)
         {
-            encode(buffer, key);
+            final M key = getKey(i);
+            if (key != null)
+            {
+                encode(buffer, key);
+            }
         }
     }
 
@@ -290,6 +420,7 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
     @Override
     protected void decode(DataInputStream buffer) throws IOException
     {
+        clearActions();
         entityId = buffer.readShort();
         final int number = buffer.readByte();
         for (int i = 0; i < number; i++)
@@ -297,4 +428,44 @@ public abstract class NetworkMessageEntity<M extends Enum<M>> extends NetworkMes
             decode(buffer, i);
         }
     }
+
+    /**
+     * Store the entity id and the total number of keys in the buffer, and call {@link #encode(ByteBuffer, Enum)} for
+     * each key.
+     * 
+     * @param buffer The current buffer to write.
+     * @throws IOException Exception in case of error.
+     */
+    @Override
+    protected void encode(ByteBuffer buffer) throws IOException
+    {
+        buffer.putShort(entityId);
+        buffer.put((byte) count);
+        for (int i = 0; i < keys.length; i++)
+        {
+            final M key = getKey(i);
+            if (key != null)
+            {
+                encode(buffer, key);
+            }
+        }
+    }
+
+    /**
+     * Read the entity id and the total number of keys, and call {@link #decode(ByteBuffer, int)} for each key.
+     * 
+     * @param buffer The current buffer to read.
+     * @throws IOException Exception in case of error.
+     */
+    @Override
+    protected void decode(ByteBuffer buffer) throws IOException
+    {
+        clearActions();
+        entityId = buffer.getShort();
+        final int number = buffer.get();
+        for (int i = 0; i < number; i++)
+        {
+            decode(buffer, i);
+        }
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.message;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Check;
+
+/**
+ * Decoder keeping released messages by type, and reusing them instead of creating new instances.
+ * <p>
+ * When used by a networker, received messages are released on each messages reception, so they must not be kept
+ * after that.
+ * </p>
+ */
+public final class NetworkMessagePool implements NetworkMessageDecoder
+{
+    /** Default pooled messages per type. */
+    private static final int DEFAULT_LIMIT = 256;
+
+    /** Pooled messages by type. */
+    private final Map<Integer, Deque<NetworkMessage>> pools = new HashMap<Integer, Deque<NetworkMessage>>();
+    /** Messages creator. */
+    private final NetworkMessageDecoder decoder;
+    /** Maximum pooled messages per type. */
+    private final int limit;
+
+    /**
+     * Create pool with a default limit.
+     * 
+     * @param decoder The decoder used to create messages when pool is empty.
+     */
+    public NetworkMessagePool(NetworkMessageDecoder decoder)
+    {
+        this(decoder, DEFAULT_LIMIT);
+    }
+
+    /**
+     * Create pool.
+     * 
+     * @param decoder The decoder used to create messages when pool is empty.
+     * @param limit The maximum pooled messages per type (strictly positive).
+     * @throws com.b3dgs.lionengine.LionEngineException If invalid arguments.
+     */
+    public NetworkMessagePool(NetworkMessageDecoder decoder, int limit)
+    {
+        Check.notNull(decoder);
+        Check.superiorStrict(limit, 0);
+
+        this.decoder = decoder;
+        this.limit = limit;
+    }
+
+    /**
+     * Release a message, which may be returned by a future {@link #getNetworkMessageFromType(int)}.
+     * 
+     * @param message The message to release.
+     */
+    public void release(NetworkMessage message)
+    {
+        final Integer key = Integer.valueOf(message.getType());
+        Deque<NetworkMessage> pool = pools.get(key);
+        if (pool == null)
+        {
+            pool = new ArrayDeque<NetworkMessage>();
+            pools.put(key, pool);
+        }
+        if (pool.size() < limit)
+        {
+            pool.push(message);
+        }
+    }
+
+    /**
+     * Get the number of pooled messages for a type.
+     * 
+     * @param type The message type.
+     * @return The number of pooled messages.
+     */
+    public int getSize(int type)
+    {
+        final Deque<NetworkMessage> pool = pools.get(Integer.valueOf(type));
+        if (pool == null)
+        {
+            return 0;
+        }
+        return pool.size();
+    }
+
+    /*
+     * NetworkMessageDecoder
+     */
+
+    @Override
+    public NetworkMessage getNetworkMessageFromType(int type)
+    {
+        final Deque<NetworkMessage> pool = pools.get(Integer.valueOf(type));
+        if (pool != null && !pool.isEmpty())
+        {
+            return pool.pop();
+        }
+        return decoder.getNetworkMessageFromType(type);
+    }
+}
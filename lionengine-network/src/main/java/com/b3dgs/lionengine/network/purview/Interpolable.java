@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.purview;
+
+import com.b3dgs.lionengine.game.Direction;
+
+/**
+ * Describe a remote entity rendered with an interpolation delay by the client world.
+ * <p>
+ * Received messages and snapshots update the entity location as usual, which is then buffered by the client world
+ * and replaced by the interpolated location on each interpolation (see
+ * {@link com.b3dgs.lionengine.network.NetworkedWorldClient#interpolate()}).
+ * </p>
+ */
+public interface Interpolable extends Perceptible
+{
+    /**
+     * Get the current velocity per tick, used to extrapolate the location when updates are late, such as its
+     * {@link com.b3dgs.lionengine.game.Force} or its last {@link com.b3dgs.lionengine.game.Mover} displacement.
+     * 
+     * @return The current velocity, <code>null</code> if none.
+     */
+    Direction getVelocity();
+}
@@ -17,18 +17,33 @@
  */
 package com.b3dgs.lionengine.network.purview;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 
 import com.b3dgs.lionengine.core.InputDeviceKeyListener;
 import com.b3dgs.lionengine.network.message.NetworkMessage;
 
 /**
  * Networked input listener.
+ * <p>
+ * Inputs can be predicted: each sent input has a sequence number (see {@link #getInputSequence()}), is applied
+ * locally with {@link #predictKey(int, boolean)} and kept until acknowledged. When receiving the server state with
+ * the last input sequence it processed, the client resets to this state then calls {@link #reconcile(int)}, which
+ * replays the inputs not yet processed by the server. Oldest inputs are discarded when too many are pending.
+ * </p>
  */
 public abstract class NetworkedInput implements Networkable, InputDeviceKeyListener
 {
+    /** Maximum number of pending inputs, oldest being discarded. */
+    private static final int MAX_PENDING = 256;
+
     /** Model reference. */
     private final NetworkableModel networkable;
+    /** Sent inputs not yet acknowledged (sequence, code, pressed as 0 or 1). */
+    private final Deque<int[]> pending = new ArrayDeque<int[]>();
+    /** Last sent input sequence. */
+    private int sequence = -1;
 
     /**
      * Constructor base.
@@ -46,6 +61,76 @@ public abstract class NetworkedInput implements Networkable, InputDeviceKeyListe
      */
     protected abstract void sendKey(int code, boolean pressed);
 
+    /**
+     * Apply locally a sent key, before its processing by the server. Does nothing by default.
+     * 
+     * @param code The key code.
+     * @param pressed The key pressed state.
+     */
+    protected void predictKey(int code, boolean pressed)
+    {
+        // Nothing by default
+    }
+
+    /**
+     * Get the sequence of the input being sent, to be included in the message by {@link #sendKey(int, boolean)}.
+     * 
+     * @return The input sequence.
+     */
+    protected int getInputSequence()
+    {
+        return sequence;
+    }
+
+    /**
+     * Reconcile with the server state, which must have been applied before. Acknowledged inputs are discarded, and the
+     * others predicted again in their sending order.
+     * 
+     * @param acknowledged The last input sequence processed by the server.
+     */
+    public void reconcile(int acknowledged)
+    {
+        while (!pending.isEmpty() && pending.peekFirst()[0] - acknowledged <= 0)
+        {
+            pending.removeFirst();
+        }
+        for (final int[] input : pending)
+        {
+            predictKey(input[1], input[2] == 1);
+        }
+    }
+
+    /**
+     * Get the number of inputs not yet acknowledged.
+     * 
+     * @return The number of pending inputs.
+     */
+    public int getPendingInputs()
+    {
+        return pending.size();
+    }
+
+    /**
+     * Send a key, predict it, and keep it until acknowledged.
+     * 
+     * @param code The key code.
+     * @param pressed The key pressed state.
+     */
+    private void send(int code, boolean pressed)
+    {
+        sequence++;
+        if (pending.size() == MAX_PENDING)
+        {
+            pending.removeFirst();
+        }
+        pending.addLast(new int[]
+        {
+            sequence, code, pressed ? 1 : 0
+        });
+        sendKey(code, pressed);
+        predictKey(code, pressed);
+    }
+
     /*
      * KeyboardListener
      */
@@ -53,13 +138,13 @@ public abstract class NetworkedInput implements Networkable, InputDeviceKeyListe
     @Override
     public void keyPressed(int keyCode, char keyChar)
     {
-        sendKey(keyCode, true);
+        send(keyCode, true);
     }
 
     @Override
     public void keyReleased(int keyCode, char keyChar)
     {
-        sendKey(keyCode, false);
+        send(keyCode, false);
     }
 
     /*
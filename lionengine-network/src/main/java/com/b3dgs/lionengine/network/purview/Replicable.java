@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.purview;
+
+/**
+ * Describe a networkable whose state is replicated by snapshots from the server to the clients.
+ * <p>
+ * The state is a fixed number of integer fields (floating values should be quantized), identified by a unique
+ * replication id shared by the server and the clients.
+ * </p>
+ */
+public interface Replicable extends Networkable
+{
+    /** Maximum number of state fields. */
+    int MAX_STATE_SIZE = 32;
+
+    /**
+     * Get the replication id, unique and identical on server and clients.
+     * 
+     * @return The replication id (positive).
+     */
+    short getReplicationId();
+
+    /**
+     * Get the number of state fields.
+     * 
+     * @return The number of state fields (between 1 and {@link #MAX_STATE_SIZE}).
+     */
+    int getStateSize();
+
+    /**
+     * Write the current state (server side).
+     * 
+     * @param state The state to fill, of {@link #getStateSize()} length.
+     */
+    void writeState(int[] state);
+
+    /**
+     * Apply a replicated state (client side).
+     * 
+     * @param state The replicated state, must not be modified.
+     */
+    void readState(int[] state);
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Locale;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageChat;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+import com.b3dgs.lionengine.util.UtilConversion;
+
+/**
+ * Exchange unreliable state updates by datagrams over loopback with simulated loss and reordering, reliable messages
+ * staying on the framed connection.
+ * <p>
+ * Kept in the network package instead of the <code>it</code> one, as loss and reordering are simulated with the
+ * package private <code>simulateDatagrams</code> of {@link ServerNio} and {@link ClientNio}.
+ * </p>
+ */
+public class DatagramLoopbackIT
+{
+    /** Number of measured ticks. */
+    private static final int TICKS = 500;
+    /** Reliable message period in ticks. */
+    private static final int CHAT_PERIOD = 10;
+    /** Maximum number of ticks waiting for a state. */
+    private static final int TIMEOUT = 1000;
+    /** Simulated loss. */
+    private static final double LOSS = 0.2;
+    /** Simulated reordering. */
+    private static final double REORDER = 0.1;
+    /** Chat message type. */
+    private static final byte TYPE_CHAT = 0;
+    /** Server state message type. */
+    private static final byte TYPE_SERVER = 1;
+    /** Client state message type. */
+    private static final byte TYPE_CLIENT = 2;
+    /** Message decoder. */
+    private static final NetworkMessageDecoder DECODER = new NetworkMessageDecoder()
+    {
+        @Override
+        public NetworkMessage getNetworkMessageFromType(int type)
+        {
+            if (TYPE_CHAT == type)
+            {
+                return new NetworkMessageChat();
+            }
+            return new StateMessage();
+        }
+    };
+
+    /**
+     * Create an unreliable state message.
+     * 
+     * @param type The message type.
+     * @param clientId The client id.
+     * @param value The state value.
+     * @return The created message.
+     */
+    private static NetworkMessage createState(byte type, byte clientId, int value)
+    {
+        final StateMessage message = new StateMessage(type, clientId, value);
+        message.setUnreliable(true);
+        return message;
+    }
+
+    /**
+     * Send and receive states with simulated loss, then check received states.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testLoss() throws InterruptedException
+    {
+        final ServerNio server = new ServerNio(DECODER, true);
+        final ClientNio client = new ClientNio(DECODER, true);
+        try
+        {
+            server.start("server", 0);
+            client.setName("client");
+            client.connect("127.0.0.1", server.getPort());
+
+            final Receiver serverReceiver = new Receiver(TYPE_CLIENT);
+            final Receiver clientReceiver = new Receiver(TYPE_SERVER);
+            int value = 0;
+            for (int i = 0; i < TIMEOUT && clientReceiver.states == 0; i++)
+            {
+                client.sendMessages();
+                server.receiveMessages();
+                server.addMessage(createState(TYPE_SERVER, (byte) -1, value++));
+                server.sendMessages();
+                client.receiveMessages();
+                clientReceiver.receive(client);
+                Thread.sleep(1L);
+            }
+            Assert.assertTrue(clientReceiver.unreliable);
+            server.simulateDatagrams(LOSS, REORDER);
+            client.simulateDatagrams(LOSS, REORDER);
+            clientReceiver.reset();
+
+            int chats = 0;
+            for (int i = 0; i < TICKS; i++)
+            {
+                client.addMessage(createState(TYPE_CLIENT, client.getId(), i));
+                client.sendMessages();
+                server.receiveMessages();
+                serverReceiver.receive(server);
+                server.addMessage(createState(TYPE_SERVER, (byte) -1, value++));
+                if (i % CHAT_PERIOD == 0)
+                {
+                    server.addMessage(new NetworkMessageChat(TYPE_CHAT, (byte) -1, "chat" + i));
+                    chats++;
+                }
+                server.sendMessages();
+                client.receiveMessages();
+                clientReceiver.receive(client);
+            }
+            for (int i = 0; i < TIMEOUT && clientReceiver.chats < chats; i++)
+            {
+                client.receiveMessages();
+                clientReceiver.receive(client);
+                Thread.sleep(1L);
+            }
+
+            Verbose.info(String.format(Locale.ENGLISH,
+                                       "%d states/side, %.0f%% loss, %.0f%% reordered: "
+                                                       + "server received %d, client received %d, stale dropped",
+                                       Integer.valueOf(TICKS),
+                                       Double.valueOf(LOSS * 100),
+                                       Double.valueOf(REORDER * 100),
+                                       Integer.valueOf(serverReceiver.states),
+                                       Integer.valueOf(clientReceiver.states)));
+            Assert.assertEquals(chats, clientReceiver.chats);
+            Assert.assertTrue(serverReceiver.unreliable && clientReceiver.unreliable);
+            Assert.assertTrue(serverReceiver.states < TICKS && serverReceiver.states > TICKS / 2);
+            Assert.assertTrue(clientReceiver.states < TICKS && clientReceiver.states > TICKS / 2);
+        }
+        finally
+        {
+            client.disconnect();
+            server.disconnect();
+        }
+    }
+
+    /**
+     * Received states checker.
+     */
+    private static final class Receiver
+    {
+        /** State type. */
+        private final byte type;
+        /** Last received state (-1 if none). */
+        private int last = -1;
+        /** Received states. */
+        private int states;
+        /** Received chats. */
+        private int chats;
+        /** All states received as unreliable. */
+        private boolean unreliable = true;
+
+        /**
+         * Create receiver.
+         * 
+         * @param type The state type.
+         */
+        Receiver(byte type)
+        {
+            this.type = type;
+        }
+
+        /**
+         * Reset the received states count.
+         */
+        void reset()
+        {
+            last = -1;
+            states = 0;
+        }
+
+        /**
+         * Check the received messages, states must be increasing.
+         * 
+         * @param networker The networker reference.
+         */
+        void receive(Networker<?> networker)
+        {
+            for (final NetworkMessage message : networker.getMessages())
+            {
+                if (message.getType() == type)
+                {
+                    final int value = ((StateMessage) message).value;
+                    Assert.assertTrue(value > last);
+                    last = value;
+                    states++;
+                    unreliable &= message.isUnreliable();
+                }
+                else if (message instanceof NetworkMessageChat)
+                {
+                    Assert.assertFalse(message.isUnreliable());
+                    chats++;
+                }
+            }
+        }
+    }
+
+    /**
+     * State message.
+     */
+    private static final class StateMessage extends NetworkMessage
+    {
+        /** State value. */
+        private int value;
+
+        /**
+         * Create message for decoding.
+         */
+        StateMessage()
+        {
+            super();
+        }
+
+        /**
+         * Create message.
+         * 
+         * @param type The message type.
+         * @param clientId The client id.
+         * @param value The state value.
+         */
+        StateMessage(byte type, byte clientId, int value)
+        {
+            super(type, clientId);
+            this.value = value;
+        }
+
+        @Override
+        protected void encode(ByteArrayOutputStream buffer) throws IOException
+        {
+            buffer.write(UtilConversion.intToByteArray(value));
+        }
+
+        @Override
+        protected void decode(DataInputStream buffer) throws IOException
+        {
+            value = buffer.readInt();
+        }
+    }
+}
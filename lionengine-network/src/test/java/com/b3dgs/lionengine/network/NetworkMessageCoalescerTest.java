@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageChat;
+import com.b3dgs.lionengine.network.message.NetworkMessageEntity;
+
+/**
+ * Test the network message coalescer.
+ */
+public class NetworkMessageCoalescerTest
+{
+    /** Entity message type. */
+    private static final byte TYPE = 1;
+    /** Other entity message type. */
+    private static final byte TYPE_OTHER = 2;
+    /** Chat message type. */
+    private static final byte TYPE_CHAT = 3;
+    /** Not encoded error. */
+    private static final String ERROR_ENCODE = "Not sent through network !";
+
+    /**
+     * Create a unit message.
+     * 
+     * @param type The message type.
+     * @param entityId The entity id.
+     * @param x The horizontal location.
+     * @param y The vertical location (not added if negative).
+     * @return The created message.
+     */
+    private static UnitMessage create(byte type, int entityId, int x, int y)
+    {
+        final UnitMessage message = new UnitMessage(type, (short) entityId);
+        message.addAction(Action.X, x);
+        if (y >= 0)
+        {
+            message.addAction(Action.Y, y);
+        }
+        return message;
+    }
+
+    /**
+     * Get the collected messages as a list.
+     * 
+     * @param coalescer The coalescer reference.
+     * @return The collected messages.
+     */
+    private static List<NetworkMessage> getMessages(NetworkMessageCoalescer coalescer)
+    {
+        return new ArrayList<NetworkMessage>(coalescer.getMessages());
+    }
+
+    /** Coalescer reference. */
+    private final NetworkMessageCoalescer coalescer = new NetworkMessageCoalescer();
+
+    /**
+     * Test messages are kept as is when coalescing is not enabled.
+     */
+    @Test
+    public void testDisabled()
+    {
+        final UnitMessage first = create(TYPE, 1, 1, -1);
+        final UnitMessage second = create(TYPE, 1, 2, -1);
+        coalescer.add(first);
+        coalescer.add(second);
+
+        Assert.assertEquals(Arrays.asList(first, second), getMessages(coalescer));
+        Assert.assertEquals(1, first.getActionInteger(Action.X));
+    }
+
+    /**
+     * Test the updates of the same entity are merged into the first one, latest value of each action winning.
+     */
+    @Test
+    public void testCoalesce()
+    {
+        coalescer.setCoalescing(TYPE, true);
+
+        final UnitMessage first = create(TYPE, 1, 1, 10);
+        final UnitMessage other = create(TYPE, 2, 5, -1);
+        final UnitMessage second = create(TYPE, 1, 2, -1);
+        final UnitMessage third = create(TYPE, 1, 3, -1);
+        coalescer.addAll(Arrays.<NetworkMessage> asList(first, other, second, third));
+
+        Assert.assertEquals(Arrays.asList(first, other), getMessages(coalescer));
+        Assert.assertEquals(3, first.getActionInteger(Action.X));
+        Assert.assertEquals(10, first.getActionInteger(Action.Y));
+        Assert.assertEquals(5, other.getActionInteger(Action.X));
+    }
+
+    /**
+     * Test only the enabled types are merged, and coalescing can be disabled.
+     */
+    @Test
+    public void testEnabledType()
+    {
+        coalescer.setCoalescing(TYPE, true);
+
+        final UnitMessage first = create(TYPE_OTHER, 1, 1, -1);
+        final UnitMessage second = create(TYPE_OTHER, 1, 2, -1);
+        coalescer.add(first);
+        coalescer.add(second);
+
+        Assert.assertEquals(Arrays.asList(first, second), getMessages(coalescer));
+
+        coalescer.clear();
+        coalescer.setCoalescing(TYPE, false);
+
+        final UnitMessage third = create(TYPE, 1, 1, -1);
+        final UnitMessage fourth = create(TYPE, 1, 2, -1);
+        coalescer.add(third);
+        coalescer.add(fourth);
+
+        Assert.assertEquals(Arrays.asList(third, fourth), getMessages(coalescer));
+    }
+
+    /**
+     * Test a message which can not be coalesced ends the merge, keeping the messages order.
+     */
+    @Test
+    public void testOrder()
+    {
+        coalescer.setCoalescing(TYPE, true);
+
+        final UnitMessage first = create(TYPE, 1, 1, -1);
+        final NetworkMessage chat = new NetworkMessageChat(TYPE_CHAT, (byte) 0, "chat");
+        final UnitMessage second = create(TYPE, 1, 2, -1);
+        final UnitMessage third = create(TYPE, 1, 3, -1);
+        coalescer.addAll(Arrays.<NetworkMessage> asList(first, chat, second, third));
+
+        Assert.assertEquals(Arrays.asList(first, chat, second), getMessages(coalescer));
+        Assert.assertEquals(1, first.getActionInteger(Action.X));
+        Assert.assertEquals(3, second.getActionInteger(Action.X));
+    }
+
+    /**
+     * Test a merged message is unreliable only if all its parts are.
+     */
+    @Test
+    public void testUnreliable()
+    {
+        coalescer.setCoalescing(TYPE, true);
+
+        final UnitMessage first = create(TYPE, 1, 1, -1);
+        final UnitMessage second = create(TYPE, 1, 2, -1);
+        first.setUnreliable(true);
+        second.setUnreliable(true);
+        coalescer.add(first);
+        coalescer.add(second);
+
+        Assert.assertTrue(first.isUnreliable());
+
+        coalescer.add(create(TYPE, 1, 3, -1));
+
+        Assert.assertEquals(Arrays.asList(first), getMessages(coalescer));
+        Assert.assertFalse(first.isUnreliable());
+    }
+
+    /**
+     * Test clear removes the messages and the merge state.
+     */
+    @Test
+    public void testClear()
+    {
+        coalescer.setCoalescing(TYPE, true);
+        coalescer.add(create(TYPE, 1, 1, -1));
+        coalescer.clear();
+
+        Assert.assertTrue(coalescer.getMessages().isEmpty());
+
+        final UnitMessage message = create(TYPE, 1, 2, -1);
+        coalescer.add(message);
+
+        Assert.assertEquals(Arrays.asList(message), getMessages(coalescer));
+    }
+
+    /**
+     * Unit actions.
+     */
+    private enum Action
+    {
+        /** Horizontal location. */
+        X,
+        /** Vertical location. */
+        Y;
+    }
+
+    /**
+     * Unit location message.
+     */
+    private static final class UnitMessage extends NetworkMessageEntity<Action>
+    {
+        /**
+         * Create message.
+         * 
+         * @param type The message type.
+         * @param entityId The entity id.
+         */
+        UnitMessage(byte type, short entityId)
+        {
+            super(type, entityId);
+        }
+
+        @Override
+        protected void encode(ByteArrayOutputStream buffer, Action key) throws IOException
+        {
+            throw new IOException(ERROR_ENCODE);
+        }
+
+        @Override
+        protected void decode(DataInputStream buffer, int i) throws IOException
+        {
+            throw new IOException(ERROR_ENCODE);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageChat;
+import com.b3dgs.lionengine.network.message.NetworkMessageEntity;
+import com.b3dgs.lionengine.network.purview.NetworkableEntity;
+import com.b3dgs.lionengine.network.purview.NetworkableModel;
+
+/**
+ * Compare the received messages dispatch by entity id with the broadcast to all networkables.
+ * <p>
+ * Kept in the network package instead of the <code>it</code> one, as it feeds the package private
+ * {@link NetworkedWorldModel} with a {@link Networker} stub, so only the dispatch is measured.
+ * </p>
+ */
+public class NetworkedWorldDispatchIT
+{
+    /** Number of entities. */
+    private static final int ENTITIES = 1000;
+    /** Number of entity messages per tick. */
+    private static final int MESSAGES = 5000;
+    /** Number of chat messages per tick. */
+    private static final int CHATS = 10;
+    /** Number of warm up ticks. */
+    private static final int WARMUP = 50;
+    /** Number of measured ticks. */
+    private static final int TICKS = 50;
+    /** Not encoded error. */
+    private static final String ERROR_ENCODE = "Not sent through network !";
+    /** Entity message type. */
+    private static final byte TYPE = 1;
+
+    /**
+     * Create the received messages of a tick.
+     * 
+     * @return The messages.
+     */
+    private static List<NetworkMessage> createMessages()
+    {
+        final List<NetworkMessage> messages = new ArrayList<NetworkMessage>(MESSAGES + CHATS);
+        for (int i = 0; i < MESSAGES; i++)
+        {
+            final UnitMessage message = new UnitMessage((short) (i * 7 % ENTITIES));
+            message.addAction(Action.X, i);
+            messages.add(message);
+        }
+        for (int i = 0; i < CHATS; i++)
+        {
+            messages.add(new NetworkMessageChat(TYPE, (byte) 0, "chat" + i));
+        }
+        return messages;
+    }
+
+    /**
+     * Measure the receive time.
+     * 
+     * @param dispatch <code>true</code> to register entities with their id, <code>false</code> to broadcast.
+     * @return The average receive time per tick in milliseconds.
+     */
+    private static double measure(boolean dispatch)
+    {
+        final Receiver receiver = new Receiver(createMessages());
+        final NetworkedWorldModel<ClientListener, Receiver> world;
+        world = new NetworkedWorldModel<ClientListener, Receiver>(receiver)
+        {
+            @Override
+            protected void applyWorldMessage(NetworkMessage message)
+            {
+                // Nothing to do
+            }
+        };
+        final List<Unit> units = new ArrayList<Unit>(ENTITIES);
+        for (int i = 0; i < ENTITIES; i++)
+        {
+            final Unit unit;
+            if (dispatch)
+            {
+                unit = new IdentifiedUnit((short) i);
+            }
+            else
+            {
+                unit = new Unit((short) i);
+            }
+            units.add(unit);
+            world.addNetworkable(unit);
+        }
+        for (int i = 0; i < WARMUP; i++)
+        {
+            world.receiveMessages();
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < TICKS; i++)
+        {
+            world.receiveMessages();
+        }
+        final double elapsed = (System.nanoTime() - start) / 1E6 / TICKS;
+
+        final int ticks = WARMUP + TICKS;
+        int applied = 0;
+        for (final Unit unit : units)
+        {
+            applied += unit.applied;
+            Assert.assertEquals(CHATS * ticks, unit.chats);
+        }
+        Assert.assertEquals(MESSAGES * ticks, applied);
+        return elapsed;
+    }
+
+    /**
+     * Compare dispatch with broadcast.
+     */
+    @Test
+    public void testDispatch()
+    {
+        final double broadcast = measure(false);
+        final double dispatch = measure(true);
+        Verbose.info(String.format(Locale.ENGLISH,
+                                   "%d entities, %d messages/tick: broadcast %.3f ms/tick, dispatch %.3f ms/tick "
+                                                   + "(x%.1f)",
+                                   Integer.valueOf(ENTITIES),
+                                   Integer.valueOf(MESSAGES + CHATS),
+                                   Double.valueOf(broadcast),
+                                   Double.valueOf(dispatch),
+                                   Double.valueOf(broadcast / dispatch)));
+        Assert.assertTrue(dispatch < broadcast);
+    }
+
+    /**
+     * Networker providing the same received messages on each tick.
+     */
+    private static final class Receiver implements Networker<ClientListener>
+    {
+        /** Received messages. */
+        private final List<NetworkMessage> messages = new ArrayList<NetworkMessage>();
+        /** Messages of each tick. */
+        private final List<NetworkMessage> tick;
+
+        /**
+         * Create receiver.
+         * 
+         * @param tick The messages of each tick.
+         */
+        Receiver(List<NetworkMessage> tick)
+        {
+            this.tick = tick;
+        }
+
+        @Override
+        public void disconnect()
+        {
+            messages.clear();
+        }
+
+        @Override
+        public void addListener(ClientListener listener)
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public void removeListener(ClientListener listener)
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public void addMessage(NetworkMessage message)
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public void addMessages(Collection<NetworkMessage> messages)
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public Collection<NetworkMessage> getMessages()
+        {
+            return messages;
+        }
+
+        @Override
+        public void sendMessages()
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public void receiveMessages()
+        {
+            messages.clear();
+            messages.addAll(tick);
+        }
+
+        @Override
+        public int getBandwidth()
+        {
+            return 0;
+        }
+
+        @Override
+        public int getTickBytes()
+        {
+            return 0;
+        }
+
+        @Override
+        public int getTickPackets()
+        {
+            return 0;
+        }
+    }
+
+    /**
+     * Unit actions.
+     */
+    private enum Action
+    {
+        /** Horizontal location. */
+        X;
+    }
+
+    /**
+     * Unit location message.
+     */
+    private static final class UnitMessage extends NetworkMessageEntity<Action>
+    {
+        /**
+         * Create message.
+         * 
+         * @param entityId The entity id.
+         */
+        UnitMessage(short entityId)
+        {
+            super(TYPE, entityId);
+        }
+
+        @Override
+        protected void encode(ByteArrayOutputStream buffer, Action key) throws IOException
+        {
+            throw new IOException(ERROR_ENCODE);
+        }
+
+        @Override
+        protected void decode(DataInputStream buffer, int i) throws IOException
+        {
+            throw new IOException(ERROR_ENCODE);
+        }
+    }
+
+    /**
+     * Unit filtering its messages, as registered before dispatch.
+     */
+    private static class Unit extends NetworkableModel
+    {
+        /** Unit id. */
+        protected final short id;
+        /** Applied entity messages. */
+        private int applied;
+        /** Applied chat messages. */
+        private int chats;
+
+        /**
+         * Create unit.
+         * 
+         * @param id The unit id.
+         */
+        Unit(short id)
+        {
+            super();
+            this.id = id;
+        }
+
+        @Override
+        public void applyMessage(NetworkMessage message)
+        {
+            if (message instanceof UnitMessage)
+            {
+                if (((UnitMessage) message).getEntityId() == id)
+                {
+                    applied++;
+                }
+            }
+            else if (message instanceof NetworkMessageChat)
+            {
+                chats++;
+            }
+        }
+    }
+
+    /**
+     * Unit registered with its entity id.
+     */
+    private static final class IdentifiedUnit extends Unit implements NetworkableEntity
+    {
+        /**
+         * Create unit.
+         * 
+         * @param id The unit id.
+         */
+        IdentifiedUnit(short id)
+        {
+            super(id);
+        }
+
+        @Override
+        public short getEntityId()
+        {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageChat;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+
+/**
+ * Load test of the selector based server, with more connections than available client identifiers.
+ * <p>
+ * Kept in the network package instead of the <code>it</code> one, as it drives the package private {@link ServerNio}
+ * and {@link ClientNio} directly, to measure the transport alone.
+ * </p>
+ */
+public class ServerNioLoadIT
+{
+    /** Number of connecting clients. */
+    private static final int CLIENTS = 200;
+    /** Number of measured ticks. */
+    private static final int TICKS = 50;
+    /** Maximum number of ticks waiting for a state. */
+    private static final int TIMEOUT = 1000;
+    /** Chat message type. */
+    private static final byte TYPE = 0;
+    /** Message decoder. */
+    private static final NetworkMessageDecoder DECODER = new NetworkMessageDecoder()
+    {
+        @Override
+        public NetworkMessage getNetworkMessageFromType(int type)
+        {
+            return new NetworkMessageChat();
+        }
+    };
+
+    /**
+     * Receive and send messages for the server and the clients.
+     * 
+     * @param server The server reference.
+     * @param clients The clients reference.
+     * @return The number of messages received by clients.
+     */
+    private static int tick(ServerNio server, List<ClientNio> clients)
+    {
+        server.receiveMessages();
+        server.sendMessages();
+        int received = 0;
+        for (final ClientNio client : clients)
+        {
+            client.receiveMessages();
+            received += client.getMessages().size();
+            client.sendMessages();
+        }
+        return received;
+    }
+
+    /**
+     * Get the number of connected clients with a valid identifier.
+     * 
+     * @param clients The clients reference.
+     * @return The number of identified clients.
+     */
+    private static int countIdentified(List<ClientNio> clients)
+    {
+        int identified = 0;
+        for (final ClientNio client : clients)
+        {
+            if (client.isConnected() && client.getId() != -1)
+            {
+                identified++;
+            }
+        }
+        return identified;
+    }
+
+    /**
+     * Connect clients, then measure server tick latency and messages throughput.
+     */
+    @Test
+    public void testLoad()
+    {
+        Verbose.set(Verbose.CRITICAL);
+        final ServerNio server = new ServerNio(DECODER);
+        final List<ClientNio> clients = new ArrayList<ClientNio>();
+        try
+        {
+            server.start("load", 0);
+            for (int i = 0; i < CLIENTS; i++)
+            {
+                final ClientNio client = new ClientNio(DECODER);
+                client.setName("client" + i);
+                client.connect("127.0.0.1", server.getPort());
+                clients.add(client);
+                tick(server, clients);
+            }
+            final int expected = Math.min(CLIENTS, ServerNio.MAX_CLIENTS);
+            for (int i = 0; i < TIMEOUT && countIdentified(clients) < expected; i++)
+            {
+                tick(server, clients);
+            }
+            Assert.assertEquals(expected, server.getNumberOfClients());
+            Assert.assertEquals(expected, countIdentified(clients));
+
+            final List<ClientNio> connected = new ArrayList<ClientNio>();
+            for (final ClientNio client : clients)
+            {
+                if (client.isConnected())
+                {
+                    connected.add(client);
+                }
+            }
+            Assert.assertEquals(expected, connected.size());
+            tick(server, connected);
+
+            long received = 0L;
+            long maxLatency = 0L;
+            long serverTime = 0L;
+            final long start = System.nanoTime();
+            for (int i = 0; i < TICKS; i++)
+            {
+                for (final ClientNio client : connected)
+                {
+                    client.addMessage(new NetworkMessageChat(TYPE, client.getId(), "tick" + i));
+                    client.sendMessages();
+                }
+                final long tickStart = System.nanoTime();
+                server.receiveMessages();
+                server.sendMessages();
+                final long latency = System.nanoTime() - tickStart;
+                serverTime += latency;
+                maxLatency = Math.max(maxLatency, latency);
+                for (final ClientNio client : connected)
+                {
+                    client.receiveMessages();
+                    received += client.getMessages().size();
+                }
+            }
+            final long sent = (long) TICKS * expected * expected;
+            for (int i = 0; i < TIMEOUT && received < sent; i++)
+            {
+                received += tick(server, connected);
+            }
+            final double elapsed = (System.nanoTime() - start) / 1E9;
+            Assert.assertEquals(sent, received);
+
+            Verbose.set(Verbose.values());
+            Verbose.info(String.format(Locale.ENGLISH,
+                                       "%d connecting, %d connected, %d messages delivered at %.0f msg/s, "
+                                                       + "server tick avg %.2f ms, max %.2f ms",
+                                       Integer.valueOf(CLIENTS),
+                                       Integer.valueOf(expected),
+                                       Long.valueOf(received),
+                                       Double.valueOf(received / elapsed),
+                                       Double.valueOf(serverTime / 1E6 / TICKS),
+                                       Double.valueOf(maxLatency / 1E6)));
+        }
+        finally
+        {
+            Verbose.set(Verbose.CRITICAL);
+            for (final ClientNio client : clients)
+            {
+                client.disconnect();
+            }
+            server.disconnect();
+            Verbose.set(Verbose.values());
+        }
+    }
+}
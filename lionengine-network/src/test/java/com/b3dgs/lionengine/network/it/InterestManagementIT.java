@@ -0,0 +1,331 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.it;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.game.feature.transformable.Transformable;
+import com.b3dgs.lionengine.game.feature.transformable.TransformableModel;
+import com.b3dgs.lionengine.network.NetworkTransport;
+import com.b3dgs.lionengine.network.NetworkedWorldModelClient;
+import com.b3dgs.lionengine.network.NetworkedWorldModelServer;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+import com.b3dgs.lionengine.network.message.NetworkMessageEntity;
+import com.b3dgs.lionengine.network.purview.NetworkableModel;
+import com.b3dgs.lionengine.network.purview.Perceptible;
+import com.b3dgs.lionengine.util.UtilConversion;
+
+/**
+ * Check that interest management only sends the viewed entities messages, and compare the bandwidth with broadcast.
+ */
+public class InterestManagementIT
+{
+    /** Number of units. */
+    private static final int UNITS = 1000;
+    /** Units per row. */
+    private static final int COLUMNS = 50;
+    /** Units spacing. */
+    private static final int SPACING = 32;
+    /** Unit size. */
+    private static final int SIZE = 16;
+    /** Client view size. */
+    private static final int VIEW = 320;
+    /** Number of measured ticks. */
+    private static final int TICKS = 50;
+    /** Maximum number of ticks waiting for a state. */
+    private static final int TIMEOUT = 1000;
+    /** Server port. */
+    private static final int PORT = 17782;
+    /** Entity message type. */
+    private static final byte TYPE = 1;
+    /** Message decoder. */
+    private static final NetworkMessageDecoder DECODER = new NetworkMessageDecoder()
+    {
+        @Override
+        public NetworkMessage getNetworkMessageFromType(int type)
+        {
+            return new UnitMessage();
+        }
+    };
+
+    /**
+     * Create units.
+     * 
+     * @return The created units.
+     */
+    private static List<Unit> createUnits()
+    {
+        final List<Unit> units = new ArrayList<Unit>(UNITS);
+        for (int i = 0; i < UNITS; i++)
+        {
+            units.add(new Unit((short) i));
+        }
+        return units;
+    }
+
+    /**
+     * Run a tick.
+     * 
+     * @param server The server.
+     * @param client The client.
+     * @return The server sent bytes.
+     */
+    private static int tick(NetworkedWorldModelServer server, NetworkedWorldModelClient client)
+    {
+        server.receiveMessages();
+        server.sendMessages();
+        client.receiveMessages();
+        client.sendMessages();
+        return server.getTickBytes();
+    }
+
+    /**
+     * Check if unit is inside the client view.
+     * 
+     * @param unit The unit to check.
+     * @return <code>true</code> if inside, <code>false</code> else.
+     */
+    private static boolean isViewed(Unit unit)
+    {
+        final Transformable transformable = unit.getTransformable();
+        return transformable.getX() + SIZE >= 0
+               && transformable.getX() - SIZE <= VIEW
+               && transformable.getY() + SIZE >= 0
+               && transformable.getY() - SIZE <= VIEW;
+    }
+
+    /**
+     * Measure bandwidth, with or without interest management.
+     * 
+     * @param interest <code>true</code> to enable interest management, <code>false</code> to broadcast.
+     * @param view The view size sent by the client, capped by the server to {@link #VIEW}.
+     * @return The average server bytes per tick.
+     * @throws InterruptedException If interrupted.
+     */
+    private static double measure(boolean interest, int view) throws InterruptedException
+    {
+        final NetworkedWorldModelServer server = new NetworkedWorldModelServer(DECODER, NetworkTransport.FRAMED);
+        final NetworkedWorldModelClient client = new NetworkedWorldModelClient(DECODER, NetworkTransport.FRAMED);
+        final List<Unit> serverUnits = createUnits();
+        final List<Unit> clientUnits = createUnits();
+        for (int i = 0; i < UNITS; i++)
+        {
+            server.addNetworkable(serverUnits.get(i));
+            client.addNetworkable(clientUnits.get(i));
+        }
+        try
+        {
+            server.startServer("server", PORT, null);
+            if (interest)
+            {
+                server.setInterestManagement(VIEW, SIZE, VIEW);
+            }
+            client.setName("client");
+            client.connect("127.0.0.1", PORT);
+            for (int i = 0; i < TIMEOUT && client.getId() == -1; i++)
+            {
+                tick(server, client);
+                Thread.sleep(1L);
+            }
+            client.setView(0, 0, view, view);
+            tick(server, client);
+            tick(server, client);
+
+            long bytes = 0L;
+            for (int i = 0; i < TICKS; i++)
+            {
+                for (final Unit unit : serverUnits)
+                {
+                    unit.move();
+                }
+                bytes += tick(server, client);
+            }
+            for (int i = 0; i < TIMEOUT && clientUnits.get(0).received < TICKS; i++)
+            {
+                tick(server, client);
+                Thread.sleep(1L);
+            }
+            for (int i = 0; i < UNITS; i++)
+            {
+                final Unit unit = clientUnits.get(i);
+                if (!interest || isViewed(serverUnits.get(i)))
+                {
+                    Assert.assertEquals(TICKS, unit.received);
+                }
+                else
+                {
+                    Assert.assertEquals(0, unit.received);
+                }
+            }
+            return bytes / (double) TICKS;
+        }
+        finally
+        {
+            client.disconnect();
+            server.disconnect();
+        }
+    }
+
+    /**
+     * Compare broadcast with interest management.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testInterest() throws InterruptedException
+    {
+        final double broadcast = measure(false, VIEW);
+        final double interest = measure(true, VIEW);
+        Verbose.info(String.format(Locale.ENGLISH,
+                                   "%d units, view %dx%d: broadcast %.0f bytes/tick, interest %.0f bytes/tick (x%.2f)",
+                                   Integer.valueOf(UNITS),
+                                   Integer.valueOf(VIEW),
+                                   Integer.valueOf(VIEW),
+                                   Double.valueOf(broadcast),
+                                   Double.valueOf(interest),
+                                   Double.valueOf(broadcast / interest)));
+        Assert.assertTrue(interest < broadcast);
+    }
+
+    /**
+     * Check that an oversized client view is capped by the server.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testViewCapped() throws InterruptedException
+    {
+        measure(true, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Unit actions.
+     */
+    private enum Action
+    {
+        /** Horizontal location. */
+        X;
+    }
+
+    /**
+     * Unit location message.
+     */
+    private static final class UnitMessage extends NetworkMessageEntity<Action>
+    {
+        /** Actions. */
+        private static final Action[] ACTIONS = Action.values();
+
+        /**
+         * Create message for decoding.
+         */
+        UnitMessage()
+        {
+            super();
+        }
+
+        /**
+         * Create message for encoding.
+         * 
+         * @param entityId The entity id.
+         */
+        UnitMessage(short entityId)
+        {
+            super(TYPE, entityId);
+        }
+
+        @Override
+        protected void encode(ByteArrayOutputStream buffer, Action key) throws IOException
+        {
+            buffer.write(key.ordinal());
+            buffer.write(UtilConversion.shortToByteArray(getActionShort(key)));
+        }
+
+        @Override
+        protected void decode(DataInputStream buffer, int i) throws IOException
+        {
+            addAction(ACTIONS[buffer.readByte()], buffer.readShort());
+        }
+    }
+
+    /**
+     * Unit sending its location on each move, standing still on a grid.
+     */
+    private static final class Unit extends NetworkableModel implements Perceptible
+    {
+        /** Transformable. */
+        private final Transformable transformable = new TransformableModel();
+        /** Unit id. */
+        private final short id;
+        /** Received messages. */
+        private int received;
+
+        /**
+         * Create unit.
+         * 
+         * @param id The unit id.
+         */
+        Unit(short id)
+        {
+            super();
+            this.id = id;
+            transformable.setSize(SIZE, SIZE);
+            transformable.teleport(id % COLUMNS * SPACING, id / COLUMNS * SPACING);
+        }
+
+        /**
+         * Send the unit location.
+         */
+        void move()
+        {
+            final UnitMessage message = new UnitMessage(id);
+            message.addAction(Action.X, (short) transformable.getX());
+            addNetworkMessage(message);
+        }
+
+        @Override
+        public void applyMessage(NetworkMessage message)
+        {
+            if (message instanceof UnitMessage && ((UnitMessage) message).getEntityId() == id)
+            {
+                received++;
+            }
+        }
+
+        @Override
+        public short getEntityId()
+        {
+            return id;
+        }
+
+        @Override
+        public Transformable getTransformable()
+        {
+            return transformable;
+        }
+    }
+}
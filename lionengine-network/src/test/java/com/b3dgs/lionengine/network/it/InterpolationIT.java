@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.it;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Locale;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.game.Direction;
+import com.b3dgs.lionengine.game.Force;
+import com.b3dgs.lionengine.game.feature.transformable.Transformable;
+import com.b3dgs.lionengine.game.feature.transformable.TransformableModel;
+import com.b3dgs.lionengine.network.NetworkTransport;
+import com.b3dgs.lionengine.network.NetworkedWorldModelClient;
+import com.b3dgs.lionengine.network.NetworkedWorldModelServer;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+import com.b3dgs.lionengine.network.message.NetworkMessageEntity;
+import com.b3dgs.lionengine.network.purview.Interpolable;
+import com.b3dgs.lionengine.network.purview.NetworkableModel;
+import com.b3dgs.lionengine.network.purview.NetworkedInput;
+import com.b3dgs.lionengine.util.UtilConversion;
+
+/**
+ * Compare the rendered movement of a remote entity with and without interpolation, and check input prediction.
+ */
+public class InterpolationIT
+{
+    /** Ticks per second. */
+    private static final int RATE = 60;
+    /** Tick duration in milliseconds. */
+    private static final long TICK = 1000L / RATE;
+    /** Frames per tick. */
+    private static final int FRAMES = 4;
+    /** Ticks between two updates. */
+    private static final int UPDATE_PERIOD = 3;
+    /** Number of measured ticks. */
+    private static final int TICKS = 60;
+    /** Interpolation delay. */
+    private static final int DELAY = 100;
+    /** Unit speed per tick. */
+    private static final double SPEED = 2.0;
+    /** Maximum number of ticks waiting for a state. */
+    private static final int TIMEOUT = 1000;
+    /** Server port. */
+    private static final int PORT = 17783;
+    /** Entity message type. */
+    private static final byte TYPE = 1;
+    /** Message decoder. */
+    private static final NetworkMessageDecoder DECODER = new NetworkMessageDecoder()
+    {
+        @Override
+        public NetworkMessage getNetworkMessageFromType(int type)
+        {
+            return new UnitMessage();
+        }
+    };
+
+    /**
+     * Measure the maximum rendered step between two frames.
+     * 
+     * @param interpolation <code>true</code> to interpolate, <code>false</code> to apply updates.
+     * @return The maximum rendered step.
+     * @throws InterruptedException If interrupted.
+     */
+    private static double measure(boolean interpolation) throws InterruptedException
+    {
+        final NetworkedWorldModelServer server = new NetworkedWorldModelServer(DECODER, NetworkTransport.FRAMED);
+        final NetworkedWorldModelClient client = new NetworkedWorldModelClient(DECODER, NetworkTransport.FRAMED);
+        final Unit serverUnit = new Unit();
+        final Unit clientUnit = new Unit();
+        server.addNetworkable(serverUnit);
+        client.addNetworkable(clientUnit);
+        try
+        {
+            server.startServer("server", PORT, null);
+            client.setName("client");
+            client.connect("127.0.0.1", PORT);
+            for (int i = 0; i < TIMEOUT && client.getId() == -1; i++)
+            {
+                server.receiveMessages();
+                server.sendMessages();
+                client.receiveMessages();
+                client.sendMessages();
+                Thread.sleep(1L);
+            }
+            if (interpolation)
+            {
+                client.setInterpolation(DELAY, DELAY, RATE);
+            }
+            double max = 0.0;
+            double last = clientUnit.getTransformable().getX();
+            for (int i = 0; i < TICKS; i++)
+            {
+                serverUnit.move(i % UPDATE_PERIOD == 0);
+                server.receiveMessages();
+                server.sendMessages();
+                client.receiveMessages();
+                client.sendMessages();
+                for (int frame = 0; frame < FRAMES; frame++)
+                {
+                    client.interpolate();
+                    final double x = clientUnit.getTransformable().getX();
+                    if (i > DELAY / TICK + UPDATE_PERIOD)
+                    {
+                        max = Math.max(max, Math.abs(x - last));
+                    }
+                    last = x;
+                    Thread.sleep(TICK / FRAMES);
+                }
+            }
+            return max;
+        }
+        finally
+        {
+            client.disconnect();
+            server.disconnect();
+        }
+    }
+
+    /**
+     * Compare the rendered steps.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testInterpolation() throws InterruptedException
+    {
+        final double raw = measure(false);
+        final double interpolated = measure(true);
+        Verbose.info(String.format(Locale.ENGLISH,
+                                   "update every %d ticks, %d frames per tick: max step %.2f raw, %.2f interpolated",
+                                   Integer.valueOf(UPDATE_PERIOD),
+                                   Integer.valueOf(FRAMES),
+                                   Double.valueOf(raw),
+                                   Double.valueOf(interpolated)));
+        Assert.assertEquals(SPEED * UPDATE_PERIOD, raw, 0.001);
+        Assert.assertTrue(interpolated < raw);
+    }
+
+    /**
+     * Check that pending inputs are predicted again after reconciliation.
+     */
+    @Test
+    public void testPrediction()
+    {
+        final Input input = new Input();
+        for (int i = 0; i < 5; i++)
+        {
+            input.keyPressed(1, ' ');
+        }
+        Assert.assertEquals(5, input.x);
+        Assert.assertEquals(5, input.getPendingInputs());
+        Assert.assertEquals(5, input.getNetworkMessages().size());
+
+        input.x = 3;
+        input.reconcile(2);
+        Assert.assertEquals(5, input.x);
+        Assert.assertEquals(2, input.getPendingInputs());
+
+        input.x = 4;
+        input.reconcile(4);
+        Assert.assertEquals(4, input.x);
+        Assert.assertEquals(0, input.getPendingInputs());
+    }
+
+    /**
+     * Unit actions.
+     */
+    private enum Action
+    {
+        /** Horizontal location. */
+        X;
+    }
+
+    /**
+     * Unit location message.
+     */
+    private static final class UnitMessage extends NetworkMessageEntity<Action>
+    {
+        /** Actions. */
+        private static final Action[] ACTIONS = Action.values();
+
+        /**
+         * Create message for decoding.
+         */
+        UnitMessage()
+        {
+            super();
+        }
+
+        /**
+         * Create message for encoding.
+         * 
+         * @param entityId The entity id.
+         */
+        UnitMessage(short entityId)
+        {
+            super(TYPE, entityId);
+        }
+
+        @Override
+        protected void encode(ByteArrayOutputStream buffer, Action key) throws IOException
+        {
+            buffer.write(key.ordinal());
+            buffer.write(UtilConversion.intToByteArray(getActionInteger(key)));
+        }
+
+        @Override
+        protected void decode(DataInputStream buffer, int i) throws IOException
+        {
+            addAction(ACTIONS[buffer.readByte()], buffer.readInt());
+        }
+    }
+
+    /**
+     * Unit moving horizontally.
+     */
+    private static final class Unit extends NetworkableModel implements Interpolable
+    {
+        /** Transformable. */
+        private final Transformable transformable = new TransformableModel();
+        /** Velocity. */
+        private final Force force = new Force(SPEED, 0.0);
+
+        /**
+         * Create unit.
+         */
+        Unit()
+        {
+            super();
+        }
+
+        /**
+         * Move the unit.
+         * 
+         * @param send <code>true</code> to send the location, <code>false</code> else.
+         */
+        void move(boolean send)
+        {
+            transformable.moveLocation(1.0, force);
+            if (send)
+            {
+                final UnitMessage message = new UnitMessage(getEntityId());
+                message.addAction(Action.X, (int) transformable.getX());
+                addNetworkMessage(message);
+            }
+        }
+
+        @Override
+        public void applyMessage(NetworkMessage message)
+        {
+            if (message instanceof UnitMessage)
+            {
+                transformable.teleportX(((UnitMessage) message).getActionInteger(Action.X));
+            }
+        }
+
+        @Override
+        public short getEntityId()
+        {
+            return 0;
+        }
+
+        @Override
+        public Transformable getTransformable()
+        {
+            return transformable;
+        }
+
+        @Override
+        public Direction getVelocity()
+        {
+            return force;
+        }
+    }
+
+    /**
+     * Input moving a location, predicted locally.
+     */
+    private static final class Input extends NetworkedInput
+    {
+        /** Predicted location. */
+        private int x;
+
+        /**
+         * Create input.
+         */
+        Input()
+        {
+            super();
+        }
+
+        @Override
+        protected void sendKey(int code, boolean pressed)
+        {
+            final UnitMessage message = new UnitMessage((short) getInputSequence());
+            message.addAction(Action.X, code);
+            addNetworkMessage(message);
+        }
+
+        @Override
+        protected void predictKey(int code, boolean pressed)
+        {
+            x += code;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.it;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.NetworkTransport;
+import com.b3dgs.lionengine.network.NetworkedWorldModelClient;
+import com.b3dgs.lionengine.network.NetworkedWorldModelServer;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+import com.b3dgs.lionengine.network.message.NetworkMessageEntity;
+import com.b3dgs.lionengine.network.purview.NetworkableModel;
+import com.b3dgs.lionengine.network.purview.Replicable;
+import com.b3dgs.lionengine.util.UtilConversion;
+
+/**
+ * Compare the bandwidth of per action entity messages with delta compressed snapshots, for moving units.
+ */
+public class SnapshotReplicationIT
+{
+    /** Number of units. */
+    private static final int UNITS = 200;
+    /** Number of measured ticks. */
+    private static final int TICKS = 100;
+    /** Maximum number of ticks waiting for a state. */
+    private static final int TIMEOUT = 1000;
+    /** Server port. */
+    private static final int PORT = 17781;
+    /** Entity message type. */
+    private static final byte TYPE = 1;
+    /** Message decoder. */
+    private static final NetworkMessageDecoder DECODER = new NetworkMessageDecoder()
+    {
+        @Override
+        public NetworkMessage getNetworkMessageFromType(int type)
+        {
+            return new UnitMessage();
+        }
+    };
+
+    /**
+     * Create units.
+     * 
+     * @return The created units.
+     */
+    private static List<Unit> createUnits()
+    {
+        final List<Unit> units = new ArrayList<Unit>(UNITS);
+        for (int i = 0; i < UNITS; i++)
+        {
+            units.add(new Unit((short) i));
+        }
+        return units;
+    }
+
+    /**
+     * Run a tick.
+     * 
+     * @param server The server.
+     * @param client The client.
+     * @return The server sent bytes.
+     */
+    private static int tick(NetworkedWorldModelServer server, NetworkedWorldModelClient client)
+    {
+        server.receiveMessages();
+        server.sendMessages();
+        client.receiveMessages();
+        client.sendMessages();
+        return server.getTickBytes();
+    }
+
+    /**
+     * Check if client units are synchronized with server.
+     * 
+     * @param server The server units.
+     * @param client The client units.
+     * @return <code>true</code> if synchronized, <code>false</code> else.
+     */
+    private static boolean isSynchronized(List<Unit> server, List<Unit> client)
+    {
+        for (int i = 0; i < UNITS; i++)
+        {
+            if (server.get(i).x != client.get(i).x || server.get(i).y != client.get(i).y)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Measure bandwidth of a replication mode.
+     * 
+     * @param snapshot <code>true</code> for snapshots, <code>false</code> for per action messages.
+     * @return The average server bytes per tick.
+     * @throws InterruptedException If interrupted.
+     */
+    private static double measure(boolean snapshot) throws InterruptedException
+    {
+        final NetworkedWorldModelServer server = new NetworkedWorldModelServer(DECODER, NetworkTransport.FRAMED);
+        final NetworkedWorldModelClient client = new NetworkedWorldModelClient(DECODER, NetworkTransport.FRAMED);
+        final List<Unit> serverUnits = createUnits();
+        final List<Unit> clientUnits = createUnits();
+        for (int i = 0; i < UNITS; i++)
+        {
+            server.addNetworkable(serverUnits.get(i));
+            client.addNetworkable(clientUnits.get(i));
+        }
+        try
+        {
+            server.startServer("server", PORT, null);
+            client.setName("client");
+            client.connect("127.0.0.1", PORT);
+            for (int i = 0; i < TIMEOUT && client.getId() == -1; i++)
+            {
+                tick(server, client);
+                Thread.sleep(1L);
+            }
+            tick(server, client);
+            server.setSnapshotReplication(snapshot);
+
+            long bytes = 0L;
+            for (int i = 0; i < TICKS; i++)
+            {
+                for (final Unit unit : serverUnits)
+                {
+                    unit.move(i, snapshot);
+                }
+                bytes += tick(server, client);
+            }
+            for (int i = 0; i < TIMEOUT && !isSynchronized(serverUnits, clientUnits); i++)
+            {
+                tick(server, client);
+                Thread.sleep(1L);
+            }
+            Assert.assertTrue(isSynchronized(serverUnits, clientUnits));
+            return bytes / (double) TICKS;
+        }
+        finally
+        {
+            client.disconnect();
+            server.disconnect();
+        }
+    }
+
+    /**
+     * Compare per action messages with snapshots.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testBandwidth() throws InterruptedException
+    {
+        final double actions = measure(false);
+        final double snapshots = measure(true);
+        Verbose.info(String.format(Locale.ENGLISH,
+                                   "%d units, half moving: actions %.0f bytes/tick, snapshots %.0f bytes/tick (x%.2f)",
+                                   Integer.valueOf(UNITS),
+                                   Double.valueOf(actions),
+                                   Double.valueOf(snapshots),
+                                   Double.valueOf(actions / snapshots)));
+        Assert.assertTrue(snapshots < actions);
+    }
+
+    /**
+     * Unit actions.
+     */
+    private enum Action
+    {
+        /** Horizontal location. */
+        X,
+        /** Vertical location. */
+        Y;
+    }
+
+    /**
+     * Unit location message.
+     */
+    private static final class UnitMessage extends NetworkMessageEntity<Action>
+    {
+        /** Actions. */
+        private static final Action[] ACTIONS = Action.values();
+
+        /**
+         * Create message for decoding.
+         */
+        UnitMessage()
+        {
+            super();
+        }
+
+        /**
+         * Create message for encoding.
+         * 
+         * @param entityId The entity id.
+         */
+        UnitMessage(short entityId)
+        {
+            super(TYPE, entityId);
+        }
+
+        @Override
+        protected void encode(ByteArrayOutputStream buffer, Action key) throws IOException
+        {
+            buffer.write(key.ordinal());
+            buffer.write(UtilConversion.shortToByteArray(getActionShort(key)));
+        }
+
+        @Override
+        protected void decode(DataInputStream buffer, int i) throws IOException
+        {
+            addAction(ACTIONS[buffer.readByte()], buffer.readShort());
+        }
+    }
+
+    /**
+     * Unit replicating its location.
+     */
+    private static final class Unit extends NetworkableModel implements Replicable
+    {
+        /** Unit id. */
+        private final short id;
+        /** Horizontal location. */
+        private int x;
+        /** Vertical location. */
+        private int y;
+
+        /**
+         * Create unit.
+         * 
+         * @param id The unit id.
+         */
+        Unit(short id)
+        {
+            super();
+            this.id = id;
+            x = id * 10;
+            y = id;
+        }
+
+        /**
+         * Move half of the units, sending their location if not replicated by snapshot.
+         * 
+         * @param tick The current tick.
+         * @param snapshot <code>true</code> if replicated by snapshot.
+         */
+        void move(int tick, boolean snapshot)
+        {
+            if (id % 2 == 0)
+            {
+                x += 1 + tick % 3;
+                y -= 1;
+                if (!snapshot)
+                {
+                    final UnitMessage message = new UnitMessage(id);
+                    message.addAction(Action.X, (short) x);
+                    message.addAction(Action.Y, (short) y);
+                    addNetworkMessage(message);
+                }
+            }
+        }
+
+        @Override
+        public void applyMessage(NetworkMessage message)
+        {
+            if (message instanceof UnitMessage && ((UnitMessage) message).getEntityId() == id)
+            {
+                x = ((UnitMessage) message).getActionShort(Action.X);
+                y = ((UnitMessage) message).getActionShort(Action.Y);
+            }
+        }
+
+        @Override
+        public short getReplicationId()
+        {
+            return id;
+        }
+
+        @Override
+        public int getStateSize()
+        {
+            return 2;
+        }
+
+        @Override
+        public void writeState(int[] state)
+        {
+            state[0] = x;
+            state[1] = y;
+        }
+
+        @Override
+        public void readState(int[] state)
+        {
+            x = state[0];
+            y = state[1];
+        }
+    }
+}
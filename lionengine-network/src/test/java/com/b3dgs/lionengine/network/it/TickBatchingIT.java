@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.it;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.NetworkTransport;
+import com.b3dgs.lionengine.network.NetworkedWorldModelClient;
+import com.b3dgs.lionengine.network.NetworkedWorldModelServer;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+import com.b3dgs.lionengine.network.message.NetworkMessageEntity;
+import com.b3dgs.lionengine.network.purview.NetworkableEntity;
+import com.b3dgs.lionengine.network.purview.NetworkableModel;
+import com.b3dgs.lionengine.util.UtilConversion;
+
+/**
+ * Check that the messages of a tick are sent in one packet per client, and compare the bandwidth with and without
+ * coalescing the units updates.
+ */
+public class TickBatchingIT
+{
+    /** Number of units. */
+    private static final int UNITS = 100;
+    /** Number of updates per unit and tick. */
+    private static final int UPDATES = 4;
+    /** Number of measured ticks. */
+    private static final int TICKS = 50;
+    /** Maximum number of ticks waiting for a state. */
+    private static final int TIMEOUT = 1000;
+    /** Server port. */
+    private static final int PORT = 17784;
+    /** Entity message type. */
+    private static final byte TYPE = 1;
+    /** Message decoder. */
+    private static final NetworkMessageDecoder DECODER = new NetworkMessageDecoder()
+    {
+        @Override
+        public NetworkMessage getNetworkMessageFromType(int type)
+        {
+            return new UnitMessage();
+        }
+    };
+
+    /**
+     * Create units.
+     * 
+     * @return The created units.
+     */
+    private static List<Unit> createUnits()
+    {
+        final List<Unit> units = new ArrayList<Unit>(UNITS);
+        for (int i = 0; i < UNITS; i++)
+        {
+            units.add(new Unit((short) i));
+        }
+        return units;
+    }
+
+    /**
+     * Run a tick.
+     * 
+     * @param server The server.
+     * @param client The client.
+     */
+    private static void tick(NetworkedWorldModelServer server, NetworkedWorldModelClient client)
+    {
+        server.receiveMessages();
+        server.sendMessages();
+        client.receiveMessages();
+        client.sendMessages();
+    }
+
+    /**
+     * Measure bandwidth, with or without coalescing.
+     * 
+     * @param coalescing <code>true</code> to coalesce units updates, <code>false</code> to send all of them.
+     * @return The average server bytes per tick.
+     * @throws InterruptedException If interrupted.
+     */
+    private static double measure(boolean coalescing) throws InterruptedException
+    {
+        final NetworkedWorldModelServer server = new NetworkedWorldModelServer(DECODER, NetworkTransport.FRAMED);
+        final NetworkedWorldModelClient client = new NetworkedWorldModelClient(DECODER, NetworkTransport.FRAMED);
+        final List<Unit> serverUnits = createUnits();
+        final List<Unit> clientUnits = createUnits();
+        for (int i = 0; i < UNITS; i++)
+        {
+            server.addNetworkable(serverUnits.get(i));
+            client.addNetworkable(clientUnits.get(i));
+        }
+        server.setCoalescing(TYPE, coalescing);
+        try
+        {
+            server.startServer("server", PORT, null);
+            client.setName("client");
+            client.connect("127.0.0.1", PORT);
+            for (int i = 0; i < TIMEOUT && client.getId() == -1; i++)
+            {
+                tick(server, client);
+                Thread.sleep(1L);
+            }
+            tick(server, client);
+
+            long bytes = 0L;
+            for (int i = 0; i < TICKS; i++)
+            {
+                for (final Unit unit : serverUnits)
+                {
+                    unit.move();
+                }
+                tick(server, client);
+                Assert.assertEquals(1, server.getTickPackets());
+                Assert.assertTrue(server.getTickBytes() > 0);
+                bytes += server.getTickBytes();
+            }
+            final Unit last = clientUnits.get(UNITS - 1);
+            for (int i = 0; i < TIMEOUT && last.x != TICKS * UPDATES; i++)
+            {
+                tick(server, client);
+                Thread.sleep(1L);
+            }
+            for (final Unit unit : clientUnits)
+            {
+                Assert.assertEquals(TICKS * UPDATES, unit.x);
+            }
+            return bytes / (double) TICKS;
+        }
+        finally
+        {
+            client.disconnect();
+            server.disconnect();
+        }
+    }
+
+    /**
+     * Compare bandwidth with and without coalescing.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testCoalescing() throws InterruptedException
+    {
+        final double plain = measure(false);
+        final double coalesced = measure(true);
+        Verbose.info(String.format(Locale.ENGLISH,
+                                   "%d units, %d updates/tick: plain %.0f bytes/tick, coalesced %.0f bytes/tick "
+                                                   + "(x%.2f)",
+                                   Integer.valueOf(UNITS),
+                                   Integer.valueOf(UPDATES),
+                                   Double.valueOf(plain),
+                                   Double.valueOf(coalesced),
+                                   Double.valueOf(plain / coalesced)));
+        Assert.assertTrue(coalesced < plain);
+    }
+
+    /**
+     * Unit actions.
+     */
+    private enum Action
+    {
+        /** Horizontal location. */
+        X;
+    }
+
+    /**
+     * Unit location message.
+     */
+    private static final class UnitMessage extends NetworkMessageEntity<Action>
+    {
+        /** Actions. */
+        private static final Action[] ACTIONS = Action.values();
+
+        /**
+         * Create message for decoding.
+         */
+        UnitMessage()
+        {
+            super();
+        }
+
+        /**
+         * Create message for encoding.
+         * 
+         * @param entityId The entity id.
+         */
+        UnitMessage(short entityId)
+        {
+            super(TYPE, entityId);
+        }
+
+        @Override
+        protected void encode(ByteArrayOutputStream buffer, Action key) throws IOException
+        {
+            buffer.write(key.ordinal());
+            buffer.write(UtilConversion.shortToByteArray(getActionShort(key)));
+        }
+
+        @Override
+        protected void decode(DataInputStream buffer, int i) throws IOException
+        {
+            addAction(ACTIONS[buffer.readByte()], buffer.readShort());
+        }
+    }
+
+    /**
+     * Unit sending several location updates per tick.
+     */
+    private static final class Unit extends NetworkableModel implements NetworkableEntity
+    {
+        /** Unit id. */
+        private final short id;
+        /** Horizontal location. */
+        private int x;
+
+        /**
+         * Create unit.
+         * 
+         * @param id The unit id.
+         */
+        Unit(short id)
+        {
+            super();
+            this.id = id;
+        }
+
+        /**
+         * Move the unit, sending each step.
+         */
+        void move()
+        {
+            for (int i = 0; i < UPDATES; i++)
+            {
+                x++;
+                final UnitMessage message = new UnitMessage(id);
+                message.addAction(Action.X, (short) x);
+                addNetworkMessage(message);
+            }
+        }
+
+        @Override
+        public void applyMessage(NetworkMessage message)
+        {
+            if (message instanceof UnitMessage && ((UnitMessage) message).getEntityId() == id)
+            {
+                x = ((UnitMessage) message).getActionShort(Action.X);
+            }
+        }
+
+        @Override
+        public short getEntityId()
+        {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.message.it;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+import com.b3dgs.lionengine.network.message.NetworkMessageEntity;
+import com.b3dgs.lionengine.network.message.NetworkMessagePool;
+
+/**
+ * Benchmark the message encoding and decoding with streams, and with a reused buffer and pooled messages.
+ */
+public class NetworkMessageBenchmarkIT
+{
+    /** Number of measured messages. */
+    private static final int MESSAGES = 1000000;
+    /** Number of warm up messages. */
+    private static final int WARMUP = 200000;
+    /** Message type. */
+    private static final byte TYPE = 1;
+    /** Message header size. */
+    private static final int HEADER = 3;
+    /** Message decoder. */
+    private static final NetworkMessageDecoder DECODER = new NetworkMessageDecoder()
+    {
+        @Override
+        public NetworkMessage getNetworkMessageFromType(int type)
+        {
+            return new EntityMessage();
+        }
+    };
+
+    /**
+     * Create the message to encode.
+     * 
+     * @param i The message index.
+     * @return The message.
+     */
+    private static EntityMessage createMessage(int i)
+    {
+        final EntityMessage message = new EntityMessage(TYPE, (short) (i & Short.MAX_VALUE));
+        message.addAction(Action.X, (short) i);
+        message.addAction(Action.Y, (short) -i);
+        message.addAction(Action.SPEED, i * 0.5);
+        message.addAction(Action.MOVING, (i & 1) == 0);
+        return message;
+    }
+
+    /**
+     * Check the decoded message.
+     * 
+     * @param message The decoded message.
+     * @param i The message index.
+     */
+    private static void check(NetworkMessage message, int i)
+    {
+        final EntityMessage entity = (EntityMessage) message;
+        Assert.assertEquals((short) (i & Short.MAX_VALUE), entity.getEntityId());
+        Assert.assertEquals((short) i, entity.getActionShort(Action.X));
+        Assert.assertEquals((short) -i, entity.getActionShort(Action.Y));
+        Assert.assertEquals(i * 0.5, entity.getActionDouble(Action.SPEED), 0.0);
+        Assert.assertEquals((i & 1) == 0, entity.getActionBoolean(Action.MOVING));
+    }
+
+    /**
+     * Encode and decode with streams.
+     * 
+     * @param message The message to encode.
+     * @param count The number of encoding.
+     * @return The time per message in nano seconds.
+     * @throws IOException If error.
+     */
+    private static double measureStream(EntityMessage message, int count) throws IOException
+    {
+        final long start = System.nanoTime();
+        NetworkMessage decoded = null;
+        for (int i = 0; i < count; i++)
+        {
+            final byte[] data = message.encode().toByteArray();
+            final DataInputStream input = new DataInputStream(new ByteArrayInputStream(data,
+                                                                                       HEADER,
+                                                                                       data.length - HEADER));
+            decoded = DECODER.getNetworkMessageFromType(TYPE);
+            decoded.decode(TYPE, (byte) 0, (byte) -1, input);
+        }
+        final double time = (System.nanoTime() - start) / (double) count;
+        check(decoded, 42);
+        return time;
+    }
+
+    /**
+     * Encode and decode with a reused buffer and pooled messages.
+     * 
+     * @param message The message to encode.
+     * @param count The number of encoding.
+     * @return The time per message in nano seconds.
+     * @throws IOException If error.
+     */
+    private static double measureBuffer(EntityMessage message, int count) throws IOException
+    {
+        final NetworkMessagePool pool = new NetworkMessagePool(DECODER);
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        final long start = System.nanoTime();
+        for (int i = 0; i < count; i++)
+        {
+            buffer.clear();
+            message.write(buffer);
+            buffer.flip();
+            buffer.position(HEADER);
+            final NetworkMessage decoded = pool.getNetworkMessageFromType(TYPE);
+            decoded.read(TYPE, (byte) 0, (byte) -1, buffer);
+            pool.release(decoded);
+        }
+        final double time = (System.nanoTime() - start) / (double) count;
+        final NetworkMessage decoded = pool.getNetworkMessageFromType(TYPE);
+        Assert.assertEquals(0, pool.getSize(TYPE));
+        check(decoded, 42);
+        return time;
+    }
+
+    /**
+     * Benchmark the encoding and decoding.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testBenchmark() throws IOException
+    {
+        final EntityMessage message = createMessage(42);
+        measureStream(message, WARMUP);
+        measureBuffer(message, WARMUP);
+
+        final double stream = measureStream(message, MESSAGES);
+        final double buffer = measureBuffer(message, MESSAGES);
+        Verbose.info(String.format(Locale.ENGLISH,
+                                   "%d messages encoded and decoded: stream %.0f ns, buffer %.0f ns (x%.2f)",
+                                   Integer.valueOf(MESSAGES),
+                                   Double.valueOf(stream),
+                                   Double.valueOf(buffer),
+                                   Double.valueOf(stream / buffer)));
+    }
+
+    /**
+     * Entity actions.
+     */
+    private enum Action
+    {
+        /** Horizontal location. */
+        X,
+        /** Vertical location. */
+        Y,
+        /** Speed. */
+        SPEED,
+        /** Moving flag. */
+        MOVING;
+    }
+
+    /**
+     * Entity message, encoding with streams and buffers.
+     */
+    private static final class EntityMessage extends NetworkMessageEntity<Action>
+    {
+        /** Actions. */
+        private static final Action[] ACTIONS = Action.values();
+
+        /**
+         * Create message for decoding.
+         */
+        EntityMessage()
+        {
+            super();
+        }
+
+        /**
+         * Create message for encoding.
+         * 
+         * @param type The message type.
+         * @param entityId The entity id.
+         */
+        EntityMessage(byte type, short entityId)
+        {
+            super(type, entityId);
+        }
+
+        @Override
+        protected void encode(ByteArrayOutputStream buffer, Action key) throws IOException
+        {
+            buffer.write(key.ordinal());
+            switch (key)
+            {
+                case X:
+                case Y:
+                    final short value = getActionShort(key);
+                    buffer.write(value >> 8);
+                    buffer.write(value);
+                    break;
+                case SPEED:
+                    final long bits = Double.doubleToRawLongBits(getActionDouble(key));
+                    for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE)
+                    {
+                        buffer.write((int) (bits >> shift));
+                    }
+                    break;
+                case MOVING:
+                    buffer.write(getActionBoolean(key) ? 1 : 0);
+                    break;
+                default:
+                    throw new IOException(key.name());
+            }
+        }
+
+        @Override
+        protected void decode(DataInputStream buffer, int i) throws IOException
+        {
+            final Action key = ACTIONS[buffer.readByte()];
+            switch (key)
+            {
+                case X:
+                case Y:
+                    addAction(key, buffer.readShort());
+                    break;
+                case SPEED:
+                    addAction(key, buffer.readDouble());
+                    break;
+                case MOVING:
+                    addAction(key, buffer.readBoolean());
+                    break;
+                default:
+                    throw new IOException(key.name());
+            }
+        }
+
+        @Override
+        protected void encode(ByteBuffer buffer, Action key) throws IOException
+        {
+            buffer.put((byte) key.ordinal());
+            switch (key)
+            {
+                case X:
+                case Y:
+                    buffer.putShort(getActionShort(key));
+                    break;
+                case SPEED:
+                    buffer.putDouble(getActionDouble(key));
+                    break;
+                case MOVING:
+                    buffer.put(getActionBoolean(key) ? (byte) 1 : (byte) 0);
+                    break;
+                default:
+                    throw new IOException(key.name());
+            }
+        }
+
+        @Override
+        protected void decode(ByteBuffer buffer, int i) throws IOException
+        {
+            final Action key = ACTIONS[buffer.get()];
+            switch (key)
+            {
+                case X:
+                case Y:
+                    addAction(key, buffer.getShort());
+                    break;
+                case SPEED:
+                    addAction(key, buffer.getDouble());
+                    break;
+                case MOVING:
+                    addAction(key, buffer.get() != 0);
+                    break;
+                default:
+                    throw new IOException(key.name());
+            }
+        }
+    }
+}